@@ -25,6 +25,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.write.writer.TsFileOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,7 @@ public class HDFSOutput implements TsFileOutput {
   private FileSystem fs;
   private Path path;
   private static final Logger logger = LoggerFactory.getLogger(HDFSOutput.class);
+  private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
 
   public HDFSOutput(String filePath, boolean overwrite) throws IOException {
     this(filePath, new Configuration(), overwrite);
@@ -69,6 +71,23 @@ public class HDFSOutput implements TsFileOutput {
     throw new UnsupportedOperationException("Unsupported operation.");
   }
 
+  @Override
+  public void transferFrom(TsFileInput input, long position, long count) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, TRANSFER_BUFFER_SIZE));
+    while (count > 0) {
+      buffer.clear();
+      buffer.limit((int) Math.min(count, buffer.capacity()));
+      int read = input.read(buffer, position);
+      if (read <= 0) {
+        throw new IOException(String.format("reach the end of the input, %d bytes left at %d",
+            count, position));
+      }
+      fsDataOutputStream.write(buffer.array(), 0, read);
+      position += read;
+      count -= read;
+    }
+  }
+
   @Override
   public long getPosition() throws IOException {
     return fsDataOutputStream.getPos();
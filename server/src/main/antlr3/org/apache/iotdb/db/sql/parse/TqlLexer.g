@@ -281,6 +281,14 @@ K_UNSET
     : U N S E T
     ;
 
+K_EXPLAIN
+    : E X P L A I N
+    ;
+
+K_ANALYZE
+    : A N A L Y Z E
+    ;
+
 //************** logical operator***********
 OPERATOR_AND
     : A N D
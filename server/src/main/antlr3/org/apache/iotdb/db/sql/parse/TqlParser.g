@@ -106,6 +106,7 @@ tokens{
     TOK_TTL;
     TOK_UNSET;
     TOK_SHOW;
+    TOK_EXPLAIN_ANALYZE;
     TOK_DATE_EXPR;
     TOK_DURATION;
 }
@@ -174,6 +175,8 @@ static {
 	tokenNameMap.put("K_LIST", "LIST");
 	tokenNameMap.put("K_TTL", "TTL");
 	tokenNameMap.put("K_UNSET", "UNSET");
+	tokenNameMap.put("K_EXPLAIN", "EXPLAIN");
+	tokenNameMap.put("K_ANALYZE", "ANALYZE");
 	// Operators
 	tokenNameMap.put("DOT", ".");
 	tokenNameMap.put("COLON", ":");
@@ -281,6 +284,7 @@ sqlStatement
 
 dmlStatement
     : selectStatement
+    | explainStatement
     | insertStatement
     | updateStatement
     | deleteStatement
@@ -374,6 +378,11 @@ selectStatement
     -> ^(TOK_QUERY selectElements fromClause whereClause? specialClause?)
     ;
 
+explainStatement
+    : K_EXPLAIN K_ANALYZE selectStatement
+    -> ^(TOK_EXPLAIN_ANALYZE selectStatement)
+    ;
+
 insertStatement
     : K_INSERT K_INTO timeseriesPath insertColumnSpec K_VALUES insertValuesSpec
     -> ^(TOK_INSERT timeseriesPath insertColumnSpec insertValuesSpec)
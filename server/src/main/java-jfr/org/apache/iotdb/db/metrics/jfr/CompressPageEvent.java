@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.apache.iotdb.CompressPage")
+@Label("Compress Page")
+@Category({"IoTDB", "Compress"})
+@Description("Pages sampled into one page by a compress task")
+class CompressPageEvent extends Event {
+
+  @Label("Task")
+  String task;
+
+  @Label("Pages In")
+  int pagesIn;
+
+  @Label("Points In")
+  int pointsIn;
+
+  @Label("Points Out")
+  int pointsOut;
+
+  @Label("Ratio")
+  double ratio;
+
+  static void emit(String taskName, int pagesIn, int pointsIn, int pointsOut) {
+    CompressPageEvent event = new CompressPageEvent();
+    if (event.isEnabled()) {
+      event.task = taskName;
+      event.pagesIn = pagesIn;
+      event.pointsIn = pointsIn;
+      event.pointsOut = pointsOut;
+      event.ratio = pointsOut == 0 ? 0 : (double) pointsIn / pointsOut;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.jfr;
+
+import org.apache.iotdb.db.metrics.source.Stage;
+
+/**
+ * FlightRecorderEvents emits the events through the event classes of jdk.jfr. It is created by
+ * {@link JfrEvents} by reflection, as it does not exist in a build on Java 8.
+ */
+public class FlightRecorderEvents extends JfrEvents {
+
+  public FlightRecorderEvents() {
+    // created by JfrEvents by reflection
+  }
+
+  @Override
+  void emitStage(Stage stage, long latencyInNano) {
+    StageEvent.emit(stage, latencyInNano);
+  }
+
+  @Override
+  void emitCompressPage(String taskName, int pagesIn, int pointsIn, int pointsOut) {
+    CompressPageEvent.emit(taskName, pagesIn, pointsIn, pointsOut);
+  }
+
+  @Override
+  void emitCacheMiss(String cacheName, String key) {
+    CacheMissEvent.emit(cacheName, key);
+  }
+}
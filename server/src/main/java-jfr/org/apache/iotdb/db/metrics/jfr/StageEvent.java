@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import org.apache.iotdb.db.metrics.source.Stage;
+
+@Name("org.apache.iotdb.Stage")
+@Label("Stage")
+@Category({"IoTDB", "Engine"})
+@Description("Latency of a flush, WAL, merge, compress or query stage")
+class StageEvent extends Event {
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Latency")
+  @Timespan(Timespan.NANOSECONDS)
+  long latency;
+
+  static void emit(Stage stage, long latencyInNano) {
+    StageEvent event = new StageEvent();
+    if (event.isEnabled()) {
+      event.stage = stage.getName();
+      event.latency = latencyInNano;
+      event.commit();
+    }
+  }
+}
@@ -36,6 +36,7 @@ import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.resourceRelated.CachedUnseqResourceMergeReader;
+import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
@@ -58,6 +59,7 @@ public class CompressResource {
       CompressResource.class);
 
   private List<TsFileResource> seqFiles;
+  private List<TsFileResource> unseqFiles = new ArrayList<>();
 
   private Map<TsFileResource, TsFileSequenceReader> fileReaderCache = new HashMap<>();
   private Map<TsFileResource, RestorableTsFileIOWriter> fileWriterCache = new HashMap<>();
@@ -75,6 +77,42 @@ public class CompressResource {
     logger.info("seqFiles的个数为{}, 检测过后CompressResource file 的个数为={}，",seqFiles.size(),  this.seqFiles.size());
   }
 
+  /**
+   * Besides the seqFiles, choose the unseqFiles whose data of every device lies inside the time
+   * range of the chosen seqFiles, so their points can be merged while the seqFiles are compressed.
+   */
+  public CompressResource(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
+      long timeHigherBound) {
+    this(seqFiles, timeHigherBound);
+    this.unseqFiles = unseqFiles.stream().filter(this::isCoveredBySeqFiles)
+        .collect(Collectors.toList());
+    logger.info("unseqFiles的个数为{}, 被seqFiles覆盖的unseqFile个数为={}", unseqFiles.size(),
+        this.unseqFiles.size());
+  }
+
+  private boolean isCoveredBySeqFiles(TsFileResource res) {
+    if (!res.isClosed() || res.isDeleted() || res.isMerging() || res.isCompressing()
+        || res.getStartTimeMap().isEmpty()) {
+      return false;
+    }
+    for (Entry<String, Long> deviceStartTime : res.getStartTimeMap().entrySet()) {
+      String deviceId = deviceStartTime.getKey();
+      Long endTime = res.getEndTimeMap().get(deviceId);
+      long seqStartTime = Long.MAX_VALUE;
+      long seqEndTime = Long.MIN_VALUE;
+      for (TsFileResource seqFile : seqFiles) {
+        seqStartTime = Math.min(seqStartTime,
+            seqFile.getStartTimeMap().getOrDefault(deviceId, Long.MAX_VALUE));
+        seqEndTime = Math.max(seqEndTime,
+            seqFile.getEndTimeMap().getOrDefault(deviceId, Long.MIN_VALUE));
+      }
+      if (endTime == null || deviceStartTime.getValue() < seqStartTime || endTime > seqEndTime) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private boolean filterResource(TsFileResource res) {
     logger.info("file {}:res.isClosed() ={},res.isDeleted()={},res.stillLives(timeHigherBound)={}.",
         res.getFile().getAbsolutePath(),res.isClosed() ,res.isDeleted() ,res.stillLives(timeHigherBound));
@@ -193,20 +231,34 @@ public class CompressResource {
   }
 
   /**
-   * Construct UnseqResourceMergeReaders of for each timeseries over all seqFiles. The readers are
-   * not cached since the method is only called once for each timeseries.
-   * @param paths names of the timeseries
-   * @return an array of UnseqResourceMergeReaders each corresponding to a timeseries in paths
+   * Construct an UnseqResourceMergeReader of a timeseries over all unseqFiles, the modifications
+   * of the unseqFiles are applied. The reader is not cached since the method is only called once
+   * for each timeseries.
+   * @param path name of the timeseries
+   * @return the reader, or null if the unseqFiles contain no data of the timeseries
    * @throws IOException
    */
-  public IPointReader[] getUnseqReaders(List<Path> paths) throws IOException {
-    List<Chunk>[] pathChunks = null;//MergeUtils.collectUnseqChunks(paths, unseqFiles);
-    IPointReader[] ret = new IPointReader[paths.size()];
-    for (int i = 0; i < paths.size(); i++) {
-      TSDataType dataType = getSchema(paths.get(i).getMeasurement()).getType();
-      ret[i] = new CachedUnseqResourceMergeReader(pathChunks[i], dataType);
+  public IPointReader getUnseqReader(Path path) throws IOException {
+    List<Chunk> chunks = new ArrayList<>();
+    for (TsFileResource unseqFile : unseqFiles) {
+      TsFileSequenceReader reader = getFileReader(unseqFile);
+      List<ChunkMetaData> chunkMetaDataList = reader.getChunkMetadataList(path);
+      if (chunkMetaDataList.isEmpty()) {
+        continue;
+      }
+      List<Modification> pathModifications = getModifications(unseqFile, path);
+      if (!pathModifications.isEmpty()) {
+        QueryUtils.modifyChunkMetaData(chunkMetaDataList, pathModifications);
+      }
+      for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+        chunks.add(reader.readMemChunk(chunkMetaData));
+      }
+    }
+    if (chunks.isEmpty()) {
+      return null;
     }
-    return ret;
+    TSDataType dataType = getSchema(path.getMeasurement()).getType();
+    return new CachedUnseqResourceMergeReader(chunks, dataType);
   }
 
   /**
@@ -274,13 +326,21 @@ public class CompressResource {
     this.seqFiles = seqFiles;
   }
 
+  public List<TsFileResource> getUnseqFiles() {
+    return unseqFiles;
+  }
+
+  public void setUnseqFiles(List<TsFileResource> unseqFiles) {
+    this.unseqFiles = unseqFiles;
+  }
+
   public void removeOutdatedSeqReaders() throws IOException {
     Iterator<Entry<TsFileResource, TsFileSequenceReader>> entryIterator =
         fileReaderCache.entrySet().iterator();
     while (entryIterator.hasNext()) {
       Entry<TsFileResource, TsFileSequenceReader> entry = entryIterator.next();
       TsFileResource tsFile = entry.getKey();
-      if (!seqFiles.contains(tsFile)) {
+      if (!seqFiles.contains(tsFile) && !unseqFiles.contains(tsFile)) {
         TsFileSequenceReader reader = entry.getValue();
         reader.close();
         entryIterator.remove();
@@ -34,7 +34,10 @@ public interface CompressCallback {
    *    3. remove the merge log file
    *    4. exit merging status
    * @param seqFiles
+   * @param unseqFiles unseqFiles whose points are all merged into the compressed files, empty if
+   *                   some of their points are not merged
    * @param isDeleteUncompressFiles
    */
-  void call(List<TsFileResource> seqFiles, boolean isDeleteUncompressFiles, File logFile);
+  void call(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
+      boolean isDeleteUncompressFiles, File logFile);
 }
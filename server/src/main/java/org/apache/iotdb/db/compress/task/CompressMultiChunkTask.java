@@ -21,6 +21,8 @@ package org.apache.iotdb.db.compress.task;
 
 import static org.apache.iotdb.db.compress.task.CompressTask.COMPRESS_SUFFIX;
 import static org.apache.iotdb.db.engine.storagegroup.TsFileResource.RESOURCE_SUFFIX;
+import static org.apache.iotdb.db.utils.MergeUtils.writeBatchPoint;
+import static org.apache.iotdb.db.utils.MergeUtils.writeTVPair;
 import static org.apache.iotdb.db.utils.QueryUtils.modifyChunkMetaData;
 import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
 
@@ -35,6 +37,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.compress.controll.DownSampleImpl;
 import org.apache.iotdb.db.compress.controll.SampleEntropy;
@@ -54,7 +57,12 @@ import org.apache.iotdb.db.exception.path.PathException;
 import org.apache.iotdb.db.exception.storageGroup.StorageGroupException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.metadata.MNode;
+import org.apache.iotdb.db.metrics.source.StageCounter;
+import org.apache.iotdb.db.metrics.jfr.JfrEvents;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
+import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.utils.MergeUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -122,6 +130,17 @@ public class CompressMultiChunkTask {
    */
   private List<TsFileResource> toBeDeletedFile = new ArrayList<>();
 
+  /**
+   * 每个series在unseqFiles中的数据, 在压缩seqFile的同时合并进去. null表示没有或已合并完
+   */
+  private Map<Path, IPointReader> unseqReaders = new HashMap<>();
+
+  /**
+   * set if a compressed file failed to replace its seqFiles, the unseq points merged into it are
+   * then not visible and the unseqFiles must be kept.
+   */
+  private boolean replaceFailed = false;
+
   int CachedChunkNum = IoTDBDescriptor.getInstance().getConfig().getChunkQueueCapacity();
 
   public CompressMultiChunkTask(MergeContext context, String taskName, MergeLogger mergeLogger,
@@ -158,6 +177,8 @@ public class CompressMultiChunkTask {
       List<List<Path>> devicePaths = MergeUtils.splitPathsByDevice(unmergedSeries);
       if (compressFileWriter == null) {
         compressFileWriter = new RestorableTsFileIOWriter(getNextMergeVersionFile(currTsFile.getFile()));
+        compressFileWriter.enableMetadataSpill(
+            IoTDBDescriptor.getInstance().getConfig().getCompressChunkMetadataInMemory());
         Map<String, Long> startTimeMap = new ConcurrentHashMap<>(currTsFile.getStartTimeMap());
         Map<String, Long> endTimeMap = new ConcurrentHashMap<>(currTsFile.getEndTimeMap());
         compressFileWriterResource = new TsFileResource(compressFileWriter.getFile(), startTimeMap,
@@ -250,6 +271,7 @@ public class CompressMultiChunkTask {
       else {
         // TsFile 达到规定size, 封口新写的压缩后文件， // 删掉现在的文件+notify delete;
         compressFileWriter.endFile(new Schema(compressFileWriter.getKnownSchema()));
+        compressFileWriterResource.setBloomFilter(compressFileWriter.getBloomFilter());
         compressFileWriterResource.setActualPageNum(compressFileWriter.getActualPageNum());
         compressFileWriterResource.setVirtualPageNum(compressFileWriter.getVirtuaPageNum());
         compressFileWriterResource.serialize();
@@ -302,6 +324,7 @@ public class CompressMultiChunkTask {
       else {
         // TsFile 达到规定size, 封口新写的压缩后文件， // 删掉现在的文件+notify delete;
         compressFileWriter.endFile(new Schema(compressFileWriter.getKnownSchema()));
+        compressFileWriterResource.setBloomFilter(compressFileWriter.getBloomFilter());
         compressFileWriterResource.setActualPageNum(compressFileWriter.getActualPageNum());
         compressFileWriterResource.setVirtualPageNum(compressFileWriter.getVirtuaPageNum());
         compressFileWriterResource.serialize();
@@ -322,7 +345,8 @@ public class CompressMultiChunkTask {
 
     }
     catch (StorageEngineException e) {
-      e.printStackTrace();
+      replaceFailed = true;
+      logger.error("{} cannot replace {} with the compressed file", taskName, toBeDeletedFile, e);
     }
 
     for (TsFileResource seqFile : toBeDeletedFile) {
@@ -346,6 +370,7 @@ public class CompressMultiChunkTask {
         toBeDeletedFile.toString(), compressFileWriter.getFile().getAbsolutePath());
 
     compressFileWriter.endFile(new Schema(compressFileWriter.getKnownSchema()));
+    compressFileWriterResource.setBloomFilter(compressFileWriter.getBloomFilter());
     compressFileWriterResource.setActualPageNum(compressFileWriter.getActualPageNum());
     compressFileWriterResource.setVirtualPageNum(compressFileWriter.getVirtuaPageNum());
     compressFileWriterResource.serialize();
@@ -407,13 +432,28 @@ public class CompressMultiChunkTask {
       seqChunkMeta[i] = resource.queryChunkMetadata(currMergingPaths.get(i), currTsFile);
       modifyChunkMetaData(seqChunkMeta[i], modifications[i]);
     }
+    // unseq points of a series are carried over the seqFiles until the device end time of a
+    // seqFile covers them
+    IPointReader[] seriesUnseqReaders = new IPointReader[currMergingPaths.size()];
+    if (!resource.getUnseqFiles().isEmpty()) {
+      for (int i = 0; i < currMergingPaths.size(); i++) {
+        Path path = currMergingPaths.get(i);
+        if (!unseqReaders.containsKey(path)) {
+          unseqReaders.put(path, resource.getUnseqReader(path));
+        }
+        seriesUnseqReaders[i] = unseqReaders.get(path);
+      }
+    }
+    long deviceEndTime = currTsFile.getEndTimeMap()
+        .getOrDefault(currMergingPaths.get(0).getDevice(), Long.MIN_VALUE);
 
 
     List<Future> futures = new ArrayList<>();
     for (int i = 0; i < currMergingPaths.size(); i++) {
       int finalI = i;
       futures.add(CompressManager.getINSTANCE().submitChunkSubTask(() -> {
-        compressOneSeriesInOneTsFile(finalI, seqChunkMeta[finalI], currTsFile, compressFileWriter);
+        compressOneSeriesInOneTsFile(finalI, seqChunkMeta[finalI], currTsFile, compressFileWriter,
+            seriesUnseqReaders[finalI], deviceEndTime);
         return null;
       }));
     }
@@ -424,92 +464,81 @@ public class CompressMultiChunkTask {
         throw new IOException(e);
       }
     }
+    for (int i = 0; i < currMergingPaths.size(); i++) {
+      if (seriesUnseqReaders[i] != null && !seriesUnseqReaders[i].hasNext()) {
+        // release the cached points, the key is kept so the reader is not built again
+        seriesUnseqReaders[i].close();
+        unseqReaders.put(currMergingPaths.get(i), null);
+      }
+    }
 
     //mergeLogger.logFilePosition(compressFileWriter.getFile());
     logger.info("Task:{}, end compress {} series in tsfile {}", taskName, currMergingPaths.size(), currTsFile.getFile().getAbsolutePath());
 
   }
 
+  /**
+   * TEXT and BOOLEAN chunks are not sampled, so they are copied into the compress file as raw bytes
+   * without being read into memory, unless unseq points overlap them.
+   */
   private void handleNonNumberSeries(List<ChunkMetaData> seqChunkMeta, TsFileResource currTsFile,
-      RestorableTsFileIOWriter mergeFileWriter, MeasurementSchema measurementSchema)
-      throws IOException {
-    LinkedBlockingQueue<Object> chunkQueue = new LinkedBlockingQueue<>(CachedChunkNum);
+      RestorableTsFileIOWriter mergeFileWriter, MeasurementSchema measurementSchema,
+      ChunkWriterImpl chunkWriter, IPointReader unseqReader) throws IOException {
     TsFileSequenceReader reader = resource.getFileReader(currTsFile);
-    logger.debug("Task:{}, start read chunk for {} series in tsfile {}", taskName,
-        currMergingPaths.size(), reader.getFileName());
-    Future<Integer> chunkReadTask = CompressManager.getINSTANCE().submitReadChunkTask(() -> {
-      long st = System.currentTimeMillis();
-      int cnt = 0;
-      try {
-        for (ChunkMetaData currMeta : seqChunkMeta) {
-          synchronized (reader) {
-            try {
-//            long st1 = System.currentTimeMillis();
-//            logger.debug("start read {} cnunk in file {}, task {} in {}ms", cnt, reader.getFileName(), taskName, st1);
-              chunkQueue.put(new Pair<>(reader.readMemChunk(currMeta), currMeta));
-//            logger.debug("end read {} cnunk in file {}, task {} cost {}ms", cnt, reader.getFileName(), taskName, (System.currentTimeMillis()-st1));
-              cnt++;
-            } catch (IOException e) {
-              e.printStackTrace();
-            }
-          }
+    long st = System.currentTimeMillis();
+    int writedChunkNum = 0;
+    try {
+      for (ChunkMetaData chunkMetaData : seqChunkMeta) {
+        if (hasUnseqPoint(unseqReader, chunkMetaData.getEndTime())) {
+          writeChunkWithUnseq(null, chunkMetaData, reader, unseqReader, chunkWriter,
+              mergeFileWriter);
+          writedChunkNum++;
+          continue;
         }
-      } catch (InterruptedException e) {
-        e.printStackTrace();
-      }
-      finally {
-        chunkQueue.put(FINISH_READ_CHUNK_IN_ONE_TSFILE);
-        logger.info("[COMPRESS] task {} file {}, read all {} chunks cost {} ms, chunk queue size {}, chunk meta size {}",
-            taskName, reader.getFileName(), cnt, (System.currentTimeMillis()-st), chunkQueue.size(), seqChunkMeta.size());
-        return cnt;
-      }
-    });
-
-
-      long st = System.currentTimeMillis();
-      int writedChunkNum = 0;
-      try {
-        while (true) {
-          if(chunkQueue.isEmpty()&&(chunkReadTask.isDone() || chunkReadTask.isCancelled())){
-            break;
-          }
-          Object blockItem = chunkQueue.take();
-          if (blockItem instanceof String && blockItem.equals(FINISH_READ_CHUNK_IN_ONE_TSFILE)) {
-            break;
-          }
-
-          synchronized (mergeFileWriter){
-            ChunkMetaData chunkMetaData = ((Pair<Chunk, ChunkMetaData>) blockItem).right;
-            mergeFileWriter.writeChunk(((Pair<Chunk, ChunkMetaData>) blockItem).left, chunkMetaData);
-            writedChunkNum++;
-            mergeContext.incTotalChunkWritten();
-            mergeContext.incTotalPointWritten(chunkMetaData.getNumOfPoints());
+        synchronized (mergeFileWriter) {
+          synchronized (reader) {
+            mergeFileWriter.writeChunk(reader, chunkMetaData);
           }
+          writedChunkNum++;
+          mergeContext.incTotalChunkWritten();
+          mergeContext.incTotalPointWritten(chunkMetaData.getNumOfPoints());
         }
-      } catch (InterruptedException e) {
-        e.printStackTrace();
-      } finally {
-        logger.info("[COMPRESS] task {} file {}, write all {} {} non-number-chunks, cost {} ms", taskName,
-            reader.getFileName(), writedChunkNum, measurementSchema.getMeasurementId(),(System.currentTimeMillis() - st));
-
       }
+    } finally {
+      logger.debug("[COMPRESS] task {} file {}, write all {} {} non-number-chunks, cost {} ms", taskName,
+          reader.getFileName(), writedChunkNum, measurementSchema.getMeasurementId(),(System.currentTimeMillis() - st));
+    }
   }
 
+  /**
+   * @param unseqReader unseq points of the series, the ones not later than deviceEndTime are
+   * merged into this seqFile
+   */
   private void compressOneSeriesInOneTsFile(int pathIdx, List<ChunkMetaData> seqChunkMeta, TsFileResource currTsFile,
-      RestorableTsFileIOWriter mergeFileWriter)
+      RestorableTsFileIOWriter mergeFileWriter, IPointReader unseqReader, long deviceEndTime)
       throws IOException, StorageGroupException, PathException {
+    Path currPath=currMergingPaths.get(pathIdx);
+    if (hasUnseqPoint(unseqReader, deviceEndTime)) {
+      // the points may fall into the gap before this seqFile
+      long unseqStartTime = unseqReader.current().getTimestamp();
+      synchronized (compressFileWriterResource) {
+        compressFileWriterResource.updateStartTime(currPath.getDevice(), unseqStartTime);
+      }
+    }
+    MeasurementSchema measurementSchema = resource.getSchema(currPath.getMeasurement());
+    ChunkWriterImpl chunkWriter = resource.getChunkWriter(measurementSchema);
     if(seqChunkMeta== null || seqChunkMeta.isEmpty()){
+      writeUnseqTail(unseqReader, deviceEndTime, chunkWriter, mergeFileWriter);
       return;
     }
 
     currPageNum.set(0);
     currPagePointNum.set(0);
     currCompressRatioSum.set(0);
-    Path currPath=currMergingPaths.get(pathIdx);
-    MeasurementSchema measurementSchema = resource.getSchema(currPath.getMeasurement());
-    ChunkWriterImpl chunkWriter = resource.getChunkWriter(measurementSchema);
     if(measurementSchema.getType().equals(TSDataType.TEXT) || measurementSchema.getType().equals(TSDataType.BOOLEAN)){
-      handleNonNumberSeries(seqChunkMeta, currTsFile, mergeFileWriter, measurementSchema);
+      handleNonNumberSeries(seqChunkMeta, currTsFile, mergeFileWriter, measurementSchema,
+          chunkWriter, unseqReader);
+      writeUnseqTail(unseqReader, deviceEndTime, chunkWriter, mergeFileWriter);
       return;
     }
 
@@ -517,6 +546,8 @@ public class CompressMultiChunkTask {
 
     LinkedBlockingQueue<Object> chunkQueue = new LinkedBlockingQueue<>(CachedChunkNum);
     TsFileSequenceReader reader = resource.getFileReader(currTsFile);
+    // set when sampling ends, the remaining chunks are then copied as raw bytes and need not be read
+    AtomicBoolean samplingEnded = new AtomicBoolean(false);
     logger.debug("Task:{}, start read chunk for {} series in tsfile {}", taskName,
         currMergingPaths.size(), reader.getFileName());
     Future<Integer> chunkReadTask = CompressManager.getINSTANCE().submitReadChunkTask(() -> {
@@ -524,6 +555,10 @@ public class CompressMultiChunkTask {
       int cnt = 0;
       try {
         for (ChunkMetaData currMeta : seqChunkMeta) {
+          if (samplingEnded.get()) {
+            chunkQueue.put(new Pair<Chunk, ChunkMetaData>(null, currMeta));
+            continue;
+          }
           synchronized (reader) {
             try {
 //            long st1 = System.currentTimeMillis();
@@ -541,7 +576,7 @@ public class CompressMultiChunkTask {
       }
       finally {
         chunkQueue.put(FINISH_READ_CHUNK_IN_ONE_TSFILE);
-        logger.info("[COMPRESS] task {} file {}, read all {} chunks cost {} ms, chunk queue size {}, chunk meta size {}",
+        logger.debug("[COMPRESS] task {} file {}, read all {} chunks cost {} ms, chunk queue size {}, chunk meta size {}",
             taskName, reader.getFileName(), cnt, (System.currentTimeMillis()-st), chunkQueue.size(), seqChunkMeta.size());
         return cnt;
       }
@@ -557,6 +592,7 @@ public class CompressMultiChunkTask {
       try {
         while (true) {
           if (seriesMappingIdx.get(currPath) >= pageMapping.size() || currPageDiffNum.get(currPath) >= tarDiffPageNum) {
+            samplingEnded.set(true);
             break;
           }
           if(chunkQueue.isEmpty()&&(chunkReadTask.isDone() || chunkReadTask.isCancelled())){
@@ -582,7 +618,7 @@ public class CompressMultiChunkTask {
         e.printStackTrace();
       } finally {
         pageQueue.put(FINISH_DECODING_CHUNK_IN_ONE_TSFILE);
-        logger.info("[COMPRESS] task {} file {}, decoding all {} chunks cost {} ms, pageQueue size {}", taskName,
+        logger.debug("[COMPRESS] task {} file {}, decoding all {} chunks cost {} ms, pageQueue size {}", taskName,
             reader.getFileName(), writedChunkNum, (System.currentTimeMillis() - st), pageQueue.size());
         return writeEndFlag;
       }
@@ -606,7 +642,7 @@ public class CompressMultiChunkTask {
       }
 
       try {
-        mergePageV2((PageObject) pageItem, pathIdx, prePoints, chunkWriter);
+        mergePageV2((PageObject) pageItem, pathIdx, prePoints, chunkWriter, unseqReader);
       } catch (StorageGroupException e) {
         e.printStackTrace();
       } catch (PathException e) {
@@ -629,8 +665,12 @@ public class CompressMultiChunkTask {
       writeEndFlag = true;
       e.printStackTrace();
     }
-    logger.info("[COMPRESS] task {} file {}, write all {} pages cost {} ms", taskName, reader.getFileName(), writedPageNum,(System.currentTimeMillis()-st));
+    logger.debug("[COMPRESS] task {} file {}, write all {} pages cost {} ms", taskName, reader.getFileName(), writedPageNum,(System.currentTimeMillis()-st));
 
+    if (writeEndFlag && prePoints[0] != null && prePoints[0].length() > 0) {
+      // all chunks are decoded, so the last unseq points are sampled with the last page
+      prePoints[0] = mergeUnseqPoints(prePoints[0], unseqReader, deviceEndTime);
+    }
     if(prePoints[0] != null && prePoints[0].length()>0){
       boolean isFirstPage = seriesMappingIdx.get(currPath).intValue()==0;
       compressWriteOnePage(prePoints[0], chunkWriter, currPagePointNum.get(), isFirstPage, pathIdx);
@@ -644,7 +684,7 @@ public class CompressMultiChunkTask {
       chunkWriter.writeToFileWriter(mergeFileWriter);
     }
 
-    logger.info("[COMPRESS] task {} file {}, start writing left chunks.", taskName, reader.getFileName());
+    logger.debug("[COMPRESS] task {} file {}, start writing left chunks.", taskName, reader.getFileName());
     int cnt = 0;
     while (!writeEndFlag || !chunkQueue.isEmpty()){
       Object blockItem = null;
@@ -663,8 +703,21 @@ public class CompressMultiChunkTask {
         break;
       }
 
+      Pair<Chunk, ChunkMetaData> chunkItem = (Pair<Chunk, ChunkMetaData>) blockItem;
+      if (hasUnseqPoint(unseqReader, chunkItem.right.getEndTime())) {
+        writeChunkWithUnseq(chunkItem.left, chunkItem.right, reader, unseqReader, chunkWriter,
+            mergeFileWriter);
+        cnt++;
+        continue;
+      }
       synchronized (mergeFileWriter){
-        mergeFileWriter.writeChunk(((Pair<Chunk, ChunkMetaData>) blockItem).left, ((Pair<Chunk, ChunkMetaData>) blockItem).right);
+        if (chunkItem.left == null) {
+          synchronized (reader) {
+            mergeFileWriter.writeChunk(reader, chunkItem.right);
+          }
+        } else {
+          mergeFileWriter.writeChunk(chunkItem.left, chunkItem.right);
+        }
         cnt++;
         mergeContext.incTotalChunkWritten();
         mergeContext.incTotalPointWritten(((Pair<Chunk, ChunkMetaData>) blockItem).right.getNumOfPoints());
@@ -700,7 +753,113 @@ public class CompressMultiChunkTask {
 //
 //    }
     logger.info("[COMPRESS] task {} file {}, write left {} chunks.", taskName, reader.getFileName(), cnt);
+    writeUnseqTail(unseqReader, deviceEndTime, chunkWriter, mergeFileWriter);
+  }
 
+  private static boolean hasUnseqPoint(IPointReader unseqReader, long timeBound)
+      throws IOException {
+    return unseqReader != null && unseqReader.hasNext()
+        && unseqReader.current().getTimestamp() <= timeBound;
+  }
+
+  /**
+   * merge the unseq points not later than timeBound into a page, an unseq point overwrites the
+   * seq point of the same timestamp.
+   */
+  static BatchData mergeUnseqPoints(BatchData batchData, IPointReader unseqReader,
+      long timeBound) throws IOException {
+    if (!hasUnseqPoint(unseqReader, timeBound)) {
+      return batchData;
+    }
+    BatchData merged = new BatchData(batchData.getDataType(), true);
+    for (int i = 0; i < batchData.length(); i++) {
+      long time = batchData.getTimeByIndex(i);
+      boolean overwritten = false;
+      while (hasUnseqPoint(unseqReader, time)) {
+        TimeValuePair timeValuePair = unseqReader.next();
+        merged.putTime(timeValuePair.getTimestamp());
+        merged.putAnObject(timeValuePair.getValue().getValue());
+        overwritten = timeValuePair.getTimestamp() == time;
+      }
+      if (!overwritten) {
+        merged.putTime(time);
+        merged.putAnObject(batchData.getValueByIndex(i));
+      }
+    }
+    while (hasUnseqPoint(unseqReader, timeBound)) {
+      TimeValuePair timeValuePair = unseqReader.next();
+      merged.putTime(timeValuePair.getTimestamp());
+      merged.putAnObject(timeValuePair.getValue().getValue());
+    }
+    return merged;
+  }
+
+  /**
+   * rewrite a chunk overlapped by unseq points point by point, the chunk is not sampled.
+   *
+   * @param chunk the chunk, or null if it has not been read yet
+   */
+  private void writeChunkWithUnseq(Chunk chunk, ChunkMetaData chunkMetaData,
+      TsFileSequenceReader reader, IPointReader unseqReader, ChunkWriterImpl chunkWriter,
+      RestorableTsFileIOWriter mergeFileWriter) throws IOException {
+    if (chunk == null) {
+      synchronized (reader) {
+        chunk = reader.readMemChunk(chunkMetaData);
+      }
+    }
+    ChunkReader chunkReader = new ChunkReaderWithoutFilter(chunk);
+    while (chunkReader.hasNextBatch()) {
+      BatchData batchData = chunkReader.nextBatch();
+      if (batchData.length() == 0) {
+        continue;
+      }
+      batchData = mergeUnseqPoints(batchData, unseqReader,
+          batchData.getTimeByIndex(batchData.length() - 1));
+      for (int i = 0; i < batchData.length(); i++) {
+        writeBatchPoint(batchData, i, chunkWriter);
+      }
+      mergeContext.incTotalPointWritten(batchData.length());
+    }
+    synchronized (mergeFileWriter) {
+      chunkWriter.writeToFileWriter(mergeFileWriter);
+    }
+    mergeContext.incTotalChunkWritten();
+  }
+
+  /**
+   * write the unseq points left after the last chunk of the series in this seqFile.
+   */
+  void writeUnseqTail(IPointReader unseqReader, long timeBound,
+      ChunkWriterImpl chunkWriter, RestorableTsFileIOWriter mergeFileWriter) throws IOException {
+    if (!hasUnseqPoint(unseqReader, timeBound)) {
+      return;
+    }
+    int ptWritten = 0;
+    while (hasUnseqPoint(unseqReader, timeBound)) {
+      writeTVPair(unseqReader.next(), chunkWriter);
+      ptWritten++;
+    }
+    synchronized (mergeFileWriter) {
+      chunkWriter.writeToFileWriter(mergeFileWriter);
+    }
+    mergeContext.incTotalChunkWritten();
+    mergeContext.incTotalPointWritten(ptWritten);
+  }
+
+  /**
+   * @return true if all points of the unseqFiles have been merged into the compressed files and
+   * every compressed file has replaced its seqFiles
+   */
+  public boolean isUnseqFilesMerged() throws IOException {
+    if (replaceFailed) {
+      return false;
+    }
+    for (IPointReader unseqReader : unseqReaders.values()) {
+      if (unseqReader != null && unseqReader.hasNext()) {
+        return false;
+      }
+    }
+    return true;
   }
 
   class PageObject{
@@ -714,11 +873,16 @@ public class CompressMultiChunkTask {
   }
 
   private void mergePageV2(PageObject pageObject, int pathIdx, BatchData[] prePoints,
-      ChunkWriterImpl chunkWriter) throws StorageGroupException, PathException {
+      ChunkWriterImpl chunkWriter, IPointReader unseqReader)
+      throws StorageGroupException, PathException, IOException {
     Path currPath = currMergingPaths.get(pathIdx);
 
     PageHeader pageHeader = pageObject.pageHeader;
     BatchData batchData = pageObject.batchData;
+    if (batchData.length() > 0) {
+      batchData = mergeUnseqPoints(batchData, unseqReader,
+          batchData.getTimeByIndex(batchData.length() - 1));
+    }
     mergeContext.incTotalPointWritten(batchData.length());
     currCompressRatioSum.set(currCompressRatioSum.get() + pageHeader.getCompressRatio());
     currPageNum.set(1 + currPageNum.get());
@@ -759,6 +923,7 @@ public class CompressMultiChunkTask {
   private int compressWriteOnePage(BatchData batchData, ChunkWriterImpl chunkWriter, int pageNum, boolean isFirstPage, int pathIdx)
       throws StorageGroupException, PathException {
 
+    int pointsIn = batchData.length();
     int targetPointNum = batchData.length()/currPageNum.get();
     if(IoTDBDescriptor.getInstance().getConfig().isRemoveAdjacentReaptedPoint()){
       batchData = removeAdjointReapedValue(batchData);
@@ -766,6 +931,9 @@ public class CompressMultiChunkTask {
     BatchData sampledPoints=new DownSampleImpl().sample(batchData, targetPointNum);
 
     chunkWriter.writePage(sampledPoints, sampledPoints.length(), batchData.length());
+    StageMetrics.getInstance().count(StageCounter.COMPRESS_SAMPLED_PAGES, 1);
+    StageMetrics.getInstance().count(StageCounter.COMPRESS_SAMPLED_POINTS, sampledPoints.length());
+    JfrEvents.compressPage(taskName, currPageNum.get(), pointsIn, sampledPoints.length());
 
     if(IoTDBDescriptor.getInstance().getConfig().isCalculateSampleEntropy()){
       handleSampleEntropy(batchData, sampledPoints, pageNum, isFirstPage, pathIdx);
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.compress.task;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import org.apache.iotdb.db.compress.controll.StrategyWraper;
@@ -33,6 +34,8 @@ import org.apache.iotdb.db.compress.manage.CompressResource;
 import org.apache.iotdb.db.compress.manage.MergeContext;
 import org.apache.iotdb.db.compress.recover.MergeLogger;
 import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.Pair;
@@ -46,6 +49,11 @@ import org.slf4j.LoggerFactory;
  *        2. move the merged chunks in the temp files back to the seqFiles or move the unmerged
  *        chunks in the seqFiles into temp files and replace the seqFiles with the temp files.
  *        3. remove unseqFiles
+ * The points of the unseqFiles in the resource are merged into the pages of the seqFiles before
+ * they are sampled, so the data is read and written only once. The unseqFiles are removed only if
+ * all their points are merged, after every compressed file has replaced its seqFiles. The
+ * unseqFiles are not logged: if the task is interrupted they are still in place, and their points
+ * already written into a compressed file are only read twice.
  */
 public class CompressTask implements Callable<Void> {
 
@@ -60,6 +68,7 @@ public class CompressTask implements Callable<Void> {
   MergeContext mergeContext = new MergeContext();
 
   private CompressCallback callback;
+  private List<TsFileResource> mergedUnseqFiles = Collections.emptyList();
   int concurrentMergeSeriesNum;
   String taskName;
 
@@ -75,6 +84,7 @@ public class CompressTask implements Callable<Void> {
 
   @Override
   public Void call() throws Exception {
+    long startTime = System.nanoTime();
     try  {
       doCompress();
     } catch (Exception e) {
@@ -83,17 +93,21 @@ public class CompressTask implements Callable<Void> {
       cleanUp(false);
       // call the callback to make sure the StorageGroup exit merging status, but passing 2
       // empty file lists to avoid files being deleted.
-      callback.call(resource.getSeqFiles(), false, new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME));
+      callback.call(resource.getSeqFiles(), Collections.emptyList(), false,
+          new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME));
       throw e;
     }
+    StageMetrics.getInstance().record(Stage.COMPRESS, startTime);
     return null;
   }
 
   private void doCompress() throws IOException, MetadataException {
 
-    logger.info("{} starts to compress {} seqFiles", taskName, resource.getSeqFiles().size());
+    logger.info("{} starts to compress {} seqFiles, {} unseqFiles", taskName,
+        resource.getSeqFiles().size(), resource.getUnseqFiles().size());
     long startTime = System.currentTimeMillis();
-    long totalFileSize = MergeUtils.collectFileSizes(resource.getSeqFiles());
+    long totalFileSize = MergeUtils.collectFileSizes(resource.getSeqFiles(),
+        resource.getUnseqFiles());
     Pair<Integer, Integer> actualVirtualPageNum = MergeUtils.collectActualVirtualPageNumPair(resource.getSeqFiles());
     int actualPageNum = actualVirtualPageNum.left;
     int virtualPageNum = actualVirtualPageNum.right;
@@ -124,6 +138,12 @@ public class CompressTask implements Callable<Void> {
     CompressMultiChunkTask mergeChunkTask = new CompressMultiChunkTask(mergeContext, taskName, mergeLogger, resource,
          unmergedSeries, concurrentMergeSeriesNum, ans, (actualPageNum-targetPageNum)/unmergedSeries.size());
     mergeChunkTask.compressSeries(true);
+    if (mergeChunkTask.isUnseqFilesMerged()) {
+      mergedUnseqFiles = resource.getUnseqFiles();
+    } else {
+      logger.info("{} not all points of {} unseqFiles are merged, they are kept", taskName,
+          resource.getUnseqFiles().size());
+    }
 //    mergeChunkTask.mergeSeries();
 //
 //    CompressFileTask compressFileTask = new CompressFileTask(taskName, mergeContext, mergeLogger, resource,
@@ -161,12 +181,19 @@ public class CompressTask implements Callable<Void> {
       mergeFile.delete();
       seqFile.setCompressing(false);
     }
+    for (TsFileResource unseqFile : resource.getUnseqFiles()) {
+      // merged unseqFiles stay compressing until the callback removes them, so that no merge
+      // selects them in between
+      if (!mergedUnseqFiles.contains(unseqFile)) {
+        unseqFile.setCompressing(false);
+      }
+    }
 
 
     File logFile = new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME);
     if (executeCallback) {
       // compressEndAction(): set isCompressing status and handle modify file.
-     callback.call(resource.getSeqFiles(), true, logFile);
+     callback.call(resource.getSeqFiles(), mergedUnseqFiles, true, logFile);
     } else {
       logFile.delete();
     }
@@ -31,9 +31,11 @@ public enum ThreadName {
   MEMORY_STATISTICS("IoTDB-MemStatistic-Thread"),
   FLUSH_PARTIAL_POLICY("IoTDB-FlushPartialPolicy-Thread"),
   FORCE_FLUSH_ALL_POLICY("IoTDB-ForceFlushAllPolicy-Thread"),
+  MEMTABLE_CONTROL("IoTDB-MemTableControl-Thread"),
   STAT_MONITOR("StatMonitor-ServerServiceImpl"),
   FLUSH_SERVICE("Flush-ServerServiceImpl"),
   FLUSH_SUB_TASK_SERVICE("Flush-SubTask-ServerServiceImpl"),
+  INSERT_SERVICE("Insert-ServerServiceImpl"),
   WAL_DAEMON("IoTDB-MultiFileLogNodeManager-Sync-Thread"),
   WAL_FORCE_DAEMON("IoTDB-MultiFileLogNodeManager-Force-Thread"),
   INDEX_SERVICE("Index-ServerServiceImpl"),
@@ -41,6 +43,7 @@ public enum ThreadName {
   SYNC_SERVER("Sync-Server"),
   SYNC_MONITOR("Sync-Monitor"),
   LOAD_TSFILE("Load TsFile"),
+  SYNC_LOAD_WORKER("Sync-Load-Worker"),
   TIME_COST_STATSTIC("TIME_COST_STATSTIC");
 
   private String name;
@@ -82,6 +82,23 @@ public class IoTDBConfig {
    */
   private boolean enableParameterAdapter = true;
 
+  /**
+   * Is the adaptive memtable controller enable. It shrinks memtables and flushes the coldest
+   * storage groups early under heap pressure or when the memtable pool is about to be exhausted.
+   */
+  private boolean enableAdaptiveMemtable = true;
+
+  /**
+   * When the tenured heap still occupied after a GC exceeds this ratio of its max size, memtables
+   * are shrunk and flushed early.
+   */
+  private double memtableHeapPressureThreshold = 0.8;
+
+  /**
+   * The interval (in ms) that the adaptive memtable controller checks the memory pressure.
+   */
+  private long memtableControlIntervalInMs = 1000;
+
   /**
    * Is the write ahead log enable.
    */
@@ -167,6 +184,24 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many series of one flushing memtable can be sorted and encoded concurrently. When <= 0,
+   * use CPU core number.
+   */
+  private int flushEncodingParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many threads can concurrently apply the batches of one multi-device insertion, each
+   * thread handles the batches of some storage groups. When <= 0, use CPU core number.
+   */
+  private int concurrentInsertThread = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many shard locks a storage group uses, so that insertions of devices in different shards
+   * are applied in parallel. When <= 0, use CPU core number.
+   */
+  private int insertShardNum = Runtime.getRuntime().availableProcessors();
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -217,6 +252,13 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 400000;
 
+  /**
+   * A binary snapshot of the metadata tree is taken after this number of operations are appended
+   * to the metadata log, so that a restart only replays the log written after the last snapshot.
+   * Non-positive values disable snapshots.
+   */
+  private int mtreeSnapshotInterval = 100000;
+
   /**
    * Is external sort enable.
    */
@@ -236,6 +278,11 @@ public class IoTDBConfig {
    * If this IoTDB instance is a receiver of sync, set the server port.
    */
   private int syncServerPort = 5555;
+  /**
+   * How many threads can concurrently load received tsfiles of different storage groups. The
+   * default value is the number of CPU cores.
+   */
+  private int syncLoadThreadNum = Runtime.getRuntime().availableProcessors();
   /**
    * Set the language version when loading file including error information, default value is "EN"
    */
@@ -263,7 +310,7 @@ public class IoTDBConfig {
   private long performanceStatDisplayInterval = 60000;
 
   /**
-   * The memory used for stat performance.
+   * The memory used for stat performance. Not used any more, Measurement keeps fixed-size counters.
    */
   private int performanceStatMemoryInKB = 20;
   /**
@@ -351,6 +398,12 @@ public class IoTDBConfig {
    */
   private int mergeChunkSubThreadNum = 4;
 
+  /**
+   * When a storage group has this many adjacent closed unseq files of the same merge version, they
+   * are merged into one unseq file without touching the seq files. Non-positive values disable it.
+   */
+  private int unseqCompactionFileNumThreshold = 20;
+
   /**
    * If one merge file selection runs for more than this time, it will be ended and its current
    * selection will be used as final selection. Unit: millis. When < 0, it means time is unbounded.
@@ -517,6 +570,14 @@ public class IoTDBConfig {
 
   private int chunkQueueCapacity = 50;
 
+  // max number of chunk metadata a compress file writer holds in memory, the rest are spilled
+  // to a temp file. Non-positive values keep all of them in memory.
+  private int compressChunkMetadataInMemory = 100000;
+
+  // whether a compress task also folds the unseq files that lie entirely inside the time range of
+  // its seq files, so that those points are merged and downsampled in the same pass.
+  private boolean enableCompressUnseqMerge = false;
+
   private String windowEstimationMethod = "time_ratio";
 
   private boolean enableRecoverRangeQuery = false;
@@ -757,6 +818,30 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getFlushEncodingParallelism() {
+    return flushEncodingParallelism;
+  }
+
+  public void setFlushEncodingParallelism(int flushEncodingParallelism) {
+    this.flushEncodingParallelism = flushEncodingParallelism;
+  }
+
+  public int getConcurrentInsertThread() {
+    return concurrentInsertThread;
+  }
+
+  void setConcurrentInsertThread(int concurrentInsertThread) {
+    this.concurrentInsertThread = concurrentInsertThread;
+  }
+
+  public int getInsertShardNum() {
+    return insertShardNum;
+  }
+
+  void setInsertShardNum(int insertShardNum) {
+    this.insertShardNum = insertShardNum;
+  }
+
   void setZoneID(ZoneId zoneID) {
     this.zoneID = zoneID;
   }
@@ -817,6 +902,14 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getMtreeSnapshotInterval() {
+    return mtreeSnapshotInterval;
+  }
+
+  public void setMtreeSnapshotInterval(int mtreeSnapshotInterval) {
+    this.mtreeSnapshotInterval = mtreeSnapshotInterval;
+  }
+
   public boolean isSyncEnable() {
     return isSyncEnable;
   }
@@ -833,6 +926,14 @@ public class IoTDBConfig {
     this.syncServerPort = syncServerPort;
   }
 
+  public int getSyncLoadThreadNum() {
+    return syncLoadThreadNum;
+  }
+
+  void setSyncLoadThreadNum(int syncLoadThreadNum) {
+    this.syncLoadThreadNum = syncLoadThreadNum;
+  }
+
   public String getLanguageVersion() {
     return languageVersion;
   }
@@ -937,6 +1038,30 @@ public class IoTDBConfig {
     this.enableParameterAdapter = enableParameterAdapter;
   }
 
+  public boolean isEnableAdaptiveMemtable() {
+    return enableAdaptiveMemtable;
+  }
+
+  public void setEnableAdaptiveMemtable(boolean enableAdaptiveMemtable) {
+    this.enableAdaptiveMemtable = enableAdaptiveMemtable;
+  }
+
+  public double getMemtableHeapPressureThreshold() {
+    return memtableHeapPressureThreshold;
+  }
+
+  void setMemtableHeapPressureThreshold(double memtableHeapPressureThreshold) {
+    this.memtableHeapPressureThreshold = memtableHeapPressureThreshold;
+  }
+
+  public long getMemtableControlIntervalInMs() {
+    return memtableControlIntervalInMs;
+  }
+
+  void setMemtableControlIntervalInMs(long memtableControlIntervalInMs) {
+    this.memtableControlIntervalInMs = memtableControlIntervalInMs;
+  }
+
   public long getAllocateMemoryForWrite() {
     return allocateMemoryForWrite;
   }
@@ -1034,6 +1159,14 @@ public class IoTDBConfig {
     this.mergeChunkSubThreadNum = mergeChunkSubThreadNum;
   }
 
+  public int getUnseqCompactionFileNumThreshold() {
+    return unseqCompactionFileNumThreshold;
+  }
+
+  public void setUnseqCompactionFileNumThreshold(int unseqCompactionFileNumThreshold) {
+    this.unseqCompactionFileNumThreshold = unseqCompactionFileNumThreshold;
+  }
+
   public long getMergeFileSelectionTimeBudget() {
     return mergeFileSelectionTimeBudget;
   }
@@ -1488,6 +1621,22 @@ public class IoTDBConfig {
     this.chunkQueueCapacity = chunkQueueCapacity;
   }
 
+  public int getCompressChunkMetadataInMemory() {
+    return compressChunkMetadataInMemory;
+  }
+
+  public void setCompressChunkMetadataInMemory(int compressChunkMetadataInMemory) {
+    this.compressChunkMetadataInMemory = compressChunkMetadataInMemory;
+  }
+
+  public boolean isEnableCompressUnseqMerge() {
+    return enableCompressUnseqMerge;
+  }
+
+  public void setEnableCompressUnseqMerge(boolean enableCompressUnseqMerge) {
+    this.enableCompressUnseqMerge = enableCompressUnseqMerge;
+  }
+
   public String getWindowEstimationMethod() {
     return windowEstimationMethod;
   }
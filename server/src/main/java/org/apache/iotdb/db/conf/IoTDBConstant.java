@@ -68,6 +68,10 @@ public class IoTDBConstant {
   public static final String STORAGE_GROUP = "storage group";
   public static final String TTL = "ttl";
 
+  public static final String OPERATOR = "operator";
+  public static final String COUNTER = "counter";
+  public static final String VALUE = "value";
+
   // data folder name
   public static final String SEQUENCE_FLODER_NAME = "sequence";
   public static final String UNSEQUENCE_FLODER_NAME = "unsequence";
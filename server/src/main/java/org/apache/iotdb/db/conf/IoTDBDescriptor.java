@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.ZoneId;
 import java.util.Properties;
+import org.apache.iotdb.db.engine.merge.selector.MergeFileStrategy;
 import org.apache.iotdb.db.utils.FilePathUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.slf4j.Logger;
@@ -139,6 +140,18 @@ public class IoTDBDescriptor {
           Boolean.parseBoolean(properties.getProperty("enable_parameter_adapter",
               Boolean.toString(conf.isEnableParameterAdapter()))));
 
+      conf.setEnableAdaptiveMemtable(
+          Boolean.parseBoolean(properties.getProperty("enable_adaptive_memtable",
+              Boolean.toString(conf.isEnableAdaptiveMemtable()))));
+
+      conf.setMemtableHeapPressureThreshold(
+          Double.parseDouble(properties.getProperty("memtable_heap_pressure_threshold",
+              Double.toString(conf.getMemtableHeapPressureThreshold()))));
+
+      conf.setMemtableControlIntervalInMs(
+          Long.parseLong(properties.getProperty("memtable_control_interval_in_ms",
+              Long.toString(conf.getMemtableControlIntervalInMs()))));
+
       conf.setMetaDataCacheEnable(
           Boolean.parseBoolean(properties.getProperty("meta_data_cache_enable",
               Boolean.toString(conf.isMetaDataCacheEnable()))));
@@ -205,6 +218,14 @@ public class IoTDBDescriptor {
 
       conf.setIpWhiteList(properties.getProperty("ip_white_list", conf.getIpWhiteList()));
 
+      conf.setSyncLoadThreadNum(Integer
+          .parseInt(properties.getProperty("sync_load_thread_num",
+              Integer.toString(conf.getSyncLoadThreadNum())).trim()));
+
+      if (conf.getSyncLoadThreadNum() <= 0) {
+        conf.setSyncLoadThreadNum(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setConcurrentFlushThread(Integer
           .parseInt(properties.getProperty("concurrent_flush_thread",
               Integer.toString(conf.getConcurrentFlushThread()))));
@@ -213,10 +234,38 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setFlushEncodingParallelism(Integer
+          .parseInt(properties.getProperty("flush_encoding_parallelism",
+              Integer.toString(conf.getFlushEncodingParallelism()))));
+
+      if (conf.getFlushEncodingParallelism() <= 0) {
+        conf.setFlushEncodingParallelism(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setConcurrentInsertThread(Integer
+          .parseInt(properties.getProperty("concurrent_insert_thread",
+              Integer.toString(conf.getConcurrentInsertThread()))));
+
+      if (conf.getConcurrentInsertThread() <= 0) {
+        conf.setConcurrentInsertThread(Runtime.getRuntime().availableProcessors());
+      }
+
+      conf.setInsertShardNum(Integer
+          .parseInt(properties.getProperty("insert_shard_num",
+              Integer.toString(conf.getInsertShardNum()))));
+
+      if (conf.getInsertShardNum() <= 0) {
+        conf.setInsertShardNum(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("schema_manager_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
 
+      conf.setMtreeSnapshotInterval(Integer
+          .parseInt(properties.getProperty("mtree_snapshot_interval",
+              Integer.toString(conf.getMtreeSnapshotInterval())).trim()));
+
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
 
@@ -242,8 +291,13 @@ public class IoTDBDescriptor {
       conf.setMergeChunkSubThreadNum(Integer.parseInt(properties.getProperty
           ("merge_chunk_subthread_num",
               Integer.toString(conf.getMergeChunkSubThreadNum()))));
+      conf.setUnseqCompactionFileNumThreshold(Integer.parseInt(properties.getProperty(
+          "unseq_compaction_file_num_threshold",
+          Integer.toString(conf.getUnseqCompactionFileNumThreshold()))));
       conf.setContinueMergeAfterReboot(Boolean.parseBoolean(properties.getProperty(
           "continue_merge_after_reboot", Boolean.toString(conf.isContinueMergeAfterReboot()))));
+      conf.setMergeFileStrategy(MergeFileStrategy.valueOf(properties.getProperty(
+          "merge_file_strategy", conf.getMergeFileStrategy().name()).trim()));
       conf.setMergeFileSelectionTimeBudget(Long.parseLong(properties.getProperty
           ("merge_fileSelection_time_budget",
               Long.toString(conf.getMergeFileSelectionTimeBudget()))));
@@ -383,6 +437,12 @@ public class IoTDBDescriptor {
 
       conf.setChunkQueueCapacity(Integer.parseInt(properties.getProperty("chunk_queue_capacity", ""+conf.getChunkQueueCapacity())));
 
+      conf.setCompressChunkMetadataInMemory(Integer.parseInt(properties.getProperty(
+          "compress_chunk_metadata_in_memory", "" + conf.getCompressChunkMetadataInMemory())));
+
+      conf.setEnableCompressUnseqMerge(Boolean.parseBoolean(properties.getProperty(
+          "enable_compress_unseq_merge", "" + conf.isEnableCompressUnseqMerge())));
+
       conf.setWindowEstimationMethod(properties.getProperty("window_estimation_method", conf.getWindowEstimationMethod()));
 
       conf.setEnableRecoverRangeQuery(Boolean.parseBoolean(properties.getProperty("false", ""+conf.isEnableRecoverRangeQuery())));
@@ -463,6 +523,9 @@ public class IoTDBDescriptor {
               TSFileDescriptor.getInstance().getConfig().getValueEncoder()));
       TSFileDescriptor.getInstance().getConfig().setCompressor(properties
           .getProperty("compressor", TSFileDescriptor.getInstance().getConfig().getCompressor()));
+      TSFileDescriptor.getInstance().getConfig().setPageTimeIndexEnabled(Boolean
+          .parseBoolean(properties.getProperty("enable_page_time_index", Boolean.toString(
+              TSFileDescriptor.getInstance().getConfig().isPageTimeIndexEnabled()))));
 
     } catch (IOException e) {
       logger.warn("Cannot load config file because, use default configuration", e);
@@ -212,7 +212,7 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
   }
 
   @Override
-  public void addOrDeleteStorageGroup(int diff) throws ConfigAdjusterException {
+  public synchronized void addOrDeleteStorageGroup(int diff) throws ConfigAdjusterException {
     totalStorageGroup += diff;
     maxMemTableNum += IoTDBConstant.MEMTABLE_NUM_IN_EACH_STORAGE_GROUP * diff;
     if(!CONFIG.isEnableParameterAdapter()){
@@ -227,7 +227,7 @@ public class IoTDBConfigDynamicAdapter implements IDynamicAdapter {
   }
 
   @Override
-  public void addOrDeleteTimeSeries(int diff) throws ConfigAdjusterException {
+  public synchronized void addOrDeleteTimeSeries(int diff) throws ConfigAdjusterException {
     if(!CONFIG.isEnableParameterAdapter()){
       return;
     }
@@ -19,11 +19,12 @@
 package org.apache.iotdb.db.cost.statistic;
 
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
@@ -44,34 +45,27 @@ import org.slf4j.LoggerFactory;
  * into time range defined in BUCKET_IN_MS. If you want to change abscissa of histogram, just change
  * the BUCKET_IN_MS array. For recording a operation, you should:
  * 1) add a item in enum class Operation.
- * 2) call <code>startTimeInNano = System.nanoTime()</code> to recode startTime of that operation.
- * 3) call <code>Measurement.INSTANCE.addOperationLatency(operation, startTimeInNano)</code>
+ * 2) call <code>startTime = System.currentTimeMillis()</code> to recode startTime of that
+ * operation.
+ * 3) call <code>Measurement.INSTANCE.addOperationLatency(operation, startTime)</code>
  * at the end of that operation;
+ * Latencies are added to striped LongAdder counters by the recording thread, so recording does not
+ * allocate, lock or queue anything.
  *
  * @see Operation
  */
 public class Measurement implements MeasurementMBean, IService {
   private static Logger logger = LoggerFactory.getLogger(Measurement.class);
 
-  /**
-   * queue for async store time latencies.
-   */
-  private ConcurrentCircularArray[] operationLatenciesQueue;
-
-  /**
-   * size of each queue, this is calculated by memory.
-   */
-  private final int queueSize;
-
   /**
    * latencies sum of each operation.
    */
-  private long[] operationLatencies;
+  private LongAdder[] operationLatencies;
 
   /**
    * the num of each operation.
    */
-  private long[] operationCnt;
+  private LongAdder[] operationCnt;
 
   /**
    * abscissa of histogram.
@@ -87,30 +81,37 @@ public class Measurement implements MeasurementMBean, IService {
    * the num of operation that execution time falls into time range of BUCKET_IN_MS. The outer array
    * is each operation, the inner array is each time range in BUCKET_IN_MS.
    */
-  private long[][] operationHistogram;
+  private LongAdder[][] operationHistogram;
 
   /**
-   * display thread and queue consumer thread.
+   * display thread.
    */
   private ScheduledExecutorService service;
 
   /**
-   * future task of display thread and queue consumer thread.
+   * future task of display thread.
    */
   private ScheduledFuture<?> displayFuture;
-  private ScheduledFuture<?> consumeFuture;
 
   /**
-   * lock for modifying isEnableStat, displayFuture and consumeFuture.
+   * lock for modifying isEnableStat and displayFuture.
    */
   private ReentrantLock stateChangeLock = new ReentrantLock();
 
   public static final Measurement INSTANCE = AsyncMeasurementHolder.MEASUREMENT;
 
-  private boolean isEnableStat;
+  /**
+   * false until the service is started.
+   */
+  private volatile boolean isEnableStat;
   private long displayIntervalInMs;
   private Map<String, Boolean> operationSwitch;
 
+  /**
+   * operationSwitch indexed by the ordinal of operations, read when recording.
+   */
+  private volatile boolean[] operationEnabled;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(Measurement.class);
   private final String mbeanName = String
       .format("%s:%s=%s", "org.apache.iotdb.db.cost.statistic", IoTDBConstant.JMX_TYPE,
@@ -118,52 +119,53 @@ public class Measurement implements MeasurementMBean, IService {
 
   private Measurement() {
     IoTDBConfig tdbConfig = IoTDBDescriptor.getInstance().getConfig();
-    isEnableStat = tdbConfig.isEnablePerformanceStat();
     displayIntervalInMs = tdbConfig.getPerformanceStatDisplayInterval();
-    int memoryInKb = tdbConfig.getPerformanceStatMemoryInKB();
 
-    queueSize = memoryInKb * 1000 / Operation.values().length / 8;
-    operationLatenciesQueue = new ConcurrentCircularArray[Operation.values().length];
-    operationLatencies = new long[Operation.values().length];
-    operationCnt = new long[Operation.values().length];
-    operationSwitch = new HashMap<>(Operation.values().length);
+    operationLatencies = new LongAdder[Operation.values().length];
+    operationCnt = new LongAdder[Operation.values().length];
+    operationHistogram = new LongAdder[Operation.values().length][BUCKET_SIZE];
+    operationSwitch = new ConcurrentHashMap<>(Operation.values().length);
+    operationEnabled = new boolean[Operation.values().length];
     for (Operation op : Operation.values()) {
-      operationLatenciesQueue[op.ordinal()] = new ConcurrentCircularArray(queueSize);
-      operationCnt[op.ordinal()] = 0;
-      operationLatencies[op.ordinal()] = 0;
-      operationSwitch.put(op.getName(), true);
-    }
-    operationHistogram = new long[Operation.values().length][BUCKET_SIZE];
-    for (Operation operation : Operation.values()) {
+      operationCnt[op.ordinal()] = new LongAdder();
+      operationLatencies[op.ordinal()] = new LongAdder();
       for (int i = 0; i < BUCKET_SIZE; i++) {
-        operationHistogram[operation.ordinal()][i] = 0;
+        operationHistogram[op.ordinal()][i] = new LongAdder();
       }
+      operationSwitch.put(op.getName(), true);
+      operationEnabled[op.ordinal()] = true;
     }
     logger.info("start measurement stats module...");
     service = IoTDBThreadPoolFactory.newScheduledThreadPool(
-        2, ThreadName.TIME_COST_STATSTIC.getName());
+        1, ThreadName.TIME_COST_STATSTIC.getName());
   }
 
   public boolean addOperationLatency(Operation op, long startTime) {
-    if (isEnableStat && operationSwitch.get(op.getName())) {
-      return operationLatenciesQueue[op.ordinal()].put((System.currentTimeMillis() - startTime));
+    if (isEnableStat && operationEnabled[op.ordinal()]) {
+      long time = System.currentTimeMillis() - startTime;
+      int idx = op.ordinal();
+      operationLatencies[idx].add(time);
+      operationCnt[idx].increment();
+      operationHistogram[idx][calIndex(time)].increment();
+      return true;
     }
     return false;
   }
 
+  private static int calIndex(long x) {
+    for (int i = 0; i < BUCKET_SIZE; i++) {
+      if (BUCKET_IN_MS[i] >= x) {
+        return i;
+      }
+    }
+    return BUCKET_SIZE - 1;
+  }
+
   @Override
   public void startStatistics() {
     stateChangeLock.lock();
     try {
       isEnableStat = true;
-      if (consumeFuture != null && !consumeFuture.isCancelled()) {
-        logger.info("The consuming task in measurement stat module is already running...");
-      } else {
-        consumeFuture = service.scheduleWithFixedDelay(
-            new Measurement.DisplayRunnable(), 20, displayIntervalInMs, TimeUnit.MILLISECONDS);
-      }
-    } catch (Exception e) {
-      LOGGER.error("Find error when start performance statistic thread, because {}", e);
     } finally {
       stateChangeLock.unlock();
     }
@@ -211,9 +213,8 @@ public class Measurement implements MeasurementMBean, IService {
     try {
       isEnableStat = false;
       displayFuture = cancelFuture(displayFuture);
-      consumeFuture = cancelFuture(consumeFuture);
     } catch (Exception e) {
-      LOGGER.error("Find error when stop display and consuming threads, because {}", e);
+      LOGGER.error("Find error when stop display thread, because {}", e);
     } finally {
       stateChangeLock.unlock();
     }
@@ -222,23 +223,26 @@ public class Measurement implements MeasurementMBean, IService {
   @Override
   public void clearStatisticalState() {
     for (Operation op : Operation.values()) {
-      operationLatenciesQueue[op.ordinal()].clear();
-      operationCnt[op.ordinal()] = 0;
-      operationLatencies[op.ordinal()] = 0;
+      operationCnt[op.ordinal()].reset();
+      operationLatencies[op.ordinal()].reset();
       for (int i = 0; i < BUCKET_SIZE; i++) {
-        operationHistogram[op.ordinal()][i] = 0;
+        operationHistogram[op.ordinal()][i].reset();
       }
     }
   }
 
   @Override
   public boolean changeOperationSwitch(String operationName, Boolean operationState) {
-    if (operationSwitch.containsKey(operationName)) {
-      operationSwitch.put(operationName, operationState);
-      return true;
-    } else {
-      return false;
+    for (Operation op : Operation.values()) {
+      if (op.getName().equals(operationName)) {
+        operationSwitch.put(operationName, operationState);
+        boolean[] newOperationEnabled = operationEnabled.clone();
+        newOperationEnabled[op.ordinal()] = operationState;
+        operationEnabled = newOperationEnabled;
+        return true;
+      }
     }
+    return false;
   }
 
   /**
@@ -246,18 +250,14 @@ public class Measurement implements MeasurementMBean, IService {
    */
   @Override
   public void start() throws StartupException {
-    // start display thread and consumer threads.
-    logger.info("start the consuming task in the measurement stats module...");
+    logger.info("start the measurement stats module...");
     this.clearStatisticalState();
     if (service.isShutdown()) {
       service = IoTDBThreadPoolFactory.newScheduledThreadPool(
-          2, ThreadName.TIME_COST_STATSTIC.getName());
+          1, ThreadName.TIME_COST_STATSTIC.getName());
     }
     //we have to check again because someone may change the value.
     isEnableStat = IoTDBDescriptor.getInstance().getConfig().isEnablePerformanceStat();
-    if (isEnableStat) {
-      consumeFuture = service.schedule(new QueueConsumerThread(), 0, TimeUnit.MILLISECONDS);
-    }
     try {
       JMXService.registerMBean(INSTANCE, mbeanName);
     } catch (Exception e) {
@@ -271,13 +271,13 @@ public class Measurement implements MeasurementMBean, IService {
   @Override
   public void stop() {
     logger.info("stop measurement stats module...");
+    isEnableStat = false;
     JMXService.deregisterMBean(mbeanName);
     if (service == null || service.isShutdown()) {
       return;
     }
     service.shutdownNow();
     try {
-      consumeFuture = cancelFuture(consumeFuture);
       displayFuture = cancelFuture(displayFuture);
       service.awaitTermination(5, TimeUnit.SECONDS);
     } catch (InterruptedException e) {
@@ -341,11 +341,11 @@ public class Measurement implements MeasurementMBean, IService {
         .format("%-45s%-25s%-25s%-25s", "OPERATION", "COUNT", "TOTAL_TIME", "AVG_TIME");
     LOGGER.info(head);
     for (Operation operation : Operation.values()) {
-      if (!operationSwitch.get(operation.getName())) {
+      if (!operationEnabled[operation.ordinal()]) {
         continue;
       }
-      long cnt = operationCnt[operation.ordinal()];
-      long totalInMs = operationLatencies[operation.ordinal()];
+      long cnt = operationCnt[operation.ordinal()].sum();
+      long totalInMs = operationLatencies[operation.ordinal()].sum();
       String avg = String.format("%.4f", (totalInMs / (cnt + 1e-9)));
       String item = String
           .format("%-45s%-25s%-25s%-25s", operation.name, cnt + "", totalInMs + "", avg);
@@ -361,14 +361,14 @@ public class Measurement implements MeasurementMBean, IService {
       LOGGER.info(histogramHead.toString());
     }
     for (Operation operation : Operation.values()) {
-      if (!operationSwitch.get(operation.getName())) {
+      if (!operationEnabled[operation.ordinal()]) {
         continue;
       }
       StringBuilder item = new StringBuilder(String.format("%-45s", operation.getName()));
-      long cnt = operationCnt[operation.ordinal()];
+      long cnt = operationCnt[operation.ordinal()].sum();
       for (int i = 0; i < BUCKET_SIZE; i++) {
         String avg = String
-            .format("%.2f", (operationHistogram[operation.ordinal()][i] / (cnt + 1e-9) * 100));
+            .format("%.2f", (operationHistogram[operation.ordinal()][i].sum() / (cnt + 1e-9) * 100));
         item.append(String.format("%-8s", avg + "%"));
       }
       if (LOGGER.isInfoEnabled()) {
@@ -388,57 +388,19 @@ public class Measurement implements MeasurementMBean, IService {
     }
   }
 
-  class QueueConsumerThread implements Runnable {
-
-    @Override
-    public void run() {
-      consumer();
-    }
-
-    private void consumer() {
-      boolean allEmpty;
-      while (isEnableStat) {
-        allEmpty = true;
-        for (Operation op : Operation.values()) {
-          if (!operationSwitch.get(op.getName())) {
-            continue;
-          }
-          int idx = op.ordinal();
-          ConcurrentCircularArray queue = operationLatenciesQueue[idx];
-          if (queue.hasData()) {
-            long time = queue.take();
-            operationLatencies[idx] += time;
-            operationCnt[idx]++;
-            operationHistogram[idx][calIndex(time)]++;
-            allEmpty = false;
-          }
-        }
-        if (allEmpty) {
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            break;
-          }
-        }
-      }
-    }
-
-    private int calIndex(long x) {
-      for (int i = 0; i < BUCKET_SIZE; i++) {
-        if (BUCKET_IN_MS[i] >= x) {
-          return i;
-        }
-      }
-      return BUCKET_SIZE - 1;
-    }
-  }
-
   public long[] getOperationLatencies() {
-    return operationLatencies;
+    return sum(operationLatencies);
   }
 
   public long[] getOperationCnt() {
-    return operationCnt;
+    return sum(operationCnt);
+  }
+
+  private static long[] sum(LongAdder[] adders) {
+    long[] sums = new long[adders.length];
+    for (int i = 0; i < adders.length; i++) {
+      sums[i] = adders[i].sum();
+    }
+    return sums;
   }
 }
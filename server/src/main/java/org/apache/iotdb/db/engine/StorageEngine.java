@@ -57,6 +57,7 @@ import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.JobFileManager;
+import org.apache.iotdb.db.rescon.MemTableController;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.db.utils.FilePathUtils;
@@ -153,6 +154,8 @@ public class StorageEngine implements IService {
     writeSpeedStatisticThread = Executors.newSingleThreadScheduledExecutor();
     writeSpeedStatisticThread.scheduleAtFixedRate(this::updateIngestSpeed, TTL_CHECK_INTERVAL,
         TTL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+
+    MemTableController.getInstance().start(processorMap::values);
   }
 
   private void checkTTL() {
@@ -197,6 +200,7 @@ public class StorageEngine implements IService {
 
   @Override
   public void stop() {
+    MemTableController.getInstance().stop();
     syncCloseAllProcessor();
     ttlCheckThread.shutdownNow();
     recoveryThreadPool.shutdownNow();
@@ -551,6 +555,17 @@ public class StorageEngine implements IService {
         .loadNewTsFile(newTsFileResource);
   }
 
+  /**
+   * load tsfiles of one storage group in the given order, taking the locks of the storage group
+   * once.
+   *
+   * @param storageGroupName storage group of all the tsfiles
+   */
+  public void loadNewTsFiles(String storageGroupName, List<TsFileResource> newTsFileResources)
+      throws TsFileProcessorException, StorageEngineException {
+    getProcessor(storageGroupName).loadNewTsFiles(newTsFileResources);
+  }
+
   public void deleteTsfile(File deletedTsfile) throws StorageEngineException {
     getProcessor(deletedTsfile.getParentFile().getName()).deleteTsfile(deletedTsfile);
   }
@@ -29,6 +29,7 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.metrics.jfr.JfrEvents;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
@@ -84,6 +85,9 @@ public class DeviceMetaDataCache {
    */
   public List<ChunkMetaData> get(TsFileResource resource, Path seriesPath)
       throws IOException {
+    if (!resource.mayContainSeries(seriesPath.getFullPath())) {
+      return new ArrayList<>();
+    }
     if (!cacheEnable) {
       TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(resource);
       // bloom filter part
@@ -128,6 +132,7 @@ public class DeviceMetaDataCache {
         }
       }
       printCacheLog(false);
+      JfrEvents.cacheMiss("DeviceMetaDataCache", key);
       TsFileMetaData fileMetaData = TsFileMetaDataCache.getInstance().get(resource);
       // bloom filter part
       BloomFilter bloomFilter = fileMetaData.getBloomFilter();
@@ -179,6 +184,14 @@ public class DeviceMetaDataCache {
     }
   }
 
+  public long getCacheHitNum() {
+    return cacheHitNum.get();
+  }
+
+  public long getCacheRequestNum() {
+    return cacheRequestNum.get();
+  }
+
   /**
    * calculate the most frequently query measurements set.
    *
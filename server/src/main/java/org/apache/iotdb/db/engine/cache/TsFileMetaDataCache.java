@@ -23,6 +23,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.metrics.jfr.JfrEvents;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,7 +89,9 @@ public class TsFileMetaDataCache {
    */
   public TsFileMetaData get(TsFileResource tsFileResource) throws IOException {
     if (!cacheEnable) {
-      return TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+      TsFileMetaData fileMetaData = TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+      tsFileResource.setBloomFilter(fileMetaData.getBloomFilter());
+      return fileMetaData;
     }
 
     String path = tsFileResource.getFile().getPath();
@@ -110,7 +113,9 @@ public class TsFileMetaDataCache {
         }
       }
       printCacheLog(false);
+      JfrEvents.cacheMiss("TsFileMetaDataCache", path);
       TsFileMetaData fileMetaData = TsFileMetadataUtils.getTsFileMetaData(tsFileResource);
+      tsFileResource.setBloomFilter(fileMetaData.getBloomFilter());
       synchronized (cache) {
         cache.put(tsFileResource, fileMetaData);
         return fileMetaData;
@@ -141,7 +146,17 @@ public class TsFileMetaDataCache {
     }
   }
 
+  public long getCacheHitNum() {
+    return cacheHitNum.get();
+  }
+
+  public long getCacheRequestNum() {
+    return cacheRequestNum.get();
+  }
+
   public void remove(TsFileResource resource) {
+    // the file is being rewritten, so is its bloom filter
+    resource.setBloomFilter(null);
     synchronized (cache) {
       if (cache != null) {
         cache.remove(resource);
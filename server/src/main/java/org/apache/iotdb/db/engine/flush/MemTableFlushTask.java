@@ -19,16 +19,20 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.IWritableMemChunk;
-import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
-import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
 import org.apache.iotdb.tsfile.write.schema.Schema;
@@ -37,31 +41,36 @@ import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * MemTableFlushTask flushes a memtable into a tsfile. The series are sorted and encoded in parallel
+ * by FlushSubTaskPoolManager workers, at most flush_encoding_parallelism series at a time, while the
+ * flushing thread writes the encoded chunks into the file in the order of the memtable, so that the
+ * chunks of a device stay in one contiguous chunk group.
+ */
 public class MemTableFlushTask {
 
   private static final Logger logger = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final FlushSubTaskPoolManager subTaskPoolManager = FlushSubTaskPoolManager
       .getInstance();
-  private Future ioTaskFuture;
   private RestorableTsFileIOWriter writer;
 
-  private ConcurrentLinkedQueue ioTaskQueue = new ConcurrentLinkedQueue();
-  private ConcurrentLinkedQueue encodingTaskQueue = new ConcurrentLinkedQueue();
+  /**
+   * StartFlushGroupIOTask, EncodedSeriesIOTask and EndChunkGroupIoTask in writing order.
+   */
+  private Deque<IOTask> ioTaskQueue = new ArrayDeque<>();
+  private int encodingTaskNum = 0;
   private String storageGroup;
 
   private IMemTable memTable;
   private Schema schema;
 
-  private volatile boolean noMoreEncodingTask = false;
-  private volatile boolean noMoreIOTask = false;
+  private long ioTimeInNano = 0;
 
   public MemTableFlushTask(IMemTable memTable, Schema schema, RestorableTsFileIOWriter writer, String storageGroup) {
     this.memTable = memTable;
     this.schema = schema;
     this.writer = writer;
     this.storageGroup = storageGroup;
-    subTaskPoolManager.submit(encodingTask);
-    this.ioTaskFuture = subTaskPoolManager.submit(ioTask);
     logger.debug("flush task of Storage group {} memtable {} is created ",
         storageGroup, memTable.getVersion());
   }
@@ -72,172 +81,176 @@ public class MemTableFlushTask {
    */
   public void syncFlushMemTable() throws ExecutionException, InterruptedException {
     long start = System.currentTimeMillis();
-    long sortTime = 0;
-    for (String deviceId : memTable.getMemTableMap().keySet()) {
-      encodingTaskQueue.add(new StartFlushGroupIOTask(deviceId));
-      for (String measurementId : memTable.getMemTableMap().get(deviceId).keySet()) {
-        long startTime = System.currentTimeMillis();
-        IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
-        MeasurementSchema desc = schema.getMeasurementSchema(measurementId);
-        TVList tvList = series.getSortedTVList();
-        sortTime += System.currentTimeMillis() - startTime;
-        encodingTaskQueue.add(new Pair<>(tvList, desc));
+    int parallelism = IoTDBDescriptor.getInstance().getConfig().getFlushEncodingParallelism();
+    try {
+      for (Entry<String, Map<String, IWritableMemChunk>> deviceEntry : memTable.getMemTableMap()
+          .entrySet()) {
+        ioTaskQueue.add(new StartFlushGroupIOTask(deviceEntry.getKey()));
+        for (Entry<String, IWritableMemChunk> seriesEntry : deviceEntry.getValue().entrySet()) {
+          // write the finished heads so that at most parallelism series are being encoded
+          while (encodingTaskNum >= parallelism) {
+            writeFirstIOTask();
+          }
+          MeasurementSchema desc = schema.getMeasurementSchema(seriesEntry.getKey());
+          IWritableMemChunk series = seriesEntry.getValue();
+          ioTaskQueue.add(
+              new EncodedSeriesIOTask(subTaskPoolManager.submit(() -> encodeSeries(series, desc))));
+          encodingTaskNum++;
+        }
+        ioTaskQueue.add(new EndChunkGroupIoTask(memTable.getVersion()));
+      }
+      while (!ioTaskQueue.isEmpty()) {
+        writeFirstIOTask();
+      }
+    } catch (IOException e) {
+      logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
+          memTable.getVersion(), e);
+      throw new ExecutionException(e);
+    } finally {
+      // do not leave encoding tasks running after a failure
+      for (IOTask task : ioTaskQueue) {
+        task.cancel();
       }
-      encodingTaskQueue.add(new EndChunkGroupIoTask(memTable.getVersion()));
     }
-    noMoreEncodingTask = true;
-    logger.debug(
-        "Storage group {} memtable {}, flushing into disk: data sort time cost {} ms.",
-        storageGroup, memTable.getVersion(), sortTime);
-
-    ioTaskFuture.get();
+    StageMetrics.getInstance().recordLatency(Stage.FLUSH_IO, ioTimeInNano);
+    logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
+        storageGroup, ioTimeInNano / 1_000_000);
 
     logger.info(
         "Storage group {} memtable {} flushing a memtable has finished! Time consumption: {}ms",
         storageGroup, memTable, System.currentTimeMillis() - start);
   }
 
+  private void writeFirstIOTask() throws IOException, ExecutionException, InterruptedException {
+    IOTask ioTask = ioTaskQueue.poll();
+    // wait for the encoding of the series before timing the io
+    ioTask.waitForEncoding();
+    long starTime = System.nanoTime();
+    ioTask.write(writer);
+    ioTimeInNano += System.nanoTime() - starTime;
+  }
 
-  private Runnable encodingTask = new Runnable() {
-    private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
-        TSDataType dataType){
-      for (int i = 0; i < tvPairs.size(); i++) {
-        long time = tvPairs.getTime(i);
+  /**
+   * sort and encode one series, run by a FlushSubTaskPoolManager worker.
+   */
+  private IChunkWriter encodeSeries(IWritableMemChunk series, MeasurementSchema desc) {
+    long startTime = System.nanoTime();
+    TVList tvList = series.getSortedTVList();
+    IChunkWriter seriesWriter = new ChunkWriterImpl(desc);
+    writeOneSeries(tvList, seriesWriter, desc.getType());
+    StageMetrics.getInstance().record(Stage.FLUSH_ENCODE, startTime);
+    return seriesWriter;
+  }
 
-        // skip duplicated data
-        if ((i+1 < tvPairs.size() && (time == tvPairs.getTime(i+1)))) {
-          continue;
-        }
+  private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
+      TSDataType dataType) {
+    for (int i = 0; i < tvPairs.size(); i++) {
+      long time = tvPairs.getTime(i);
 
-        switch (dataType) {
-          case BOOLEAN:
-            seriesWriterImpl.write(time, tvPairs.getBoolean(i));
-            break;
-          case INT32:
-            seriesWriterImpl.write(time, tvPairs.getInt(i));
-            break;
-          case INT64:
-            seriesWriterImpl.write(time, tvPairs.getLong(i));
-            break;
-          case FLOAT:
-            seriesWriterImpl.write(time, tvPairs.getFloat(i));
-            break;
-          case DOUBLE:
-            seriesWriterImpl.write(time, tvPairs.getDouble(i));
-            break;
-          case TEXT:
-            seriesWriterImpl.write(time, tvPairs.getBinary(i));
-            break;
-          default:
-            logger.error("Storage group {} does not support data type: {}", storageGroup,
-                dataType);
-            break;
-        }
+      // skip duplicated data
+      if ((i + 1 < tvPairs.size() && (time == tvPairs.getTime(i + 1)))) {
+        continue;
       }
-    }
 
-    @Override
-    public void run() {
-      long memSerializeTime = 0;
-      boolean noMoreMessages = false;
-      logger.debug("Storage group {} memtable {}, starts to encoding data.", storageGroup,
-          memTable.getVersion());
-      while (true) {
-        if (noMoreEncodingTask) {
-          noMoreMessages = true;
-        }
-        Object task = encodingTaskQueue.poll();
-        if (task == null) {
-          if (noMoreMessages) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable {}, encoding task is interrupted.",
-                storageGroup, memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          if (task instanceof StartFlushGroupIOTask) {
-            ioTaskQueue.add(task);
-          } else if (task instanceof EndChunkGroupIoTask) {
-            ioTaskQueue.add(task);
-          } else {
-            long starTime = System.currentTimeMillis();
-            Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
-            IChunkWriter seriesWriter = new ChunkWriterImpl(encodingMessage.right);
-            writeOneSeries(encodingMessage.left, seriesWriter, encodingMessage.right.getType());
-            ioTaskQueue.add(seriesWriter);
-            memSerializeTime += System.currentTimeMillis() - starTime;
-          }
-        }
+      switch (dataType) {
+        case BOOLEAN:
+          seriesWriterImpl.write(time, tvPairs.getBoolean(i));
+          break;
+        case INT32:
+          seriesWriterImpl.write(time, tvPairs.getInt(i));
+          break;
+        case INT64:
+          seriesWriterImpl.write(time, tvPairs.getLong(i));
+          break;
+        case FLOAT:
+          seriesWriterImpl.write(time, tvPairs.getFloat(i));
+          break;
+        case DOUBLE:
+          seriesWriterImpl.write(time, tvPairs.getDouble(i));
+          break;
+        case TEXT:
+          seriesWriterImpl.write(time, tvPairs.getBinary(i));
+          break;
+        default:
+          logger.error("Storage group {} does not support data type: {}", storageGroup,
+              dataType);
+          break;
       }
-      noMoreIOTask = true;
-      logger.debug("Storage group {}, flushing memtable {} into disk: Encoding data cost "
-              + "{} ms.",
-          storageGroup, memTable.getVersion(), memSerializeTime);
     }
-  };
-
-  private Runnable ioTask = () -> {
-      long ioTime = 0;
-      boolean returnWhenNoTask = false;
-      logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
-      while (true) {
-        if (noMoreIOTask) {
-          returnWhenNoTask = true;
-        }
-        Object ioMessage = ioTaskQueue.poll();
-        if (ioMessage == null) {
-          if (returnWhenNoTask) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (InterruptedException e) {
-            logger.error("Storage group {} memtable, io task is interrupted.", storageGroup
-                , memTable.getVersion(), e);
-            Thread.currentThread().interrupt();
-          }
-        } else {
-          long starTime = System.currentTimeMillis();
-          try {
-            if (ioMessage instanceof StartFlushGroupIOTask) {
-              writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
-            } else if (ioMessage instanceof IChunkWriter) {
-              ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
-              chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
-            } else {
-              EndChunkGroupIoTask endGroupTask = (EndChunkGroupIoTask) ioMessage;
-              writer.endChunkGroup(endGroupTask.version);
-            }
-          } catch (IOException e) {
-            logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
-                memTable.getVersion(), e);
-            throw new FlushRunTimeException(e);
-          }
-          ioTime += System.currentTimeMillis() - starTime;
-        }
-      }
-      logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
-          storageGroup, ioTime);
-    };
+  }
 
-  static class EndChunkGroupIoTask {
-    private long version;
+  /**
+   * an entry of ioTaskQueue, written by the flushing thread in queue order.
+   */
+  private abstract static class IOTask {
 
-    EndChunkGroupIoTask(long version) {
-      this.version = version;
+    /**
+     * block until the task can be written, called before the io is timed.
+     */
+    void waitForEncoding() throws ExecutionException, InterruptedException {
+    }
+
+    abstract void write(RestorableTsFileIOWriter writer) throws IOException;
+
+    /**
+     * release the task if it is not going to be written.
+     */
+    void cancel() {
     }
   }
 
-  static class StartFlushGroupIOTask {
+  static class StartFlushGroupIOTask extends IOTask {
+
     private String deviceId;
 
     StartFlushGroupIOTask(String deviceId) {
       this.deviceId = deviceId;
     }
+
+    @Override
+    void write(RestorableTsFileIOWriter writer) throws IOException {
+      writer.startChunkGroup(deviceId);
+    }
+  }
+
+  private class EncodedSeriesIOTask extends IOTask {
+
+    private Future<IChunkWriter> encodingFuture;
+    private IChunkWriter chunkWriter;
+
+    EncodedSeriesIOTask(Future<IChunkWriter> encodingFuture) {
+      this.encodingFuture = encodingFuture;
+    }
+
+    @Override
+    void waitForEncoding() throws ExecutionException, InterruptedException {
+      chunkWriter = encodingFuture.get();
+      encodingTaskNum--;
+    }
+
+    @Override
+    void write(RestorableTsFileIOWriter writer) throws IOException {
+      chunkWriter.writeToFileWriter(writer);
+    }
+
+    @Override
+    void cancel() {
+      encodingFuture.cancel(true);
+    }
+  }
+
+  static class EndChunkGroupIoTask extends IOTask {
+
+    private long version;
+
+    EndChunkGroupIoTask(long version) {
+      this.version = version;
+    }
+
+    @Override
+    void write(RestorableTsFileIOWriter writer) throws IOException {
+      writer.endChunkGroup(version);
+    }
   }
 
 }
@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -41,12 +43,16 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private List<Modification> modifications = new ArrayList<>();
 
+  /**
+   * devices are written concurrently by insertions in different shards of a storage group, while
+   * the series of one device are only written by one insertion at a time.
+   */
   private final Map<String, Map<String, IWritableMemChunk>> memTableMap;
 
-  private long memSize = 0;
+  private final AtomicLong memSize = new AtomicLong(0);
 
   public AbstractMemTable() {
-    this.memTableMap = new HashMap<>();
+    this.memTableMap = new ConcurrentHashMap<>();
   }
 
   public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
@@ -69,10 +75,8 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private IWritableMemChunk createIfNotExistAndGet(String deviceId, String measurement,
       TSDataType dataType) {
-    if (!memTableMap.containsKey(deviceId)) {
-      memTableMap.put(deviceId, new HashMap<>());
-    }
-    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
+    Map<String, IWritableMemChunk> memSeries = memTableMap
+        .computeIfAbsent(deviceId, k -> new HashMap<>());
     if (!memSeries.containsKey(measurement)) {
       memSeries.put(measurement, genMemSeries(dataType));
     }
@@ -84,14 +88,15 @@ public abstract class AbstractMemTable implements IMemTable {
   @Override
   public void insert(InsertPlan insertPlan) throws QueryProcessException {
     try {
-      for (int i = 0; i < insertPlan.getValues().length; i++) {
+      for (int i = 0; i < insertPlan.getMeasurements().length; i++) {
 
-        Object value = parseValue(insertPlan.getDataTypes()[i], insertPlan.getValues()[i]);
+        Object value = insertPlan.isTyped() ? insertPlan.getTypedValues()[i]
+            : parseValue(insertPlan.getDataTypes()[i], insertPlan.getValues()[i]);
         write(insertPlan.getDeviceId(), insertPlan.getMeasurements()[i],
             insertPlan.getDataTypes()[i], insertPlan.getTime(), value);
       }
       long recordSizeInByte = MemUtils.getRecordSize(insertPlan);
-      memSize += recordSizeInByte;
+      memSize.addAndGet(recordSizeInByte);
     } catch (RuntimeException e) {
       throw new QueryProcessException(e.getMessage());
     }
@@ -138,11 +143,12 @@ public abstract class AbstractMemTable implements IMemTable {
   }
 
   @Override
-  public void insertBatch(BatchInsertPlan batchInsertPlan, List<Integer> indexes) throws QueryProcessException {
+  public void insertBatch(BatchInsertPlan batchInsertPlan, int start, int end)
+      throws QueryProcessException {
     try {
-      write(batchInsertPlan, indexes);
-      long recordSizeInByte = MemUtils.getRecordSize(batchInsertPlan);
-      memSize += recordSizeInByte;
+      write(batchInsertPlan, start, end);
+      long recordSizeInByte = MemUtils.getRecordSize(batchInsertPlan, start, end);
+      memSize.addAndGet(recordSizeInByte);
     } catch (RuntimeException e) {
       throw new QueryProcessException(e.getMessage());
     }
@@ -157,11 +163,12 @@ public abstract class AbstractMemTable implements IMemTable {
   }
 
   @Override
-  public void write(BatchInsertPlan batchInsertPlan, List<Integer> indexes) {
+  public void write(BatchInsertPlan batchInsertPlan, int start, int end) {
     for (int i = 0; i < batchInsertPlan.getMeasurements().length; i++) {
       IWritableMemChunk memSeries = createIfNotExistAndGet(batchInsertPlan.getDeviceId(),
           batchInsertPlan.getMeasurements()[i], batchInsertPlan.getDataTypes()[i]);
-      memSeries.write(batchInsertPlan.getTimes(), batchInsertPlan.getColumns()[i], batchInsertPlan.getDataTypes()[i], indexes);
+      memSeries.write(batchInsertPlan.getTimes(), batchInsertPlan.getColumns()[i],
+          batchInsertPlan.getDataTypes()[i], start, end);
     }
   }
 
@@ -179,14 +186,14 @@ public abstract class AbstractMemTable implements IMemTable {
 
   @Override
   public long memSize() {
-    return memSize;
+    return memSize.get();
   }
 
   @Override
   public void clear() {
     memTableMap.clear();
     modifications.clear();
-    memSize = 0;
+    memSize.set(0);
   }
 
   @Override
@@ -29,6 +29,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
+import org.apache.iotdb.db.engine.merge.task.UnseqCompactionTask;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
@@ -60,6 +61,10 @@ public class MergeManager implements IService {
     mergeTaskPool.submit(mergeTask);
   }
 
+  public void submitMainTask(UnseqCompactionTask compactionTask) {
+    mergeTaskPool.submit(compactionTask);
+  }
+
   public Future submitChunkSubTask(Callable callable) {
     return mergeChunkSubTaskPool.submit(callable);
   }
@@ -69,7 +69,7 @@ public class MergeResource {
   public MergeResource(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles) {
     this.seqFiles = seqFiles.stream().filter(this::filterResource)
         .collect(Collectors.toList());
-    this.unseqFiles = unseqFiles.stream().filter(this::filterResource)
+    this.unseqFiles = unseqFiles.stream().filter(this::filterUnseqResource)
         .collect(Collectors.toList());
   }
 
@@ -77,13 +77,20 @@ public class MergeResource {
     return res.isClosed() && !res.isDeleted() && res.stillLives(timeLowerBound);
   }
 
+  /**
+   * unseqFiles being merged by a compress task are left to it.
+   */
+  private boolean filterUnseqResource(TsFileResource res) {
+    return filterResource(res) && !res.isCompressing();
+  }
+
   public MergeResource(List<TsFileResource> seqFiles, List<TsFileResource> unseqFiles,
       long timeLowerBound) {
     this.timeLowerBound = timeLowerBound;
     this.seqFiles =
         seqFiles.stream().filter(this::filterResource).collect(Collectors.toList());
     this.unseqFiles =
-        unseqFiles.stream().filter(this::filterResource).collect(Collectors.toList());
+        unseqFiles.stream().filter(this::filterUnseqResource).collect(Collectors.toList());
   }
 
   public void clear() throws IOException {
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.selector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+/**
+ * CostBasedMergeFileSelector selects files under the same memory budget as
+ * MaxFileMergeFileSelector, but instead of trying the unseqFiles in their natural order, it tries
+ * first the unseqFiles whose merge removes the most read amplification per byte rewritten.
+ * The benefit of merging an unseqFile is estimated as (queryHitCount + 1) * overlapDepth, where
+ * queryHitCount is how many series queries have actually read the file and overlapDepth is the
+ * largest number of unseqFiles overlapping it on one device (how many files a query of the region
+ * has to merge-read). The cost is the size of the unseqFile plus the sizes of the seqFiles it
+ * overlaps, as all of them are rewritten by the merge.
+ */
+public class CostBasedMergeFileSelector extends MaxFileMergeFileSelector {
+
+  private List<TsFileResource> sortedUnseqFiles;
+
+  public CostBasedMergeFileSelector(MergeResource resource, long memoryBudget) {
+    super(resource, memoryBudget);
+  }
+
+  @Override
+  void select(boolean useTightBound) throws IOException {
+    super.select(useTightBound);
+    // the merge relies on the order of unseqFiles to decide which point overwrites another
+    selectedUnseqFiles.sort(Comparator.comparingInt(resource.getUnseqFiles()::indexOf));
+    selectedSeqFiles.sort(Comparator.comparingInt(resource.getSeqFiles()::indexOf));
+  }
+
+  @Override
+  List<TsFileResource> getUnseqCandidates() {
+    if (sortedUnseqFiles == null) {
+      Map<TsFileResource, Double> scoreMap = new HashMap<>();
+      for (TsFileResource unseqFile : resource.getUnseqFiles()) {
+        scoreMap.put(unseqFile, calculateScore(unseqFile));
+      }
+      sortedUnseqFiles = new ArrayList<>(resource.getUnseqFiles());
+      // List.sort is stable, so files of the same score keep their natural order
+      sortedUnseqFiles.sort((o1, o2) -> Double.compare(scoreMap.get(o2), scoreMap.get(o1)));
+    }
+    return sortedUnseqFiles;
+  }
+
+  private double calculateScore(TsFileResource unseqFile) {
+    selectOverlappedSeqFiles(unseqFile);
+    long rewriteSize = unseqFile.getFileSize();
+    for (Integer seqIdx : tmpSelectedSeqFiles) {
+      rewriteSize += resource.getSeqFiles().get(seqIdx).getFileSize();
+    }
+    tmpSelectedSeqFiles.clear();
+
+    long benefit = (unseqFile.getQueryHitCount() + 1) * calculateOverlapDepth(unseqFile);
+    return (double) benefit / Math.max(rewriteSize, 1);
+  }
+
+  private int calculateOverlapDepth(TsFileResource unseqFile) {
+    int maxDepth = 1;
+    for (Entry<String, Long> entry : unseqFile.getStartTimeMap().entrySet()) {
+      String deviceId = entry.getKey();
+      long startTime = entry.getValue();
+      long endTime = unseqFile.getEndTimeMap().getOrDefault(deviceId, Long.MAX_VALUE);
+      int depth = 0;
+      for (TsFileResource other : resource.getUnseqFiles()) {
+        Long otherStartTime = other.getStartTimeMap().get(deviceId);
+        if (otherStartTime == null) {
+          continue;
+        }
+        long otherEndTime = other.getEndTimeMap().getOrDefault(deviceId, Long.MAX_VALUE);
+        if (otherStartTime <= endTime && startTime <= otherEndTime) {
+          depth++;
+        }
+      }
+      maxDepth = Math.max(maxDepth, depth);
+    }
+    return maxDepth;
+  }
+}
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -67,7 +68,7 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
   List<TsFileResource> selectedUnseqFiles;
   List<TsFileResource> selectedSeqFiles;
 
-  private Collection<Integer> tmpSelectedSeqFiles;
+  Collection<Integer> tmpSelectedSeqFiles;
   private long tempMaxSeqFileCost;
 
   private boolean[] seqSelected;
@@ -143,16 +144,16 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
 
     totalCost = 0;
 
-    int unseqIndex = 0;
     long startTime = System.currentTimeMillis();
+    Iterator<TsFileResource> unseqIterator = getUnseqCandidates().iterator();
     long timeConsumption = 0;
     long timeLimit = IoTDBDescriptor.getInstance().getConfig().getMergeFileSelectionTimeBudget();
     if (timeLimit < 0) {
       timeLimit = Long.MAX_VALUE;
     }
-    while (unseqIndex < resource.getUnseqFiles().size() && timeConsumption < timeLimit) {
+    while (unseqIterator.hasNext() && timeConsumption < timeLimit) {
       // select next unseq files
-      TsFileResource unseqFile = resource.getUnseqFiles().get(unseqIndex);
+      TsFileResource unseqFile = unseqIterator.next();
 
       selectOverlappedSeqFiles(unseqFile);
 
@@ -169,7 +170,6 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
       }
       if (isNeedUpgrade) {
         tmpSelectedSeqFiles.clear();
-        unseqIndex++;
         timeConsumption = System.currentTimeMillis() - startTime;
         continue;
       }
@@ -194,12 +194,18 @@ public class MaxFileMergeFileSelector implements IMergeFileSelector {
             unseqFile, tmpSelectedSeqFiles, newCost, totalCost);
       }
       tmpSelectedSeqFiles.clear();
-      unseqIndex++;
       timeConsumption = System.currentTimeMillis() - startTime;
     }
   }
 
-  private void selectOverlappedSeqFiles(TsFileResource unseqFile) {
+  /**
+   * @return the unseqFiles in the order they are tried to be added into the candidates
+   */
+  List<TsFileResource> getUnseqCandidates() throws IOException {
+    return resource.getUnseqFiles();
+  }
+
+  void selectOverlappedSeqFiles(TsFileResource unseqFile) {
     if (seqSelectedNum == resource.getSeqFiles().size() || UpgradeUtils.isNeedUpgrade(unseqFile)) {
       return;
     }
@@ -22,6 +22,6 @@ package org.apache.iotdb.db.engine.merge.selector;
 public enum MergeFileStrategy {
   MAX_SERIES_NUM,
   MAX_FILE_NUM,
-  // TODO: HOW?
-  TRADE_OFF,
+  // trade the read amplification removed from queries off against the bytes rewritten
+  COST_BASED,
 }
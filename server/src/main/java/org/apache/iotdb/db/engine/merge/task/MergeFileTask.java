@@ -39,7 +39,6 @@ import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
-import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.writer.ForceAppendTsFileWriter;
@@ -149,6 +148,7 @@ class MergeFileTask {
         }
       }
       oldFileWriter.endFile(new Schema(newFileWriter.getKnownSchema()));
+      seqFile.setBloomFilter(oldFileWriter.getBloomFilter());
 
       seqFile.serialize();
       mergeLogger.logFileMergeEnd();
@@ -173,8 +173,7 @@ class MergeFileTask {
     fileWriter.startChunkGroup(chunkGroupMetaData.getDeviceID());
     long version = chunkGroupMetaData.getVersion();
     for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
-      fileWriter.writeChunk(chunk, chunkMetaData);
+      fileWriter.writeChunk(reader, chunkMetaData);
       context.incTotalPointWritten(chunkMetaData.getNumOfPoints());
     }
     fileWriter.endChunkGroup(version + 1);
@@ -231,6 +230,7 @@ class MergeFileTask {
           .moveFile(new File(seqFile.getFile().getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX),
               new File(nextMergeVersionFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
       seqFile.setFile(nextMergeVersionFile);
+      seqFile.setBloomFilter(fileWriter.getBloomFilter());
     } finally {
       seqFile.getWriteQueryLock().writeLock().unlock();
     }
@@ -254,8 +254,7 @@ class MergeFileTask {
       for (; chunkIdx < chunkMetaDataList.size(); chunkIdx ++) {
         ChunkMetaData metaData = chunkMetaDataList.get(chunkIdx);
         if (metaData.getStartTime() == startTime) {
-          Chunk chunk = reader.readMemChunk(metaData);
-          fileWriter.writeChunk(chunk, metaData);
+          fileWriter.writeChunk(reader, metaData);
           maxVersion = metaData.getVersion() > maxVersion ? metaData.getVersion() : maxVersion;
           context.incTotalPointWritten(metaData.getNumOfPoints());
           break;
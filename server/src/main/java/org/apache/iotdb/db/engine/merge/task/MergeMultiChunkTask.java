@@ -282,11 +282,7 @@ class MergeMultiChunkTask {
       boolean chunkTooSmall = MergeUtils
               .isChunkTooSmall(ptWrittens[pathIdx], currMeta, isLastChunk, minChunkPointNum);
 
-      Chunk chunk;
-      synchronized (reader) {
-        chunk = reader.readMemChunk(currMeta);
-      }
-      ptWrittens[pathIdx] = mergeChunkV2(currMeta, chunkOverflowed, chunkTooSmall, chunk,
+      ptWrittens[pathIdx] = mergeChunkV2(currMeta, chunkOverflowed, chunkTooSmall, reader,
               ptWrittens[pathIdx], pathIdx, mergeFileWriter, unseqReaders[pathIdx], chunkWriter,
               currFile);
 
@@ -322,7 +318,7 @@ class MergeMultiChunkTask {
    * SK isn't modified
    *
    *
-   * 2. write SK to .merge.file without compressing when:
+   * 2. copy SK to .merge.file as raw bytes, without loading it, when:
    * is full merge &
    * there isn't unclosed chunk before &
    * SK is big enough &
@@ -335,7 +331,7 @@ class MergeMultiChunkTask {
    *
    */
   private int mergeChunkV2(ChunkMetaData currMeta, boolean chunkOverflowed,
-      boolean chunkTooSmall,Chunk chunk, int lastUnclosedChunkPoint, int pathIdx,
+      boolean chunkTooSmall, TsFileSequenceReader reader, int lastUnclosedChunkPoint, int pathIdx,
       TsFileIOWriter mergeFileWriter, IPointReader unseqReader,
       IChunkWriter chunkWriter, TsFileResource currFile) throws IOException {
 
@@ -350,10 +346,12 @@ class MergeMultiChunkTask {
       return 0;
     }
 
-    // write SK to .merge.file without compressing
+    // copy SK to .merge.file without reading it into memory
     if (fullMerge && lastUnclosedChunkPoint == 0 && !chunkTooSmall && !chunkOverflowed && !chunkModified) {
       synchronized (mergeFileWriter) {
-        mergeFileWriter.writeChunk(chunk, currMeta);
+        synchronized (reader) {
+          mergeFileWriter.writeChunk(reader, currMeta);
+        }
       }
       mergeContext.incTotalPointWritten(currMeta.getNumOfPoints());
       mergeContext.incTotalChunkWritten();
@@ -361,6 +359,10 @@ class MergeMultiChunkTask {
       return 0;
     }
 
+    Chunk chunk;
+    synchronized (reader) {
+      chunk = reader.readMemChunk(currMeta);
+    }
     // 3.1 SK isn't overflowed, just uncompress and write sequence chunk
     if (!chunkOverflowed) {
       unclosedChunkPoint += MergeUtils.writeChunkWithoutUnseq(chunk, chunkWriter);
@@ -31,6 +31,8 @@ import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.apache.iotdb.db.utils.MergeUtils;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -85,6 +87,7 @@ public class MergeTask implements Callable<Void> {
 
   @Override
   public Void call() throws Exception {
+    long startTime = System.nanoTime();
     try  {
       doMerge();
     } catch (Exception e) {
@@ -95,6 +98,7 @@ public class MergeTask implements Callable<Void> {
       callback.call(Collections.emptyList(), Collections.emptyList(), new File(storageGroupSysDir, MergeLogger.MERGE_LOG_NAME));
       throw e;
     }
+    StageMetrics.getInstance().record(Stage.MERGE, startTime);
     return null;
   }
 
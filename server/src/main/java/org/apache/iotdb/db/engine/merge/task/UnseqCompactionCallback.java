@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.task;
+
+import java.util.List;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+
+@FunctionalInterface
+public interface UnseqCompactionCallback {
+
+  /**
+   * On calling this method, the callee should:
+   *    1. replace the unseqFiles with the new unseqFile in the unseq file list.
+   *    2. write the merging modifications into the new unseqFile.
+   *    3. remove the unseqFiles.
+   *    4. exit merging status
+   * @param unseqFiles the merged unseqFiles
+   * @param newUnseqFile the file containing all data of unseqFiles, null if the compaction
+   * failed and unseqFiles should be kept
+   */
+  void call(List<TsFileResource> unseqFiles, TsFileResource newUnseqFile);
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge.task;
+
+import static org.apache.iotdb.db.utils.MergeUtils.writeTVPair;
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.CachedUnseqResourceMergeReader;
+import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.Schema;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * UnseqCompactionTask merges adjacent unseqFiles into one new unseqFile without touching any
+ * seqFile, so that a query reads fewer unseq sources of a series. Modifications of the unseqFiles
+ * are applied while reading and, as in a query, a point of a later unseqFile overwrites the one of
+ * an earlier unseqFile with the same timestamp. The new file is first written with suffix
+ * ".unseq_compaction" and then named after the last unseqFile with its merge version increased,
+ * so it sorts at the place of the merged files when the system reboots.
+ * <p>
+ * The merge version of an unseqFile is the number of compactions its data went through, and only
+ * files of the same merge version are compacted together. So the output of a compaction is not
+ * rewritten with each newly flushed unseqFile next to it, but only once there are enough outputs
+ * of its merge version, and every point is rewritten once for each merge version.
+ */
+public class UnseqCompactionTask implements Callable<Void> {
+
+  public static final String UNSEQ_COMPACTION_SUFFIX = ".unseq_compaction";
+  private static final Logger logger = LoggerFactory.getLogger(UnseqCompactionTask.class);
+
+  private List<TsFileResource> unseqFiles;
+  private UnseqCompactionCallback callback;
+  private String taskName;
+
+  private Map<TsFileResource, TsFileSequenceReader> fileReaderCache = new HashMap<>();
+  private RestorableTsFileIOWriter fileWriter;
+  private File targetFile;
+  private boolean targetFileCreated = false;
+
+  public UnseqCompactionTask(List<TsFileResource> unseqFiles, UnseqCompactionCallback callback,
+      String taskName) {
+    this.unseqFiles = unseqFiles;
+    this.callback = callback;
+    this.taskName = taskName;
+  }
+
+  /**
+   * @return the first fileNumThreshold adjacent unseqFiles that are closed, not used by another
+   * merge or compress task, and of the same merge version, or an empty list if there are no such
+   * files
+   */
+  public static List<TsFileResource> selectFiles(List<TsFileResource> unseqFiles,
+      int fileNumThreshold) {
+    List<TsFileResource> candidates = new ArrayList<>();
+    long candidateMergeVersion = -1;
+    for (TsFileResource unseqFile : unseqFiles) {
+      if (!unseqFile.isClosed() || unseqFile.isDeleted() || unseqFile.isMerging()
+          || unseqFile.isCompressing()) {
+        candidates.clear();
+        continue;
+      }
+      long mergeVersion = getMergeVersion(unseqFile.getFile());
+      if (mergeVersion != candidateMergeVersion) {
+        candidates.clear();
+        candidateMergeVersion = mergeVersion;
+      }
+      candidates.add(unseqFile);
+      if (candidates.size() >= fileNumThreshold) {
+        return candidates;
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  public Void call() throws Exception {
+    TsFileResource newUnseqFile;
+    try {
+      newUnseqFile = doCompaction();
+    } catch (Exception e) {
+      logger.error("Runtime exception in unseq compaction {}", taskName, e);
+      cleanUp();
+      if (fileWriter != null) {
+        fileWriter.getFile().delete();
+      }
+      if (targetFileCreated) {
+        targetFile.delete();
+      }
+      // exit merging status but keep the unseqFiles
+      callback.call(unseqFiles, null);
+      throw e;
+    }
+    cleanUp();
+    callback.call(unseqFiles, newUnseqFile);
+    return null;
+  }
+
+  private TsFileResource doCompaction() throws IOException {
+    logger.info("{} starts to compact {} unseqFiles", taskName, unseqFiles.size());
+    long startTime = System.currentTimeMillis();
+
+    // devices are sorted so that chunk groups are written in a stable order
+    TreeSet<String> devices = new TreeSet<>();
+    Map<String, MeasurementSchema> measurementSchemaMap = new TreeMap<>();
+    for (TsFileResource unseqFile : unseqFiles) {
+      devices.addAll(unseqFile.getStartTimeMap().keySet());
+      measurementSchemaMap
+          .putAll(getFileReader(unseqFile).readFileMetadata().getMeasurementSchema());
+    }
+
+    targetFile = getCompactedFile(unseqFiles.get(unseqFiles.size() - 1).getFile());
+    if (targetFile.exists()) {
+      throw new IOException(String.format("%s cannot compact unseqFiles into existing file %s",
+          taskName, targetFile));
+    }
+    fileWriter = new RestorableTsFileIOWriter(
+        new File(targetFile.getPath() + UNSEQ_COMPACTION_SUFFIX));
+    TsFileResource newUnseqFile = new TsFileResource(targetFile);
+
+    long ptWritten = 0;
+    for (String device : devices) {
+      fileWriter.startChunkGroup(device);
+      for (MeasurementSchema measurementSchema : measurementSchemaMap.values()) {
+        ptWritten += compactSeries(new Path(device, measurementSchema.getMeasurementId()),
+            measurementSchema, newUnseqFile);
+      }
+      fileWriter.endChunkGroup(0);
+    }
+    fileWriter.endFile(new Schema(fileWriter.getKnownSchema()));
+    newUnseqFile.setBloomFilter(fileWriter.getBloomFilter());
+    newUnseqFile.setActualPageNum(fileWriter.getActualPageNum());
+    newUnseqFile.setVirtualPageNum(fileWriter.getVirtuaPageNum());
+
+    // the new file is complete, name it so it can be recovered
+    FileUtils.moveFile(fileWriter.getFile(), targetFile);
+    targetFileCreated = true;
+    newUnseqFile.serialize();
+    newUnseqFile.close();
+
+    if (logger.isInfoEnabled()) {
+      logger.info("{} compacts {} unseqFiles into {} after {}ms, {} points written", taskName,
+          unseqFiles.size(), targetFile, System.currentTimeMillis() - startTime, ptWritten);
+    }
+    return newUnseqFile;
+  }
+
+  private long compactSeries(Path path, MeasurementSchema measurementSchema,
+      TsFileResource newUnseqFile) throws IOException {
+    List<Chunk> chunks = collectChunks(path);
+    if (chunks.isEmpty()) {
+      return 0;
+    }
+    IPointReader unseqReader = new CachedUnseqResourceMergeReader(chunks,
+        measurementSchema.getType());
+    ChunkWriterImpl chunkWriter = new ChunkWriterImpl(measurementSchema);
+    long ptWritten = 0;
+    while (unseqReader.hasNext()) {
+      TimeValuePair timeValuePair = unseqReader.next();
+      writeTVPair(timeValuePair, chunkWriter);
+      newUnseqFile.updateStartTime(path.getDevice(), timeValuePair.getTimestamp());
+      newUnseqFile.updateEndTime(path.getDevice(), timeValuePair.getTimestamp());
+      ptWritten++;
+    }
+    unseqReader.close();
+    if (ptWritten > 0) {
+      fileWriter.addSchema(measurementSchema);
+      chunkWriter.writeToFileWriter(fileWriter);
+    }
+    return ptWritten;
+  }
+
+  /**
+   * read the chunks of a series from all unseqFiles in the order of the files, so that the chunks
+   * of later files get higher priorities.
+   */
+  private List<Chunk> collectChunks(Path path) throws IOException {
+    List<Chunk> chunks = new ArrayList<>();
+    for (TsFileResource unseqFile : unseqFiles) {
+      if (!unseqFile.containsDevice(path.getDevice())) {
+        continue;
+      }
+      TsFileSequenceReader reader = getFileReader(unseqFile);
+      List<ChunkMetaData> chunkMetaDataList = reader.getChunkMetadataList(path);
+      if (chunkMetaDataList.isEmpty()) {
+        continue;
+      }
+      List<Modification> pathModifications = new LinkedList<>();
+      for (Modification modification : unseqFile.getModFile().getModifications()) {
+        if (modification.getPath().equals(path)) {
+          pathModifications.add(modification);
+        }
+      }
+      if (!pathModifications.isEmpty()) {
+        QueryUtils.modifyChunkMetaData(chunkMetaDataList, pathModifications);
+      }
+      for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+        chunks.add(reader.readMemChunk(chunkMetaData));
+      }
+    }
+    return chunks;
+  }
+
+  private TsFileSequenceReader getFileReader(TsFileResource tsFileResource) throws IOException {
+    TsFileSequenceReader reader = fileReaderCache.get(tsFileResource);
+    if (reader == null) {
+      reader = new TsFileSequenceReader(tsFileResource.getFile().getPath(), true, false);
+      fileReaderCache.put(tsFileResource, reader);
+    }
+    return reader;
+  }
+
+  private void cleanUp() throws IOException {
+    for (TsFileSequenceReader reader : fileReaderCache.values()) {
+      reader.close();
+    }
+    fileReaderCache.clear();
+    if (fileWriter != null && fileWriter.canWrite()) {
+      fileWriter.close();
+    }
+    for (TsFileResource unseqFile : unseqFiles) {
+      unseqFile.setMerging(false);
+    }
+  }
+
+  /**
+   * @return the file named after the given one with its merge version increased by 1
+   */
+  private static File getCompactedFile(File unseqFile) {
+    String name = unseqFile.getName().replace(TSFILE_SUFFIX, "");
+    int separatorIndex = name.lastIndexOf(IoTDBConstant.TSFILE_NAME_SEPARATOR);
+    long mergeVersion = getMergeVersion(unseqFile) + 1;
+    return new File(unseqFile.getParentFile(),
+        name.substring(0, separatorIndex + 1) + mergeVersion + TSFILE_SUFFIX);
+  }
+
+  private static long getMergeVersion(File unseqFile) {
+    String name = unseqFile.getName().replace(TSFILE_SUFFIX, "");
+    int separatorIndex = name.lastIndexOf(IoTDBConstant.TSFILE_NAME_SEPARATOR);
+    return Long.parseLong(name.substring(separatorIndex + 1));
+  }
+}
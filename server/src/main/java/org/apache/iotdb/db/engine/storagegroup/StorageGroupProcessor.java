@@ -19,15 +19,16 @@
 package org.apache.iotdb.db.engine.storagegroup;
 
 import static org.apache.iotdb.db.engine.merge.task.MergeTask.MERGE_SUFFIX;
+import static org.apache.iotdb.db.engine.merge.task.UnseqCompactionTask.UNSEQ_COMPACTION_SUFFIX;
 import static org.apache.iotdb.db.engine.storagegroup.TsFileResource.TEMP_SUFFIX;
 import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -35,8 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBConstant;
@@ -48,12 +52,14 @@ import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
+import org.apache.iotdb.db.engine.merge.selector.CostBasedMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.IMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MaxFileMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MaxSeriesMergeFileSelector;
 import org.apache.iotdb.db.engine.merge.selector.MergeFileStrategy;
 import org.apache.iotdb.db.engine.merge.task.MergeTask;
 import org.apache.iotdb.db.engine.merge.task.RecoverMergeTask;
+import org.apache.iotdb.db.engine.merge.task.UnseqCompactionTask;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
@@ -129,9 +135,16 @@ public class StorageGroupProcessor {
    * a read write lock for guaranteeing concurrent safety when accessing all fields in this class
    * (i.e., schema, (un)sequenceFileList, work(un)SequenceTsFileProcessor,
    * closing(Un)SequenceTsFileProcessor, latestTimeForEachDevice, and
-   * latestFlushedTimeForEachDevice)
+   * latestFlushedTimeForEachDevice). Insertions only hold its read lock together with the shard
+   * lock of their device, and take its write lock to create, flush or close a TsFileProcessor.
    */
   private final ReadWriteLock insertLock = new ReentrantReadWriteLock();
+  /**
+   * device -> shard lock by the hash of the device id. The entries of one device in
+   * latestTimeForEachDevice, latestFlushedTimeForEachDevice and the working memtables are only
+   * changed with its shard lock.
+   */
+  private final Lock[] insertShardLocks;
   /**
    * closeStorageGroupCondition is used to wait for all currently closing TsFiles to be done.
    */
@@ -157,14 +170,14 @@ public class StorageGroupProcessor {
    * changes upon timestamps of each device, and is used to update latestFlushedTimeForEachDevice
    * when a flush is issued.
    */
-  private Map<String, Long> latestTimeForEachDevice = new HashMap<>();
+  private Map<String, Long> latestTimeForEachDevice = new ConcurrentHashMap<>();
   /**
    * device -> largest timestamp of the latest memtable to be submitted to asyncTryToFlush
    * latestFlushedTimeForEachDevice determines whether a data point should be put into a sequential
    * file or an unsequential file. Data of some device with timestamp less than or equals to the
    * device's latestFlushedTime should go into an unsequential file.
    */
-  private Map<String, Long> latestFlushedTimeForEachDevice = new HashMap<>();
+  private Map<String, Long> latestFlushedTimeForEachDevice = new ConcurrentHashMap<>();
   private String storageGroupName;
   private File storageGroupSysDir;
   /**
@@ -205,6 +218,11 @@ public class StorageGroupProcessor {
   private long compressStartTime;
   private AtomicLong writePointNum = new AtomicLong(0);
 
+  /**
+   * the last time (in ms) that an insertion arrives, used to find cold storage groups.
+   */
+  private volatile long lastInsertTime = Long.MIN_VALUE;
+
   /**
    * compressLock is to be used in the compress process. Concurrent queries, deletions，merges and
    * compresses may result in losing some deletion in the compressed new file, so a lock is necessary.
@@ -227,6 +245,11 @@ public class StorageGroupProcessor {
   public StorageGroupProcessor(String systemInfoDir, String storageGroupName)
       throws StorageGroupProcessorException {
     this.storageGroupName = storageGroupName;
+    this.insertShardLocks = new Lock[IoTDBDescriptor.getInstance().getConfig()
+        .getInsertShardNum()];
+    for (int i = 0; i < insertShardLocks.length; i++) {
+      insertShardLocks[i] = new ReentrantLock();
+    }
 
     // construct the file schema
     this.schema = constructSchema(storageGroupName);
@@ -311,6 +334,16 @@ public class StorageGroupProcessor {
       // the process was interrupted before the merged files could be named
       continueFailedRenames(fileFolder, MERGE_SUFFIX);
 
+      // an interrupted unseq compaction leaves an incomplete file while the compacted unseq files
+      // are still there
+      File[] compactionFiles = fsFactory.listFilesBySuffix(fileFolder.getAbsolutePath(),
+          UNSEQ_COMPACTION_SUFFIX);
+      if (compactionFiles != null) {
+        for (File compactionFile : compactionFiles) {
+          compactionFile.delete();
+        }
+      }
+
       Collections.addAll(tsFiles,
           fsFactory.listFilesBySuffix(fileFolder.getAbsolutePath(), TSFILE_SUFFIX));
     }
@@ -402,61 +435,93 @@ public class StorageGroupProcessor {
     if (!checkTTL(insertPlan.getTime())) {
       throw new OutOfTTLException(insertPlan.getTime(), (System.currentTimeMillis() - dataTTL));
     }
-    writeLock();
-    try {
-      // init map
-      latestTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
-      latestFlushedTimeForEachDevice.putIfAbsent(insertPlan.getDeviceId(), Long.MIN_VALUE);
-
-      // insert to sequence or unSequence file
-      insertToTsFileProcessor(insertPlan,
-          insertPlan.getTime() > latestFlushedTimeForEachDevice.get(insertPlan.getDeviceId()));
+    lastInsertTime = System.currentTimeMillis();
+    String deviceId = insertPlan.getDeviceId();
+    Lock shardLock = getShardLock(deviceId);
+    while (true) {
+      boolean sequence;
+      TsFileProcessor tsFileProcessor;
+      shardLock(shardLock);
+      try {
+        // init map
+        latestTimeForEachDevice.putIfAbsent(deviceId, Long.MIN_VALUE);
+        latestFlushedTimeForEachDevice.putIfAbsent(deviceId, Long.MIN_VALUE);
+
+        // insert to sequence or unSequence file
+        sequence = insertPlan.getTime() > latestFlushedTimeForEachDevice.get(deviceId);
+        tsFileProcessor = getWorkTsFileProcessor(sequence);
+        if (tsFileProcessor != null) {
+          insertToTsFileProcessor(insertPlan, tsFileProcessor);
+          writePointNum.incrementAndGet();
+        }
+      } finally {
+        shardUnlock(shardLock);
+      }
 
-      writePointNum.incrementAndGet();
-    } finally {
-      writeUnlock();
+      if (tsFileProcessor != null) {
+        flushIfNecessary(tsFileProcessor, sequence);
+        return;
+      }
+      if (!createWorkTsFileProcessor(sequence)) {
+        return;
+      }
     }
   }
 
   public Integer[] insertBatch(BatchInsertPlan batchInsertPlan) throws QueryProcessException {
-    writeLock();
-    try {
-      // init map
-      latestTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
-      latestFlushedTimeForEachDevice.putIfAbsent(batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
-
-      Integer[] results = new Integer[batchInsertPlan.getRowCount()];
-      List<Integer> sequenceIndexes = new ArrayList<>();
-      List<Integer> unsequenceIndexes = new ArrayList<>();
+    lastInsertTime = System.currentTimeMillis();
+    String deviceId = batchInsertPlan.getDeviceId();
+    int rowCount = batchInsertPlan.getRowCount();
+    long[] times = batchInsertPlan.getTimes();
+    Integer[] results = new Integer[rowCount];
+    Lock shardLock = getShardLock(deviceId);
+
+    // rows are inserted by contiguous ranges that are all sequence or all unsequence, so an
+    // ordered batch is usually inserted as a whole
+    int start = 0;
+    while (start < rowCount) {
+      boolean sequence;
+      int end;
+      TsFileProcessor tsFileProcessor;
+      shardLock(shardLock);
+      try {
+        // init map
+        latestTimeForEachDevice.putIfAbsent(deviceId, Long.MIN_VALUE);
+        latestFlushedTimeForEachDevice.putIfAbsent(deviceId, Long.MIN_VALUE);
 
-      long lastFlushTime = latestFlushedTimeForEachDevice.get(batchInsertPlan.getDeviceId());
-      for (int i = 0; i < batchInsertPlan.getRowCount(); i++) {
-        long currTime = batchInsertPlan.getTimes()[i];
         // skip points that do not satisfy TTL
-        if (!checkTTL(currTime)) {
-          results[i] = TSStatusCode.OUT_OF_TTL_ERROR.getStatusCode();
-          continue;
+        while (start < rowCount && !checkTTL(times[start])) {
+          results[start++] = TSStatusCode.OUT_OF_TTL_ERROR.getStatusCode();
         }
-        results[i] = TSStatusCode.SUCCESS_STATUS.getStatusCode();
-        if (currTime > lastFlushTime) {
-          sequenceIndexes.add(i);
-        } else {
-          unsequenceIndexes.add(i);
+        if (start == rowCount) {
+          break;
         }
+        // the flushed time may be changed by a flush between two ranges
+        long lastFlushTime = latestFlushedTimeForEachDevice.get(deviceId);
+        sequence = times[start] > lastFlushTime;
+        end = start + 1;
+        while (end < rowCount && checkTTL(times[end]) && (times[end] > lastFlushTime) == sequence) {
+          end++;
+        }
+        tsFileProcessor = getWorkTsFileProcessor(sequence);
+        if (tsFileProcessor != null) {
+          Arrays.fill(results, start, end, TSStatusCode.SUCCESS_STATUS.getStatusCode());
+          insertBatchToTsFileProcessor(batchInsertPlan, start, end, tsFileProcessor, results);
+          start = end;
+        }
+      } finally {
+        shardUnlock(shardLock);
       }
 
-      if (!sequenceIndexes.isEmpty()) {
-        insertBatchToTsFileProcessor(batchInsertPlan, sequenceIndexes, true, results);
-      }
-
-      if (!unsequenceIndexes.isEmpty()) {
-        insertBatchToTsFileProcessor(batchInsertPlan, unsequenceIndexes, false, results);
+      if (tsFileProcessor != null) {
+        flushIfNecessary(tsFileProcessor, sequence);
+      } else if (!createWorkTsFileProcessor(sequence)) {
+        Arrays.fill(results, start, end, TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+        start = end;
       }
-      writePointNum.addAndGet(batchInsertPlan.getRowCount());
-      return results;
-    } finally {
-      writeUnlock();
     }
+    writePointNum.addAndGet(rowCount);
+    return results;
   }
 
   /**
@@ -466,60 +531,42 @@ public class StorageGroupProcessor {
     return dataTTL == Long.MAX_VALUE || (System.currentTimeMillis() - time) <= dataTTL;
   }
 
-  private void insertBatchToTsFileProcessor(BatchInsertPlan batchInsertPlan,
-      List<Integer> indexes, boolean sequence, Integer[] results) throws QueryProcessException {
-
-    TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(sequence);
-    if (tsFileProcessor == null) {
-      for (int index : indexes) {
-        results[index] = TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
-      }
-      return;
-    }
-
-    boolean result = tsFileProcessor.insertBatch(batchInsertPlan, indexes, results);
+  private void insertBatchToTsFileProcessor(BatchInsertPlan batchInsertPlan, int start, int end,
+      TsFileProcessor tsFileProcessor, Integer[] results) throws QueryProcessException {
+    boolean result = tsFileProcessor.insertBatch(batchInsertPlan, start, end, results);
 
     // try to update the latest time of the device of this tsRecord
     if (result && latestTimeForEachDevice.get(batchInsertPlan.getDeviceId()) < batchInsertPlan
         .getMaxTime()) {
       latestTimeForEachDevice.put(batchInsertPlan.getDeviceId(), batchInsertPlan.getMaxTime());
     }
-
-    // check memtable size and may asyncTryToFlush the work memtable
-    if (tsFileProcessor.shouldFlush()) {
-      logger.info("The memtable size {} reaches the threshold, async flush it to tsfile: {}",
-          tsFileProcessor.getWorkMemTableMemory(),
-          tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
-
-      if (tsFileProcessor.shouldClose()) {
-        moveOneWorkProcessorToClosingList(sequence);
-      } else {
-        tsFileProcessor.asyncFlush();
-      }
-    }
   }
 
-  private void insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence)
+  private void insertToTsFileProcessor(InsertPlan insertPlan, TsFileProcessor tsFileProcessor)
       throws QueryProcessException {
-    TsFileProcessor tsFileProcessor;
-    boolean result;
-
-    tsFileProcessor = getOrCreateTsFileProcessor(sequence);
-
-    if (tsFileProcessor == null) {
-      return;
-    }
-
     // insert TsFileProcessor
-    result = tsFileProcessor.insert(insertPlan);
+    boolean result = tsFileProcessor.insert(insertPlan);
 
     // try to update the latest time of the device of this tsRecord
     if (result && latestTimeForEachDevice.get(insertPlan.getDeviceId()) < insertPlan.getTime()) {
       latestTimeForEachDevice.put(insertPlan.getDeviceId(), insertPlan.getTime());
     }
+  }
 
-    // check memtable size and may asyncTryToFlush the work memtable
-    if (tsFileProcessor.shouldFlush()) {
+  /**
+   * check memtable size and may asyncTryToFlush the work memtable. The write lock is held because
+   * flushing or closing changes the working TsFileProcessors and latestFlushedTimeForEachDevice.
+   */
+  private void flushIfNecessary(TsFileProcessor tsFileProcessor, boolean sequence) {
+    if (!tsFileProcessor.shouldFlush()) {
+      return;
+    }
+    writeLock();
+    try {
+      // another insertion may have flushed or closed it before the write lock is got
+      if (tsFileProcessor != getWorkTsFileProcessor(sequence) || !tsFileProcessor.shouldFlush()) {
+        return;
+      }
       logger.info("The memtable size {} reaches the threshold, async flush it to tsfile: {}",
           tsFileProcessor.getWorkMemTableMemory(),
           tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
@@ -529,6 +576,58 @@ public class StorageGroupProcessor {
       } else {
         tsFileProcessor.asyncFlush();
       }
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  /**
+   * asynchronously flush the working memtables that hold data if the write lock can be got at
+   * once, so that MemTableController can release memtables early without waiting for busy storage
+   * groups.
+   *
+   * @return the number of memtables submitted to flush
+   */
+  public int tryAsyncFlushWorkingMemTables() {
+    if (!insertLock.writeLock().tryLock()) {
+      return 0;
+    }
+    try {
+      int flushedNum = 0;
+      for (TsFileProcessor tsFileProcessor : new TsFileProcessor[]{workSequenceTsFileProcessor,
+          workUnSequenceTsFileProcessor}) {
+        if (tsFileProcessor != null && tsFileProcessor.hasWorkMemTableData()) {
+          logger.info("The memtable of tsfile {} is flushed early to release memory",
+              tsFileProcessor.getTsFileResource().getFile().getAbsolutePath());
+          tsFileProcessor.asyncFlush();
+          flushedNum++;
+        }
+      }
+      return flushedNum;
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  public long getLastInsertTime() {
+    return lastInsertTime;
+  }
+
+  private TsFileProcessor getWorkTsFileProcessor(boolean sequence) {
+    return sequence ? workSequenceTsFileProcessor : workUnSequenceTsFileProcessor;
+  }
+
+  /**
+   * create the working TsFileProcessor with the write lock if it does not exist.
+   *
+   * @return false if the TsFileProcessor cannot be created
+   */
+  private boolean createWorkTsFileProcessor(boolean sequence) {
+    writeLock();
+    try {
+      return getOrCreateTsFileProcessor(sequence) != null;
+    } finally {
+      writeUnlock();
     }
   }
 
@@ -768,6 +867,9 @@ public class StorageGroupProcessor {
     insertLock.readLock().lock();
     mergeLock.readLock().lock();
     compressLock.readLock().lock();
+    // the working memtables of the device are not changed by insertions during the query
+    Lock shardLock = getShardLock(deviceId);
+    shardLock.lock();
     synchronized (lruForSensorUsedInQuery) {
       if (lruForSensorUsedInQuery.size() >= MAX_CACHE_SENSORS) {
         lruForSensorUsedInQuery.removeFirst();
@@ -790,6 +892,7 @@ public class StorageGroupProcessor {
       dataSource.setDataTTL(dataTTL);
       return dataSource;
     } finally {
+      shardLock.unlock();
       insertLock.readLock().unlock();
       mergeLock.readLock().unlock();
       compressLock.readLock().unlock();
@@ -827,6 +930,24 @@ public class StorageGroupProcessor {
     insertLock.writeLock().lock();
   }
 
+  private Lock getShardLock(String deviceId) {
+    return insertShardLocks[Math.floorMod(deviceId.hashCode(), insertShardLocks.length)];
+  }
+
+  /**
+   * insertions hold the read lock of insertLock and the shard lock of their device, so that
+   * insertions of devices in different shards run in parallel.
+   */
+  private void shardLock(Lock shardLock) {
+    insertLock.readLock().lock();
+    shardLock.lock();
+  }
+
+  private void shardUnlock(Lock shardLock) {
+    shardLock.unlock();
+    insertLock.readLock().unlock();
+  }
+
   private void writeUnlock() {
     insertLock.writeLock().unlock();
   }
@@ -843,6 +964,7 @@ public class StorageGroupProcessor {
     TSDataType dataType = mSchema.getType();
 
     List<TsFileResource> tsfileResourcesForQuery = new ArrayList<>();
+    String seriesPath = deviceId + IoTDBConstant.PATH_SEPARATOR + measurementId;
     long timeLowerBound = dataTTL != Long.MAX_VALUE ? System.currentTimeMillis() - dataTTL : Long
         .MIN_VALUE;
     context.setQueryTimeLowerBound(timeLowerBound);
@@ -856,6 +978,15 @@ public class StorageGroupProcessor {
 
       try {
         if (tsFileResource.isClosed()) {
+          // the series is not in this file according to its bloom filter
+          if (!tsFileResource.mayContainSeries(seriesPath)) {
+            continue;
+          }
+          if (filter == null || filter.satisfyStartEndTime(
+              tsFileResource.getStartTimeMap().get(deviceId),
+              tsFileResource.getEndTimeMap().getOrDefault(deviceId, Long.MAX_VALUE))) {
+            tsFileResource.increaseQueryHitCount();
+          }
           tsfileResourcesForQuery.add(tsFileResource);
         } else {
           if(filter!=null&&!filter.satisfyStartEndTime(tsFileResource.getStartTimeMap().get(deviceId),Long.MAX_VALUE)){
@@ -1021,6 +1152,7 @@ public class StorageGroupProcessor {
       closingSequenceTsFileProcessor.remove(tsFileProcessor);
     } else {
       closingUnSequenceTsFileProcessor.remove(tsFileProcessor);
+      checkUnseqCompaction();
     }
     logger.info("signal closing storage group condition in {}", storageGroupName);
     synchronized (closeStorageGroupCondition) {
@@ -1177,7 +1309,12 @@ public class StorageGroupProcessor {
       //long timeHigherBound = System.currentTimeMillis() - compressTTL;
       long curTime = Collections.max(latestTimeForEachDevice.values());
       long timeHigherBound = curTime - compressTTL;
-      CompressResource mergeResource = new CompressResource(sequenceFileList, timeHigherBound);
+      // unseqFiles inside the compressed time range are merged in the same pass
+      List<TsFileResource> unseqFiles =
+          IoTDBDescriptor.getInstance().getConfig().isEnableCompressUnseqMerge()
+              ? unSequenceFileList : Collections.emptyList();
+      CompressResource mergeResource = new CompressResource(sequenceFileList, unseqFiles,
+          timeHigherBound);
 
       try {
 //        List[] mergeFiles = fileSelector.select();
@@ -1196,6 +1333,11 @@ public class StorageGroupProcessor {
           tsFileResource.setCompressing(true);
           logger.info("{} set file {} compress.", storageGroupName, tsFileResource.getFile().getAbsolutePath());
         }
+        for (TsFileResource tsFileResource : mergeResource.getUnseqFiles()) {
+          tsFileResource.setCompressing(true);
+          logger.info("{} set unseq file {} compress.", storageGroupName,
+              tsFileResource.getFile().getAbsolutePath());
+        }
         int concurrentCompressSeriesNum = IoTDBDescriptor.getInstance().getConfig().getCompressChunkSubthreadNum();
         CompressTask compressTask = new CompressTask(mergeResource, storageGroupSysDir.getPath(),
             this::compressEndAction, taskName,  concurrentCompressSeriesNum,
@@ -1204,8 +1346,9 @@ public class StorageGroupProcessor {
             storageGroupSysDir + File.separator + COMPRESSING_MODIFICATION_FILE_NAME);
         CompressManager.getINSTANCE().submitMainTask(compressTask);
         if (logger.isInfoEnabled()) {
-          logger.info("{} submits a compress task {}, compressing {} seqFiles",
-              storageGroupName, taskName, sequenceFileList.size());
+          logger.info("{} submits a compress task {}, compressing {} seqFiles, {} unseqFiles",
+              storageGroupName, taskName, sequenceFileList.size(),
+              mergeResource.getUnseqFiles().size());
         }
         compressStartTime = System.currentTimeMillis();
 
@@ -1217,6 +1360,73 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * Submit an UnseqCompactionTask if there are unseq_compaction_file_num_threshold adjacent closed
+   * unseqFiles of the same merge version. Only adjacent files are merged so the priorities of the other
+   * unseqFiles are kept. It gives up if a merge is running or the lock is busy, the next closed
+   * unseqFile checks again.
+   */
+  private void checkUnseqCompaction() {
+    int fileNumThreshold = IoTDBDescriptor.getInstance().getConfig()
+        .getUnseqCompactionFileNumThreshold();
+    if (fileNumThreshold <= 1 || !insertLock.writeLock().tryLock()) {
+      return;
+    }
+    try {
+      if (isMerging) {
+        return;
+      }
+      List<TsFileResource> candidates = UnseqCompactionTask
+          .selectFiles(unSequenceFileList, fileNumThreshold);
+      if (candidates.isEmpty()) {
+        return;
+      }
+      for (TsFileResource unseqFile : candidates) {
+        unseqFile.setMerging(true);
+      }
+      String taskName = storageGroupName + "-unseq-" + System.currentTimeMillis();
+      mergingModification = new ModificationFile(
+          storageGroupSysDir + File.separator + MERGING_MODIFICATION_FILE_NAME);
+      MergeManager.getINSTANCE().submitMainTask(
+          new UnseqCompactionTask(candidates, this::unseqCompactionEndAction, taskName));
+      logger.info("{} submits an unseq compaction task {}, compacting {} unseqFiles",
+          storageGroupName, taskName, candidates.size());
+      isMerging = true;
+      mergeStartTime = System.currentTimeMillis();
+    } finally {
+      writeUnlock();
+    }
+  }
+
+  protected void unseqCompactionEndAction(List<TsFileResource> unseqFiles,
+      TsFileResource newUnseqFile) {
+    logger.info("{} an unseq compaction task is ending...", storageGroupName);
+    if (newUnseqFile != null) {
+      writeLock();
+      mergeLock.writeLock().lock();
+      try {
+        // the new file takes the place of the merged files so the priorities are unchanged
+        int index = unSequenceFileList.indexOf(unseqFiles.get(0));
+        unSequenceFileList.removeAll(unseqFiles);
+        unSequenceFileList.add(Math.max(index, 0), newUnseqFile);
+        // deletions during the compaction may have missed the new file
+        updateMergeModification(newUnseqFile);
+      } finally {
+        mergeLock.writeLock().unlock();
+        writeUnlock();
+      }
+      removeUnseqFiles(unseqFiles);
+    }
+    mergeLock.writeLock().lock();
+    try {
+      removeMergingModification();
+      isMerging = false;
+    } finally {
+      mergeLock.writeLock().unlock();
+    }
+    logger.info("{} an unseq compaction task ends", storageGroupName);
+  }
+
   private IMergeFileSelector getMergeFileSelector(long budget, MergeResource resource) {
     MergeFileStrategy strategy = IoTDBDescriptor.getInstance().getConfig().getMergeFileStrategy();
     switch (strategy) {
@@ -1224,6 +1434,8 @@ public class StorageGroupProcessor {
         return new MaxFileMergeFileSelector(resource, budget);
       case MAX_SERIES_NUM:
         return new MaxSeriesMergeFileSelector(resource, budget);
+      case COST_BASED:
+        return new CostBasedMergeFileSelector(resource, budget);
       default:
         throw new UnsupportedOperationException("Unknown MergeFileStrategy " + strategy);
     }
@@ -1335,24 +1547,32 @@ public class StorageGroupProcessor {
     }
   }
 
-  protected void compressEndAction(List<TsFileResource> seqFiles, Boolean isDeleteUncompressTsFile,
-      File mergeLog) {
+  protected void compressEndAction(List<TsFileResource> seqFiles,
+      List<TsFileResource> unseqFiles, Boolean isDeleteUncompressTsFile, File mergeLog) {
     logger.info("{} a compress task is ending...", storageGroupName);
 
-    for (int i = 0; i < seqFiles.size(); i++) {
-      TsFileResource seqFile = seqFiles.get(i);
+    for (TsFileResource seqFile : seqFiles) {
       compressLock.writeLock().lock();
       try {
         updateCompressModification(seqFile);
-        if (i == seqFiles.size() - 1) {
-          removeCompressingModification();
-          isCompressing = false;
-          mergeLog.delete();
-        }
       } finally {
         compressLock.writeLock().unlock();
       }
     }
+
+    if (!unseqFiles.isEmpty()) {
+      // their points are in the compressed files, which have all replaced the seqFiles by now
+      removeUnseqFiles(unseqFiles);
+    }
+
+    compressLock.writeLock().lock();
+    try {
+      removeCompressingModification();
+      isCompressing = false;
+      mergeLog.delete();
+    } finally {
+      compressLock.writeLock().unlock();
+    }
     logger.info("{} a compress task ends", storageGroupName);
   }
 
@@ -1431,19 +1651,38 @@ public class StorageGroupProcessor {
     if(newTsFileResource==null){
       return;
     }
-    File tsfileToBeInserted = newTsFileResource.getFile();
+    loadNewTsFiles(Collections.singletonList(newTsFileResource));
+  }
+
+  /**
+   * Load a batch of new tsfiles to storage group processor in the given order. The locks of the
+   * storage group are taken only once for the whole batch.
+   *
+   * @param newTsFileResources tsfile resources of this storage group
+   * @UsedBy sync module.
+   */
+  public void loadNewTsFiles(List<TsFileResource> newTsFileResources)
+      throws TsFileProcessorException {
+    if (newTsFileResources.isEmpty()) {
+      return;
+    }
     writeLock();
     mergeLock.writeLock().lock();
     compressLock.writeLock().lock();
     try {
-      loadTsFileByType(LoadTsFileType.LOAD_SEQUENCE, tsfileToBeInserted, newTsFileResource,
-          getBinarySearchIndex(newTsFileResource));
-      updateLatestTimeMap(newTsFileResource);
-    } catch (TsFileProcessorException | DiskSpaceInsufficientException e) {
-      logger.error("Failed to append the tsfile {} to storage group processor {}.",
-          tsfileToBeInserted.getAbsolutePath(), tsfileToBeInserted.getParentFile().getName());
-      IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
-      throw new TsFileProcessorException(e);
+      for (TsFileResource newTsFileResource : newTsFileResources) {
+        File tsfileToBeInserted = newTsFileResource.getFile();
+        try {
+          loadTsFileByType(LoadTsFileType.LOAD_SEQUENCE, tsfileToBeInserted, newTsFileResource,
+              getBinarySearchIndex(newTsFileResource));
+          updateLatestTimeMap(newTsFileResource);
+        } catch (TsFileProcessorException | DiskSpaceInsufficientException e) {
+          logger.error("Failed to append the tsfile {} to storage group processor {}.",
+              tsfileToBeInserted.getAbsolutePath(), tsfileToBeInserted.getParentFile().getName());
+          IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
+          throw new TsFileProcessorException(e);
+        }
+      }
     } finally {
       compressLock.writeLock().unlock();
       mergeLock.writeLock().unlock();
@@ -20,8 +20,8 @@ package org.apache.iotdb.db.engine.storagegroup;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -52,6 +52,7 @@ import org.apache.iotdb.db.qp.constant.DatetimeUtils;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.rescon.MemTableController;
 import org.apache.iotdb.db.rescon.MemTablePool;
 import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
@@ -90,7 +91,13 @@ public class TsFileProcessor {
    */
   private volatile boolean shouldClose;
 
-  private IMemTable workMemTable;
+  /**
+   * insertions of different devices may create and write it concurrently, see
+   * getOrCreateWorkMemTable().
+   */
+  private volatile IMemTable workMemTable;
+
+  private final Object workMemTableCreateLock = new Object();
 
   /**
    * sync this object in query() and asyncTryToFlush()
@@ -140,12 +147,8 @@ public class TsFileProcessor {
    */
   public boolean insert(InsertPlan insertPlan) throws QueryProcessException {
 
-    if (workMemTable == null) {
-      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
-    }
-
     // insert insertPlan to the work memtable
-    workMemTable.insert(insertPlan);
+    getOrCreateWorkMemTable().insert(insertPlan);
 
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
       try {
@@ -167,25 +170,22 @@ public class TsFileProcessor {
     return true;
   }
 
-  public boolean insertBatch(BatchInsertPlan batchInsertPlan, List<Integer> indexes,
+  /**
+   * insert the rows in [start, end) of the batch.
+   */
+  public boolean insertBatch(BatchInsertPlan batchInsertPlan, int start, int end,
       Integer[] results) throws QueryProcessException {
 
-    if (workMemTable == null) {
-      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
-    }
-
     // insert insertPlan to the work memtable
-    workMemTable.insertBatch(batchInsertPlan, indexes);
+    getOrCreateWorkMemTable().insertBatch(batchInsertPlan, start, end);
 
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
       try {
-        batchInsertPlan.setIndex(new HashSet<>(indexes));
+        batchInsertPlan.setRange(start, end);
         getLogNode().write(batchInsertPlan);
       } catch (IOException e) {
         logger.error("write WAL failed", e);
-        for (int index: indexes) {
-          results[index] = TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
-        }
+        Arrays.fill(results, start, end, TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
         return false;
       }
     }
@@ -201,6 +201,19 @@ public class TsFileProcessor {
     return true;
   }
 
+  private IMemTable getOrCreateWorkMemTable() {
+    IMemTable memTable = workMemTable;
+    if (memTable == null) {
+      synchronized (workMemTableCreateLock) {
+        if (workMemTable == null) {
+          workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
+        }
+        memTable = workMemTable;
+      }
+    }
+    return memTable;
+  }
+
   /**
    * Delete data which belongs to the timeseries `deviceId.measurementId` and the timestamp of which
    * <= 'timestamp' in the deletion. <br/>
@@ -255,11 +268,13 @@ public class TsFileProcessor {
    */
   private long getMemtableSizeThresholdBasedOnSeriesNum() {
     IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
-    return IoTDBConfigDynamicAdapter.getInstance().getTotalTimeseries() == 0 ? config
+    long threshold = IoTDBConfigDynamicAdapter.getInstance().getTotalTimeseries() == 0 ? config
         .getMemtableSizeThreshold() :
         config.getMemtableSizeThreshold() * config.getMaxMemtableNumber()
             / IoTDBConstant.MEMTABLE_NUM_IN_EACH_STORAGE_GROUP / IoTDBConfigDynamicAdapter.getInstance()
             .getTotalTimeseries() * MManager.getInstance().getSeriesNumber(storageGroupName);
+    // shrunk by MemTableController under memory pressure
+    return (long) (threshold * MemTableController.getInstance().getSizeRatio());
   }
 
 
@@ -441,7 +456,9 @@ public class TsFileProcessor {
           storageGroupName);
       try {
         writer.mark();
+        long startTime = System.currentTimeMillis();
         flushTask.syncFlushMemTable();
+        MemTableController.getInstance().recordFlushLatency(System.currentTimeMillis() - startTime);
       } catch (ExecutionException | InterruptedException | IOException e) {
         logger.error("meet error when flushing a memtable, change system mode to read-only", e);
         IoTDBDescriptor.getInstance().getConfig().setReadOnly(true);
@@ -504,6 +521,7 @@ public class TsFileProcessor {
     long closeStartTime = System.currentTimeMillis();
 
     writer.endFile(schema);
+    tsFileResource.setBloomFilter(writer.getBloomFilter());
     tsFileResource.setVirtualPageNum(writer.getVirtuaPageNum());
     tsFileResource.setActualPageNum(writer.getActualPageNum());
     tsFileResource.serialize();
@@ -529,7 +547,7 @@ public class TsFileProcessor {
     return managedByFlushManager;
   }
 
-  WriteLogNode getLogNode() {
+  synchronized WriteLogNode getLogNode() {
     if (logNode == null) {
       logNode = MultiFileLogNodeManager.getInstance()
           .getNode(storageGroupName + "-" + tsFileResource.getFile().getName());
@@ -555,6 +573,14 @@ public class TsFileProcessor {
     return flushingMemTables.size();
   }
 
+  /**
+   * @return whether the working memtable holds any data
+   */
+  boolean hasWorkMemTableData() {
+    IMemTable memTable = workMemTable;
+    return memTable != null && !memTable.isEmpty();
+  }
+
   long getWorkMemTableMemory() {
     return workMemTable.memSize();
   }
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -37,6 +38,7 @@ import org.apache.iotdb.db.utils.UpgradeUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,6 +92,20 @@ public class TsFileResource {
    */
   private ReadOnlyMemChunk readOnlyMemChunk;
 
+  /**
+   * Bloom filter of the series paths in this sealed TsFile. It is kept after the file metadata is
+   * read or written, so that queries can exclude this file without reading any metadata. Null if
+   * unknown.
+   */
+  private volatile BloomFilter bloomFilter;
+
+  /**
+   * How many series queries have read this sealed TsFile since it was loaded, used by merge file
+   * selection to find the files whose read amplification costs queries the most. It is not
+   * persisted.
+   */
+  private AtomicLong queryHitCount = new AtomicLong();
+
   private ReentrantReadWriteLock writeQueryLock = new ReentrantReadWriteLock();
 
   private FSFactory fsFactory = FSFactoryProducer.getFSFactory();
@@ -258,10 +274,35 @@ public class TsFileResource {
     return processor;
   }
 
+  public BloomFilter getBloomFilter() {
+    return bloomFilter;
+  }
+
+  public void setBloomFilter(BloomFilter bloomFilter) {
+    this.bloomFilter = bloomFilter;
+  }
+
+  /**
+   * @return false if the series is definitely not in this TsFile, true if it may be or the bloom
+   * filter is unknown
+   */
+  public boolean mayContainSeries(String seriesPath) {
+    BloomFilter filter = bloomFilter;
+    return filter == null || filter.contains(seriesPath);
+  }
+
   public ReentrantReadWriteLock getWriteQueryLock() {
     return writeQueryLock;
   }
 
+  public void increaseQueryHitCount() {
+    queryHitCount.incrementAndGet();
+  }
+
+  public long getQueryHitCount() {
+    return queryHitCount.get();
+  }
+
   public int getActualPageNum() {
     return actualPageNum;
   }
@@ -18,6 +18,9 @@
  */
 package org.apache.iotdb.db.metadata;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -51,6 +54,26 @@ public class MGraph implements Serializable {
     ptreeMap = new HashMap<>();
   }
 
+  private MGraph(MTree mtree) {
+    this.mtree = mtree;
+    ptreeMap = new HashMap<>();
+  }
+
+  /**
+   * PTrees are not in snapshots, their operations are always replayed from the metadata log.
+   */
+  boolean hasPTree() {
+    return !ptreeMap.isEmpty();
+  }
+
+  void serializeMTree(OutputStream outputStream) throws IOException {
+    mtree.serializeTo(outputStream);
+  }
+
+  static MGraph deserializeFrom(InputStream inputStream) throws IOException {
+    return new MGraph(MTree.deserializeFrom(inputStream));
+  }
+
   /**
    * Add a {@code PTree} to current {@code MGraph}.
    */
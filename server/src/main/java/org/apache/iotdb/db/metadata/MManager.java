@@ -18,12 +18,20 @@
  */
 package org.apache.iotdb.db.metadata;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -32,6 +40,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
@@ -53,6 +62,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,11 +79,15 @@ public class MManager {
   private static final String ROOT_NAME = MetadataConstant.ROOT;
   private static final String TIME_SERIES_TREE_HEADER = "===  Timeseries Tree  ===\n\n";
 
-  // the lock for read/insert
+  // the lock for read/insert. Creating timeseries only takes the read lock and synchronizes on the
+  // schemaMap of its storage group, while looking up a single path takes no lock at all
   private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   // the log file seriesPath
   private String logFilePath;
-  private MGraph mgraph;
+  // the binary snapshot of MTree and the number of operations logged after it
+  private String snapshotPath;
+  private int logNumSinceSnapshot;
+  private volatile MGraph mgraph;
   private BufferedWriter logWriter;
   private boolean writeToLog;
   private String schemaDir;
@@ -81,8 +95,8 @@ public class MManager {
   private RandomDeleteCache<String, PathCheckRet> checkAndGetDataTypeCache;
   private RandomDeleteCache<String, MNode> mNodeCache;
 
-  private Map<String, Integer> seriesNumberInStorageGroups = new HashMap<>();
-  private long maxSeriesNumberAmongStorageGroup;
+  private Map<String, Integer> seriesNumberInStorageGroups = new ConcurrentHashMap<>();
+  private volatile long maxSeriesNumberAmongStorageGroup;
   private boolean initialized;
 
   private MManager() {
@@ -99,6 +113,7 @@ public class MManager {
       }
     }
     logFilePath = schemaDir + File.separator + MetadataConstant.METADATA_LOG;
+    snapshotPath = schemaDir + File.separator + MetadataConstant.MTREE_SNAPSHOT;
     writeToLog = false;
 
     int cacheSize = IoTDBDescriptor.getInstance().getConfig().getmManagerCacheSize();
@@ -147,7 +162,9 @@ public class MManager {
 
     try {
       initFromLog(logFile);
-      seriesNumberInStorageGroups = mgraph.countSeriesNumberInEachStorageGroup();
+      snapshotIfNecessary();
+      seriesNumberInStorageGroups = new ConcurrentHashMap<>(
+          mgraph.countSeriesNumberInEachStorageGroup());
       if (seriesNumberInStorageGroups.isEmpty()) {
         maxSeriesNumberAmongStorageGroup = 0;
       } else {
@@ -167,19 +184,118 @@ public class MManager {
 
   private void initFromLog(File logFile)
       throws IOException, PathException, MetadataException {
-    // init the metadata from the operation log
-    mgraph = new MGraph(ROOT_NAME);
+    // init the metadata from the latest snapshot and the operation log written after it
+    long logOffset = loadSnapshot(logFile);
+    logNumSinceSnapshot = 0;
     if (logFile.exists()) {
-      try (FileReader fr = new FileReader(logFile);
-          BufferedReader br = new BufferedReader(fr)) {
-        String cmd;
-        while ((cmd = br.readLine()) != null) {
-          operation(cmd);
+      try (FileInputStream fis = new FileInputStream(logFile)) {
+        fis.getChannel().position(logOffset);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(fis))) {
+          String cmd;
+          while ((cmd = br.readLine()) != null) {
+            operation(cmd);
+            logNumSinceSnapshot++;
+          }
         }
       }
     }
   }
 
+  /**
+   * set mgraph to the one in the snapshot file, or to an empty one if there is no usable snapshot.
+   *
+   * @return the length of the metadata log that is already applied to mgraph
+   */
+  private long loadSnapshot(File logFile) throws PathException, MetadataException {
+    mgraph = new MGraph(ROOT_NAME);
+    File snapshotFile = SystemFileFactory.INSTANCE.getFile(snapshotPath);
+    if (!snapshotFile.exists()) {
+      return 0;
+    }
+    long logOffset;
+    MGraph snapshot;
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+      logOffset = ReadWriteIOUtils.readLong(inputStream);
+      if (logOffset > logFile.length()) {
+        logger.warn("Metadata snapshot {} does not match metadata log {}, ignore it",
+            snapshotPath, logFilePath);
+        return 0;
+      }
+      snapshot = MGraph.deserializeFrom(inputStream);
+    } catch (IOException e) {
+      logger.warn("Cannot read metadata snapshot {}, replay the whole metadata log", snapshotPath,
+          e);
+      return 0;
+    }
+
+    // the snapshot stands for the log before logOffset, which would have registered these
+    Map<String, Integer> seriesNumbers = snapshot.countSeriesNumberInEachStorageGroup();
+    int seriesNumber = 0;
+    for (int num : seriesNumbers.values()) {
+      seriesNumber += num;
+    }
+    try {
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(seriesNumbers.size());
+      IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(seriesNumber);
+    } catch (ConfigAdjusterException e) {
+      throw new MetadataException(e);
+    }
+    mgraph = snapshot;
+    logger.info("Load metadata snapshot {} with {} storage groups and {} timeseries",
+        snapshotPath, seriesNumbers.size(), seriesNumber);
+    return logOffset;
+  }
+
+  private void onLogWritten() {
+    logNumSinceSnapshot++;
+    // a thread holding only the read lock takes the snapshot after releasing it
+    if (lock.isWriteLockedByCurrentThread()) {
+      snapshotIfNecessary();
+    }
+  }
+
+  private void snapshotIfNecessaryWithLock() {
+    int interval = IoTDBDescriptor.getInstance().getConfig().getMtreeSnapshotInterval();
+    if (interval <= 0 || logNumSinceSnapshot < interval) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      snapshotIfNecessary();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * take a snapshot once enough operations are logged after the last one. Must be called with the
+   * write lock held and after the log is flushed.
+   */
+  private void snapshotIfNecessary() {
+    int interval = IoTDBDescriptor.getInstance().getConfig().getMtreeSnapshotInterval();
+    if (interval <= 0 || logNumSinceSnapshot < interval || mgraph.hasPTree()) {
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    File logFile = SystemFileFactory.INSTANCE.getFile(logFilePath);
+    File snapshotFile = SystemFileFactory.INSTANCE.getFile(snapshotPath);
+    File tmpFile = SystemFileFactory.INSTANCE.getFile(snapshotPath + MetadataConstant.TMP_SUFFIX);
+    try {
+      try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+        ReadWriteIOUtils.write(logFile.length(), outputStream);
+        mgraph.serializeMTree(outputStream);
+      }
+      Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.error("Cannot take metadata snapshot {}", snapshotPath, e);
+      return;
+    }
+    logNumSinceSnapshot = 0;
+    logger.info("Metadata snapshot {} is taken in {} ms", snapshotPath,
+        System.currentTimeMillis() - startTime);
+  }
+
   /**
    * function for clearing MGraph.
    */
@@ -191,6 +307,7 @@ public class MManager {
       this.mNodeCache.clear();
       this.seriesNumberInStorageGroups.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
+      this.logNumSinceSnapshot = 0;
       if (logWriter != null) {
         logWriter.close();
         logWriter = null;
@@ -259,7 +376,7 @@ public class MManager {
     }
   }
 
-  private BufferedWriter getLogWriter() throws IOException {
+  private synchronized BufferedWriter getLogWriter() throws IOException {
     if (logWriter == null) {
       File logFile = SystemFileFactory.INSTANCE.getFile(logFilePath);
       File metadataDir = SystemFileFactory.INSTANCE.getFile(schemaDir);
@@ -297,20 +414,25 @@ public class MManager {
   public boolean addPathToMTree(Path path, TSDataType dataType, TSEncoding encoding,
       CompressionType compressor, Map<String, String> props)
       throws MetadataException, PathException {
-    lock.writeLock().lock();
-    try {
-      if (pathExist(path.getFullPath())) {
-        throw new TimeseriesAlreadyExistException(path.getFullPath());
-      }
-      IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
-      if (!checkStorageGroupByPath(path.getFullPath())) {
-        if (!conf.isAutoCreateSchemaEnabled()) {
-          throw new MetadataException("Storage group should be created first");
-        }
-        String storageGroupName = getStorageGroupNameByAutoLevel(
-            path.getFullPath(), conf.getDefaultStorageGroupLevel());
-        setStorageGroupToMTree(storageGroupName);
+    if (pathExist(path.getFullPath())) {
+      throw new TimeseriesAlreadyExistException(path.getFullPath());
+    }
+    IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
+    if (!checkStorageGroupByPath(path.getFullPath())) {
+      if (!conf.isAutoCreateSchemaEnabled()) {
+        throw new MetadataException("Storage group should be created first");
       }
+      String storageGroupName = getStorageGroupNameByAutoLevel(
+          path.getFullPath(), conf.getDefaultStorageGroupLevel());
+      // takes the write lock and does nothing if another thread has just set the storage group
+      setStorageGroupToMTree(storageGroupName);
+    }
+    boolean isNewMeasurement = true;
+    ConfigAdjusterException adjusterException = null;
+    // the read lock keeps storage groups and deletions away, so timeseries of different storage
+    // groups are created in parallel and only contend on the schemaMap of their storage group
+    lock.readLock().lock();
+    try {
       // optimize the speed of adding timeseries
       String fileNodePath;
       try {
@@ -322,7 +444,6 @@ public class MManager {
       Map<String, MeasurementSchema> schemaMap = getStorageGroupSchemaMap(fileNodePath);
       Map<String, Integer> numSchemaMap = getStorageGroupNumSchemaMap(fileNodePath);
       String lastNode = path.getMeasurement();
-      boolean isNewMeasurement = true;
       // Thread safety: just one thread can access/modify the schemaMap
       synchronized (schemaMap) {
         // Need to check the path again to avoid duplicated inserting by multi concurrent threads
@@ -367,15 +488,19 @@ public class MManager {
         try {
           IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(1);
         } catch (ConfigAdjusterException e) {
-          // Undo create time series
-          deletePaths(Collections.singletonList(path), true);
-          throw new MetadataException(e);
+          adjusterException = e;
         }
-        return isNewMeasurement;
       }
     } finally {
-      lock.writeLock().unlock();
+      lock.readLock().unlock();
     }
+    if (adjusterException != null) {
+      // Undo create time series, which needs the write lock
+      deletePaths(Collections.singletonList(path), true);
+      throw new MetadataException(adjusterException);
+    }
+    snapshotIfNecessaryWithLock();
+    return isNewMeasurement;
   }
 
   /**
@@ -387,22 +512,27 @@ public class MManager {
 
     mgraph.addPathToMTree(path, dataType, encoding, compressor, props);
     String storageGroupName = mgraph.getStorageGroupNameByPath(path);
-    int size = seriesNumberInStorageGroups.get(storageGroupName);
-    seriesNumberInStorageGroups.put(storageGroupName, size + 1);
-    if (size + 1 > maxSeriesNumberAmongStorageGroup) {
-      maxSeriesNumberAmongStorageGroup = size + 1;
+    int size = seriesNumberInStorageGroups.merge(storageGroupName, 1, Integer::sum);
+    synchronized (seriesNumberInStorageGroups) {
+      if (size > maxSeriesNumberAmongStorageGroup) {
+        maxSeriesNumberAmongStorageGroup = size;
+      }
     }
     if (writeToLog) {
       BufferedWriter writer = getLogWriter();
-      writer.write(String.format("%s,%s,%s,%s,%s", MetadataOperationType.ADD_PATH_TO_MTREE,
-          path, dataType.serialize(), encoding.serialize(), compressor.serialize()));
-      if (props != null) {
-        for (Map.Entry entry : props.entrySet()) {
-          writer.write(String.format(",%s=%s", entry.getKey(), entry.getValue()));
+      // creations of different storage groups may write the log at the same time
+      synchronized (writer) {
+        writer.write(String.format("%s,%s,%s,%s,%s", MetadataOperationType.ADD_PATH_TO_MTREE,
+            path, dataType.serialize(), encoding.serialize(), compressor.serialize()));
+        if (props != null) {
+          for (Map.Entry entry : props.entrySet()) {
+            writer.write(String.format(",%s=%s", entry.getKey(), entry.getValue()));
+          }
         }
+        writer.newLine();
+        writer.flush();
+        onLogWritten();
       }
-      writer.newLine();
-      writer.flush();
     }
   }
 
@@ -492,23 +622,30 @@ public class MManager {
   public Set<String> deletePaths(List<Path> deletePathList, boolean isUndo)
       throws MetadataException {
     if (deletePathList != null && !deletePathList.isEmpty()) {
-      List<String> fullPath = collectPaths(deletePathList);
-
-      Set<String> emptyStorageGroups = new HashSet<>();
-      for (String p : fullPath) {
-        if (!isUndo) {
-          try {
-            IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(-1);
-          } catch (ConfigAdjusterException e) {
-            throw new MetadataException(e);
+      // take the write lock before any schemaMap, as creating timeseries holds the read lock
+      // while waiting for the schemaMap
+      lock.writeLock().lock();
+      try {
+        List<String> fullPath = collectPaths(deletePathList);
+
+        Set<String> emptyStorageGroups = new HashSet<>();
+        for (String p : fullPath) {
+          if (!isUndo) {
+            try {
+              IoTDBConfigDynamicAdapter.getInstance().addOrDeleteTimeSeries(-1);
+            } catch (ConfigAdjusterException e) {
+              throw new MetadataException(e);
+            }
+          }
+          String emptiedStorageGroup = deletePath(p);
+          if (emptiedStorageGroup != null) {
+            emptyStorageGroups.add(emptiedStorageGroup);
           }
         }
-        String emptiedStorageGroup = deletePath(p);
-        if (emptiedStorageGroup != null) {
-          emptyStorageGroups.add(emptiedStorageGroup);
-        }
+        return emptyStorageGroups;
+      } finally {
+        lock.writeLock().unlock();
       }
-      return emptyStorageGroups;
     }
     return Collections.emptySet();
   }
@@ -564,6 +701,7 @@ public class MManager {
         writer.write(MetadataOperationType.DELETE_PATH_FROM_MTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
       String storageGroup = getStorageGroupNameByPath(path);
       int size = seriesNumberInStorageGroups.get(storageGroup);
@@ -602,6 +740,7 @@ public class MManager {
         writer.write(MetadataOperationType.SET_STORAGE_GROUP_TO_MTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } catch (StorageGroupException e) {
       throw new MetadataException(e);
@@ -638,6 +777,7 @@ public class MManager {
         writer.write(MetadataOperationType.DELETE_STORAGE_GROUP_FROM_MTREE + jointPath);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
       for (String delStorageGroup : pathList) {
         try {
@@ -692,6 +832,7 @@ public class MManager {
         writer.write(MetadataOperationType.ADD_A_PTREE + "," + ptreeRootName);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -712,6 +853,7 @@ public class MManager {
         writer.write(MetadataOperationType.ADD_A_PATH_TO_PTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -731,6 +873,7 @@ public class MManager {
         writer.write(MetadataOperationType.DELETE_PATH_FROM_PTREE + "," + path);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -750,6 +893,7 @@ public class MManager {
         writer.write(MetadataOperationType.LINK_MNODE_TO_PTREE + "," + path + "," + mpath);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -770,6 +914,7 @@ public class MManager {
         writer.write(MetadataOperationType.UNLINK_MNODE_FROM_PTREE + "," + path + "," + mpath);
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
@@ -782,51 +927,28 @@ public class MManager {
    * @return TSDataType
    */
   public TSDataType getSeriesType(String fullPath) throws PathException {
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePath(fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePath(fullPath).getType();
   }
 
   /**
    * function for getting series type.
    */
   public TSDataType getSeriesType(MNode node, String fullPath) throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePath(node, fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePath(node, fullPath).getType();
   }
 
   /**
    * function for getting series type with check.
    */
   TSDataType getSeriesTypeWithCheck(MNode node, String fullPath) throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePathWithCheck(node, fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePathWithCheck(node, fullPath).getType();
   }
 
   /**
    * unction for getting series type with check.
    */
   TSDataType getSeriesTypeWithCheck(String fullPath) throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return getSchemaForOnePathWithCheck(fullPath).getType();
-    } finally {
-      lock.readLock().unlock();
-    }
+    return getSchemaForOnePathWithCheck(fullPath).getType();
   }
 
   /**
@@ -968,14 +1090,10 @@ public class MManager {
    * @return A String represented the file name
    */
   public String getStorageGroupNameByPath(String path) throws StorageGroupException {
-
-    lock.readLock().lock();
     try {
       return mgraph.getStorageGroupNameByPath(path);
     } catch (StorageGroupException e) {
       throw new StorageGroupException(e.getMessage());
-    } finally {
-      lock.readLock().unlock();
     }
   }
 
@@ -983,13 +1101,10 @@ public class MManager {
    * function for getting file name by path. TODO: return value unused
    */
   private String getStorageGroupNameByPath(MNode node, String path) throws StorageGroupException {
-    lock.readLock().lock();
     try {
       return mgraph.getStorageGroupNameByPath(node, path);
     } catch (StorageGroupException e) {
       throw new StorageGroupException(e.getMessage());
-    } finally {
-      lock.readLock().unlock();
     }
   }
 
@@ -997,13 +1112,7 @@ public class MManager {
    * function for checking storage group name by path.
    */
   boolean checkStorageGroupByPath(String path) {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.checkStorageGroupByPath(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.checkStorageGroupByPath(path);
   }
 
   /**
@@ -1124,38 +1233,21 @@ public class MManager {
    * Check whether the seriesPath given exists.
    */
   public boolean pathExist(String path) {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.pathExist(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.pathExist(path);
   }
 
   /**
    * function for checking whether the path exists.
    */
   boolean pathExist(MNode node, String path) {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.pathExist(node, path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.pathExist(node, path);
   }
 
   /**
    * function for getting node by path.
    */
   MNode getNodeByPath(String path) throws PathException {
-    lock.readLock().lock();
-    try {
-      return mgraph.getNodeByPath(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getNodeByPath(path);
   }
 
   /**
@@ -1198,12 +1290,7 @@ public class MManager {
    * function for getting node by path with check.
    */
   public MNode getNodeByPathWithCheck(String path) throws PathException, StorageGroupException {
-    lock.readLock().lock();
-    try {
-      return mgraph.getNodeByPathWithCheck(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getNodeByPathWithCheck(path);
   }
 
   /**
@@ -1211,26 +1298,14 @@ public class MManager {
    * leaf node.
    */
   private MeasurementSchema getSchemaForOnePath(String path) throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePath(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePath(path);
   }
 
   /**
    * function for getting schema for one path.
    */
   private MeasurementSchema getSchemaForOnePath(MNode node, String path) throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePath(node, path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePath(node, path);
   }
 
   /**
@@ -1238,85 +1313,50 @@ public class MManager {
    */
   private MeasurementSchema getSchemaForOnePathWithCheck(MNode node, String path)
       throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePathWithCheck(node, path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePathWithCheck(node, path);
   }
 
   /**
    * function for getting schema for one path with check.
    */
   private MeasurementSchema getSchemaForOnePathWithCheck(String path) throws PathException {
-
-    lock.readLock().lock();
-    try {
-      return mgraph.getSchemaForOnePathWithCheck(path);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return mgraph.getSchemaForOnePathWithCheck(path);
   }
 
   /**
    * Check whether given seriesPath contains a MNode whose {@code MNode.isStorageGroup} is true.
    */
   public boolean checkFileLevel(List<Path> path) throws StorageGroupException {
-
-    lock.readLock().lock();
-    try {
-      for (Path p : path) {
-        getStorageGroupNameByPath(p.getFullPath());
-      }
-      return true;
-    } finally {
-      lock.readLock().unlock();
+    for (Path p : path) {
+      getStorageGroupNameByPath(p.getFullPath());
     }
+    return true;
   }
 
   /**
    * function for checking file level.
    */
   boolean checkFileLevel(MNode node, List<Path> path) throws StorageGroupException {
-
-    lock.readLock().lock();
-    try {
-      for (Path p : path) {
-        getStorageGroupNameByPath(node, p.getFullPath());
-      }
-      return true;
-    } finally {
-      lock.readLock().unlock();
+    for (Path p : path) {
+      getStorageGroupNameByPath(node, p.getFullPath());
     }
+    return true;
   }
 
   /**
    * function for checking file level.
    */
   boolean checkFileLevel(String path) throws StorageGroupException {
-
-    lock.readLock().lock();
-    try {
-      getStorageGroupNameByPath(path);
-      return true;
-    } finally {
-      lock.readLock().unlock();
-    }
+    getStorageGroupNameByPath(path);
+    return true;
   }
 
   /**
    * function for checking file level with check.
    */
   boolean checkFileLevelWithCheck(MNode node, String path) throws StorageGroupException {
-    lock.readLock().lock();
-    try {
-      getStorageGroupNameByPath(node, path);
-      return true;
-    } finally {
-      lock.readLock().unlock();
-    }
+    getStorageGroupNameByPath(node, path);
+    return true;
   }
 
   /**
@@ -1434,6 +1474,7 @@ public class MManager {
             .write(String.format("%s,%s,%s", MetadataOperationType.SET_TTL, storageGroup, dataTTL));
         writer.newLine();
         writer.flush();
+        onLogWritten();
       }
     } finally {
       lock.writeLock().unlock();
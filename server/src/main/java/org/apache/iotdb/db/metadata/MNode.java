@@ -19,9 +19,8 @@
 package org.apache.iotdb.db.metadata;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -30,7 +29,8 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 /**
  * This class is the implementation of Metadata Node where "MNode" is the shorthand of "Metadata
- * Node". One MNode instance represents one node in the Metadata Tree
+ * Node". One MNode instance represents one node in the Metadata Tree. Children and the schema
+ * maps of a storage group are concurrent, so a path can be looked up without holding any lock.
  */
 public class MNode implements Serializable {
 
@@ -41,10 +41,10 @@ public class MNode implements Serializable {
   // Whether current node is a leaf in the Metadata Tree
   private boolean isLeaf;
   // Whether current node is Storage group in the Metadata Tree
-  private boolean isStorageGroup;
+  private volatile boolean isStorageGroup;
   // Map for the schema in this storage group
-  private Map<String, MeasurementSchema> schemaMap;
-  private Map<String, Integer> numSchemaMap;
+  private volatile Map<String, MeasurementSchema> schemaMap;
+  private volatile Map<String, Integer> numSchemaMap;
   // Corresponding data file name for current node
   private String dataFileName;
   // Column's Schema for one timeseries represented by current node if current
@@ -75,7 +75,7 @@ public class MNode implements Serializable {
     this.isLeaf = isLeaf;
     this.isStorageGroup = false;
     if (!isLeaf) {
-      children = new LinkedHashMap<>();
+      children = new MNodeChildren();
     }
   }
 
@@ -97,11 +97,13 @@ public class MNode implements Serializable {
    * function for setting storage group.
    */
   public void setStorageGroup(boolean b) {
-    this.isStorageGroup = b;
+    // the maps are set before the flag, so lock-free readers that see the flag also see the maps
     if (b) {
-      schemaMap = new HashMap<>();
-      numSchemaMap = new HashMap<>();
+      schemaMap = new ConcurrentHashMap<>();
+      numSchemaMap = new ConcurrentHashMap<>();
+      this.isStorageGroup = true;
     } else {
+      this.isStorageGroup = false;
       numSchemaMap = null;
       schemaMap = null;
     }
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Children of an inner MNode. Lookups go to a ConcurrentHashMap and never block, while iteration
+ * follows the insertion order (as the LinkedHashMap used before did) and is weakly consistent.
+ * Modifications of one node are serialized on the node's own monitor, so writers of different
+ * nodes never contend.
+ */
+class MNodeChildren extends AbstractMap<String, MNode> implements Serializable {
+
+  private static final long serialVersionUID = 4381950391385371932L;
+
+  private final ConcurrentHashMap<String, Child> index = new ConcurrentHashMap<>();
+
+  /**
+   * insertion sequence -> child, gives the iteration order.
+   */
+  private final ConcurrentSkipListMap<Long, Child> order = new ConcurrentSkipListMap<>();
+
+  private long nextSequence = 0;
+
+  @Override
+  public MNode get(Object key) {
+    Child child = index.get(key);
+    return child == null ? null : child.value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return index.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return index.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return index.isEmpty();
+  }
+
+  /**
+   * a key that is already present keeps its position in the iteration order.
+   */
+  @Override
+  public synchronized MNode put(String key, MNode value) {
+    Child child = index.get(key);
+    if (child != null) {
+      MNode old = child.value;
+      child.value = value;
+      return old;
+    }
+    child = new Child(key, nextSequence++, value);
+    order.put(child.sequence, child);
+    index.put(key, child);
+    return null;
+  }
+
+  @Override
+  public synchronized MNode remove(Object key) {
+    Child child = index.remove(key);
+    if (child == null) {
+      return null;
+    }
+    order.remove(child.sequence);
+    return child.value;
+  }
+
+  @Override
+  public synchronized void clear() {
+    index.clear();
+    order.clear();
+  }
+
+  @Override
+  public Set<Entry<String, MNode>> entrySet() {
+    return new AbstractSet<Entry<String, MNode>>() {
+      @Override
+      public Iterator<Entry<String, MNode>> iterator() {
+        Iterator<Child> iterator = order.values().iterator();
+        return new Iterator<Entry<String, MNode>>() {
+          private Child last;
+
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Entry<String, MNode> next() {
+            last = iterator.next();
+            return last;
+          }
+
+          @Override
+          public void remove() {
+            if (last == null) {
+              throw new IllegalStateException();
+            }
+            MNodeChildren.this.remove(last.key);
+            last = null;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return index.size();
+      }
+    };
+  }
+
+  private static class Child implements Entry<String, MNode>, Serializable {
+
+    private static final long serialVersionUID = -2460343263404960224L;
+
+    private final String key;
+    private final long sequence;
+    private volatile MNode value;
+
+    Child(String key, long sequence, MNode value) {
+      this.key = key;
+      this.sequence = sequence;
+      this.value = value;
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public MNode getValue() {
+      return value;
+    }
+
+    @Override
+    public MNode setValue(MNode value) {
+      MNode old = this.value;
+      this.value = value;
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> entry = (Entry<?, ?>) o;
+      return key.equals(entry.getKey()) && Objects.equals(value, entry.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ Objects.hashCode(value);
+    }
+  }
+}
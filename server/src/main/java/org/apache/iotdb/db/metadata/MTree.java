@@ -21,6 +21,9 @@ package org.apache.iotdb.db.metadata;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -42,6 +45,7 @@ import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 /**
@@ -53,12 +57,122 @@ public class MTree implements Serializable {
   private static final String PATH_SEPARATOR = "\\.";
   private static final String NO_CHILD_ERROR = "Node [%s] doesn't have child named: [%s]";
   private static final String NOT_LEAF_NODE = "is NOT the leaf node";
+  private static final short INNER_NODE = 0;
+  private static final short STORAGE_GROUP_NODE = 1;
+  private static final short LEAF_NODE = 2;
   private MNode root;
 
   MTree(String rootName) {
     this.root = new MNode(rootName, null, false);
   }
 
+  private MTree(MNode root) {
+    this.root = root;
+  }
+
+  /**
+   * serialize all nodes in pre-order. Each node is written as its name, its type (inner, storage
+   * group or leaf), its dataFileName, then the TTL and children of a storage group, the schema of
+   * a leaf or the children of an inner node.
+   */
+  void serializeTo(OutputStream outputStream) throws IOException {
+    serializeNode(root, outputStream);
+  }
+
+  private void serializeNode(MNode node, OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(node.getName(), outputStream);
+    if (node.isLeaf()) {
+      ReadWriteIOUtils.write(LEAF_NODE, outputStream);
+    } else if (node.isStorageGroup()) {
+      ReadWriteIOUtils.write(STORAGE_GROUP_NODE, outputStream);
+    } else {
+      ReadWriteIOUtils.write(INNER_NODE, outputStream);
+    }
+    ReadWriteIOUtils.write(node.getDataFileName() != null, outputStream);
+    if (node.getDataFileName() != null) {
+      ReadWriteIOUtils.write(node.getDataFileName(), outputStream);
+    }
+
+    if (node.isLeaf()) {
+      MeasurementSchema schema = node.getSchema();
+      ReadWriteIOUtils.write(schema.getType().serialize(), outputStream);
+      ReadWriteIOUtils.write(schema.getEncodingType().serialize(), outputStream);
+      ReadWriteIOUtils.write(schema.getCompressor().serialize(), outputStream);
+      Map<String, String> props = schema.getProps();
+      ReadWriteIOUtils.write(props == null ? 0 : props.size(), outputStream);
+      if (props != null) {
+        for (Map.Entry<String, String> entry : props.entrySet()) {
+          ReadWriteIOUtils.write(entry.getKey(), outputStream);
+          ReadWriteIOUtils.write(entry.getValue(), outputStream);
+        }
+      }
+      return;
+    }
+    if (node.isStorageGroup()) {
+      ReadWriteIOUtils.write(node.getDataTTL(), outputStream);
+    }
+    ReadWriteIOUtils.write(node.getChildren().size(), outputStream);
+    for (MNode child : node.getChildren().values()) {
+      serializeNode(child, outputStream);
+    }
+  }
+
+  /**
+   * rebuild a tree written by serializeTo(). The schema maps of each storage group are rebuilt from
+   * its leaves.
+   */
+  static MTree deserializeFrom(InputStream inputStream) throws IOException {
+    return new MTree(deserializeNode(inputStream, null, null));
+  }
+
+  private static MNode deserializeNode(InputStream inputStream, MNode parent,
+      MNode storageGroup) throws IOException {
+    String name = ReadWriteIOUtils.readString(inputStream);
+    short type = ReadWriteIOUtils.readShort(inputStream);
+    String dataFileName = null;
+    if (ReadWriteIOUtils.readBool(inputStream)) {
+      dataFileName = ReadWriteIOUtils.readString(inputStream);
+    }
+
+    MNode node;
+    if (type == LEAF_NODE) {
+      TSDataType dataType = TSDataType.deserialize(ReadWriteIOUtils.readShort(inputStream));
+      TSEncoding encoding = TSEncoding.deserialize(ReadWriteIOUtils.readShort(inputStream));
+      CompressionType compressor = CompressionType
+          .deserialize(ReadWriteIOUtils.readShort(inputStream));
+      node = new MNode(name, parent, dataType, encoding, compressor);
+      int propNum = ReadWriteIOUtils.readInt(inputStream);
+      if (propNum > 0) {
+        Map<String, String> props = new HashMap<>(propNum);
+        for (int i = 0; i < propNum; i++) {
+          props.put(ReadWriteIOUtils.readString(inputStream),
+              ReadWriteIOUtils.readString(inputStream));
+        }
+        node.getSchema().setProps(props);
+      }
+      node.setDataFileName(dataFileName);
+      if (storageGroup != null) {
+        storageGroup.getSchemaMap().putIfAbsent(name, node.getSchema());
+        storageGroup.getNumSchemaMap().merge(name, 1, Integer::sum);
+      }
+      return node;
+    }
+
+    node = new MNode(name, parent, false);
+    node.setDataFileName(dataFileName);
+    if (type == STORAGE_GROUP_NODE) {
+      node.setDataTTL(ReadWriteIOUtils.readLong(inputStream));
+      node.setStorageGroup(true);
+      storageGroup = node;
+    }
+    int childNum = ReadWriteIOUtils.readInt(inputStream);
+    for (int i = 0; i < childNum; i++) {
+      MNode child = deserializeNode(inputStream, node, storageGroup);
+      node.addChild(child.getName(), child);
+    }
+    return node;
+  }
+
   /**
    * function for adding timeseries.It should check whether seriesPath exists.
    */
@@ -93,10 +207,12 @@ public class MTree implements Serializable {
     }
     MNode cur = getRoot();
     for (int i = 1; i < nodeNames.length; i++) {
-      if (!cur.hasChild(nodeNames[i])) {
-        cur.addChild(nodeNames[i], new MNode(nodeNames[i], cur, false));
+      MNode child = cur.getChild(nodeNames[i]);
+      if (child == null) {
+        child = new MNode(nodeNames[i], cur, false);
+        cur.addChild(nodeNames[i], child);
       }
-      cur = cur.getChild(nodeNames[i]);
+      cur = child;
     }
     return cur;
   }
@@ -110,15 +226,17 @@ public class MTree implements Serializable {
       if (cur.isStorageGroup()) {
         levelPath = cur.getDataFileName();
       }
-      if (!cur.hasChild(nodeName)) {
+      MNode child = cur.getChild(nodeName);
+      if (child == null) {
         if (cur.isLeaf()) {
           throw new MTreePathException(String.join(",", nodeNames), "can't be created",
               String.format("node [%s] is left node", cur.getName()));
         }
-        cur.addChild(nodeName, new MNode(nodeName, cur, false));
+        child = new MNode(nodeName, cur, false);
+        cur.addChild(nodeName, child);
       }
       cur.setDataFileName(levelPath);
-      cur = cur.getChild(nodeName);
+      cur = child;
       if (levelPath == null) {
         levelPath = cur.getDataFileName();
       }
@@ -142,10 +260,8 @@ public class MTree implements Serializable {
       String nodeName = nodeNames[i];
       if (cur.getName().equals(nodeName)) {
         i++;
-        nodeName = nodeNames[i];
-        if (cur.hasChild(nodeName)) {
-          cur = cur.getChild(nodeName);
-        } else {
+        cur = cur.getChild(nodeNames[i]);
+        if (cur == null) {
           return false;
         }
       } else {
@@ -163,20 +279,18 @@ public class MTree implements Serializable {
     if (nodeNames.length < 1) {
       return true;
     }
-    if (!node.hasChild(nodeNames[0])) {
+    MNode cur = node.getChild(nodeNames[0]);
+    if (cur == null) {
       return false;
     }
-    MNode cur = node.getChild(nodeNames[0]);
 
     int i = 0;
     while (i < nodeNames.length - 1) {
       String nodeName = nodeNames[i];
       if (cur.getName().equals(nodeName)) {
         i++;
-        nodeName = nodeNames[i];
-        if (cur.hasChild(nodeName)) {
-          cur = cur.getChild(nodeName);
-        } else {
+        cur = cur.getChild(nodeNames[i]);
+        if (cur == null) {
           return false;
         }
       } else {
@@ -345,12 +459,7 @@ public class MTree implements Serializable {
   }
 
   private MNode getLeafByPath(String path) throws PathException {
-    getNode(path);
-    String[] node = MetaUtils.getNodeNames(path, PATH_SEPARATOR);
-    MNode cur = getRoot();
-    for (int i = 1; i < node.length; i++) {
-      cur = cur.getChild(node[i]);
-    }
+    MNode cur = getNode(path);
     if (!cur.isLeaf()) {
       throw new MTreePathException(path, NOT_LEAF_NODE, "");
     }
@@ -371,17 +480,13 @@ public class MTree implements Serializable {
 
   private MNode getLeafByPathWithCheck(MNode node, String path) throws PathException {
     String[] nodes = MetaUtils.getNodeNames(path, PATH_SEPARATOR);
-    if (nodes.length < 1 || !node.hasChild(nodes[0])) {
+    MNode cur = nodes.length < 1 ? null : node.getChild(nodes[0]);
+    if (cur == null) {
       throw new MTreePathException("Timeseries", path);
     }
 
-    MNode cur = node.getChild(nodes[0]);
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
-        throw new MTreePathException("", "is not correct",
-            String.format(NO_CHILD_ERROR, cur.getName(), nodes[i]));
-      }
-      cur = cur.getChild(nodes[i]);
+      cur = getChildWithCheck(cur, nodes[i]);
     }
     if (!cur.isLeaf()) {
       throw new MTreePathException(path, NOT_LEAF_NODE, "");
@@ -397,11 +502,7 @@ public class MTree implements Serializable {
 
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
-        throw new MTreePathException("", "is not correct",
-            String.format(NO_CHILD_ERROR, cur.getName(), nodes[i]));
-      }
-      cur = cur.getChild(nodes[i]);
+      cur = getChildWithCheck(cur, nodes[i]);
     }
     if (!cur.isLeaf()) {
       throw new MTreePathException(path, NOT_LEAF_NODE, "");
@@ -422,14 +523,15 @@ public class MTree implements Serializable {
 
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         if (!storageGroupChecked) {
           throw new StorageGroupNotSetException(path);
         }
         throw new MTreePathException("", "is not correct",
             String.format(NO_CHILD_ERROR, cur.getName(), nodes[i]));
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
 
       if (cur.isStorageGroup()) {
         storageGroupChecked = true;
@@ -454,11 +556,12 @@ public class MTree implements Serializable {
     }
     MNode cur = getRoot();
     for (int i = 1; i < nodes.length; i++) {
-      if (!cur.hasChild(nodes[i])) {
+      MNode child = cur.getChild(nodes[i]);
+      if (child == null) {
         throw new MTreePathException(
             "Path: [" + path + "] doesn't correspond to any known time series");
       }
-      cur = cur.getChild(nodes[i]);
+      cur = child;
     }
     return cur;
   }
@@ -470,12 +573,21 @@ public class MTree implements Serializable {
     }
     MNode cur = node;
     for (String node1 : nodes) {
-      if (!cur.hasChild(node1)) {
-        throw new MTreePathException("", "is not correct",
-            String.format(NO_CHILD_ERROR, cur.getName(), node1));
-      }
-      cur = cur.getChild(node1);
+      cur = getChildWithCheck(cur, node1);
+    }
+  }
+
+  /**
+   * get the child in one lookup, as it may be deleted between a check and a get when no lock is
+   * held.
+   */
+  private MNode getChildWithCheck(MNode node, String childName) throws PathException {
+    MNode child = node.getChild(childName);
+    if (child == null) {
+      throw new MTreePathException("", "is not correct",
+          String.format(NO_CHILD_ERROR, node.getName(), childName));
     }
+    return child;
   }
 
   /**
@@ -24,4 +24,6 @@ public class MetadataConstant {
   }
   public static final String ROOT = "root";
   public static final String METADATA_LOG = "mlog.txt";
+  public static final String MTREE_SNAPSHOT = "mtree.snapshot";
+  public static final String TMP_SUFFIX = ".tmp";
 }
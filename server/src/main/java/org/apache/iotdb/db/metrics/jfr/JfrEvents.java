@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.jfr;
+
+import org.apache.iotdb.db.metrics.source.Stage;
+
+/**
+ * JfrEvents emits JDK Flight Recorder events of the engine hot paths. The events are only
+ * committed while a recording enables them, otherwise emitting costs a null check and an
+ * isEnabled() call. The event classes and {@link FlightRecorderEvents} emitting them are in
+ * src/main/java-jfr, which is only compiled on JDK 11 and above, so the server still builds and
+ * runs on Java 8, where no events are emitted.
+ */
+public abstract class JfrEvents {
+
+  private static final String EMITTER_CLASS_NAME =
+      "org.apache.iotdb.db.metrics.jfr.FlightRecorderEvents";
+
+  private static final JfrEvents EMITTER = loadEmitter();
+
+  JfrEvents() {
+  }
+
+  /**
+   * @return null if jdk.jfr or the event classes are absent
+   */
+  private static JfrEvents loadEmitter() {
+    try {
+      Class.forName("jdk.jfr.Event");
+      return (JfrEvents) Class.forName(EMITTER_CLASS_NAME).newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  public static boolean isAvailable() {
+    return EMITTER != null;
+  }
+
+  public static void stage(Stage stage, long latencyInNano) {
+    if (EMITTER != null) {
+      EMITTER.emitStage(stage, latencyInNano);
+    }
+  }
+
+  /**
+   * @param pagesIn num of pages sampled into the output page
+   * @param pointsIn num of points of the input pages
+   * @param pointsOut num of points of the output page
+   */
+  public static void compressPage(String taskName, int pagesIn, int pointsIn, int pointsOut) {
+    if (EMITTER != null) {
+      EMITTER.emitCompressPage(taskName, pagesIn, pointsIn, pointsOut);
+    }
+  }
+
+  public static void cacheMiss(String cacheName, String key) {
+    if (EMITTER != null) {
+      EMITTER.emitCacheMiss(cacheName, key);
+    }
+  }
+
+  abstract void emitStage(Stage stage, long latencyInNano);
+
+  abstract void emitCompressPage(String taskName, int pagesIn, int pointsIn, int pointsOut);
+
+  abstract void emitCacheMiss(String cacheName, String key);
+}
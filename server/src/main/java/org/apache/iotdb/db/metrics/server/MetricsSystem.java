@@ -16,6 +16,7 @@ package org.apache.iotdb.db.metrics.server;
 
 import java.util.ArrayList;
 import org.apache.iotdb.db.metrics.sink.MetricsServletSink;
+import org.apache.iotdb.db.metrics.sink.PrometheusServletSink;
 import org.apache.iotdb.db.metrics.sink.Sink;
 import org.apache.iotdb.db.metrics.source.MetricsSource;
 import org.apache.iotdb.db.metrics.source.Source;
@@ -52,6 +53,10 @@ public class MetricsSystem {
     return new MetricsServletSink(metricRegistry).getHandler();
   }
 
+  public ServletContextHandler getPrometheusHandler() {
+    return new PrometheusServletSink(metricRegistry).getHandler();
+  }
+
   public void start() {
     registerSource();
     registerSinks();
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.sink;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Map;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
+import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
+import org.apache.iotdb.db.metrics.server.JettyUtil;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageCounter;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
+import org.apache.iotdb.db.rescon.MemTablePool;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Serves the stage latencies, counters, cache and memtable pool states and the numeric gauges of
+ * the metric registry on /metrics in the Prometheus text format, so that they can be scraped.
+ */
+public class PrometheusServletSink implements Sink {
+
+  private static final String PREFIX = "iotdb_";
+
+  public MetricRegistry registry;
+
+  public PrometheusServletSink(MetricRegistry registry) {
+    this.registry = registry;
+  }
+
+  public ServletContextHandler getHandler() {
+    HttpServlet httpServlet = new HttpServlet() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType(PrometheusTextFormat.CONTENT_TYPE);
+        resp.setStatus(HttpServletResponse.SC_OK);
+        PrintWriter out = resp.getWriter();
+        writeMetrics(out);
+        out.flush();
+        out.close();
+      }
+    };
+    return JettyUtil.createServletHandler("/metrics", httpServlet);
+  }
+
+  public void writeMetrics(Writer writer) throws IOException {
+    PrometheusTextFormat format = new PrometheusTextFormat(writer);
+    StageMetrics stageMetrics = StageMetrics.getInstance();
+    for (Stage stage : Stage.values()) {
+      format.writeHistogram(PREFIX + stage.getName() + "_seconds",
+          "Latency of " + stage.getDescription() + ".", stageMetrics.getHistogram(stage));
+    }
+    for (StageCounter counter : StageCounter.values()) {
+      format.writeCounter(PREFIX + counter.getName() + "_total",
+          "Number of " + counter.getDescription() + ".", stageMetrics.getCount(counter));
+    }
+
+    DeviceMetaDataCache chunkMetaDataCache = DeviceMetaDataCache.getInstance();
+    format.writeCounter(PREFIX + "chunk_metadata_cache_requests_total",
+        "Number of requests to the chunk metadata cache.",
+        chunkMetaDataCache.getCacheRequestNum());
+    format.writeCounter(PREFIX + "chunk_metadata_cache_hits_total",
+        "Number of hits of the chunk metadata cache.", chunkMetaDataCache.getCacheHitNum());
+    TsFileMetaDataCache tsFileMetaDataCache = TsFileMetaDataCache.getInstance();
+    format.writeCounter(PREFIX + "tsfile_metadata_cache_requests_total",
+        "Number of requests to the tsfile metadata cache.",
+        tsFileMetaDataCache.getCacheRequestNum());
+    format.writeCounter(PREFIX + "tsfile_metadata_cache_hits_total",
+        "Number of hits of the tsfile metadata cache.", tsFileMetaDataCache.getCacheHitNum());
+
+    MemTablePool memTablePool = MemTablePool.getInstance();
+    format.writeGauge(PREFIX + "memtable_pool_free", "Number of memtables that can be taken "
+        + "without waiting.", memTablePool.getFreeNum());
+    format.writeGauge(PREFIX + "memtable_pool_waiting", "Number of insertions waiting for a "
+        + "memtable.", memTablePool.getWaitingNum());
+
+    for (Map.Entry<String, Gauge> entry : registry.getGauges().entrySet()) {
+      Object value = entry.getValue().getValue();
+      if (value instanceof Number) {
+        format.writeGauge(PREFIX + PrometheusTextFormat.sanitize(entry.getKey()),
+            "Gauge " + entry.getKey() + ".", ((Number) value).doubleValue());
+      }
+    }
+  }
+
+  @Override
+  public void start() {}
+
+  @Override
+  public void stop() {}
+
+  @Override
+  public void report() {}
+}
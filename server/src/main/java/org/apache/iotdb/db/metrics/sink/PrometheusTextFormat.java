@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.sink;
+
+import java.io.IOException;
+import java.io.Writer;
+import org.apache.iotdb.db.metrics.source.LatencyHistogram;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4). Latencies are recorded
+ * in nanoseconds and exported in seconds.
+ */
+public class PrometheusTextFormat {
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+  /**
+   * upper bounds of the exported histogram buckets in seconds.
+   */
+  private static final double[] BUCKET_IN_SECONDS = {0.00001, 0.0001, 0.0005, 0.001, 0.005, 0.01,
+      0.05, 0.1, 0.5, 1, 5, 10, 60};
+
+  private Writer writer;
+
+  public PrometheusTextFormat(Writer writer) {
+    this.writer = writer;
+  }
+
+  public void writeHistogram(String name, String help, LatencyHistogram histogram)
+      throws IOException {
+    writeHeader(name, help, "histogram");
+    // read the count first so that the +Inf bucket is never smaller than the other buckets
+    long count = histogram.getCount();
+    long sum = histogram.getSum();
+    for (double bucket : BUCKET_IN_SECONDS) {
+      long bucketCount = histogram.getCountAtOrBelow((long) (bucket * NANOS_PER_SECOND));
+      writeSample(name + "_bucket{le=\"" + bucket + "\"}", Math.min(bucketCount, count));
+    }
+    writeSample(name + "_bucket{le=\"+Inf\"}", count);
+    writeSample(name + "_sum", sum / NANOS_PER_SECOND);
+    writeSample(name + "_count", count);
+  }
+
+  public void writeCounter(String name, String help, long value) throws IOException {
+    writeHeader(name, help, "counter");
+    writeSample(name, value);
+  }
+
+  public void writeGauge(String name, String help, double value) throws IOException {
+    writeHeader(name, help, "gauge");
+    writeSample(name, value);
+  }
+
+  private void writeHeader(String name, String help, String type) throws IOException {
+    writer.write("# HELP " + name + " " + help + "\n");
+    writer.write("# TYPE " + name + " " + type + "\n");
+  }
+
+  private void writeSample(String sample, long value) throws IOException {
+    writer.write(sample + " " + value + "\n");
+  }
+
+  private void writeSample(String sample, double value) throws IOException {
+    writer.write(sample + " " + value + "\n");
+  }
+
+  /**
+   * turn a dotted or dashed metric name into a valid Prometheus metric name.
+   */
+  public static String sanitize(String name) {
+    StringBuilder builder = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+          || (c >= '0' && c <= '9' && i > 0)) {
+        builder.append(c);
+      } else {
+        builder.append('_');
+      }
+    }
+    return builder.toString();
+  }
+}
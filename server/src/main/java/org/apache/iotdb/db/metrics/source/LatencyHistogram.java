@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.source;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram in the layout of HdrHistogram. Values below SUB_BUCKET_COUNT are
+ * counted exactly, larger values fall into one of SUB_BUCKET_COUNT linear sub-buckets of their
+ * power of two, so the relative error of any recorded value is below 1 / SUB_BUCKET_COUNT (about
+ * 3%) over the whole positive long range while the histogram keeps less than 2000 counters.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKET_NUM =
+      SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_NUM);
+
+  private final LongAdder totalCount = new LongAdder();
+
+  private final LongAdder totalSum = new LongAdder();
+
+  /**
+   * record a value, negative values are recorded as 0.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(indexOf(value));
+    totalCount.increment();
+    totalSum.add(value);
+  }
+
+  public long getCount() {
+    return totalCount.sum();
+  }
+
+  public long getSum() {
+    return totalSum.sum();
+  }
+
+  /**
+   * @return the number of recorded values that are not larger than the given value, values in the
+   * same sub-bucket as the given value are all counted
+   */
+  public long getCountAtOrBelow(long value) {
+    if (value < 0) {
+      return 0;
+    }
+    int index = indexOf(value);
+    long count = 0;
+    for (int i = 0; i <= index; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * @param percentile in [0, 100]
+   * @return the highest value of the sub-bucket holding the given percentile, or 0 if nothing has
+   * been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = new long[BUCKET_NUM];
+    long count = 0;
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      seen += snapshot[i];
+      if (seen >= target) {
+        return highestValueOf(i);
+      }
+    }
+    return highestValueOf(BUCKET_NUM - 1);
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long lowestValueOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+    int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+    return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+  }
+
+  static long highestValueOf(int index) {
+    return index == BUCKET_NUM - 1 ? Long.MAX_VALUE : lowestValueOf(index + 1) - 1;
+  }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.source;
+
+/**
+ * Stages of the hot paths whose latencies are recorded by {@link StageMetrics}.
+ */
+public enum Stage {
+  FLUSH_ENCODE("flush_encode", "encoding a memtable into chunks"),
+  FLUSH_IO("flush_io", "writing encoded chunks of a memtable into a tsfile"),
+  WAL_FORCE("wal_force", "forcing a write ahead log file to the disk"),
+  MEMTABLE_POOL_WAIT("memtable_pool_wait", "waiting for a free memtable in the memtable pool"),
+  MERGE("merge", "a merge task"),
+  COMPRESS("compress", "a compress task"),
+  CHUNK_READ("chunk_read", "loading a chunk for a query"),
+  QUERY_PLAN("query_plan", "parsing a statement into a physical plan"),
+  QUERY_EXECUTE("query_execute", "creating the data set of a query"),
+  QUERY_FETCH("query_fetch", "fetching one batch of query results");
+
+  private String name;
+
+  private String description;
+
+  Stage(String name, String description) {
+    this.name = name;
+    this.description = description;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.source;
+
+/**
+ * Monotonic counters of the hot paths recorded by {@link StageMetrics}.
+ */
+public enum StageCounter {
+  COMPRESS_SAMPLED_PAGES("compress_sampled_pages", "pages sampled by compress tasks"),
+  COMPRESS_SAMPLED_POINTS("compress_sampled_points", "points kept by sampling in compress tasks"),
+  CHUNK_READ_BYTES("chunk_read_bytes", "bytes of chunks loaded for queries");
+
+  private String name;
+
+  private String description;
+
+  StageCounter(String name, String description) {
+    this.name = name;
+    this.description = description;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+}
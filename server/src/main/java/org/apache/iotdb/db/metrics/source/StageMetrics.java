@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.iotdb.db.metrics.source;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.metrics.jfr.JfrEvents;
+
+/**
+ * StageMetrics records the latencies of the stages in {@link Stage} into one
+ * {@link LatencyHistogram} each and the counters in {@link StageCounter}. Recording is lock-free
+ * and always enabled, the metrics are exported by the metrics service and each latency is also
+ * emitted as a JFR event. For recording a stage:
+ * 1) call <code>startTimeInNano = System.nanoTime()</code> at the beginning of the stage;
+ * 2) call <code>StageMetrics.getInstance().record(stage, startTimeInNano)</code> at the end.
+ */
+public class StageMetrics {
+
+  private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+
+  private final LongAdder[] counters = new LongAdder[StageCounter.values().length];
+
+  private StageMetrics() {
+    for (Stage stage : Stage.values()) {
+      histograms[stage.ordinal()] = new LatencyHistogram();
+    }
+    for (StageCounter counter : StageCounter.values()) {
+      counters[counter.ordinal()] = new LongAdder();
+    }
+  }
+
+  public static StageMetrics getInstance() {
+    return StageMetricsHolder.INSTANCE;
+  }
+
+  /**
+   * record the latency of a stage that started at startTimeInNano.
+   */
+  public void record(Stage stage, long startTimeInNano) {
+    recordLatency(stage, System.nanoTime() - startTimeInNano);
+  }
+
+  public void recordLatency(Stage stage, long latencyInNano) {
+    histograms[stage.ordinal()].record(latencyInNano);
+    JfrEvents.stage(stage, latencyInNano);
+  }
+
+  public void count(StageCounter counter, long delta) {
+    counters[counter.ordinal()].add(delta);
+  }
+
+  public LatencyHistogram getHistogram(Stage stage) {
+    return histograms[stage.ordinal()];
+  }
+
+  public long getCount(StageCounter counter) {
+    return counters[counter.ordinal()].sum();
+  }
+
+  private static class StageMetricsHolder {
+
+    private static final StageMetrics INSTANCE = new StageMetrics();
+
+    private StageMetricsHolder() {
+    }
+  }
+}
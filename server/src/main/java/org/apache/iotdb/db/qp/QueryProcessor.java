@@ -26,6 +26,8 @@ import org.apache.iotdb.db.exception.query.IllegalASTFormatException;
 import org.apache.iotdb.db.exception.query.LogicalOperatorException;
 import org.apache.iotdb.db.exception.query.LogicalOptimizeException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.apache.iotdb.db.qp.executor.IQueryProcessExecutor;
 import org.apache.iotdb.db.qp.logical.Operator;
 import org.apache.iotdb.db.qp.logical.RootOperator;
@@ -66,11 +68,14 @@ public class QueryProcessor {
 
   public PhysicalPlan parseSQLToPhysicalPlan(String sqlStr, ZoneId zoneId)
       throws MetadataException, QueryProcessException {
+    long startTime = System.nanoTime();
     AstNode astNode = parseSQLToAST(sqlStr);
     Operator operator = parseASTToOperator(astNode, zoneId);
     operator = logicalOptimize(operator, executor);
     PhysicalGenerator physicalGenerator = new PhysicalGenerator(executor);
-    return physicalGenerator.transformToPhysicalPlan(operator);
+    PhysicalPlan plan = physicalGenerator.transformToPhysicalPlan(operator);
+    StageMetrics.getInstance().record(Stage.QUERY_PLAN, startTime);
+    return plan;
   }
 
   /**
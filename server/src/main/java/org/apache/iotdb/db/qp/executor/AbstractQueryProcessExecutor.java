@@ -18,13 +18,17 @@
  */
 package org.apache.iotdb.db.qp.executor;
 
+import static org.apache.iotdb.db.conf.IoTDBConstant.COUNTER;
+import static org.apache.iotdb.db.conf.IoTDBConstant.OPERATOR;
 import static org.apache.iotdb.db.conf.IoTDBConstant.STORAGE_GROUP;
 import static org.apache.iotdb.db.conf.IoTDBConstant.TTL;
+import static org.apache.iotdb.db.conf.IoTDBConstant.VALUE;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.StorageEngineException;
@@ -40,6 +44,7 @@ import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.AuthorPlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowTTLPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.dataset.DeviceIterateDataSet;
 import org.apache.iotdb.db.query.dataset.ListDataSet;
 import org.apache.iotdb.db.query.executor.EngineQueryRouter;
@@ -60,7 +65,9 @@ public abstract class AbstractQueryProcessExecutor implements IQueryProcessExecu
   @Override
   public QueryDataSet processQuery(PhysicalPlan queryPlan, QueryContext context)
       throws IOException, StorageEngineException, QueryFilterOptimizationException, QueryProcessException {
-    if (queryPlan instanceof QueryPlan) {
+    if (queryPlan instanceof QueryPlan && ((QueryPlan) queryPlan).isExplainAnalyze()) {
+      return processExplainAnalyze((QueryPlan) queryPlan, context);
+    } else if (queryPlan instanceof QueryPlan) {
       return processDataQuery((QueryPlan) queryPlan, context);
     } else if (queryPlan instanceof AuthorPlan) {
       return processAuthorQuery((AuthorPlan) queryPlan, context);
@@ -107,6 +114,78 @@ public abstract class AbstractQueryProcessExecutor implements IQueryProcessExecu
     return listDataSet;
   }
 
+  /**
+   * run the query to the end and return the counters collected in its QueryProfile, one row for
+   * each counter. Operators are indented by their depth in the profile tree.
+   */
+  private QueryDataSet processExplainAnalyze(QueryPlan queryPlan, QueryContext context)
+      throws StorageEngineException, QueryFilterOptimizationException, QueryProcessException,
+      IOException {
+    QueryProfile profile = context.enableProfile(queryPlan.getOperatorType().toString());
+    long startTime = System.nanoTime();
+    QueryDataSet dataSet = processDataQuery(queryPlan, context);
+    long rowNum = 0;
+    while (dataSet.hasNext()) {
+      dataSet.next();
+      rowNum++;
+    }
+    profile.add(QueryProfile.ROWS, rowNum);
+    profile.addTimeSince(QueryProfile.TIME, startTime);
+
+    List<Path> paths = new ArrayList<>();
+    paths.add(new Path(OPERATOR));
+    paths.add(new Path(COUNTER));
+    paths.add(new Path(VALUE));
+    List<TSDataType> dataTypes = new ArrayList<>();
+    dataTypes.add(TSDataType.TEXT);
+    dataTypes.add(TSDataType.TEXT);
+    dataTypes.add(TSDataType.INT64);
+    ListDataSet listDataSet = new ListDataSet(paths, dataTypes);
+    putProfile(listDataSet, profile, "", 0);
+    return listDataSet;
+  }
+
+  /**
+   * @return the timestamp of the next row
+   */
+  private long putProfile(ListDataSet listDataSet, QueryProfile profile, String indent,
+      long timestamp) {
+    String operator = indent + profile.getName();
+    if (profile.getCounters().isEmpty()) {
+      listDataSet.putRecord(getProfileRecord(timestamp++, operator, null, null));
+    }
+    for (Entry<String, Long> counter : profile.getCounters().entrySet()) {
+      listDataSet.putRecord(
+          getProfileRecord(timestamp++, operator, counter.getKey(), counter.getValue()));
+    }
+    for (QueryProfile child : profile.getChildren()) {
+      timestamp = putProfile(listDataSet, child, indent + "  ", timestamp);
+    }
+    return timestamp;
+  }
+
+  private RowRecord getProfileRecord(long timestamp, String operator, String counter,
+      Long value) {
+    RowRecord rowRecord = new RowRecord(timestamp);
+    Field operatorField = new Field(TSDataType.TEXT);
+    operatorField.setBinaryV(new Binary(operator));
+    rowRecord.addField(operatorField);
+    Field counterField;
+    Field valueField;
+    if (counter != null) {
+      counterField = new Field(TSDataType.TEXT);
+      counterField.setBinaryV(new Binary(counter));
+      valueField = new Field(TSDataType.INT64);
+      valueField.setLongV(value);
+    } else {
+      counterField = new Field(null);
+      valueField = new Field(null);
+    }
+    rowRecord.addField(counterField);
+    rowRecord.addField(valueField);
+    return rowRecord;
+  }
+
   protected abstract QueryDataSet processAuthorQuery(AuthorPlan plan, QueryContext context)
       throws QueryProcessException;
 
@@ -223,7 +223,9 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
       String deviceId = insertPlan.getDeviceId();
       MNode node = mManager.getNodeByDeviceIdFromCache(deviceId);
       String[] strValues = insertPlan.getValues();
-      TSDataType[] dataTypes = new TSDataType[measurementList.length];
+      // typed values come with their data types, which must match the schema
+      TSDataType[] dataTypes = insertPlan.isTyped() ? insertPlan.getDataTypes()
+          : new TSDataType[measurementList.length];
       IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
 
       for (int i = 0; i < measurementList.length; i++) {
@@ -236,7 +238,11 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
                     deviceId, measurementList[i]));
           }
           try {
-            addPathToMTree(deviceId, measurementList[i], strValues[i]);
+            if (insertPlan.isTyped()) {
+              addPathToMTree(deviceId, measurementList[i], dataTypes[i]);
+            } else {
+              addPathToMTree(deviceId, measurementList[i], strValues[i]);
+            }
           } catch (MetadataException e) {
             if (!e.getMessage().contains("already exist")) {
               throw e;
@@ -250,7 +256,13 @@ public class QueryProcessExecutor extends AbstractQueryProcessExecutor {
                   measurementList[i]));
         }
 
-        dataTypes[i] = measurementNode.getSchema().getType();
+        if (!insertPlan.isTyped()) {
+          dataTypes[i] = measurementNode.getSchema().getType();
+        } else if (measurementNode.getSchema().getType() != dataTypes[i]) {
+          throw new QueryProcessException(String
+              .format("Datatype mismatch, Insert measurement %s type %s, metadata tree type %s",
+                  measurementList[i], dataTypes[i], measurementNode.getSchema().getType()));
+        }
       }
       insertPlan.setDataTypes(dataTypes);
       storageEngine.insert(insertPlan);
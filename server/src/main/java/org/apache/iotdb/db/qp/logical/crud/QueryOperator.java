@@ -46,6 +46,8 @@ public class QueryOperator extends SFWOperator {
 
   private boolean isCompressRatioQuery = false;
 
+  private boolean isExplainAnalyze = false;
+
   public QueryOperator(int tokenIntType) {
     super(tokenIntType);
     operatorType = Operator.OperatorType.QUERY;
@@ -139,4 +141,12 @@ public class QueryOperator extends SFWOperator {
   public void setCompressRatioQuery(boolean compressRatioQuery) {
     isCompressRatioQuery = compressRatioQuery;
   }
+
+  public boolean isExplainAnalyze() {
+    return isExplainAnalyze;
+  }
+
+  public void setExplainAnalyze(boolean explainAnalyze) {
+    isExplainAnalyze = explainAnalyze;
+  }
 }
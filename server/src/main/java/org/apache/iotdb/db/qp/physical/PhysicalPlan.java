@@ -123,6 +123,10 @@ public abstract class PhysicalPlan {
           plan = new BatchInsertPlan();
           plan.deserializeFrom(buffer);
           break;
+        case TYPED_INSERT:
+          plan = new InsertPlan();
+          ((InsertPlan) plan).deserializeTypedFrom(buffer);
+          break;
         default:
           throw new IOException("unrecognized log type " + type);
       }
@@ -131,7 +135,7 @@ public abstract class PhysicalPlan {
   }
 
   public enum PhysicalPlanType {
-    INSERT, DELETE, BATCHINSERT
+    INSERT, DELETE, BATCHINSERT, TYPED_INSERT
   }
 
 
@@ -21,7 +21,6 @@ package org.apache.iotdb.db.qp.physical.crud;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.utils.QueryDataSetUtils;
@@ -42,7 +41,11 @@ public class BatchInsertPlan extends PhysicalPlan {
 
   private Object[] columns;
   private ByteBuffer valueBuffer;
-  private Set<Integer> index;
+  /**
+   * rows in [start, end) are written into the WAL.
+   */
+  private int start = 0;
+  private int end = 0;
   private int rowCount = 0;
   // cached values
   private Long maxTime = null;
@@ -64,12 +67,20 @@ public class BatchInsertPlan extends PhysicalPlan {
     setDataTypes(dataTypes);
   }
 
-  public Set<Integer> getIndex() {
-    return index;
+  public int getStart() {
+    return start;
   }
 
-  public void setIndex(Set<Integer> index) {
-    this.index = index;
+  public int getEnd() {
+    return end;
+  }
+
+  /**
+   * set the rows in [start, end) to be serialized.
+   */
+  public void setRange(int start, int end) {
+    this.start = start;
+    this.end = end;
   }
 
   @Override
@@ -101,54 +112,57 @@ public class BatchInsertPlan extends PhysicalPlan {
       buffer.putShort(dataType.serialize());
     }
 
-    buffer.putInt(index.size());
+    buffer.putInt(end - start);
 
-    if (timeBuffer == null) {
-      for(int loc : index){
+    // the rpc buffers hold all rows, so they can only be copied when all rows are serialized
+    boolean isAllRows = start == 0 && end == rowCount;
+    if (timeBuffer != null && isAllRows) {
+      buffer.put(timeBuffer.duplicate());
+    } else {
+      for (int loc = start; loc < end; loc++) {
         buffer.putLong(times[loc]);
       }
-    } else {
-      buffer.put(timeBuffer.array());
-      timeBuffer = null;
     }
 
-    if (valueBuffer == null) {
+    if (valueBuffer != null && isAllRows) {
+      buffer.put(valueBuffer.duplicate());
+    } else {
       for (int i = 0; i < measurements.length; i++) {
         TSDataType dataType = dataTypes[i];
         switch (dataType) {
           case INT32:
             int[] intValues = (int[]) columns[i];
-            for(int loc : index){
+            for (int loc = start; loc < end; loc++) {
               buffer.putInt(intValues[loc]);
             }
             break;
           case INT64:
             long[] longValues = (long[]) columns[i];
-            for(int loc : index){
+            for (int loc = start; loc < end; loc++) {
               buffer.putLong(longValues[loc]);
             }
             break;
           case FLOAT:
             float[] floatValues = (float[]) columns[i];
-            for(int loc : index){
+            for (int loc = start; loc < end; loc++) {
               buffer.putFloat(floatValues[loc]);
             }
             break;
           case DOUBLE:
             double[] doubleValues = (double[]) columns[i];
-            for(int loc : index){
+            for (int loc = start; loc < end; loc++) {
               buffer.putDouble(doubleValues[loc]);
             }
             break;
           case BOOLEAN:
             boolean[] boolValues = (boolean[]) columns[i];
-            for(int loc : index){
+            for (int loc = start; loc < end; loc++) {
               buffer.put(BytesUtils.boolToByte(boolValues[loc]));
             }
             break;
           case TEXT:
             Binary[] binaryValues = (Binary[]) columns[i];
-            for(int loc : index){
+            for (int loc = start; loc < end; loc++) {
               buffer.putInt(binaryValues[loc].getLength());
               buffer.put(binaryValues[loc].getValues());
             }
@@ -158,20 +172,21 @@ public class BatchInsertPlan extends PhysicalPlan {
                 String.format("Data type %s is not supported.", dataType));
         }
       }
-    } else {
-      buffer.put(valueBuffer.array());
-      valueBuffer = null;
     }
   }
 
+  /**
+   * @param timeBuffer the time column of the rpc request from its current position
+   */
   public void setTimeBuffer(ByteBuffer timeBuffer) {
-    this.timeBuffer = timeBuffer;
-    this.timeBuffer.position(0);
+    this.timeBuffer = timeBuffer.slice();
   }
 
+  /**
+   * @param valueBuffer the value columns of the rpc request from its current position
+   */
   public void setValueBuffer(ByteBuffer valueBuffer) {
-    this.valueBuffer = valueBuffer;
-    this.timeBuffer.position(0);
+    this.valueBuffer = valueBuffer.slice();
   }
 
   @Override
@@ -191,7 +206,8 @@ public class BatchInsertPlan extends PhysicalPlan {
 
     int rows = buffer.getInt();
     rowCount = rows;
-    this.times = new long[rows];
+    start = 0;
+    end = rows;
     times = QueryDataSetUtils.readTimesFromBuffer(buffer, rows);
 
     columns = QueryDataSetUtils.readValuesFromBuffer(buffer, dataTypes, measurementSize, rows);
@@ -26,6 +26,7 @@ import java.util.Objects;
 import org.apache.iotdb.db.qp.logical.Operator;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.utils.QueryDataSetUtils;
 import org.apache.iotdb.db.utils.TestOnly;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -37,6 +38,11 @@ public class InsertPlan extends PhysicalPlan {
   private String[] measurements;
   private TSDataType[] dataTypes;
   private String[] values;
+  /**
+   * values sent in binary with their data types, as Boolean, Integer, Long, Float, Double or
+   * Binary. When they are set, values is null and dataTypes are given by the client.
+   */
+  private Object[] typedValues;
   private long time;
 
   public InsertPlan() {
@@ -75,6 +81,16 @@ public class InsertPlan extends PhysicalPlan {
     this.values = insertValues;
   }
 
+  public InsertPlan(String deviceId, long insertTime, String[] measurementList,
+      TSDataType[] dataTypes, Object[] typedValues) {
+    super(false, Operator.OperatorType.INSERT);
+    this.time = insertTime;
+    this.deviceId = deviceId;
+    this.measurements = measurementList;
+    this.dataTypes = dataTypes;
+    this.typedValues = typedValues;
+  }
+
   public long getTime() {
     return time;
   }
@@ -125,6 +141,21 @@ public class InsertPlan extends PhysicalPlan {
     this.values = values;
   }
 
+  public Object[] getTypedValues() {
+    return typedValues;
+  }
+
+  public void setTypedValues(Object[] typedValues) {
+    this.typedValues = typedValues;
+  }
+
+  /**
+   * @return true if the values are already parsed and need no data type inference
+   */
+  public boolean isTyped() {
+    return typedValues != null;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -136,7 +167,8 @@ public class InsertPlan extends PhysicalPlan {
     InsertPlan that = (InsertPlan) o;
     return time == that.time && Objects.equals(deviceId, that.deviceId)
         && Arrays.equals(measurements, that.measurements)
-        && Arrays.equals(values, that.values);
+        && Arrays.equals(values, that.values)
+        && Arrays.equals(typedValues, that.typedValues);
   }
 
   @Override
@@ -146,7 +178,8 @@ public class InsertPlan extends PhysicalPlan {
 
   @Override
   public void serializeTo(ByteBuffer buffer) {
-    int type = PhysicalPlanType.INSERT.ordinal();
+    int type = isTyped() ? PhysicalPlanType.TYPED_INSERT.ordinal()
+        : PhysicalPlanType.INSERT.ordinal();
     buffer.put((byte) type);
     buffer.putLong(time);
 
@@ -157,6 +190,14 @@ public class InsertPlan extends PhysicalPlan {
       putString(buffer, m);
     }
 
+    if (isTyped()) {
+      for (TSDataType dataType : dataTypes) {
+        buffer.putShort(dataType.serialize());
+      }
+      QueryDataSetUtils.writeRowValuesToBuffer(buffer, dataTypes, typedValues);
+      return;
+    }
+
     buffer.putInt(values.length);
     for (String m : values) {
       putString(buffer, m);
@@ -181,6 +222,26 @@ public class InsertPlan extends PhysicalPlan {
     }
   }
 
+  /**
+   * deserialize a plan serialized as PhysicalPlanType.TYPED_INSERT.
+   */
+  public void deserializeTypedFrom(ByteBuffer buffer) {
+    this.time = buffer.getLong();
+    this.deviceId = readString(buffer);
+
+    int measurementSize = buffer.getInt();
+    this.measurements = new String[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      measurements[i] = readString(buffer);
+    }
+
+    this.dataTypes = new TSDataType[measurementSize];
+    for (int i = 0; i < measurementSize; i++) {
+      dataTypes[i] = TSDataType.deserialize(buffer.getShort());
+    }
+    this.typedValues = QueryDataSetUtils.readRowValuesFromBuffer(buffer, dataTypes);
+  }
+
   @Override
   public String toString() {
     return "deviceId: " + deviceId + ", time: " + time;
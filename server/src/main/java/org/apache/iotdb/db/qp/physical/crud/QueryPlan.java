@@ -42,6 +42,8 @@ public class QueryPlan extends PhysicalPlan {
 
   private boolean isQueryCompressRatio = false; // for query lossy compress ratio
 
+  private boolean isExplainAnalyze = false; // for explain analyze sql
+
   public QueryPlan() {
     super(true);
     setOperatorType(Operator.OperatorType.QUERY);
@@ -128,4 +130,12 @@ public class QueryPlan extends PhysicalPlan {
   public void setQueryCompressRatio(boolean queryCompressRatio) {
     isQueryCompressRatio = queryCompressRatio;
   }
+
+  public boolean isExplainAnalyze() {
+    return isExplainAnalyze;
+  }
+
+  public void setExplainAnalyze(boolean explainAnalyze) {
+    isExplainAnalyze = explainAnalyze;
+  }
 }
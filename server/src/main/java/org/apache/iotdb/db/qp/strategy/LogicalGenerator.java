@@ -39,6 +39,7 @@ import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_CREATE;
 import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_DATETIME;
 import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_DELETE;
 import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_DROP;
+import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_EXPLAIN_ANALYZE;
 import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_FILL;
 import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_FROM;
 import static org.apache.iotdb.db.sql.parse.TqlParser.TOK_GRANT;
@@ -280,6 +281,11 @@ public class LogicalGenerator {
       case TOK_GROUPBY_DEVICE:
         ((QueryOperator) initializedOperator).setGroupByDevice(true);
         return;
+      case TOK_EXPLAIN_ANALYZE:
+        // analyze the explained query, then mark it to be profiled
+        analyze(astNode.getChild(0));
+        ((QueryOperator) initializedOperator).setExplainAnalyze(true);
+        return;
       default:
         throw new QueryProcessException("Not supported TqlParser type " + token.getText());
     }
@@ -299,6 +299,7 @@ public class PhysicalGenerator {
     }
 
     queryPlan.checkPaths(executor);
+    queryPlan.setExplainAnalyze(queryOperator.isExplainAnalyze());
 
     // transform filter operator to expression
     FilterOperator filterOperator = queryOperator.getFilterOperator();
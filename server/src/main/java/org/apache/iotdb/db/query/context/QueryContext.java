@@ -26,6 +26,7 @@ import java.util.Map;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.common.Path;
 
 /**
  * QueryContext contains the shared information with in a query.
@@ -48,6 +49,20 @@ public class QueryContext {
 
   private long queryTimeLowerBound = Long.MIN_VALUE;
 
+  /**
+   * Numbers of sealed files, chunks and pages skipped because their statistics can not satisfy the
+   * filter of this query.
+   */
+  private long prunedFileNum = 0;
+  private long prunedChunkNum = 0;
+  private long prunedPageNum = 0;
+
+  /**
+   * Counters of the operators of this query, null unless the query is explained by EXPLAIN
+   * ANALYZE.
+   */
+  private QueryProfile profile;
+
   public QueryContext() {
   }
 
@@ -101,4 +116,51 @@ public class QueryContext {
   public boolean chunkNotSatisfy(ChunkMetaData chunkMetaData) {
     return chunkMetaData.getEndTime() < queryTimeLowerBound;
   }
+
+  public long getPrunedFileNum() {
+    return prunedFileNum;
+  }
+
+  public void addPrunedFileNum(long num) {
+    prunedFileNum += num;
+  }
+
+  public long getPrunedChunkNum() {
+    return prunedChunkNum;
+  }
+
+  public void addPrunedChunkNum(long num) {
+    prunedChunkNum += num;
+  }
+
+  public long getPrunedPageNum() {
+    return prunedPageNum;
+  }
+
+  public void addPrunedPageNum(long num) {
+    prunedPageNum += num;
+  }
+
+  public QueryProfile enableProfile(String name) {
+    profile = new QueryProfile(name);
+    return profile;
+  }
+
+  public QueryProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * @return the profile of a reader of the series, or null if this query is not profiled
+   */
+  public QueryProfile getReaderProfile(Path seriesPath, String readerName) {
+    return profile == null ? null : profile.getChild(seriesPath.getFullPath()).getChild(readerName);
+  }
+
+  /**
+   * @return the profile of the series, or null if this query is not profiled
+   */
+  public QueryProfile getSeriesProfile(Path seriesPath) {
+    return profile == null ? null : profile.getChild(seriesPath.getFullPath());
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.context;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * QueryProfile is a tree of counters of the operators of a query. It is only collected for queries
+ * explained by EXPLAIN ANALYZE, the root is the query and its children are the series read, each of
+ * which has a child for each of its readers, including the readers by timestamp of value filter
+ * queries.
+ */
+public class QueryProfile {
+
+  public static final String ROWS = "rows";
+  public static final String TIME = "time(ns)";
+
+  public static final String FILES = "files";
+  public static final String PRUNED_FILES = "pruned files";
+  public static final String CHUNKS = "chunks";
+  public static final String PRUNED_CHUNKS = "pruned chunks";
+  public static final String PAGES = "pages";
+  public static final String PRUNED_PAGES = "pruned pages";
+  public static final String SKIPPED_PAGES = "pages skipped after header";
+  public static final String POINTS = "points";
+  public static final String DECODE_TIME = "decode time(ns)";
+  public static final String MERGE_TIME = "unseq merge time(ns)";
+  /**
+   * timestamps a reader by timestamp is asked for, a point is counted if it has a value there.
+   */
+  public static final String LOOKUPS = "timestamps looked up";
+  public static final String LOOKUP_TIME = "lookup time(ns)";
+
+  /**
+   * pages of lossy compressed data, i.e. whose compress ratio is larger than 1.
+   */
+  public static final String COMPRESSED_PAGES = "compressed pages";
+  /**
+   * num of points the compressed pages were sampled from.
+   */
+  public static final String COMPRESSED_PAGE_ORIGIN_POINTS = "compressed pages origin points";
+  public static final String HEADER_AGGREGATED_PAGES = "pages aggregated by header";
+  /**
+   * compressed pages whose aggregation is estimated from the header by the time ratio overlapped
+   * with the filter.
+   */
+  public static final String ESTIMATED_PAGES = "compressed pages estimated";
+
+  private String name;
+
+  private Map<String, Long> counters = new LinkedHashMap<>();
+
+  private Map<String, QueryProfile> children = new LinkedHashMap<>();
+
+  public QueryProfile(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return the child with the given name, which is created if absent
+   */
+  public QueryProfile getChild(String childName) {
+    return children.computeIfAbsent(childName, QueryProfile::new);
+  }
+
+  public void add(String counter, long delta) {
+    counters.merge(counter, delta, Long::sum);
+  }
+
+  public void addTimeSince(String counter, long startTimeInNano) {
+    add(counter, System.nanoTime() - startTimeInNano);
+  }
+
+  public long get(String counter) {
+    return counters.getOrDefault(counter, 0L);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Map<String, Long> getCounters() {
+    return counters;
+  }
+
+  public Collection<QueryProfile> getChildren() {
+    return children.values();
+  }
+}
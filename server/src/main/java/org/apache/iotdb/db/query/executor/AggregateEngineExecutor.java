@@ -37,6 +37,7 @@ import org.apache.iotdb.db.query.aggregation.impl.MaxTimeAggrFunc;
 import org.apache.iotdb.db.query.aggregation.impl.MaxValueAggrFunc;
 import org.apache.iotdb.db.query.aggregation.impl.SumAggrFunc;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.AggreResultDataPointReader;
 import org.apache.iotdb.db.query.dataset.EngineDataSetWithoutValueFilter;
@@ -144,7 +145,8 @@ public class AggregateEngineExecutor {
     //TODO use multi-thread
     for (int i = 0; i < selectedSeries.size(); i++) {
       AggreResultData aggreResultData = aggregateWithoutValueFilter(aggregateFunctions.get(i),
-          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter);
+          readersOfSequenceData.get(i), readersOfUnSequenceData.get(i), timeFilter,
+          context.getSeriesProfile(selectedSeries.get(i)));
       aggreResultDataList.add(aggreResultData);
     }
     return constructDataSet(aggreResultDataList);
@@ -166,14 +168,14 @@ public class AggregateEngineExecutor {
         // cal by pageHeader
         function.calculateValueFromPageHeader(pageHeader);
         sequenceReader.skipPageData();
-        logger.info("calculateValueFromPageHeader: function {}, page window rage [{},{}].",function.getFunName(),
+        logger.debug("calculateValueFromPageHeader: function {}, page window rage [{},{}].",function.getFunName(),
             pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp());
       } else {
         String funcName = function.getFunName();
 
         if(pageHeader!=null && pageHeader.getCompressRatio()>1 && estimationMethod.equals(TIME_RATIO)&&
             (funcName.equals(StatisticConstant.SUM) || funcName.equals(StatisticConstant.COUNT) || funcName.equals(StatisticConstant.AVG)) ){
-          logger.info("function {}, page window rage [{},{}].",function.getFunName(),
+          logger.debug("function {}, page window rage [{},{}].",function.getFunName(),
               pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp());
 
           //BatchData batchData = sequenceReader.nextBatch();
@@ -192,7 +194,7 @@ public class AggregateEngineExecutor {
           double ratio = 1.0*occupiedTime/(pageHeader.getMaxTimestamp()-pageHeader.getMinTimestamp());
           double avgInterval = (pageHeader.getMaxTimestamp()-pageHeader.getMinTimestamp())*1.0/ pageHeader.getNumOfValues() * pageHeader.getCompressRatio();
 
-          logger.info("function {}, page window range [{},{}], occupiedTime length is {}, occupiedTime range [{}, {}], {}%,"
+          logger.debug("function {}, page window range [{},{}], occupiedTime length is {}, occupiedTime range [{}, {}], {}%,"
                   + "Page ratio:{}, count:{}, sum:{}, max:{}, min:{}, avg interval:{}",function.getFunName(),
               pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp(), occupiedTime, intervalList.get(0).left, intervalList.get(0).right,
               ratio*100,
@@ -216,7 +218,7 @@ public class AggregateEngineExecutor {
 
           if(pageHeader!=null && logger.isInfoEnabled()){
             double avgInterval = (pageHeader.getMaxTimestamp()-pageHeader.getMinTimestamp())*1.0/ pageHeader.getNumOfValues() * pageHeader.getCompressRatio();
-            logger.info("function {}, page window range [{},{}],"
+            logger.debug("function {}, page window range [{},{}],"
                     + "Page ratio:{}, count:{}, sum:{}, max:{}, min:{}, avg interval:{}",
                 function.getFunName(), pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp(),
                 pageHeader.getCompressRatio(), pageHeader.getNumOfValues(), pageHeader.getStatistics().getSum(),
@@ -246,11 +248,12 @@ public class AggregateEngineExecutor {
    * @param sequenceReader sequence data reader
    * @param unSequenceReader unsequence data reader
    * @param filter time filter or null
+   * @param profile profile of the series, null if the query is not profiled
    * @return one series aggregate result data
    */
   private AggreResultData aggregateWithoutValueFilter(AggregateFunction function,
-      IAggregateReader sequenceReader, IPointReader unSequenceReader, Filter filter)
-      throws IOException, QueryProcessException {
+      IAggregateReader sequenceReader, IPointReader unSequenceReader, Filter filter,
+      QueryProfile profile) throws IOException, QueryProcessException {
     if (function instanceof MaxTimeAggrFunc || function instanceof LastAggrFunc) {
       return handleLastMaxTimeWithOutTimeGenerator(function, sequenceReader, unSequenceReader,
           filter);
@@ -264,6 +267,7 @@ public class AggregateEngineExecutor {
         // cal by pageHeader
         function.calculateValueFromPageHeader(pageHeader);
         sequenceReader.skipPageData();
+        recordPage(profile, QueryProfile.HEADER_AGGREGATED_PAGES);
       } else {
         // 1x
         if(pageHeader == null || pageHeader.getCompressRatio() <= 1){
@@ -277,13 +281,14 @@ public class AggregateEngineExecutor {
             // no filter
             function.calculateValueFromPageHeader(pageHeader, 1.0);
             sequenceReader.skipPageData();
+            recordPage(profile, QueryProfile.ESTIMATED_PAGES);
             function.calculateValueFromUnsequenceReader(unSequenceReader, pageHeader.getMaxTimestamp()+1);
             continue;
           }
 
           if(estimationMethod.equals(TIME_RATIO)&&
               (funcName.equals(StatisticConstant.SUM) || funcName.equals(StatisticConstant.COUNT) || funcName.equals(StatisticConstant.AVG))){
-            logger.info("function {}, page window rage [{},{}]",function.getFunName(),
+            logger.debug("function {}, page window rage [{},{}]",function.getFunName(),
                 pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp());
             List<Pair<Long, Long>> intervalList = filter.findIntersection(pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp());
             if(intervalList.isEmpty()){
@@ -298,7 +303,7 @@ public class AggregateEngineExecutor {
             double sigmo = pageHeader.calStandardDeviation();
             double mu = pageHeader.calMeanValue();
             double interval = sigmo_in_compress_point_exist_judge*sigmo;
-            logger.info("function {}, page window range [{},{}], occupiedTime length is {}, occupiedTime range [{}, {}], {}%,"
+            logger.debug("function {}, page window range [{},{}], occupiedTime length is {}, occupiedTime range [{}, {}], {}%,"
                     + "Page ratio:{}, count:{}, sum:{}, max:{}, min:{}, sigmo:{}, mu:{}, avg interval:{}",function.getFunName(),
                 pageHeader.getMinTimestamp(), pageHeader.getMaxTimestamp(), occupiedTime, intervalList.get(0).left, intervalList.get(0).right,
                 (occupiedTime*1.0/(pageHeader.getMaxTimestamp()-pageHeader.getMinTimestamp()))*100,
@@ -313,7 +318,7 @@ public class AggregateEngineExecutor {
                 if(occupiedTime> (mu+interval)* pageHeader.getCompressRatio() || occupiedTime<(mu-interval)* pageHeader.getCompressRatio()){
                   // non
                   isExists = false;
-                  logger.info("occupiedTime range [{}, {}] no point in page, interval range {},{}",
+                  logger.debug("occupiedTime range [{}, {}] no point in page, interval range {},{}",
                       intervalList.get(0).left, intervalList.get(0).right, (mu-interval)* pageHeader.getCompressRatio(), (mu+interval)* pageHeader.getCompressRatio());
                 }
               }
@@ -324,7 +329,8 @@ public class AggregateEngineExecutor {
             if(isExists){
               // have point
               function.calculateValueFromPageHeader(pageHeader, 1.0*occupiedTime/(pageHeader.getMaxTimestamp()-pageHeader.getMinTimestamp()));
-              logger.info("occupiedTime range [{}, {}] have point in page, occupiedTime ratio:{},interval range {},{}",
+              recordPage(profile, QueryProfile.ESTIMATED_PAGES);
+              logger.debug("occupiedTime range [{}, {}] have point in page, occupiedTime ratio:{},interval range {},{}",
                   intervalList.get(0).left, intervalList.get(0).right, 1.0*occupiedTime/(pageHeader.getMaxTimestamp()-pageHeader.getMinTimestamp()),
                   (mu-interval)* pageHeader.getCompressRatio(), (mu+interval)* pageHeader.getCompressRatio());
             }
@@ -380,6 +386,12 @@ public class AggregateEngineExecutor {
 
   }
 
+  private void recordPage(QueryProfile profile, String counter) {
+    if (profile != null) {
+      profile.add(counter, 1);
+    }
+  }
+
   /**
    * handle last and max_time aggregate function with only time filter or no filter.
    *
@@ -20,6 +20,9 @@ package org.apache.iotdb.db.query.reader.chunkRelated;
 
 import java.io.IOException;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageCounter;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
@@ -71,7 +74,7 @@ public class ChunkReaderWrap {
 
   public IPointReader getIPointReader() throws IOException {
     if (type.equals(ChunkReaderType.DISK_CHUNK)) {
-      Chunk chunk = chunkLoader.getChunk(chunkMetaData);
+      Chunk chunk = loadChunk();
       ChunkReader chunkReader = filter != null ? new ChunkReaderWithFilter(chunk, filter)
           : new ChunkReaderWithoutFilter(chunk);
 
@@ -83,7 +86,7 @@ public class ChunkReaderWrap {
 
   public IReaderByTimestamp getIReaderByTimestamp() throws IOException {
     if (type.equals(ChunkReaderType.DISK_CHUNK)) {
-      Chunk chunk = chunkLoader.getChunk(chunkMetaData);
+      Chunk chunk = loadChunk();
       ChunkReaderByTimestamp chunkReader = new ChunkReaderByTimestamp(chunk);
       return new DiskChunkReaderByTimestamp(chunkReader);
     } else {
@@ -91,6 +94,14 @@ public class ChunkReaderWrap {
     }
   }
 
+  private Chunk loadChunk() throws IOException {
+    long startTime = System.nanoTime();
+    Chunk chunk = chunkLoader.getChunk(chunkMetaData);
+    StageMetrics.getInstance().record(Stage.CHUNK_READ, startTime);
+    StageMetrics.getInstance().count(StageCounter.CHUNK_READ_BYTES, chunk.getHeader().getDataSize());
+    return chunk;
+  }
+
   public String getMeasurementUid() {
     if (chunkMetaData != null) {
       return chunkMetaData.getMeasurementUid();
@@ -19,6 +19,8 @@
 package org.apache.iotdb.db.query.reader.fileRelated;
 
 import java.io.IOException;
+import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -38,10 +40,33 @@ public class FileSeriesReaderAdapter implements IAggregateReader {
 
   private FileSeriesReader fileSeriesReader;
 
+  /**
+   * the query to report the chunks and pages pruned by <code>fileSeriesReader</code> to, null if
+   * they are not recorded.
+   */
+  private QueryContext context;
+  private boolean isPruningRecorded = false;
+
+  /**
+   * the profile to record the chunks read and pruned to, null if the query is not profiled.
+   */
+  private QueryProfile profile;
+
   public FileSeriesReaderAdapter(FileSeriesReader fileSeriesReader) {
     this.fileSeriesReader = fileSeriesReader;
   }
 
+  public FileSeriesReaderAdapter(FileSeriesReader fileSeriesReader, QueryContext context) {
+    this.fileSeriesReader = fileSeriesReader;
+    this.context = context;
+  }
+
+  public FileSeriesReaderAdapter(FileSeriesReader fileSeriesReader, QueryContext context,
+      QueryProfile profile) {
+    this(fileSeriesReader, context);
+    this.profile = profile;
+  }
+
   @Override
   public PageHeader nextPageHeader() throws IOException {
     return fileSeriesReader.nextPageHeader();
@@ -54,7 +79,11 @@ public class FileSeriesReaderAdapter implements IAggregateReader {
 
   @Override
   public boolean hasNext() throws IOException {
-    return fileSeriesReader.hasNextBatch();
+    if (fileSeriesReader.hasNextBatch()) {
+      return true;
+    }
+    recordPruning();
+    return false;
   }
 
   @Override
@@ -64,6 +93,21 @@ public class FileSeriesReaderAdapter implements IAggregateReader {
 
   @Override
   public void close() throws IOException {
+    recordPruning();
     fileSeriesReader.close();
   }
+
+  private void recordPruning() {
+    if (context == null || isPruningRecorded) {
+      return;
+    }
+    context.addPrunedChunkNum(fileSeriesReader.getPrunedChunkNum());
+    context.addPrunedPageNum(fileSeriesReader.getPrunedPageNum());
+    if (profile != null) {
+      profile.add(QueryProfile.CHUNKS, fileSeriesReader.getLoadedChunkNum());
+      profile.add(QueryProfile.PRUNED_CHUNKS, fileSeriesReader.getPrunedChunkNum());
+      profile.add(QueryProfile.PRUNED_PAGES, fileSeriesReader.getPrunedPageNum());
+    }
+    isPruningRecorded = true;
+  }
 }
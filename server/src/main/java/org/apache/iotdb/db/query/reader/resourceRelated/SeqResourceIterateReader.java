@@ -25,14 +25,17 @@ import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IAggregateReader;
 import org.apache.iotdb.db.query.reader.fileRelated.FileSeriesReaderAdapter;
 import org.apache.iotdb.db.query.reader.fileRelated.UnSealedTsFileIterateReader;
 import org.apache.iotdb.db.query.reader.universal.IterateReader;
 import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.read.controller.ChunkLoaderImpl;
@@ -69,6 +72,11 @@ public class SeqResourceIterateReader extends IterateReader {
   private Filter filter;
   private QueryContext context;
 
+  /**
+   * null if the query is not profiled.
+   */
+  private QueryProfile profile;
+
   /**
    * Constructor function.
    * <p>
@@ -95,6 +103,7 @@ public class SeqResourceIterateReader extends IterateReader {
     this.seqResources = seqResources;
     this.filter = filter;
     this.context = context;
+    this.profile = context.getReaderProfile(seriesPath, getClass().getSimpleName());
   }
 
   public SeqResourceIterateReader(Path seriesPath, List<TsFileResource> seqResources,
@@ -115,25 +124,67 @@ public class SeqResourceIterateReader extends IterateReader {
     TsFileResource tsFileResource = seqResources.get(idx);
     if (tsFileResource.isClosed()) {
       if (isTsFileNotSatisfied(tsFileResource, filter)) {
+        recordFile(false);
         return false;
       }
       currentSeriesReader = initSealedTsFileReader(tsFileResource, filter, context);
-      return true;
+      recordFile(currentSeriesReader != null);
+      return currentSeriesReader != null;
     } else {
       // an unsealed sequence TsFile's endTimeMap size may be equal to 0 or greater than 0
       // If endTimeMap size is 0, conservatively assume that this TsFile might satisfy this filter.
       // If endTimeMap size is not 0, call isTsFileNotSatisfied to check.
       if (tsFileResource.getEndTimeMap().size() != 0) {
         if (isTsFileNotSatisfied(tsFileResource, filter)) {
+          recordFile(false);
           return false;
         }
       }
       currentSeriesReader = new UnSealedTsFileIterateReader(tsFileResource, filter,
           enableReverse);
+      recordFile(true);
       return true;
     }
   }
 
+  @Override
+  public BatchData nextBatch() throws IOException {
+    if (profile == null) {
+      return super.nextBatch();
+    }
+    long startTime = System.nanoTime();
+    BatchData batchData = super.nextBatch();
+    profile.addTimeSince(QueryProfile.DECODE_TIME, startTime);
+    profile.add(QueryProfile.PAGES, 1);
+    profile.add(QueryProfile.POINTS, batchData.length());
+    return batchData;
+  }
+
+  @Override
+  public PageHeader nextPageHeader() throws IOException {
+    PageHeader pageHeader = super.nextPageHeader();
+    if (profile != null && pageHeader != null && pageHeader.getCompressRatio() > 1) {
+      profile.add(QueryProfile.COMPRESSED_PAGES, 1);
+      profile.add(QueryProfile.COMPRESSED_PAGE_ORIGIN_POINTS,
+          (long) pageHeader.getNumOfValues() * pageHeader.getCompressRatio());
+    }
+    return pageHeader;
+  }
+
+  @Override
+  public void skipPageData() throws IOException {
+    super.skipPageData();
+    if (profile != null) {
+      profile.add(QueryProfile.SKIPPED_PAGES, 1);
+    }
+  }
+
+  private void recordFile(boolean isRead) {
+    if (profile != null) {
+      profile.add(isRead ? QueryProfile.FILES : QueryProfile.PRUNED_FILES, 1);
+    }
+  }
+
   /**
    * Returns true if the start and end time of the series data in this sequence TsFile do not
    * satisfy the filter condition. Returns false if satisfy.
@@ -155,6 +206,10 @@ public class SeqResourceIterateReader extends IterateReader {
     return !filter.satisfyStartEndTime(startTime, endTime);
   }
 
+  /**
+   * Creates <code>IAggregateReader</code> for a sealed TsFile, or returns null if the chunk
+   * statistics show that no data of the series in this TsFile can satisfy the filter.
+   */
   private IAggregateReader initSealedTsFileReader(TsFileResource sealedTsFile, Filter filter,
       QueryContext context) throws IOException {
     // prepare metaDataList
@@ -165,6 +220,11 @@ public class SeqResourceIterateReader extends IterateReader {
     if (!pathModifications.isEmpty()) {
       QueryUtils.modifyChunkMetaData(metaDataList, pathModifications);
     }
+    if (filter != null && isTsFileNotSatisfied(metaDataList, filter)) {
+      // no need to open the file at all
+      context.addPrunedFileNum(1);
+      return null;
+    }
 
     if (enableReverse) {
       Collections.reverse(metaDataList);
@@ -181,6 +241,19 @@ public class SeqResourceIterateReader extends IterateReader {
     } else {
       fileSeriesReader = new FileSeriesReaderWithFilter(chunkLoader, metaDataList, filter);
     }
-    return new FileSeriesReaderAdapter(fileSeriesReader);
+    return new FileSeriesReaderAdapter(fileSeriesReader, context, profile);
+  }
+
+  /**
+   * Returns true if the statistics of none of the chunks of the series in a sealed TsFile satisfy
+   * the filter, so that value filters prune the file as a whole like time filters do.
+   */
+  private boolean isTsFileNotSatisfied(List<ChunkMetaData> metaDataList, Filter filter) {
+    for (ChunkMetaData chunkMetaData : metaDataList) {
+      if (FileSeriesReaderWithFilter.chunkSatisfied(chunkMetaData, filter)) {
+        return false;
+      }
+    }
+    return true;
   }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.reader.IReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.fileRelated.FileSeriesReaderByTimestampAdapter;
@@ -56,6 +57,11 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
   private int nextIntervalFileIndex;
   private IReaderByTimestamp seriesReader;
 
+  /**
+   * null if the query is not profiled.
+   */
+  private QueryProfile profile;
+
   /**
    * Constructor function.
    * <p>
@@ -71,6 +77,7 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
     this.context = context;
     this.nextIntervalFileIndex = 0;
     this.seriesReader = null;
+    this.profile = context.getReaderProfile(seriesPath, getClass().getSimpleName());
   }
 
   @Override
@@ -113,6 +120,7 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
       } else {
         seriesReader = new UnSealedTsFileReaderByTimestamp(tsFileResource);
       }
+      recordFile(true);
       if (seriesReader.hasNext()) {
         return true;
       }
@@ -136,9 +144,11 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
     TsFileResource tsFileResource = seqResources.get(idx);
     if (tsFileResource.isClosed()) {
       if (isTsFileNotSatisfied(tsFileResource, timestamp)) {
+        recordFile(false);
         return false;
       }
       seriesReader = initSealedTsFileReaderByTimestamp(tsFileResource, context);
+      recordFile(true);
       return true;
     } else {
       // an unsealed sequence TsFile's endTimeMap size may be equal to 0 or greater than 0
@@ -146,14 +156,22 @@ public class SeqResourceReaderByTimestamp implements IReaderByTimestamp {
       // If endTimeMap size is not 0, call isTsFileNotSatisfied to check.
       if (tsFileResource.getEndTimeMap().size() != 0) {
         if (isTsFileNotSatisfied(tsFileResource, timestamp)) {
+          recordFile(false);
           return false;
         }
       }
       seriesReader = new UnSealedTsFileReaderByTimestamp(tsFileResource);
+      recordFile(true);
       return true;
     }
   }
 
+  private void recordFile(boolean isRead) {
+    if (profile != null) {
+      profile.add(isRead ? QueryProfile.FILES : QueryProfile.PRUNED_FILES, 1);
+    }
+  }
+
   /**
    * Returns true if the end time of the series data in this sequence TsFile is smaller than this
    * timestamp.
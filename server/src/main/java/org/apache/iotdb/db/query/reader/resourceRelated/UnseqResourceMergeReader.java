@@ -27,6 +27,7 @@ import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.externalsort.ExternalSortJobEngine;
 import org.apache.iotdb.db.query.externalsort.SimpleExternalSortEngine;
@@ -34,6 +35,7 @@ import org.apache.iotdb.db.query.reader.IPointReader;
 import org.apache.iotdb.db.query.reader.chunkRelated.ChunkReaderWrap;
 import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
 import org.apache.iotdb.db.utils.QueryUtils;
+import org.apache.iotdb.db.utils.TimeValuePair;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TsDigest.StatisticType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
@@ -57,10 +59,16 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
   private Path seriesPath;
   private long queryId;
 
+  /**
+   * null if the query is not profiled.
+   */
+  private QueryProfile profile;
+
   public UnseqResourceMergeReader(Path seriesPath, List<TsFileResource> unseqResources,
       QueryContext context, Filter filter) throws IOException {
     this.seriesPath = seriesPath;
     this.queryId = context.getJobId();
+    this.profile = context.getReaderProfile(seriesPath, getClass().getSimpleName());
 
     List<ChunkReaderWrap> readerWrapList = new ArrayList<>();
     for (TsFileResource tsFileResource : unseqResources) {
@@ -69,6 +77,7 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
       List<ChunkMetaData> metaDataList;
       if (tsFileResource.isClosed()) {
         if (isTsFileNotSatisfied(tsFileResource, filter)) {
+          record(QueryProfile.PRUNED_FILES, 1);
           continue;
         }
 
@@ -82,11 +91,13 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
       } else {
         if (tsFileResource.getEndTimeMap().size() != 0) {
           if (isTsFileNotSatisfied(tsFileResource, filter)) {
+            record(QueryProfile.PRUNED_FILES, 1);
             continue;
           }
         }
         metaDataList = tsFileResource.getChunkMetaDataList();
       }
+      record(QueryProfile.FILES, 1);
 
       ChunkLoaderImpl chunkLoader = null;
       if (!metaDataList.isEmpty()) {
@@ -109,11 +120,13 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
           DigestForFilter digest = new DigestForFilter(chunkMetaData.getStartTime(),
               chunkMetaData.getEndTime(), minValue, maxValue, chunkMetaData.getTsDataType());
           if (!filter.satisfy(digest)) {
+            record(QueryProfile.PRUNED_CHUNKS, 1);
             continue;
           }
         }
         // create and add DiskChunkReader
         readerWrapList.add(new ChunkReaderWrap(chunkMetaData, chunkLoader, filter));
+        record(QueryProfile.CHUNKS, 1);
       }
 
       if (!tsFileResource.isClosed()) {
@@ -131,6 +144,24 @@ public class UnseqResourceMergeReader extends PriorityMergeReader {
     }
   }
 
+  @Override
+  public TimeValuePair next() throws IOException {
+    if (profile == null) {
+      return super.next();
+    }
+    long startTime = System.nanoTime();
+    TimeValuePair timeValuePair = super.next();
+    profile.addTimeSince(QueryProfile.MERGE_TIME, startTime);
+    profile.add(QueryProfile.POINTS, 1);
+    return timeValuePair;
+  }
+
+  private void record(String counter, long delta) {
+    if (profile != null) {
+      profile.add(counter, delta);
+    }
+  }
+
   /**
    * Returns true if the start and end time of the series data in this unsequence TsFile do not
    * satisfy the filter condition. Returns false if satisfy.
@@ -25,6 +25,7 @@ import org.apache.iotdb.db.engine.cache.DeviceMetaDataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.query.externalsort.ExternalSortJobEngine;
 import org.apache.iotdb.db.query.externalsort.SimpleExternalSortEngine;
@@ -53,6 +54,7 @@ public class UnseqResourceReaderByTimestamp extends PriorityMergeReaderByTimesta
   public UnseqResourceReaderByTimestamp(Path seriesPath,
       List<TsFileResource> unseqResources, QueryContext context) throws IOException {
     this.queryId = context.getJobId();
+    QueryProfile profile = context.getReaderProfile(seriesPath, getClass().getSimpleName());
     List<ChunkReaderWrap> chunkReaderWrapList = new ArrayList<>();
     for (TsFileResource tsFileResource : unseqResources) {
 
@@ -80,6 +82,10 @@ public class UnseqResourceReaderByTimestamp extends PriorityMergeReaderByTimesta
       for (ChunkMetaData chunkMetaData : metaDataList) {
         chunkReaderWrapList.add(new ChunkReaderWrap(chunkMetaData, chunkLoader, null));
       }
+      if (profile != null) {
+        profile.add(QueryProfile.FILES, 1);
+        profile.add(QueryProfile.CHUNKS, metaDataList.size());
+      }
 
       if (!tsFileResource.isClosed()) {
         // create and add MemChunkReader
@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.reader.resourceRelated.SeqResourceReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.resourceRelated.UnseqResourceReaderByTimestamp;
@@ -38,8 +39,14 @@ import org.apache.iotdb.tsfile.read.common.Path;
  */
 public class SeriesReaderByTimestamp extends PriorityMergeReaderByTimestamp {
 
+  /**
+   * null if the query is not profiled.
+   */
+  private QueryProfile profile;
+
   public SeriesReaderByTimestamp(Path seriesPath, QueryContext context)
       throws StorageEngineException, IOException {
+    this.profile = context.getReaderProfile(seriesPath, getClass().getSimpleName());
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
         .getQueryDataSource(seriesPath, context);
 
@@ -54,4 +61,19 @@ public class SeriesReaderByTimestamp extends PriorityMergeReaderByTimestamp {
     addReaderWithPriority(seqResourceReaderByTimestamp, 1);
     addReaderWithPriority(unseqResourceReaderByTimestamp, 2);
   }
+
+  @Override
+  public Object getValueInTimestamp(long timestamp) throws IOException {
+    if (profile == null) {
+      return super.getValueInTimestamp(timestamp);
+    }
+    long startTime = System.nanoTime();
+    Object value = super.getValueInTimestamp(timestamp);
+    profile.addTimeSince(QueryProfile.LOOKUP_TIME, startTime);
+    profile.add(QueryProfile.LOOKUPS, 1);
+    if (value != null) {
+      profile.add(QueryProfile.POINTS, 1);
+    }
+    return value;
+  }
 }
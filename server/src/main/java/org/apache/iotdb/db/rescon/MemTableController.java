@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MemTableController adapts the memtable size to the actual memory pressure, so that insertions
+ * slow down by flushing smaller memtables earlier instead of stalling in
+ * MemTablePool.getAvailableMemTable().
+ *
+ * Every memtable_control_interval_in_ms (and at once when an insertion has to wait for a
+ * memtable), the pressure is measured by:
+ *
+ * 1. the tenured heap occupied after its last collection against memtable_heap_pressure_threshold
+ * of its max size. The used heap is not a signal, as it grows with uncollected garbage past any
+ * threshold before each collection;
+ *
+ * 2. the free memtables of the pool against the memtables that will be taken while one memtable is
+ * flushed, i.e., the rate that memtables are taken * the average flush latency;
+ *
+ * 3. whether some insertion is waiting for a memtable.
+ *
+ * Under pressure, the ratio applied to the memtable size threshold (which is already scaled by the
+ * series number of each storage group) is halved down to MIN_SIZE_RATIO, and the working memtables
+ * of the least recently written storage groups are flushed. Otherwise the ratio grows back to 1
+ * step by step.
+ */
+public class MemTableController {
+
+  private static final Logger logger = LoggerFactory.getLogger(MemTableController.class);
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  private static final double MIN_SIZE_RATIO = 0.125;
+
+  private static final double SIZE_RATIO_STEP = 0.125;
+
+  /**
+   * weight of the newest sample in the average flush latency
+   */
+  private static final double LATENCY_WEIGHT = 0.2;
+
+  /**
+   * the heap pool of long-lived objects, the only heap pool that supports a usage threshold
+   */
+  private static final MemoryPoolMXBean TENURED_POOL = getTenuredPool();
+
+  private volatile double sizeRatio = 1.0;
+
+  private double flushLatencyInMs = 0;
+
+  private long lastAcquiredNum;
+
+  private long lastCheckTime;
+
+  private final AtomicBoolean checkSubmitted = new AtomicBoolean(false);
+
+  private volatile ScheduledExecutorService controlThread;
+
+  private Supplier<Collection<StorageGroupProcessor>> processorSupplier;
+
+  private final DoubleSupplier heapUsageSupplier;
+
+  private MemTableController() {
+    this(null, MemTableController::getTenuredHeapUsage);
+  }
+
+  MemTableController(Supplier<Collection<StorageGroupProcessor>> processorSupplier,
+      DoubleSupplier heapUsageSupplier) {
+    this.processorSupplier = processorSupplier;
+    this.heapUsageSupplier = heapUsageSupplier;
+    this.lastCheckTime = System.currentTimeMillis();
+    this.lastAcquiredNum = MemTablePool.getInstance().getAcquiredNum();
+  }
+
+  /**
+   * @param processorSupplier supplies the storage groups whose memtables may be flushed early
+   */
+  public synchronized void start(
+      Supplier<Collection<StorageGroupProcessor>> processorSupplier) {
+    if (!CONFIG.isEnableAdaptiveMemtable() || controlThread != null) {
+      return;
+    }
+    this.processorSupplier = processorSupplier;
+    lastCheckTime = System.currentTimeMillis();
+    lastAcquiredNum = MemTablePool.getInstance().getAcquiredNum();
+    long interval = CONFIG.getMemtableControlIntervalInMs();
+    controlThread = IoTDBThreadPoolFactory
+        .newSingleThreadScheduledExecutor(ThreadName.MEMTABLE_CONTROL.getName());
+    controlThread.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stop() {
+    if (controlThread != null) {
+      controlThread.shutdownNow();
+      controlThread = null;
+    }
+    sizeRatio = 1.0;
+  }
+
+  /**
+   * check the pressure at once instead of waiting for the next round, called when an insertion
+   * has to wait for a memtable.
+   */
+  void requestCheck() {
+    ScheduledExecutorService thread = controlThread;
+    if (thread != null && checkSubmitted.compareAndSet(false, true)) {
+      try {
+        thread.execute(this::check);
+      } catch (RejectedExecutionException e) {
+        checkSubmitted.set(false);
+      }
+    }
+  }
+
+  public synchronized void recordFlushLatency(long latencyInMs) {
+    flushLatencyInMs = flushLatencyInMs == 0 ? latencyInMs
+        : flushLatencyInMs * (1 - LATENCY_WEIGHT) + latencyInMs * LATENCY_WEIGHT;
+  }
+
+  /**
+   * @return the ratio in (0, 1] applied to the memtable size threshold
+   */
+  public double getSizeRatio() {
+    return sizeRatio;
+  }
+
+  void check() {
+    checkSubmitted.set(false);
+    try {
+      MemTablePool pool = MemTablePool.getInstance();
+      long now = System.currentTimeMillis();
+      long acquiredNum = pool.getAcquiredNum();
+      int reservedNum;
+      synchronized (this) {
+        reservedNum = getReservedNum(acquiredNum - lastAcquiredNum, now - lastCheckTime,
+            flushLatencyInMs);
+      }
+      lastAcquiredNum = acquiredNum;
+      lastCheckTime = now;
+      int freeNum = pool.getFreeNum();
+      boolean poolPressure = freeNum < reservedNum || pool.getWaitingNum() > 0;
+
+      double heapUsage = heapUsageSupplier.getAsDouble();
+      boolean heapPressure = heapUsage > CONFIG.getMemtableHeapPressureThreshold();
+
+      if (poolPressure || heapPressure) {
+        sizeRatio = Math.max(MIN_SIZE_RATIO, sizeRatio / 2);
+        int flushedNum = flushColdest(poolPressure ? Math.max(1, reservedNum - freeNum) : 1);
+        logger.info(
+            "memtable pressure: heap usage {}, free memtables {}, reserved memtables {}, "
+                + "memtable size ratio is set to {}, {} memtables are flushed early",
+            heapUsage, freeNum, reservedNum, sizeRatio, flushedNum);
+      } else if (sizeRatio < 1) {
+        sizeRatio = Math.min(1, sizeRatio + SIZE_RATIO_STEP);
+      }
+    } catch (Exception e) {
+      logger.error("An error occurred when controlling memtables", e);
+    }
+  }
+
+  /**
+   * @return the number of memtables that will be taken while one memtable is flushed, at least 1
+   */
+  static int getReservedNum(long acquiredNum, long intervalInMs, double flushLatencyInMs) {
+    double acquireRate = (double) acquiredNum / Math.max(1, intervalInMs);
+    return Math.max(1, (int) Math.ceil(acquireRate * flushLatencyInMs));
+  }
+
+  /**
+   * @return the occupancy of the tenured pool after its last collection against its max size, or
+   * 0 if it is unknown
+   */
+  private static double getTenuredHeapUsage() {
+    if (TENURED_POOL == null) {
+      return 0;
+    }
+    MemoryUsage usage = TENURED_POOL.getCollectionUsage();
+    if (usage == null) {
+      return 0;
+    }
+    long max = usage.getMax() > 0 ? usage.getMax() : Runtime.getRuntime().maxMemory();
+    return (double) usage.getUsed() / max;
+  }
+
+  private static MemoryPoolMXBean getTenuredPool() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+          && pool.isCollectionUsageThresholdSupported()) {
+        return pool;
+      }
+    }
+    logger.warn("No tenured heap pool is found, heap pressure is not used to control memtables");
+    return null;
+  }
+
+  /**
+   * flush the working memtables of the least recently written storage groups.
+   *
+   * @return the number of memtables submitted to flush
+   */
+  private int flushColdest(int flushNum) {
+    List<StorageGroupProcessor> processors = new ArrayList<>(processorSupplier.get());
+    processors.sort(Comparator.comparingLong(StorageGroupProcessor::getLastInsertTime));
+    int flushedNum = 0;
+    for (StorageGroupProcessor processor : processors) {
+      if (flushedNum >= flushNum) {
+        break;
+      }
+      flushedNum += processor.tryAsyncFlushWorkingMemTables();
+    }
+    return flushedNum;
+  }
+
+  public static MemTableController getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static final MemTableController INSTANCE = new MemTableController();
+  }
+}
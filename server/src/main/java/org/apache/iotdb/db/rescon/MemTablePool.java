@@ -24,6 +24,8 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +39,10 @@ public class MemTablePool {
 
   private int size = 0;
 
+  private long acquiredNum = 0;
+
+  private int waitingNum = 0;
+
   private static final int WAIT_TIME = 2000;
 
   private MemTablePool() {
@@ -47,6 +53,7 @@ public class MemTablePool {
     synchronized (availableMemTables) {
       if (availableMemTables.isEmpty() && size < CONFIG.getMaxMemtableNumber()) {
         size++;
+        acquiredNum++;
         logger.info("generated a new memtable for {}, system memtable size: {}, stack size: {}",
             applier, size, availableMemTables.size());
         return new PrimitiveMemTable();
@@ -54,25 +61,35 @@ public class MemTablePool {
         logger
             .debug("system memtable size: {}, stack size: {}, then get a memtable from stack for {}",
                 size, availableMemTables.size(), applier);
+        acquiredNum++;
         return availableMemTables.pop();
       }
 
       // wait until some one has released a memtable
-      int waitCount = 1;
-      while (true) {
-        if (!availableMemTables.isEmpty()) {
-          logger.debug(
-              "system memtable size: {}, stack size: {}, then get a memtable from stack for {}",
-              size, availableMemTables.size(), applier);
-          return availableMemTables.pop();
-        }
-        try {
-          availableMemTables.wait(WAIT_TIME);
-        } catch (InterruptedException e) {
-          logger.error("{} fails to wait fot memtables {}, continue to wait", applier, e);
-          Thread.currentThread().interrupt();
+      waitingNum++;
+      MemTableController.getInstance().requestCheck();
+      long waitStartTime = System.nanoTime();
+      try {
+        int waitCount = 1;
+        while (true) {
+          if (!availableMemTables.isEmpty()) {
+            logger.debug(
+                "system memtable size: {}, stack size: {}, then get a memtable from stack for {}",
+                size, availableMemTables.size(), applier);
+            acquiredNum++;
+            return availableMemTables.pop();
+          }
+          try {
+            availableMemTables.wait(WAIT_TIME);
+          } catch (InterruptedException e) {
+            logger.error("{} fails to wait fot memtables {}, continue to wait", applier, e);
+            Thread.currentThread().interrupt();
+          }
+          logger.info("{} has waited for a memtable for {}ms", applier, waitCount++ * WAIT_TIME);
         }
-        logger.info("{} has waited for a memtable for {}ms", applier, waitCount++ * WAIT_TIME);
+      } finally {
+        waitingNum--;
+        StageMetrics.getInstance().record(Stage.MEMTABLE_POOL_WAIT, waitStartTime);
       }
     }
   }
@@ -101,6 +118,33 @@ public class MemTablePool {
     return size;
   }
 
+  /**
+   * @return the number of memtables that can be taken without waiting
+   */
+  public int getFreeNum() {
+    synchronized (availableMemTables) {
+      return Math.max(0, CONFIG.getMaxMemtableNumber() - size) + availableMemTables.size();
+    }
+  }
+
+  /**
+   * @return the total number of memtables that have been taken from the pool
+   */
+  public long getAcquiredNum() {
+    synchronized (availableMemTables) {
+      return acquiredNum;
+    }
+  }
+
+  /**
+   * @return the number of insertions waiting for a memtable
+   */
+  public int getWaitingNum() {
+    synchronized (availableMemTables) {
+      return waitingNum;
+    }
+  }
+
   public static MemTablePool getInstance() {
     return InstanceHolder.INSTANCE;
   }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.service;
+
+import java.util.concurrent.ExecutorService;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.flush.pool.AbstractPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * InsertTaskPoolManager runs the batches of a multi-device insertion, one task per storage group,
+ * so that different StorageGroupProcessors are written in parallel.
+ */
+public class InsertTaskPoolManager extends AbstractPoolManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InsertTaskPoolManager.class);
+
+  private InsertTaskPoolManager() {
+    this.pool = createPool();
+  }
+
+  public static InsertTaskPoolManager getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  private static ExecutorService createPool() {
+    return IoTDBThreadPoolFactory.newFixedThreadPool(
+        IoTDBDescriptor.getInstance().getConfig().getConcurrentInsertThread(),
+        ThreadName.INSERT_SERVICE.getName());
+  }
+
+  @Override
+  public Logger getLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public String getName() {
+    return "insert task";
+  }
+
+  @Override
+  public void start() {
+    if (pool == null) {
+      this.pool = createPool();
+    }
+    LOGGER.info("Insert task manager started.");
+  }
+
+  @Override
+  public void stop() {
+    if (pool != null) {
+      close();
+      pool = null;
+    }
+    LOGGER.info("Insert task manager stopped");
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+      //allowed to do nothing
+    }
+
+    private static InsertTaskPoolManager instance = new InsertTaskPoolManager();
+  }
+}
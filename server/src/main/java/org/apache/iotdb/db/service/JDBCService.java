@@ -124,6 +124,7 @@ public class JDBCService implements JDBCServiceMBean, IService {
     logger.info("{}: start {}...", IoTDBConstant.GLOBAL_DB_NAME, this.getID().getName());
     try {
       reset();
+      InsertTaskPoolManager.getInstance().start();
       jdbcServiceThread = new JDBCServiceThread(startLatch, stopLatch);
       jdbcServiceThread.setName(ThreadName.JDBC_SERVICE.getName());
       jdbcServiceThread.start();
@@ -163,6 +164,7 @@ public class JDBCService implements JDBCServiceMBean, IService {
     try {
       stopLatch.await();
       reset();
+      InsertTaskPoolManager.getInstance().stop();
       logger.info("{}: close {} successfully", IoTDBConstant.GLOBAL_DB_NAME, this.getID().getName());
     } catch (InterruptedException e) {
       logger.error("{}: close {} failed because {}", IoTDBConstant.GLOBAL_DB_NAME, this.getID().getName(), e);
@@ -18,11 +18,14 @@
  */
 package org.apache.iotdb.db.service;
 
+import static org.apache.iotdb.db.conf.IoTDBConstant.COUNTER;
+import static org.apache.iotdb.db.conf.IoTDBConstant.OPERATOR;
 import static org.apache.iotdb.db.conf.IoTDBConstant.PRIVILEGE;
 import static org.apache.iotdb.db.conf.IoTDBConstant.ROLE;
 import static org.apache.iotdb.db.conf.IoTDBConstant.STORAGE_GROUP;
 import static org.apache.iotdb.db.conf.IoTDBConstant.TTL;
 import static org.apache.iotdb.db.conf.IoTDBConstant.USER;
+import static org.apache.iotdb.db.conf.IoTDBConstant.VALUE;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -37,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import org.apache.iotdb.db.auth.AuthException;
 import org.apache.iotdb.db.auth.AuthorityChecker;
@@ -59,6 +63,8 @@ import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.exception.storageGroup.StorageGroupException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.metrics.server.SqlArgument;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 import org.apache.iotdb.db.qp.QueryProcessor;
 import org.apache.iotdb.db.qp.constant.SQLConstant;
 import org.apache.iotdb.db.qp.executor.QueryProcessExecutor;
@@ -99,7 +105,10 @@ import org.apache.iotdb.service.rpc.thrift.TSGetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TSHandleIdentifier;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSInsertReq;
+import org.apache.iotdb.service.rpc.thrift.TSInsertRecordReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertionReq;
+import org.apache.iotdb.service.rpc.thrift.TSMultiBatchInsertionReq;
+import org.apache.iotdb.service.rpc.thrift.TSMultiBatchInsertionResp;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
 import org.apache.iotdb.service.rpc.thrift.TSOperationHandle;
@@ -705,6 +714,8 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         resp = executeAuthQuery(plan);
       } else if (plan instanceof ShowTTLPlan) {
         resp = executeShowTTL();
+      } else if (plan instanceof QueryPlan && ((QueryPlan) plan).isExplainAnalyze()) {
+        resp = executeExplainAnalyze();
       } else {
         resp = executeDataQuery(plan);
       }
@@ -793,6 +804,23 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return resp;
   }
 
+  private TSExecuteStatementResp executeExplainAnalyze() {
+    TSExecuteStatementResp resp =
+        getTSExecuteStatementResp(getStatus(TSStatusCode.SUCCESS_STATUS));
+    resp.setIgnoreTimeStamp(true);
+    List<String> columns = new ArrayList<>();
+    List<String> columnTypes = new ArrayList<>();
+    columns.add(OPERATOR);
+    columns.add(COUNTER);
+    columns.add(VALUE);
+    columnTypes.add(TSDataType.TEXT.toString());
+    columnTypes.add(TSDataType.TEXT.toString());
+    columnTypes.add(TSDataType.INT64.toString());
+    resp.setColumns(columns);
+    resp.setDataTypeList(columnTypes);
+    return resp;
+  }
+
   private TSExecuteStatementResp executeAuthQuery(PhysicalPlan plan) {
     TSExecuteStatementResp resp = getTSExecuteStatementResp(getStatus(TSStatusCode.SUCCESS_STATUS));
     resp.setIgnoreTimeStamp(true);
@@ -963,6 +991,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         throw new TException(e);
       }
       TSQueryDataSet result;
+      long fetchStartTime = System.nanoTime();
       if (config.isEnableWatermark() && authorizer.isUserUseWaterMark(username.get())) {
         WatermarkEncoder encoder;
         if (config.getWatermarkMethodName().equals(IoTDBConfig.WATERMARK_GROUPED_LSB)) {
@@ -976,6 +1005,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       } else {
         result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
       }
+      StageMetrics.getInstance().record(Stage.QUERY_FETCH, fetchStartTime);
       boolean hasResultSet = (result.getRowCount() != 0);
       if (!hasResultSet && queryDataSets.get() != null) {
         queryDataSets.get().remove(queryId);
@@ -1002,7 +1032,9 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     initContextMap();
     contextMapLocal.get().put(req.queryId, context);
 
+    long startTime = System.nanoTime();
     queryDataSet = processor.getExecutor().processQuery(physicalPlan, context);
+    StageMetrics.getInstance().record(Stage.QUERY_EXECUTE, startTime);
 
     queryDataSets.get().put(req.queryId, queryDataSet);
     return queryDataSet;
@@ -1224,6 +1256,28 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return new TSStatus(executePlan(plan));
   }
 
+  @Override
+  public TSStatus insertRecord(TSInsertRecordReq req) {
+    if (!checkLogin()) {
+      logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+      return new TSStatus(getStatus(TSStatusCode.NOT_LOGIN_ERROR));
+    }
+
+    TSDataType[] dataTypes = new TSDataType[req.getTypesSize()];
+    for (int i = 0; i < dataTypes.length; i++) {
+      dataTypes[i] = TSDataType.values()[req.getTypes().get(i)];
+    }
+    InsertPlan plan = new InsertPlan(req.getDeviceId(), req.getTimestamp(),
+        req.getMeasurements().toArray(new String[0]), dataTypes,
+        QueryDataSetUtils.readRowValuesFromBuffer(req.values, dataTypes));
+
+    TSStatus status = checkAuthority(plan);
+    if (status != null) {
+      return new TSStatus(status);
+    }
+    return new TSStatus(executePlan(plan));
+  }
+
   @Override
   public TSStatus deleteData(TSDeleteDataReq req) {
     if (!checkLogin()) {
@@ -1255,14 +1309,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
         return getTSBatchExecuteStatementResp(getStatus(TSStatusCode.NOT_LOGIN_ERROR), null);
       }
 
-      BatchInsertPlan batchInsertPlan = new BatchInsertPlan(req.deviceId, req.measurements);
-      batchInsertPlan.setTimes(QueryDataSetUtils.readTimesFromBuffer(req.timestamps, req.size));
-      batchInsertPlan.setColumns(QueryDataSetUtils
-          .readValuesFromBuffer(req.values, req.types, req.measurements.size(), req.size));
-      batchInsertPlan.setRowCount(req.size);
-      batchInsertPlan.setTimeBuffer(req.timestamps);
-      batchInsertPlan.setValueBuffer(req.values);
-      batchInsertPlan.setDataTypes(req.types);
+      BatchInsertPlan batchInsertPlan = toBatchInsertPlan(req);
 
       boolean isAllSuccessful = true;
       TSStatus status = checkAuthority(batchInsertPlan);
@@ -1296,6 +1343,110 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  private BatchInsertPlan toBatchInsertPlan(TSBatchInsertionReq req) {
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(req.deviceId, req.measurements);
+    // keep the raw buffers before decoding them, the WAL copies them as they are
+    batchInsertPlan.setTimeBuffer(req.timestamps);
+    batchInsertPlan.setValueBuffer(req.values);
+    batchInsertPlan.setTimes(QueryDataSetUtils.readTimesFromBuffer(req.timestamps, req.size));
+    batchInsertPlan.setColumns(QueryDataSetUtils
+        .readValuesFromBuffer(req.values, req.types, req.measurements.size(), req.size));
+    batchInsertPlan.setRowCount(req.size);
+    batchInsertPlan.setDataTypes(req.types);
+    return batchInsertPlan;
+  }
+
+  @Override
+  public TSMultiBatchInsertionResp insertMultiBatch(TSMultiBatchInsertionReq req) {
+    long t1 = System.currentTimeMillis();
+    try {
+      if (!checkLogin()) {
+        logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+        return new TSMultiBatchInsertionResp(getStatus(TSStatusCode.NOT_LOGIN_ERROR));
+      }
+
+      List<TSBatchInsertionReq> batches = req.getBatches();
+      List<BatchInsertPlan> plans = new ArrayList<>(batches.size());
+      TSStatus[] statusList = new TSStatus[batches.size()];
+      // the batches of one storage group are applied in order by one task. Batches whose storage
+      // group is not set go to one task too, so that a storage group is only created once
+      Map<String, List<Integer>> storageGroupBatches = new HashMap<>();
+      for (int i = 0; i < batches.size(); i++) {
+        BatchInsertPlan plan = toBatchInsertPlan(batches.get(i));
+        plans.add(plan);
+        // the user name is thread local, so authority is checked before dispatching
+        TSStatus status = checkAuthority(plan);
+        if (status != null) {
+          statusList[i] = status;
+          continue;
+        }
+        String storageGroup;
+        try {
+          storageGroup = MManager.getInstance().getStorageGroupNameByPath(plan.getDeviceId());
+        } catch (StorageGroupException e) {
+          storageGroup = "";
+        }
+        storageGroupBatches.computeIfAbsent(storageGroup, k -> new ArrayList<>()).add(i);
+      }
+
+      List<Future<?>> futures = new ArrayList<>(storageGroupBatches.size());
+      for (List<Integer> indexes : storageGroupBatches.values()) {
+        futures.add(InsertTaskPoolManager.getInstance().submit(() -> {
+          for (int index : indexes) {
+            statusList[index] = executeBatchInsertion(plans.get(index));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      boolean isAllSuccessful = true;
+      for (TSStatus status : statusList) {
+        if (status.getStatusType().getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+          isAllSuccessful = false;
+          break;
+        }
+      }
+      TSMultiBatchInsertionResp resp = new TSMultiBatchInsertionResp(
+          getStatus(isAllSuccessful ? TSStatusCode.SUCCESS_STATUS
+              : TSStatusCode.INTERNAL_SERVER_ERROR));
+      resp.setStatusList(Arrays.asList(statusList));
+      return resp;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.error("{}: interrupted when executing multi-batch insertion",
+          IoTDBConstant.GLOBAL_DB_NAME, e);
+      return new TSMultiBatchInsertionResp(
+          getStatus(TSStatusCode.EXECUTE_STATEMENT_ERROR, e.getMessage()));
+    } catch (Exception e) {
+      logger.error("{}: error occurs when executing statements", IoTDBConstant.GLOBAL_DB_NAME, e);
+      return new TSMultiBatchInsertionResp(
+          getStatus(TSStatusCode.EXECUTE_STATEMENT_ERROR, e.getMessage()));
+    } finally {
+      Measurement.INSTANCE.addOperationLatency(Operation.EXECUTE_RPC_MULTI_BATCH_INSERT, t1);
+    }
+  }
+
+  /**
+   * apply one batch of a multi-batch insertion, the authority is already checked.
+   */
+  private TSStatus executeBatchInsertion(BatchInsertPlan plan) {
+    try {
+      Integer[] results = processor.getExecutor().insertBatch(plan);
+      for (Integer result : results) {
+        if (result != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+          return getStatus(TSStatusCode.INTERNAL_SERVER_ERROR);
+        }
+      }
+      return getStatus(TSStatusCode.SUCCESS_STATUS);
+    } catch (Exception e) {
+      logger.error("{}: error occurs when inserting the batch of {}", IoTDBConstant.GLOBAL_DB_NAME,
+          plan.getDeviceId(), e);
+      return getStatus(TSStatusCode.EXECUTE_STATEMENT_ERROR, e.getMessage());
+    }
+  }
+
   @Override
   public TSStatus setStorageGroup(String storageGroup) {
     if (!checkLogin()) {
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync;
+
+/**
+ * MD5 of the bytes of a chunk (header included) in a tsfile and where the chunk is. Sync sender
+ * and receiver use it to find the chunks of a new tsfile that the receiver already has, e.g. the
+ * chunks a merge copies from an old tsfile into its new version.
+ */
+public class ChunkDigest {
+
+  private String digest;
+
+  private long offset;
+
+  private int length;
+
+  public ChunkDigest(String digest, long offset, int length) {
+    this.digest = digest;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  public String getDigest() {
+    return digest;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  @Override
+  public String toString() {
+    return digest + " " + offset + " " + length;
+  }
+}
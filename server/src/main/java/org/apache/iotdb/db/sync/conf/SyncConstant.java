@@ -70,6 +70,18 @@ public class SyncConstant {
 
   public static final String RECEIVER_DATA_FOLDER_NAME = "data";
 
+  /**
+   * Files being received are kept here until their MD5 is checked, so that a transfer broken by a
+   * reconnection can be resumed from the received part instead of being cleaned up with the data
+   * folder.
+   */
+  public static final String RECEIVER_RECEIVING_FOLDER_NAME = "receiving";
+
+  /**
+   * Hard links and chunk digests of the received files, see ReceivedChunkStore.
+   */
+  public static final String RECEIVER_CHUNK_STORE_FOLDER_NAME = "chunks";
+
   public static final String LOAD_LOG_NAME = "load.log";
 
   public static final String DEVICE_OWNER_FILE_NAME = "device_owner";
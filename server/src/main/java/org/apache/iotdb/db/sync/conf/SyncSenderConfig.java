@@ -45,6 +45,16 @@ public class SyncSenderConfig {
    */
   private int maxNumOfSyncFileRetry = 5;
 
+  /**
+   * The number of connections used to transfer tsfiles of a storage group at the same time.
+   */
+  private int syncStreamNum = 1;
+
+  /**
+   * Whether to send only the chunks of a tsfile which the receiver does not have.
+   */
+  private boolean enableChunkLevelSync = true;
+
   /**
    * Storage groups which participate in sync process
    */
@@ -145,4 +155,20 @@ public class SyncSenderConfig {
   public void setMaxNumOfSyncFileRetry(int maxNumOfSyncFileRetry) {
     this.maxNumOfSyncFileRetry = maxNumOfSyncFileRetry;
   }
+
+  public int getSyncStreamNum() {
+    return syncStreamNum;
+  }
+
+  public void setSyncStreamNum(int syncStreamNum) {
+    this.syncStreamNum = syncStreamNum;
+  }
+
+  public boolean isEnableChunkLevelSync() {
+    return enableChunkLevelSync;
+  }
+
+  public void setEnableChunkLevelSync(boolean enableChunkLevelSync) {
+    this.enableChunkLevelSync = enableChunkLevelSync;
+  }
 }
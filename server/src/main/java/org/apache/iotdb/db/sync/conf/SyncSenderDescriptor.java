@@ -101,6 +101,12 @@ public class SyncSenderDescriptor {
       conf.setMaxNumOfSyncFileRetry(Integer
           .parseInt(properties.getProperty("max_number_of_sync_file_retry",
               Integer.toString(conf.getMaxNumOfSyncFileRetry()))));
+      conf.setSyncStreamNum(Integer
+          .parseInt(properties.getProperty("sync_stream_num",
+              Integer.toString(conf.getSyncStreamNum()))));
+      conf.setEnableChunkLevelSync(Boolean
+          .parseBoolean(properties.getProperty("enable_chunk_level_sync",
+              Boolean.toString(conf.isEnableChunkLevelSync()))));
     } catch (IOException e) {
       logger.warn("Cannot load sync config file, use default sync configuration.", e);
     } catch (Exception e) {
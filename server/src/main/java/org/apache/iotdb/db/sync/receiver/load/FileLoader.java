@@ -20,7 +20,15 @@ package org.apache.iotdb.db.sync.receiver.load;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -28,7 +36,6 @@ import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.engine.StorageEngine;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.StorageEngineException;
-import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
 import org.apache.iotdb.db.exception.TsFileProcessorException;
 import org.apache.iotdb.db.sync.conf.SyncConstant;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
@@ -46,12 +53,27 @@ public class FileLoader implements IFileLoader {
 
   public static final int WAIT_TIME = 100;
 
+  /**
+   * max number of tsfiles loaded under one acquisition of the storage group locks.
+   */
+  private static final int MAX_BATCH_SIZE = 64;
+
   private String syncFolderPath;
 
   private String senderName;
 
   private BlockingQueue<LoadTask> queue = new LinkedBlockingQueue<>();
 
+  /**
+   * storage group name -> tasks waiting for the worker of the group.
+   */
+  private final Map<String, Deque<LoadTask>> groupTasks = new HashMap<>();
+
+  /**
+   * storage groups having a worker in FileLoaderManager, guarded by groupTasks.
+   */
+  private final Set<String> runningGroups = new HashSet<>();
+
   private ILoadLogger loadLog;
 
   private LoadType curType = LoadType.NONE;
@@ -80,17 +102,13 @@ public class FileLoader implements IFileLoader {
   private Runnable loadTaskRunner = () -> {
     try {
       while (true) {
-        if (queue.isEmpty() && endSync) {
+        if (queue.isEmpty() && endSync && !hasRunningGroup()) {
           cleanUp();
           break;
         }
         LoadTask loadTask = queue.poll(WAIT_TIME, TimeUnit.MILLISECONDS);
         if (loadTask != null) {
-          try {
-            handleLoadTask(loadTask);
-          } catch (Exception e) {
-            LOGGER.error("Can not load task {}", loadTask, e);
-          }
+          dispatch(loadTask);
         }
       }
     } catch (InterruptedException e) {
@@ -98,6 +116,50 @@ public class FileLoader implements IFileLoader {
     }
   };
 
+  /**
+   * Put the task into the queue of its storage group and start a worker for the group if there is
+   * none, so that groups are loaded concurrently while tasks of one group keep their order.
+   */
+  private void dispatch(LoadTask loadTask) {
+    String storageGroupName = loadTask.file.getParentFile().getName();
+    synchronized (groupTasks) {
+      groupTasks.computeIfAbsent(storageGroupName, k -> new ArrayDeque<>()).add(loadTask);
+      if (runningGroups.add(storageGroupName)) {
+        FileLoaderManager.getInstance().addLoadWorker(() -> loadGroup(storageGroupName));
+      }
+    }
+  }
+
+  private boolean hasRunningGroup() {
+    synchronized (groupTasks) {
+      return !runningGroups.isEmpty();
+    }
+  }
+
+  private void loadGroup(String storageGroupName) {
+    while (true) {
+      List<LoadTask> batch = new ArrayList<>();
+      synchronized (groupTasks) {
+        Deque<LoadTask> tasks = groupTasks.get(storageGroupName);
+        if (tasks.isEmpty()) {
+          groupTasks.remove(storageGroupName);
+          runningGroups.remove(storageGroupName);
+          return;
+        }
+        // take the successive tasks of the same type
+        LoadType type = tasks.peek().type;
+        while (!tasks.isEmpty() && tasks.peek().type == type && batch.size() < MAX_BATCH_SIZE) {
+          batch.add(tasks.poll());
+        }
+      }
+      try {
+        handleLoadTasks(storageGroupName, batch);
+      } catch (Exception e) {
+        LOGGER.error("Can not load tasks {}", batch, e);
+      }
+    }
+  }
+
   @Override
   public void addDeletedFileName(File deletedFile) {
     queue.add(new LoadTask(deletedFile, LoadType.DELETE));
@@ -117,39 +179,53 @@ public class FileLoader implements IFileLoader {
 
   @Override
   public void handleLoadTask(LoadTask task) throws IOException {
-    switch (task.type) {
+    handleLoadTasks(task.file.getParentFile().getName(), Collections.singletonList(task));
+  }
+
+  /**
+   * Handle tasks of the same type in one storage group.
+   */
+  private void handleLoadTasks(String storageGroupName, List<LoadTask> tasks) throws IOException {
+    LoadType type = tasks.get(0).type;
+    switch (type) {
       case ADD:
-        loadNewTsfile(task.file);
+        loadNewTsfiles(storageGroupName, tasks);
         break;
       case DELETE:
-        loadDeletedFile(task.file);
+        for (LoadTask task : tasks) {
+          loadDeletedFile(task.file);
+        }
         break;
       default:
-        LOGGER.error("Wrong load task type {}", task.type);
+        LOGGER.error("Wrong load task type {}", type);
     }
   }
 
-  private void loadNewTsfile(File newTsFile) throws IOException {
-    if (curType != LoadType.ADD) {
-      loadLog.startLoadTsFiles();
-      curType = LoadType.ADD;
-    }
-    if (!newTsFile.exists()) {
-      LOGGER.info("Tsfile {} doesn't exist.", newTsFile.getAbsolutePath());
-      return;
+  private void loadNewTsfiles(String storageGroupName, List<LoadTask> tasks) throws IOException {
+    List<TsFileResource> tsFileResources = new ArrayList<>(tasks.size());
+    List<File> loadedFiles = new ArrayList<>(tasks.size());
+    for (LoadTask task : tasks) {
+      if (!task.file.exists()) {
+        LOGGER.info("Tsfile {} doesn't exist.", task.file.getAbsolutePath());
+        loadedFiles.add(task.file);
+        continue;
+      }
+      TsFileResource tsFileResource = new TsFileResource(task.file);
+      checkTsFileResource(tsFileResource);
+      tsFileResources.add(tsFileResource);
     }
-    TsFileResource tsFileResource = new TsFileResource(newTsFile);
-    checkTsFileResource(tsFileResource);
     try {
-      FileLoaderManager.getInstance().checkAndUpdateDeviceOwner(tsFileResource);
-      StorageEngine.getInstance().loadNewTsFile(tsFileResource);
-    } catch (SyncDeviceOwnerConflictException e) {
-      LOGGER.error("Device owner has conflicts, so skip the loading file", e);
+      List<TsFileResource> accepted = FileLoaderManager.getInstance()
+          .checkAndUpdateDeviceOwner(tsFileResources);
+      StorageEngine.getInstance().loadNewTsFiles(storageGroupName, accepted);
     } catch (TsFileProcessorException | StorageEngineException e) {
-      LOGGER.error("Can not load new tsfile {}", newTsFile.getAbsolutePath(), e);
+      LOGGER.error("Can not load new tsfiles {}", tsFileResources, e);
       throw new IOException(e);
     }
-    loadLog.finishLoadTsfile(newTsFile);
+    for (TsFileResource tsFileResource : tsFileResources) {
+      loadedFiles.add(tsFileResource.getFile());
+    }
+    finishLoad(LoadType.ADD, loadedFiles);
   }
 
   private void checkTsFileResource(TsFileResource tsFileResource) throws IOException {
@@ -180,19 +256,38 @@ public class FileLoader implements IFileLoader {
   }
 
   private void loadDeletedFile(File deletedTsFile) throws IOException {
-    if (curType != LoadType.DELETE) {
-      loadLog.startLoadDeletedFiles();
-      curType = LoadType.DELETE;
-    }
     try {
       StorageEngine.getInstance().deleteTsfile(deletedTsFile);
     } catch (StorageEngineException e) {
       LOGGER.error("Can not load deleted tsfile {}", deletedTsFile.getAbsolutePath(), e);
       throw new IOException(e);
     }
-    loadLog.finishLoadDeletedFile(deletedTsFile);
+    finishLoad(LoadType.DELETE, Collections.singletonList(deletedTsFile));
   }
 
+  /**
+   * Record loaded files in the load log. Storage groups are loaded concurrently, so the order of
+   * files in the load log only holds inside one storage group.
+   */
+  private void finishLoad(LoadType type, List<File> files) throws IOException {
+    synchronized (loadLog) {
+      if (curType != type) {
+        if (type == LoadType.ADD) {
+          loadLog.startLoadTsFiles();
+        } else {
+          loadLog.startLoadDeletedFiles();
+        }
+        curType = type;
+      }
+      for (File file : files) {
+        if (type == LoadType.ADD) {
+          loadLog.finishLoadTsfile(file);
+        } else {
+          loadLog.finishLoadDeletedFile(file);
+        }
+      }
+    }
+  }
 
   @Override
   public void cleanUp() {
@@ -210,10 +305,12 @@ public class FileLoader implements IFileLoader {
 
   @Override
   public void setCurType(LoadType curType) {
-    this.curType = curType;
+    synchronized (loadLog) {
+      this.curType = curType;
+    }
   }
 
-  class LoadTask {
+  public class LoadTask {
 
     private File file;
     private LoadType type;
@@ -24,7 +24,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,6 +55,11 @@ public class FileLoaderManager {
 
   private ExecutorService loadTaskRunnerPool;
 
+  /**
+   * threads loading the tsfiles of one storage group at a time, shared by all senders.
+   */
+  private ExecutorService loadWorkerPool;
+
   private Map<String, String> deviceOwnerMap = new HashMap<>();
 
   private File deviceOwnerFile;
@@ -94,13 +101,47 @@ public class FileLoaderManager {
    */
   public synchronized void checkAndUpdateDeviceOwner(TsFileResource tsFileResource)
       throws SyncDeviceOwnerConflictException, IOException {
-    String curOwner = tsFileResource.getFile().getParentFile().getParentFile().getParentFile()
-        .getName();
+    String curOwner = getOwner(tsFileResource);
     Set<String> deviceSet = tsFileResource.getStartTimeMap().keySet();
     checkDeviceConflict(curOwner, deviceSet);
     updateDeviceOwner(curOwner, deviceSet);
   }
 
+  /**
+   * Check the device owners of a batch of tsfiles. Tsfiles having conflicts are skipped, the device
+   * owners of the others are updated and the device owner map is serialized at most once.
+   *
+   * @param tsFileResources tsfile resources
+   * @return tsfile resources without conflicts, in the given order
+   */
+  public synchronized List<TsFileResource> checkAndUpdateDeviceOwner(
+      List<TsFileResource> tsFileResources) throws IOException {
+    List<TsFileResource> accepted = new ArrayList<>(tsFileResources.size());
+    boolean modify = false;
+    for (TsFileResource tsFileResource : tsFileResources) {
+      String curOwner = getOwner(tsFileResource);
+      Set<String> deviceSet = tsFileResource.getStartTimeMap().keySet();
+      try {
+        checkDeviceConflict(curOwner, deviceSet);
+      } catch (SyncDeviceOwnerConflictException e) {
+        LOGGER.error("Device owner has conflicts, so skip the loading file", e);
+        continue;
+      }
+      for (String device : deviceSet) {
+        modify |= deviceOwnerMap.putIfAbsent(device, curOwner) == null;
+      }
+      accepted.add(tsFileResource);
+    }
+    if (modify) {
+      persistDeviceOwnerMap();
+    }
+    return accepted;
+  }
+
+  private String getOwner(TsFileResource tsFileResource) {
+    return tsFileResource.getFile().getParentFile().getParentFile().getParentFile().getName();
+  }
+
   /**
    * Check whether there have conflicts about the device owner.
    *
@@ -131,12 +172,16 @@ public class FileLoaderManager {
       }
     }
     if (modify) {
-      serializeDeviceOwnerMap(deviceOwnerTmpFile);
-      deviceOwnerFile.delete();
-      FileUtils.moveFile(deviceOwnerTmpFile, deviceOwnerFile);
+      persistDeviceOwnerMap();
     }
   }
 
+  private void persistDeviceOwnerMap() throws IOException {
+    serializeDeviceOwnerMap(deviceOwnerTmpFile);
+    deviceOwnerFile.delete();
+    FileUtils.moveFile(deviceOwnerTmpFile, deviceOwnerFile);
+  }
+
   private void deSerializeDeviceOwnerMap(File deviceOwnerFile)
       throws IOException, ClassNotFoundException {
     try (ObjectInputStream deviceOwnerInput = new ObjectInputStream(
@@ -178,6 +223,10 @@ public class FileLoaderManager {
     loadTaskRunnerPool.submit(taskRunner);
   }
 
+  public void addLoadWorker(Runnable worker) {
+    loadWorkerPool.submit(worker);
+  }
+
   public void start() {
     if (fileLoaderMap == null) {
       fileLoaderMap = new ConcurrentHashMap<>();
@@ -186,15 +235,27 @@ public class FileLoaderManager {
       loadTaskRunnerPool = IoTDBThreadPoolFactory
           .newCachedThreadPool(ThreadName.LOAD_TSFILE.getName());
     }
+    if (loadWorkerPool == null) {
+      loadWorkerPool = IoTDBThreadPoolFactory
+          .newFixedThreadPool(IoTDBDescriptor.getInstance().getConfig().getSyncLoadThreadNum(),
+              ThreadName.SYNC_LOAD_WORKER.getName());
+    }
   }
 
   public void stop() {
     fileLoaderMap = null;
-    loadTaskRunnerPool.shutdownNow();
+    shutdownPool(loadTaskRunnerPool);
+    loadTaskRunnerPool = null;
+    shutdownPool(loadWorkerPool);
+    loadWorkerPool = null;
+  }
+
+  private void shutdownPool(ExecutorService pool) {
+    pool.shutdownNow();
     int totalWaitTime = WAIT_TIMEOUT;
-    while (!loadTaskRunnerPool.isTerminated()) {
+    while (!pool.isTerminated()) {
       try {
-        if (!loadTaskRunnerPool.awaitTermination(WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        if (!pool.awaitTermination(WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
           LOGGER.info("File load manager thread pool doesn't exit after {}ms.",
               +totalWaitTime);
         }
@@ -203,7 +264,6 @@ public class FileLoaderManager {
         LOGGER.error("Interrupted while waiting file load manager thread pool to exit. ", e);
       }
     }
-    loadTaskRunnerPool = null;
   }
 
   private static class FileLoaderManagerHolder {
@@ -24,10 +24,11 @@ import org.apache.iotdb.db.sync.receiver.load.FileLoader.LoadTask;
 
 /**
  * This interface is used to load files, including deleted files and new tsfiles. The
- * producer-consumer model is used to load files. A background consumer thread is used to load
- * files. There is a queue recording tasks. After receiving a file, the receiver adds a task to the
- * queue. When all files are loaded and the synchronization task is completed, the thread is
- * closed.
+ * producer-consumer model is used to load files. There is a queue recording tasks. After receiving
+ * a file, the receiver adds a task to the queue. A background consumer thread dispatches the tasks
+ * by storage group, so that different storage groups are loaded concurrently while the tasks of
+ * one storage group are loaded in order. When all files are loaded and the synchronization task is
+ * completed, the thread is closed.
  */
 public interface IFileLoader {
 
@@ -31,39 +31,39 @@ public class LoadLogger implements ILoadLogger {
     if (!logFile.getParentFile().exists()) {
       logFile.getParentFile().mkdirs();
     }
-    bw = new BufferedWriter(new FileWriter(logFile));
+    bw = new BufferedWriter(new FileWriter(logFile, true));
   }
 
   @Override
-  public void startLoadDeletedFiles() throws IOException {
+  public synchronized void startLoadDeletedFiles() throws IOException {
     bw.write(LOAD_DELETED_FILE_NAME_START);
     bw.newLine();
     bw.flush();
   }
 
   @Override
-  public void finishLoadDeletedFile(File file) throws IOException {
+  public synchronized void finishLoadDeletedFile(File file) throws IOException {
     bw.write(file.getAbsolutePath());
     bw.newLine();
     bw.flush();
   }
 
   @Override
-  public void startLoadTsFiles() throws IOException {
+  public synchronized void startLoadTsFiles() throws IOException {
     bw.write(LOAD_TSFILE_START);
     bw.newLine();
     bw.flush();
   }
 
   @Override
-  public void finishLoadTsfile(File file) throws IOException {
+  public synchronized void finishLoadTsfile(File file) throws IOException {
     bw.write(file.getAbsolutePath());
     bw.newLine();
     bw.flush();
   }
 
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
     if(bw != null) {
       bw.close();
       bw = null;
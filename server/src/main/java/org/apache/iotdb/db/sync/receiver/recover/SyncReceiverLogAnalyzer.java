@@ -22,6 +22,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.sync.receiver.load.FileLoader;
@@ -107,21 +109,29 @@ public class SyncReceiverLogAnalyzer implements ISyncReceiverLogAnalyzer {
   @Override
   public void scanLogger(IFileLoader loader, File syncLog, File loadLog) {
     LoadType loadType = LoadType.NONE;
+    // storage groups are loaded concurrently, so loaded files are only in sync log order inside
+    // one storage group and the load log is read as a set
+    Set<String> loadedDeletedFiles = new HashSet<>();
+    Set<String> loadedTsFiles = new HashSet<>();
     try (BufferedReader syncReader = new BufferedReader(new FileReader(syncLog))) {
       String line;
-      try (BufferedReader loadReader = new BufferedReader(new FileReader(loadLog))) {
-        while ((line = loadReader.readLine()) != null) {
-          if (line.equals(LoadLogger.LOAD_DELETED_FILE_NAME_START)) {
-            loadType = LoadType.DELETE;
-          } else if (line.equals(LoadLogger.LOAD_TSFILE_START)) {
-            loadType = LoadType.ADD;
-          } else {
-            while (!syncReader.readLine().equals(line)) {
+      if (loadLog.exists()) {
+        try (BufferedReader loadReader = new BufferedReader(new FileReader(loadLog))) {
+          while ((line = loadReader.readLine()) != null) {
+            if (line.equals(LoadLogger.LOAD_DELETED_FILE_NAME_START)) {
+              loadType = LoadType.DELETE;
+            } else if (line.equals(LoadLogger.LOAD_TSFILE_START)) {
+              loadType = LoadType.ADD;
+            } else if (loadType == LoadType.DELETE) {
+              loadedDeletedFiles.add(line);
+            } else {
+              loadedTsFiles.add(line);
             }
           }
         }
       }
       loader.setCurType(loadType);
+      loadType = LoadType.NONE;
       while ((line = syncReader.readLine()) != null) {
         if (line.equals(SyncReceiverLogger.SYNC_DELETED_FILE_NAME_START)) {
           loadType = LoadType.DELETE;
@@ -130,10 +140,14 @@ public class SyncReceiverLogAnalyzer implements ISyncReceiverLogAnalyzer {
         } else {
           switch (loadType) {
             case ADD:
-              loader.addTsfile(new File(line));
+              if (!loadedTsFiles.contains(line)) {
+                loader.addTsfile(new File(line));
+              }
               break;
             case DELETE:
-              loader.addDeletedFileName(new File(line));
+              if (!loadedDeletedFiles.contains(line)) {
+                loader.addDeletedFileName(new File(line));
+              }
               break;
             default:
               LOGGER.error("Wrong load type {}", loadType);
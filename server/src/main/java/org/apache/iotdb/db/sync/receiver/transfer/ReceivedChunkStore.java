@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.receiver.transfer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.sync.ChunkDigest;
+import org.apache.iotdb.db.utils.SyncUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ReceivedChunkStore keeps a hard link of each tsfile received from a sender, together with the
+ * digests of its chunks, so that when the sender rewrites a tsfile (by merge or compress) the
+ * chunks copied unchanged into the new file need not be transferred again. Links of the tsfiles
+ * deleted by the sender are kept until the sync ends, as their chunks are most likely reused by
+ * the files replacing them. A link is dropped once the receiver itself removes the tsfile (e.g. by
+ * its own merge), which is found by the link count of the file, so the store holds no more than the
+ * tsfiles the receiver has, and the digests in memory only cover them. On file systems without link
+ * counts, links are only dropped when the sender deletes the tsfiles.
+ */
+public class ReceivedChunkStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReceivedChunkStore.class);
+
+  static final String CHUNK_DIGEST_SUFFIX = ".chunks";
+
+  static final String DELETED_SUFFIX = ".deleted";
+
+  private File storeDir;
+
+  /**
+   * digest -> the file and the chunk with the digest, loaded when it is used the first time.
+   */
+  private Map<String, File> digestFileMap;
+
+  private Map<String, ChunkDigest> digestChunkMap;
+
+  public ReceivedChunkStore(File storeDir) {
+    this.storeDir = storeDir;
+  }
+
+  /**
+   * link a received tsfile into the store and record the digests of its chunks.
+   */
+  public synchronized void addFile(String storageGroup, File tsfile) throws IOException {
+    File link = new File(storeDir, storageGroup + File.separatorChar + tsfile.getName());
+    if (!link.getParentFile().exists()) {
+      link.getParentFile().mkdirs();
+    }
+    Files.deleteIfExists(link.toPath());
+    Files.createLink(link.toPath(), tsfile.toPath());
+    List<ChunkDigest> chunkDigests = SyncUtils.getChunkDigests(link);
+    try (BufferedWriter writer = new BufferedWriter(
+        new FileWriter(link.getPath() + CHUNK_DIGEST_SUFFIX))) {
+      for (ChunkDigest chunkDigest : chunkDigests) {
+        writer.write(chunkDigest.toString());
+        writer.newLine();
+      }
+    }
+    if (digestFileMap != null) {
+      addDigests(link, chunkDigests);
+    }
+  }
+
+  /**
+   * mark a tsfile deleted by the sender, it is removed from the store when the sync ends.
+   */
+  public synchronized void markDeleted(String storageGroup, String fileName) {
+    File link = new File(storeDir, storageGroup + File.separatorChar + fileName);
+    File digestFile = new File(link.getPath() + CHUNK_DIGEST_SUFFIX);
+    if (!link.exists() || !digestFile.exists()) {
+      return;
+    }
+    File deletedLink = new File(link.getPath() + DELETED_SUFFIX);
+    File deletedDigestFile = new File(deletedLink.getPath() + CHUNK_DIGEST_SUFFIX);
+    if (!link.renameTo(deletedLink) || !digestFile.renameTo(deletedDigestFile)) {
+      logger.warn("Can not mark {} deleted in the chunk store", link);
+      return;
+    }
+    if (digestFileMap != null) {
+      digestFileMap.replaceAll((digest, file) -> file.equals(link) ? deletedLink : file);
+    }
+  }
+
+  /**
+   * remove the tsfiles deleted by the sender or removed by the receiver from the store.
+   */
+  public synchronized void removeDeletedFiles() {
+    File[] sgDirs = storeDir.listFiles();
+    if (sgDirs == null) {
+      return;
+    }
+    for (File sgDir : sgDirs) {
+      File[] files = sgDir.listFiles();
+      if (files == null) {
+        continue;
+      }
+      for (File file : files) {
+        if (file.getName().endsWith(DELETED_SUFFIX) || file.getName()
+            .endsWith(DELETED_SUFFIX + CHUNK_DIGEST_SUFFIX)) {
+          removeFile(file);
+        } else if (file.getName().endsWith(CHUNK_DIGEST_SUFFIX)) {
+          removeIfUnused(file);
+        }
+      }
+    }
+    digestFileMap = null;
+    digestChunkMap = null;
+  }
+
+  /**
+   * remove the link of the digest file and the digest file if the receiver has removed the tsfile
+   * of the link.
+   *
+   * @return true if they are removed
+   */
+  private boolean removeIfUnused(File digestFile) {
+    String path = digestFile.getPath();
+    File link = new File(path.substring(0, path.length() - CHUNK_DIGEST_SUFFIX.length()));
+    if (link.exists() && !isOnlyLink(link)) {
+      return false;
+    }
+    logger.info("The tsfile of {} is removed by the receiver, remove it from the chunk store",
+        link);
+    removeFile(link);
+    removeFile(digestFile);
+    return true;
+  }
+
+  /**
+   * @return true if no other name refers to the file, false if there are others or the file
+   * system does not count links
+   */
+  private boolean isOnlyLink(File link) {
+    try {
+      return ((Number) Files.getAttribute(link.toPath(), "unix:nlink")).intValue() <= 1;
+    } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+      return false;
+    }
+  }
+
+  private void removeFile(File file) {
+    try {
+      Files.deleteIfExists(file.toPath());
+    } catch (IOException e) {
+      logger.warn("Can not remove {} from the chunk store", file, e);
+    }
+  }
+
+  public synchronized boolean contains(String digest) throws IOException {
+    loadDigests();
+    return digestFileMap.containsKey(digest);
+  }
+
+  /**
+   * append the chunk with the given digest to the output and update md with it.
+   *
+   * @return false if the store does not have the chunk
+   */
+  public boolean transferChunk(String digest, FileChannel output, MessageDigest md)
+      throws IOException {
+    File file;
+    ChunkDigest chunkDigest;
+    synchronized (this) {
+      loadDigests();
+      file = digestFileMap.get(digest);
+      chunkDigest = digestChunkMap.get(digest);
+    }
+    if (file == null) {
+      return false;
+    }
+    ByteBuffer chunk = ByteBuffer.allocate(chunkDigest.getLength());
+    try (FileChannel input = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long position = chunkDigest.getOffset();
+      while (chunk.hasRemaining()) {
+        if (input.read(chunk, position + chunk.position()) < 0) {
+          return false;
+        }
+      }
+    }
+    chunk.flip();
+    md.update(chunk.array(), 0, chunk.limit());
+    while (chunk.hasRemaining()) {
+      output.write(chunk);
+    }
+    return true;
+  }
+
+  private void loadDigests() throws IOException {
+    if (digestFileMap != null) {
+      return;
+    }
+    digestFileMap = new HashMap<>();
+    digestChunkMap = new HashMap<>();
+    File[] sgDirs = storeDir.listFiles();
+    if (sgDirs == null) {
+      return;
+    }
+    for (File sgDir : sgDirs) {
+      File[] files = sgDir.listFiles();
+      if (files == null) {
+        continue;
+      }
+      for (File file : files) {
+        // links of the tsfiles deleted by the sender are kept until the sync ends
+        if (file.getName().endsWith(CHUNK_DIGEST_SUFFIX) && (file.getName()
+            .endsWith(DELETED_SUFFIX + CHUNK_DIGEST_SUFFIX) || !removeIfUnused(file))) {
+          String path = file.getPath();
+          loadDigestFile(new File(path.substring(0, path.length() - CHUNK_DIGEST_SUFFIX.length())),
+              file);
+        }
+      }
+    }
+  }
+
+  private void loadDigestFile(File link, File digestFile) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new FileReader(digestFile))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] items = line.split(" ");
+        digestFileMap.put(items[0], link);
+        digestChunkMap.put(items[0],
+            new ChunkDigest(items[0], Long.parseLong(items[1]), Integer.parseInt(items[2])));
+      }
+    }
+  }
+
+  private void addDigests(File link, List<ChunkDigest> chunkDigests) {
+    for (ChunkDigest chunkDigest : chunkDigests) {
+      digestFileMap.put(chunkDigest.getDigest(), link);
+      digestChunkMap.put(chunkDigest.getDigest(), chunkDigest);
+    }
+  }
+}
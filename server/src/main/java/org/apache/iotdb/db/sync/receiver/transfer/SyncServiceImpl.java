@@ -20,13 +20,20 @@ package org.apache.iotdb.db.sync.receiver.transfer;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
@@ -68,10 +75,27 @@ public class SyncServiceImpl implements SyncService.Iface {
 
   private ThreadLocal<File> currentFile = new ThreadLocal<>();
 
+  /**
+   * The file that data of currentFile is written into before its MD5 is checked.
+   */
+  private ThreadLocal<File> receivingFile = new ThreadLocal<>();
+
   private ThreadLocal<FileChannel> currentFileWriter = new ThreadLocal<>();
 
   private ThreadLocal<MessageDigest> messageDigest = new ThreadLocal<>();
 
+  private ThreadLocal<ReceivedChunkStore> chunkStore = new ThreadLocal<>();
+
+  /**
+   * Sync folder path and sync log of each sender whose sync has started, which are shared by the
+   * connections joining the sync.
+   */
+  private Map<String, String> sessionFolderPaths = new ConcurrentHashMap<>();
+
+  private Map<String, SyncReceiverLogger> sessionLogs = new ConcurrentHashMap<>();
+
+  private Map<String, ReceivedChunkStore> sessionChunkStores = new ConcurrentHashMap<>();
+
   /**
    * Verify IP address of sender
    */
@@ -80,6 +104,10 @@ public class SyncServiceImpl implements SyncService.Iface {
     Thread.currentThread().setName(ThreadName.SYNC_SERVER.getName());
     if (SyncUtils.verifyIPSegment(config.getIpWhiteList(), ipAddress)) {
       senderName.set(ipAddress + SyncConstant.SYNC_DIR_NAME_SEPARATOR + uuid);
+      // a new check means the previous sync of the sender is over
+      sessionFolderPaths.remove(senderName.get());
+      sessionLogs.remove(senderName.get());
+      sessionChunkStores.remove(senderName.get());
       if (checkRecovery()) {
         logger.info("Start to sync with sender {}", senderName.get());
         return getSuccessResult();
@@ -97,9 +125,11 @@ public class SyncServiceImpl implements SyncService.Iface {
       if (currentFileWriter.get() != null && currentFileWriter.get().isOpen()) {
         currentFileWriter.get().close();
       }
-      if (syncLog.get() != null) {
+      // the log of a sync joined by this connection is closed by the connection starting it
+      if (syncLog.get() != null && !sessionLogs.containsValue(syncLog.get())) {
         syncLog.get().close();
       }
+      syncLog.remove();
       return SyncReceiverLogAnalyzer.getInstance().recover(senderName.get());
     } catch (IOException e) {
       logger.error("Check recovery state fail", e);
@@ -115,6 +145,11 @@ public class SyncServiceImpl implements SyncService.Iface {
       FileLoader.createFileLoader(senderName.get(), syncFolderPath.get());
       syncLog
           .set(new SyncReceiverLogger(new File(syncFolderPath.get(), SyncConstant.SYNC_LOG_NAME)));
+      chunkStore.set(new ReceivedChunkStore(
+          new File(syncFolderPath.get(), SyncConstant.RECEIVER_CHUNK_STORE_FOLDER_NAME)));
+      sessionFolderPaths.put(senderName.get(), syncFolderPath.get());
+      sessionLogs.put(senderName.get(), syncLog.get());
+      sessionChunkStores.put(senderName.get(), chunkStore.get());
       return getSuccessResult();
     } catch (DiskSpaceInsufficientException | IOException e) {
       logger.error("Can not receiver data from sender", e);
@@ -122,6 +157,30 @@ public class SyncServiceImpl implements SyncService.Iface {
     }
   }
 
+  @Override
+  public SyncStatus joinSync(String ipAddress, String uuid, String storageGroup) {
+    Thread.currentThread().setName(ThreadName.SYNC_SERVER.getName());
+    if (!SyncUtils.verifyIPSegment(config.getIpWhiteList(), ipAddress)) {
+      return getErrorResult(
+          "Sender IP is not in the white list of receiver IP and synchronization tasks are not allowed.");
+    }
+    String name = ipAddress + SyncConstant.SYNC_DIR_NAME_SEPARATOR + uuid;
+    String folderPath = sessionFolderPaths.get(name);
+    SyncReceiverLogger log = sessionLogs.get(name);
+    ReceivedChunkStore store = sessionChunkStores.get(name);
+    if (folderPath == null || log == null || store == null) {
+      return getErrorResult(String.format("Sync with sender %s has not started", name));
+    }
+    senderName.set(name);
+    syncFolderPath.set(folderPath);
+    syncLog.set(log);
+    chunkStore.set(store);
+    currentSG.set(storageGroup);
+    logger.info("A new connection joins the sync with sender {} to receive data of storage group {}",
+        name, storageGroup);
+    return getSuccessResult();
+  }
+
   /**
    * Init file path.
    */
@@ -156,6 +215,7 @@ public class SyncServiceImpl implements SyncService.Iface {
           new File(getSyncDataPath(), currentSG.get() + File.separatorChar + fileName));
       FileLoaderManager.getInstance().getFileLoader(senderName.get()).addDeletedFileName(
           new File(getSyncDataPath(), currentSG.get() + File.separatorChar + fileName));
+      chunkStore.get().markDeleted(currentSG.get(), fileName);
     } catch (IOException e) {
       logger.error("Can not sync deleted file", e);
       return getErrorResult(
@@ -166,33 +226,83 @@ public class SyncServiceImpl implements SyncService.Iface {
 
   @Override
   public SyncStatus initSyncData(String filename) throws TException {
+    return initSyncData(filename, false);
+  }
+
+  @Override
+  public SyncStatus resumeSyncData(String filename) throws TException {
+    return initSyncData(filename, true);
+  }
+
+  /**
+   * @param resume whether to keep the part of the file received before
+   * @return the length of the received part in msg if resume
+   */
+  private SyncStatus initSyncData(String filename, boolean resume) {
+    long receivedLength = 0;
     try {
       File file;
+      File receiving;
       if (currentSG.get() == null) { // schema mlog.txt file
         file = new File(getSyncDataPath(), filename);
+        receiving = new File(getSyncReceivingPath(), filename);
       } else {
         file = new File(getSyncDataPath(), currentSG.get() + File.separatorChar + filename);
+        receiving = new File(getSyncReceivingPath(),
+            currentSG.get() + File.separatorChar + filename);
       }
       file.delete();
+      if (!resume) {
+        receiving.delete();
+      }
       currentFile.set(file);
-      if (!file.getParentFile().exists()) {
-        file.getParentFile().mkdirs();
+      receivingFile.set(receiving);
+      if (!receiving.getParentFile().exists()) {
+        receiving.getParentFile().mkdirs();
       }
       if (currentFileWriter.get() != null && currentFileWriter.get().isOpen()) {
         currentFileWriter.get().close();
       }
-      currentFileWriter.set(new FileOutputStream(file).getChannel());
+      MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+      if (resume && receiving.exists()) {
+        receivedLength = digestFile(receiving, md);
+      }
+      currentFileWriter.set(new FileOutputStream(receiving, true).getChannel());
       syncLog.get().startSyncTsFiles();
-      messageDigest.set(MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME));
+      messageDigest.set(md);
     } catch (IOException | NoSuchAlgorithmException e) {
       logger.error("Can not init sync resource for file {}", filename, e);
       return getErrorResult(
           String.format("Can not init sync resource for file %s because %s", filename,
               e.getMessage()));
     }
+    if (resume) {
+      if (receivedLength > 0) {
+        logger.info("Resume receiving {} from byte {}", currentFile.get(), receivedLength);
+      }
+      return new SyncStatus(SyncConstant.SUCCESS_CODE, Long.toString(receivedLength));
+    }
     return getSuccessResult();
   }
 
+  /**
+   * update md with the content of the file.
+   *
+   * @return length of the file
+   */
+  private long digestFile(File file, MessageDigest md) throws IOException {
+    long length = 0;
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream inputStream = new FileInputStream(file)) {
+      int readLength;
+      while ((readLength = inputStream.read(buffer)) != -1) {
+        md.update(buffer, 0, readLength);
+        length += readLength;
+      }
+    }
+    return length;
+  }
+
   @Override
   public SyncStatus syncData(ByteBuffer buff) {
     try {
@@ -216,12 +326,16 @@ public class SyncServiceImpl implements SyncService.Iface {
         currentFileWriter.get().close();
       }
       if (!md5OfSender.equals(md5OfReceiver)) {
-        currentFile.get().delete();
-        currentFileWriter.set(new FileOutputStream(currentFile.get()).getChannel());
+        receivingFile.get().delete();
+        currentFileWriter.set(new FileOutputStream(receivingFile.get()).getChannel());
         return getErrorResult(String
             .format("MD5 of the sender is differ from MD5 of the receiver of the file %s.",
                 currentFile.get().getAbsolutePath()));
       } else {
+        if (!currentFile.get().getParentFile().exists()) {
+          currentFile.get().getParentFile().mkdirs();
+        }
+        FileUtils.moveFile(receivingFile.get(), currentFile.get());
         if (currentFile.get().getName().endsWith(MetadataConstant.METADATA_LOG)) {
           loadMetadata();
         } else {
@@ -229,9 +343,14 @@ public class SyncServiceImpl implements SyncService.Iface {
             logger.info("Receiver has received {} successfully.", currentFile.get());
             FileLoaderManager.getInstance().checkAndUpdateDeviceOwner(
                 new TsFileResource(new File(currentFile.get() + TsFileResource.RESOURCE_SUFFIX)));
-            syncLog.get().finishSyncTsfile(currentFile.get());
-            FileLoaderManager.getInstance().getFileLoader(senderName.get())
-                .addTsfile(currentFile.get());
+            addToChunkStore(currentFile.get());
+            // keep the order of the log the same as the loading order for recovery, as several
+            // connections may receive files of the sender at the same time
+            synchronized (syncLog.get()) {
+              syncLog.get().finishSyncTsfile(currentFile.get());
+              FileLoaderManager.getInstance().getFileLoader(senderName.get())
+                  .addTsfile(currentFile.get());
+            }
           }
         }
       }
@@ -250,6 +369,52 @@ public class SyncServiceImpl implements SyncService.Iface {
     return new SyncStatus(SyncConstant.SUCCESS_CODE, md5OfReceiver);
   }
 
+  @Override
+  public List<Boolean> checkChunkDigests(List<String> digests) throws TException {
+    List<Boolean> result = new ArrayList<>(digests.size());
+    try {
+      for (String digest : digests) {
+        result.add(chunkStore.get().contains(digest));
+      }
+    } catch (IOException e) {
+      logger.error("Can not read the chunk store of sender {}", senderName.get(), e);
+      result.clear();
+      for (int i = 0; i < digests.size(); i++) {
+        result.add(false);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public SyncStatus syncChunk(String digest) {
+    try {
+      if (!chunkStore.get().transferChunk(digest, currentFileWriter.get(), messageDigest.get())) {
+        return getErrorResult(String.format("Chunk %s is not found", digest));
+      }
+    } catch (IOException e) {
+      logger.error("Can not sync chunk {} for file {}", digest,
+          currentFile.get().getAbsoluteFile(), e);
+      return getErrorResult(String
+          .format("Can not sync chunk %s for file %s because %s", digest,
+              currentFile.get().getName(), e.getMessage()));
+    }
+    return getSuccessResult();
+  }
+
+  /**
+   * The chunks of the tsfile can be reused by the files rewritten from it later, which must be
+   * done before the tsfile is loaded as the loading moves it.
+   */
+  private void addToChunkStore(File tsfile) {
+    try {
+      chunkStore.get().addFile(currentSG.get(), tsfile);
+    } catch (IOException e) {
+      logger.warn("Can not add {} to the chunk store, its chunks will be sent again if needed",
+          tsfile, e);
+    }
+  }
+
   private void loadMetadata() {
     logger.info("Start to load metadata in sync process.");
     if (currentFile.get().exists()) {
@@ -275,6 +440,14 @@ public class SyncServiceImpl implements SyncService.Iface {
       if (syncLog.get() != null) {
         syncLog.get().close();
       }
+      sessionFolderPaths.remove(senderName.get());
+      sessionLogs.remove(senderName.get());
+      sessionChunkStores.remove(senderName.get());
+      if (chunkStore.get() != null) {
+        chunkStore.get().removeDeletedFiles();
+      }
+      // all files are received, the parts left by broken transfers are useless now
+      FileUtils.deleteDirectory(new File(getSyncReceivingPath()));
       IFileLoader loader = FileLoaderManager.getInstance().getFileLoader(senderName.get());
       if (loader != null) {
         loader.endSync();
@@ -294,6 +467,11 @@ public class SyncServiceImpl implements SyncService.Iface {
     return syncFolderPath.get() + File.separatorChar + SyncConstant.RECEIVER_DATA_FOLDER_NAME;
   }
 
+  private String getSyncReceivingPath() {
+    return syncFolderPath.get() + File.separatorChar
+        + SyncConstant.RECEIVER_RECEIVING_FOLDER_NAME;
+  }
+
   private SyncStatus getSuccessResult() {
     return new SyncStatus(SyncConstant.SUCCESS_CODE, "");
   }
@@ -25,7 +25,6 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -34,19 +33,29 @@ import java.io.RandomAccessFile;
 import java.math.BigInteger;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
@@ -55,6 +64,7 @@ import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.SyncConnectionException;
 import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
 import org.apache.iotdb.db.metadata.MetadataConstant;
+import org.apache.iotdb.db.sync.ChunkDigest;
 import org.apache.iotdb.db.sync.conf.SyncConstant;
 import org.apache.iotdb.db.sync.conf.SyncSenderConfig;
 import org.apache.iotdb.db.sync.conf.SyncSenderDescriptor;
@@ -96,6 +106,13 @@ public class DataTransferManager implements IDataTransferManager {
 
   private SyncService.Client serviceClient;
 
+  /**
+   * Address and uuid confirmed by the receiver, with which other connections join the sync.
+   */
+  private String senderAddress;
+
+  private String senderUuid;
+
   private Set<String> allSG;
 
   private Map<String, Set<File>> toBeSyncedFilesMap;
@@ -287,8 +304,9 @@ public class DataTransferManager implements IDataTransferManager {
   @Override
   public void confirmIdentity() throws SyncConnectionException {
     try (Socket socket = new Socket(config.getServerIp(), config.getServerPort())){
-      SyncStatus status = serviceClient
-          .check(socket.getLocalAddress().getHostAddress(), getOrCreateUUID(config.getUuidPath()));
+      senderAddress = socket.getLocalAddress().getHostAddress();
+      senderUuid = getOrCreateUUID(config.getUuidPath());
+      SyncStatus status = serviceClient.check(senderAddress, senderUuid);
       if (status.code != SUCCESS_CODE) {
         throw new SyncConnectionException(
             "The receiver rejected the synchronization task because " + status.msg);
@@ -519,28 +537,125 @@ public class DataTransferManager implements IDataTransferManager {
     }
     syncLog.startSyncTsFiles();
     logger.info("Sync process starts to transfer data of storage group {}", sgName);
-    int cnt = 0;
-    for (File tsfile : toBeSyncFiles) {
-      cnt++;
+    Queue<File> fileQueue = new ConcurrentLinkedQueue<>(toBeSyncFiles);
+    AtomicInteger cnt = new AtomicInteger();
+    int streamNum = Math.min(config.getSyncStreamNum(), toBeSyncFiles.size());
+    ExecutorService streamPool = null;
+    List<Future<Void>> streamFutures = new ArrayList<>();
+    if (streamNum > 1) {
+      streamPool = IoTDBThreadPoolFactory.newFixedThreadPool(streamNum - 1,
+          ThreadName.SYNC_CLIENT.getName());
+      for (int i = 1; i < streamNum; i++) {
+        streamFutures.add(streamPool.submit(() -> {
+          syncFilesInNewStream(sgName, fileQueue, cnt, toBeSyncFiles.size());
+          return null;
+        }));
+      }
+    }
+    try {
+      syncFiles(serviceClient, sgName, fileQueue, cnt, toBeSyncFiles.size());
+      for (Future<Void> future : streamFutures) {
+        waitStream(sgName, future);
+      }
+      // files put back by failed parallel connections
+      syncFiles(serviceClient, sgName, fileQueue, cnt, toBeSyncFiles.size());
+    } finally {
+      if (streamPool != null) {
+        streamPool.shutdownNow();
+      }
+    }
+    logger.info("Sync process has finished storage group {}.", sgName);
+  }
+
+  /**
+   * Open another connection joining the sync and transfer files in fileQueue with it. The file
+   * being transferred when the connection fails is put back into fileQueue.
+   */
+  private void syncFilesInNewStream(String sgName, Queue<File> fileQueue, AtomicInteger cnt,
+      int total) throws SyncConnectionException, IOException, SyncDeviceOwnerConflictException {
+    TTransport streamTransport = new TSocket(config.getServerIp(), config.getServerPort());
+    try {
+      streamTransport.open();
+      SyncService.Client client = new SyncService.Client(new TBinaryProtocol(streamTransport));
+      SyncStatus status = client.joinSync(senderAddress, senderUuid, sgName);
+      if (status.code != SUCCESS_CODE) {
+        throw new SyncConnectionException(
+            "Receiver rejected a parallel connection because " + status.msg);
+      }
+      syncFiles(client, sgName, fileQueue, cnt, total);
+    } catch (TException e) {
+      throw new SyncConnectionException("Unable to connect to receiver", e);
+    } finally {
+      streamTransport.close();
+    }
+  }
+
+  /**
+   * Wait for a parallel connection. The files it fails to transfer are left in the file queue for
+   * the main connection, so its SyncConnectionException is only logged.
+   */
+  private void waitStream(String sgName, Future<Void> future)
+      throws IOException, SyncDeviceOwnerConflictException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SyncDeviceOwnerConflictException) {
+        throw (SyncDeviceOwnerConflictException) e.getCause();
+      }
+      if (e.getCause() instanceof SyncConnectionException) {
+        logger.error("A parallel connection of storage group {} failed", sgName, e.getCause());
+        return;
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Transfer files polled from fileQueue through the client until the queue is empty. If the
+   * transfer of a file fails, the file is put back into fileQueue before the exception is thrown.
+   */
+  void syncFiles(SyncService.Client client, String sgName, Queue<File> fileQueue,
+      AtomicInteger cnt, int total)
+      throws SyncConnectionException, IOException, SyncDeviceOwnerConflictException {
+    // reused by all chunks sent through this connection
+    ByteBuffer buffer = ByteBuffer.allocate(SyncConstant.DATA_CHUNK_SIZE);
+    File tsfile;
+    while ((tsfile = fileQueue.poll()) != null) {
       try {
         File snapshotFile = makeFileSnapshot(tsfile);
         // firstly sync .resource file, then sync tsfile
-        syncSingleFile(new File(snapshotFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
-        syncSingleFile(snapshotFile);
-        lastLocalFilesMap.get(sgName).add(tsfile);
-        syncLog.finishSyncTsfile(tsfile);
-        logger.info("Task of synchronization has completed {}/{}.", cnt, toBeSyncFiles.size());
+        syncSingleFile(client,
+            new File(snapshotFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX), buffer);
+        if (config.isEnableChunkLevelSync()) {
+          syncFileByChunks(client, snapshotFile, buffer);
+        } else {
+          syncSingleFile(client, snapshotFile, buffer);
+        }
+        synchronized (syncLog) {
+          lastLocalFilesMap.get(sgName).add(tsfile);
+          syncLog.finishSyncTsfile(tsfile);
+        }
+        logger.info("Task of synchronization has completed {}/{}.", cnt.incrementAndGet(), total);
       } catch (IOException e) {
         logger.info(
             "Tsfile {} can not make snapshot, so skip the tsfile and continue to sync other tsfiles",
             tsfile, e);
+      } catch (SyncConnectionException e) {
+        fileQueue.add(tsfile);
+        throw e;
+      } catch (SyncDeviceOwnerConflictException e) {
+        // the other tsfiles of the storage group are skipped
+        fileQueue.clear();
+        throw e;
       }
     }
-    logger.info("Sync process has finished storage group {}.", sgName);
   }
 
   /**
-   * Make snapshot<hard link> for new tsfile and its .restore file.
+   * Make snapshot<hard link> for new tsfile and its .restore file. The snapshot left by a failed
+   * transfer of the file is replaced.
    *
    * @param file new tsfile to be synced
    */
@@ -551,24 +666,31 @@ public class DataTransferManager implements IDataTransferManager {
     }
     Path link = FileSystems.getDefault().getPath(snapshotFile.getAbsolutePath());
     Path target = FileSystems.getDefault().getPath(file.getAbsolutePath());
+    Files.deleteIfExists(link);
     Files.createLink(link, target);
     link = FileSystems.getDefault()
         .getPath(snapshotFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX);
     target = FileSystems.getDefault()
         .getPath(file.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX);
+    Files.deleteIfExists(link);
     Files.createLink(link, target);
     return snapshotFile;
   }
 
   /**
-   * Transfer data of a tsfile to the receiver.
+   * Transfer data of a tsfile to the receiver. The transfer starts from the part the receiver has
+   * received (possibly in a previous sync), and a failed chunk is resent from where the receiver
+   * stops, so only a failed MD5 check restarts the file from the beginning.
+   *
+   * @param buffer a heap buffer of DATA_CHUNK_SIZE used to read the file
    */
-  private void syncSingleFile(File snapshotFile)
+  void syncSingleFile(SyncService.Client client, File snapshotFile, ByteBuffer buffer)
       throws SyncConnectionException, SyncDeviceOwnerConflictException {
-    try {
+    try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
       int retryCount = 0;
       MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
-      serviceClient.initSyncData(snapshotFile.getName());
+      long fileLength = channel.size();
+      long position = resumeSyncData(client, snapshotFile, fileLength);
       outer:
       while (true) {
         retryCount++;
@@ -577,36 +699,41 @@ public class DataTransferManager implements IDataTransferManager {
               .format("Can not sync file %s after %s tries.", snapshotFile.getAbsoluteFile(),
                   config.getMaxNumOfSyncFileRetry()));
         }
+        // the digest also covers the part the receiver already has
         md.reset();
-        byte[] buffer = new byte[SyncConstant.DATA_CHUNK_SIZE];
-        int dataLength;
-        try (FileInputStream fis = new FileInputStream(snapshotFile);
-            ByteArrayOutputStream bos = new ByteArrayOutputStream(SyncConstant.DATA_CHUNK_SIZE)) {
-          while ((dataLength = fis.read(buffer)) != -1) { // cut the file into pieces to send
-            bos.write(buffer, 0, dataLength);
-            md.update(buffer, 0, dataLength);
-            ByteBuffer buffToSend = ByteBuffer.wrap(bos.toByteArray());
-            bos.reset();
-            SyncStatus status = serviceClient.syncData(buffToSend);
-            if(status.code == CONFLICT_CODE){
-              throw new SyncDeviceOwnerConflictException(status.msg);
-            }
-            if (status.code != SUCCESS_CODE) {
-              logger.info("Receiver failed to receive data from {} because {}, retry.",
-                  status.msg, snapshotFile.getAbsoluteFile());
-              continue outer;
-            }
+        digest(channel, 0, position, md, buffer);
+        while (position < fileLength) { // cut the file into pieces to send
+          buffer.clear();
+          int dataLength = channel.read(buffer, position);
+          if (dataLength < 0) {
+            throw new IOException(
+                String.format("File %s is truncated while syncing", snapshotFile));
+          }
+          buffer.flip();
+          md.update(buffer.array(), 0, dataLength);
+          SyncStatus status = client.syncData(buffer);
+          if (status.code == CONFLICT_CODE) {
+            throw new SyncDeviceOwnerConflictException(status.msg);
           }
+          if (status.code != SUCCESS_CODE) {
+            logger.info("Receiver failed to receive data from {} because {}, retry.",
+                snapshotFile.getAbsoluteFile(), status.msg);
+            position = resumeSyncData(client, snapshotFile, fileLength);
+            continue outer;
+          }
+          position += dataLength;
         }
 
         // the file is sent successfully
         String md5OfSender = (new BigInteger(1, md.digest())).toString(16);
-        SyncStatus status = serviceClient.checkDataMD5(md5OfSender);
+        SyncStatus status = client.checkDataMD5(md5OfSender);
         if (status.code == SUCCESS_CODE && md5OfSender.equals(status.msg)) {
           logger.info("Receiver has received {} successfully.", snapshotFile.getAbsoluteFile());
           break;
         } else {
           logger.error("MD5 check of tsfile {} failed, retry", snapshotFile.getAbsoluteFile());
+          client.initSyncData(snapshotFile.getName());
+          position = 0;
         }
       }
     } catch (IOException | TException | NoSuchAlgorithmException e) {
@@ -614,6 +741,128 @@ public class DataTransferManager implements IDataTransferManager {
     }
   }
 
+  /**
+   * Transfer a tsfile to the receiver, but send only the chunks the receiver does not have in the
+   * files received before and let the receiver copy the others locally. Like syncSingleFile, the
+   * transfer continues from the part the receiver has received, and only the chunks after that
+   * part are looked up. The MD5 of the whole file is checked as usual, and if anything goes wrong
+   * the file is sent by syncSingleFile, which continues from the part the receiver has assembled.
+   */
+  void syncFileByChunks(SyncService.Client client, File snapshotFile, ByteBuffer buffer)
+      throws SyncConnectionException, SyncDeviceOwnerConflictException {
+    try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+      long fileLength = channel.size();
+      long position = resumeSyncData(client, snapshotFile, fileLength);
+      MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+      // the digest also covers the part the receiver already has
+      digest(channel, 0, position, md, buffer);
+      List<ChunkDigest> chunkDigests = new ArrayList<>();
+      List<String> digests = new ArrayList<>();
+      for (ChunkDigest chunkDigest : SyncUtils.getChunkDigests(snapshotFile)) {
+        if (chunkDigest.getOffset() >= position) {
+          chunkDigests.add(chunkDigest);
+          digests.add(chunkDigest.getDigest());
+        }
+      }
+      List<Boolean> existing = digests.isEmpty() ? Collections.emptyList()
+          : client.checkChunkDigests(digests);
+      long reusedSize = 0;
+      boolean success = true;
+      for (int i = 0; i < chunkDigests.size() && success; i++) {
+        if (!existing.get(i)) {
+          continue;
+        }
+        ChunkDigest chunkDigest = chunkDigests.get(i);
+        success = sendRange(client, channel, position, chunkDigest.getOffset(), md, buffer)
+            && client.syncChunk(chunkDigest.getDigest()).code == SUCCESS_CODE;
+        position = chunkDigest.getOffset() + chunkDigest.getLength();
+        digest(channel, chunkDigest.getOffset(), position, md, buffer);
+        reusedSize += chunkDigest.getLength();
+      }
+      if (success && sendRange(client, channel, position, fileLength, md, buffer)) {
+        String md5OfSender = (new BigInteger(1, md.digest())).toString(16);
+        SyncStatus status = client.checkDataMD5(md5OfSender);
+        if (status.code == CONFLICT_CODE) {
+          throw new SyncDeviceOwnerConflictException(status.msg);
+        }
+        if (status.code == SUCCESS_CODE && md5OfSender.equals(status.msg)) {
+          logger.info("Receiver has received {} successfully, {} of {} bytes are reused chunks.",
+              snapshotFile.getAbsoluteFile(), reusedSize, fileLength);
+          return;
+        }
+      }
+      logger.info("Can not sync {} by chunks, send the whole file.", snapshotFile.getAbsoluteFile());
+    } catch (IOException | TException | NoSuchAlgorithmException e) {
+      logger.info("Can not sync {} by chunks, send the whole file.", snapshotFile.getAbsoluteFile(),
+          e);
+    }
+    syncSingleFile(client, snapshotFile, buffer);
+  }
+
+  /**
+   * send the bytes of the file in [position, end) and update md with them.
+   *
+   * @return false if the receiver fails to receive them
+   */
+  private boolean sendRange(SyncService.Client client, FileChannel channel, long position,
+      long end, MessageDigest md, ByteBuffer buffer) throws IOException, TException {
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      int dataLength = channel.read(buffer, position);
+      if (dataLength < 0) {
+        throw new IOException("File is truncated while syncing");
+      }
+      buffer.flip();
+      md.update(buffer.array(), 0, dataLength);
+      if (client.syncData(buffer).code != SUCCESS_CODE) {
+        return false;
+      }
+      position += dataLength;
+    }
+    return true;
+  }
+
+  /**
+   * Ask the receiver how much of the file it has received. If the receiver has more than the
+   * file, the file is sent again from the beginning.
+   *
+   * @return the position to continue sending the file
+   */
+  private long resumeSyncData(SyncService.Client client, File snapshotFile, long fileLength)
+      throws TException {
+    SyncStatus status = client.resumeSyncData(snapshotFile.getName());
+    if (status.code == SUCCESS_CODE) {
+      long receivedLength = Long.parseLong(status.msg);
+      if (receivedLength <= fileLength) {
+        if (receivedLength > 0) {
+          logger.info("Resume syncing {} from byte {}", snapshotFile.getAbsoluteFile(),
+              receivedLength);
+        }
+        return receivedLength;
+      }
+    }
+    client.initSyncData(snapshotFile.getName());
+    return 0;
+  }
+
+  /**
+   * update md with the bytes of the file in [position, end).
+   */
+  private void digest(FileChannel channel, long position, long end, MessageDigest md,
+      ByteBuffer buffer) throws IOException {
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      int dataLength = channel.read(buffer, position);
+      if (dataLength < 0) {
+        throw new IOException("File is truncated while syncing");
+      }
+      md.update(buffer.array(), 0, dataLength);
+      position += dataLength;
+    }
+  }
+
   private void endSync() throws IOException {
     File currentLocalFile = getCurrentLogFile();
     File lastLocalFile = new File(config.getLastFileInfoPath());
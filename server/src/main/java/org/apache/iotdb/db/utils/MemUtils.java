@@ -47,7 +47,7 @@ public class MemUtils {
    */
   public static long getRecordSize(InsertPlan insertPlan) {
     long memSize = 0;
-    for (int i = 0; i < insertPlan.getValues().length; i++) {
+    for (int i = 0; i < insertPlan.getMeasurements().length; i++) {
       switch (insertPlan.getDataTypes()[i]) {
         case INT32:
           memSize += 8L + 4L; break;
@@ -60,7 +60,9 @@ public class MemUtils {
         case BOOLEAN:
           memSize += 8L + 1L; break;
         case TEXT:
-          memSize += 8L + insertPlan.getValues()[i].length(); break;
+          memSize += 8L + (insertPlan.isTyped()
+              ? ((Binary) insertPlan.getTypedValues()[i]).getLength()
+              : insertPlan.getValues()[i].length()); break;
         default:
           memSize += 8L + 8L;
       }
@@ -68,28 +70,32 @@ public class MemUtils {
     return memSize;
   }
 
-  public static long getRecordSize(BatchInsertPlan batchInsertPlan) {
+  /**
+   * function for getting the memory size of the rows in [start, end) of the given batch.
+   */
+  public static long getRecordSize(BatchInsertPlan batchInsertPlan, int start, int end) {
     long memSize = 0;
+    int rowCount = end - start;
     for (int i = 0; i < batchInsertPlan.getMeasurements().length; i++) {
       switch (batchInsertPlan.getDataTypes()[i]) {
         case INT32:
-          memSize += batchInsertPlan.getRowCount() * (8L + 4L); break;
+          memSize += rowCount * (8L + 4L); break;
         case INT64:
-          memSize += batchInsertPlan.getRowCount() * (8L + 8L); break;
+          memSize += rowCount * (8L + 8L); break;
         case FLOAT:
-          memSize += batchInsertPlan.getRowCount() * (8L + 4L); break;
+          memSize += rowCount * (8L + 4L); break;
         case DOUBLE:
-          memSize += batchInsertPlan.getRowCount() * (8L + 8L); break;
+          memSize += rowCount * (8L + 8L); break;
         case BOOLEAN:
-          memSize += batchInsertPlan.getRowCount() * (8L + 1L); break;
+          memSize += rowCount * (8L + 1L); break;
         case TEXT:
-          memSize += batchInsertPlan.getRowCount() * 8L;
-          for (int j = 0; j < batchInsertPlan.getRowCount(); j++) {
+          memSize += rowCount * 8L;
+          for (int j = start; j < end; j++) {
             memSize += ((Binary[]) batchInsertPlan.getColumns()[i])[j].getLength();
           }
           break;
         default:
-          memSize += batchInsertPlan.getRowCount() * (8L + 8L);
+          memSize += rowCount * (8L + 8L);
       }
     }
     return memSize;
@@ -140,9 +140,8 @@ public class QueryDataSetUtils {
 
   public static long[] readTimesFromBuffer(ByteBuffer buffer, int size) {
     long[] times = new long[size];
-    for (int i = 0; i < size; i++) {
-      times[i] = buffer.getLong();
-    }
+    buffer.asLongBuffer().get(times);
+    buffer.position(buffer.position() + size * Long.BYTES);
     return times;
   }
 
@@ -157,6 +156,8 @@ public class QueryDataSetUtils {
   }
 
   /**
+   * fixed-width columns are bulk copied through typed views of the buffer.
+   *
    * @param buffer data values
    * @param columns column number
    * @param size value count in each column
@@ -175,30 +176,26 @@ public class QueryDataSetUtils {
           break;
         case INT32:
           int[] intValues = new int[size];
-          for (int index = 0; index < size; index++) {
-            intValues[index] = buffer.getInt();
-          }
+          buffer.asIntBuffer().get(intValues);
+          buffer.position(buffer.position() + size * Integer.BYTES);
           values[i] = intValues;
           break;
         case INT64:
           long[] longValues = new long[size];
-          for (int index = 0; index < size; index++) {
-            longValues[index] = buffer.getLong();
-          }
+          buffer.asLongBuffer().get(longValues);
+          buffer.position(buffer.position() + size * Long.BYTES);
           values[i] = longValues;
           break;
         case FLOAT:
           float[] floatValues = new float[size];
-          for (int index = 0; index < size; index++) {
-            floatValues[index] = buffer.getFloat();
-          }
+          buffer.asFloatBuffer().get(floatValues);
+          buffer.position(buffer.position() + size * Float.BYTES);
           values[i] = floatValues;
           break;
         case DOUBLE:
           double[] doubleValues = new double[size];
-          for (int index = 0; index < size; index++) {
-            doubleValues[index] = buffer.getDouble();
-          }
+          buffer.asDoubleBuffer().get(doubleValues);
+          buffer.position(buffer.position() + size * Double.BYTES);
           values[i] = doubleValues;
           break;
         case TEXT:
@@ -219,4 +216,77 @@ public class QueryDataSetUtils {
     }
     return values;
   }
+
+  /**
+   * read the values of one row, each encoded as its data type.
+   *
+   * @return Boolean, Integer, Long, Float, Double or Binary of each column
+   */
+  public static Object[] readRowValuesFromBuffer(ByteBuffer buffer, TSDataType[] types) {
+    Object[] values = new Object[types.length];
+    for (int i = 0; i < types.length; i++) {
+      switch (types[i]) {
+        case BOOLEAN:
+          values[i] = BytesUtils.byteToBool(buffer.get());
+          break;
+        case INT32:
+          values[i] = buffer.getInt();
+          break;
+        case INT64:
+          values[i] = buffer.getLong();
+          break;
+        case FLOAT:
+          values[i] = buffer.getFloat();
+          break;
+        case DOUBLE:
+          values[i] = buffer.getDouble();
+          break;
+        case TEXT:
+          int binarySize = buffer.getInt();
+          byte[] binaryValue = new byte[binarySize];
+          buffer.get(binaryValue);
+          values[i] = new Binary(binaryValue);
+          break;
+        default:
+          throw new UnSupportedDataTypeException(
+              String.format("data type %s is not supported when convert data at client",
+                  types[i]));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * write the values of one row in the format read by readRowValuesFromBuffer().
+   */
+  public static void writeRowValuesToBuffer(ByteBuffer buffer, TSDataType[] types,
+      Object[] values) {
+    for (int i = 0; i < types.length; i++) {
+      switch (types[i]) {
+        case BOOLEAN:
+          buffer.put(BytesUtils.boolToByte((Boolean) values[i]));
+          break;
+        case INT32:
+          buffer.putInt((Integer) values[i]);
+          break;
+        case INT64:
+          buffer.putLong((Long) values[i]);
+          break;
+        case FLOAT:
+          buffer.putFloat((Float) values[i]);
+          break;
+        case DOUBLE:
+          buffer.putDouble((Double) values[i]);
+          break;
+        case TEXT:
+          Binary binary = (Binary) values[i];
+          buffer.putInt(binary.getLength());
+          buffer.put(binary.getValues());
+          break;
+        default:
+          throw new UnSupportedDataTypeException(
+              String.format("Data type %s is not supported.", types[i]));
+      }
+    }
+  }
 }
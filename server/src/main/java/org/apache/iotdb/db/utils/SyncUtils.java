@@ -19,11 +19,25 @@
 package org.apache.iotdb.db.utils;
 
 import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import org.apache.iotdb.db.sync.ChunkDigest;
+import org.apache.iotdb.db.sync.conf.SyncConstant;
 import org.apache.iotdb.db.sync.conf.SyncSenderDescriptor;
+import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 
 public class SyncUtils {
 
@@ -46,6 +60,42 @@ public class SyncUtils {
     return new File(snapshotDir, relativeFilePath);
   }
 
+  /**
+   * Compute the digest of each chunk in a sealed tsfile. It's used by both sync sender and receiver
+   * to find the chunks the receiver already has.
+   *
+   * @return digests sorted by the offsets of the chunks
+   */
+  public static List<ChunkDigest> getChunkDigests(File tsfile) throws IOException {
+    List<ChunkDigest> chunkDigests = new ArrayList<>();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsfile.getAbsolutePath())) {
+      MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+      for (ChunkGroupMetaData chunkGroupMetaData : reader
+          .getSortedChunkGroupMetaDataListByDeviceIds()) {
+        for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+          long offset = chunkMetaData.getOffsetOfChunkHeader();
+          // skip the marker
+          reader.position(offset + 1);
+          ChunkHeader header = reader.readChunkHeader();
+          int length = header.getSerializedSize() + header.getDataSize();
+          ByteBuffer chunk = ByteBuffer.allocate(length);
+          if (reader.readRaw(offset, length, chunk) != length) {
+            throw new IOException(
+                String.format("Chunk at %d of %s is truncated", offset, tsfile));
+          }
+          md.reset();
+          md.update(chunk.array(), 0, length);
+          chunkDigests.add(
+              new ChunkDigest(new BigInteger(1, md.digest()).toString(16), offset, length));
+        }
+      }
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+    chunkDigests.sort(Comparator.comparingLong(ChunkDigest::getOffset));
+    return chunkDigests;
+  }
+
   /**
    * Verify sending list is empty or not It's used by sync sender.
    */
@@ -89,6 +89,9 @@ public class BooleanTVList extends TVList {
   }
 
   public void sort() {
+    if (sorted) {
+      return;
+    }
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -123,6 +126,11 @@ public class BooleanTVList extends TVList {
     }
   }
 
+  @Override
+  protected void copyValuesFromSorted(int lo, int hi) {
+    copyFromSortedArrays(sortedValues, values, lo, hi);
+  }
+
   @Override
   protected void setFromSorted(int src, int dest) {
     set(dest, sortedTimestamps[src/ARRAY_SIZE][src%ARRAY_SIZE], sortedValues[src/ARRAY_SIZE][src%ARRAY_SIZE]);
@@ -174,15 +182,14 @@ public class BooleanTVList extends TVList {
   }
 
   @Override
-  public void putBooleans(long[] time, boolean[] value) {
+  public void putBooleans(long[] time, boolean[] value, int start, int end) {
     checkExpansion();
-    int idx = 0;
-    int length = time.length;
+    int idx = start;
 
-    updateMinTimeAndSorted(time);
+    updateMinTimeAndSorted(time, start, end);
 
-    while (idx < length) {
-      int inputRemaining = length - idx;
+    while (idx < end) {
+      int inputRemaining = end - idx;
       int arrayIdx = size / ARRAY_SIZE;
       int elementIdx = size % ARRAY_SIZE;
       int internalRemaining  = ARRAY_SIZE - elementIdx;
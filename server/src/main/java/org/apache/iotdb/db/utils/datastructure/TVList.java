@@ -22,6 +22,7 @@ package org.apache.iotdb.db.utils.datastructure;
 import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -34,6 +35,17 @@ public abstract class TVList {
 
   protected static final int SMALL_ARRAY_LENGTH = 32;
 
+  /**
+   * lists shorter than this are sorted by merge sort even if they are shuffled.
+   */
+  private static final int RADIX_SORT_THRESHOLD = 1024;
+
+  private static final int RADIX_BITS = 8;
+
+  private static final int RADIX = 1 << RADIX_BITS;
+
+  private static final long RADIX_MASK = RADIX - 1L;
+
   protected List<long[]> timestamps;
   protected int size;
 
@@ -93,26 +105,68 @@ public abstract class TVList {
   }
 
   public void putLongs(long[] time, long[] value) {
+    putLongs(time, value, 0, time.length);
+  }
+
+  /**
+   * put the points in [start, end) of the given arrays.
+   */
+  public void putLongs(long[] time, long[] value, int start, int end) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
   public void putInts(long[] time, int[] value) {
+    putInts(time, value, 0, time.length);
+  }
+
+  /**
+   * put the points in [start, end) of the given arrays.
+   */
+  public void putInts(long[] time, int[] value, int start, int end) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
   public void putFloats(long[] time, float[] value) {
+    putFloats(time, value, 0, time.length);
+  }
+
+  /**
+   * put the points in [start, end) of the given arrays.
+   */
+  public void putFloats(long[] time, float[] value, int start, int end) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
   public void putDoubles(long[] time, double[] value) {
+    putDoubles(time, value, 0, time.length);
+  }
+
+  /**
+   * put the points in [start, end) of the given arrays.
+   */
+  public void putDoubles(long[] time, double[] value, int start, int end) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
   public void putBinaries(long[] time, Binary[] value) {
+    putBinaries(time, value, 0, time.length);
+  }
+
+  /**
+   * put the points in [start, end) of the given arrays.
+   */
+  public void putBinaries(long[] time, Binary[] value, int start, int end) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
   public void putBooleans(long[] time, boolean[] value) {
+    putBooleans(time, value, 0, time.length);
+  }
+
+  /**
+   * put the points in [start, end) of the given arrays.
+   */
+  public void putBooleans(long[] time, boolean[] value, int start, int end) {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
@@ -242,11 +296,81 @@ public abstract class TVList {
     return cloneArray;
   }
 
+  /**
+   * sort [lo, hi) stably. Data of a series usually arrive in order with some late points, so the
+   * points that break the ascending order are moved to the end, sorted and merged into the part of
+   * the in-order points that they overlap. When most points are out of order, the list is sorted
+   * by an LSD radix sort on the timestamps (or a merge sort if it is small).
+   */
   protected void sort(int lo, int hi) {
-    if (sorted) {
+    if (sorted || hi - lo <= 1) {
+      return;
+    }
+    // count the points that are smaller than the in-order points before them
+    int lateNum = 0;
+    long lastInOrderTime = getTime(lo);
+    for (int i = lo + 1; i < hi; i++) {
+      long time = getTime(i);
+      if (time >= lastInOrderTime) {
+        lastInOrderTime = time;
+      } else {
+        lateNum++;
+      }
+    }
+    if (lateNum == 0) {
+      return;
+    }
+    if (lateNum > (hi - lo) / 2) {
+      if (hi - lo >= RADIX_SORT_THRESHOLD) {
+        radixSort(lo, hi);
+      } else {
+        mergeSort(lo, hi);
+      }
       return;
     }
-    if (lo == hi) {
+
+    // compact the in-order points to [lo, inOrderEnd) and buffer the late ones in the sorting
+    // buffer, both keep their arriving order
+    int inOrderEnd = lo + 1;
+    int lateEnd = lo;
+    lastInOrderTime = getTime(lo);
+    for (int i = lo + 1; i < hi; i++) {
+      long time = getTime(i);
+      if (time >= lastInOrderTime) {
+        lastInOrderTime = time;
+        if (inOrderEnd != i) {
+          set(i, inOrderEnd);
+        }
+        inOrderEnd++;
+      } else {
+        setToSorted(i, lateEnd++);
+      }
+    }
+    for (int i = lo; i < lateEnd; i++) {
+      setFromSorted(i, inOrderEnd + i - lo);
+    }
+    mergeSort(inOrderEnd, hi);
+
+    // in-order points not larger than the smallest late point are already in place, and equal
+    // ones arrived earlier
+    long lateMinTime = getTime(inOrderEnd);
+    int low = lo;
+    int high = inOrderEnd;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (getTime(mid) <= lateMinTime) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    if (low < inOrderEnd) {
+      merge(low, inOrderEnd, hi);
+    }
+  }
+
+  private void mergeSort(int lo, int hi) {
+    if (hi - lo <= 1) {
       return;
     }
     if (hi - lo <= SMALL_ARRAY_LENGTH) {
@@ -255,11 +379,93 @@ public abstract class TVList {
       return;
     }
     int mid = (lo + hi) >>> 1;
-    sort(lo, mid);
-    sort(mid, hi);
+    mergeSort(lo, mid);
+    mergeSort(mid, hi);
+    // the two halves are already in order
+    if (getTime(mid - 1) <= getTime(mid)) {
+      return;
+    }
     merge(lo, mid, hi);
   }
 
+  /**
+   * stable LSD radix sort of [lo, hi) on timestamps offset by the minimum, then the points are
+   * moved by the sorted order through the sorting buffer.
+   */
+  private void radixSort(int lo, int hi) {
+    int n = hi - lo;
+    long[] keys = new long[n];
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    for (int i = 0; i < n; i++) {
+      long time = getTime(lo + i);
+      keys[i] = time;
+      min = Math.min(min, time);
+      max = Math.max(max, time);
+    }
+    // unsigned width of the key range
+    int bits = 64 - Long.numberOfLeadingZeros(max - min);
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] -= min;
+      order[i] = i;
+    }
+
+    long[] tmpKeys = new long[n];
+    int[] tmpOrder = new int[n];
+    int[] count = new int[RADIX + 1];
+    for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+      Arrays.fill(count, 0);
+      for (int i = 0; i < n; i++) {
+        count[(int) ((keys[i] >>> shift) & RADIX_MASK) + 1]++;
+      }
+      for (int i = 0; i < RADIX; i++) {
+        count[i + 1] += count[i];
+      }
+      for (int i = 0; i < n; i++) {
+        int pos = count[(int) ((keys[i] >>> shift) & RADIX_MASK)]++;
+        tmpKeys[pos] = keys[i];
+        tmpOrder[pos] = order[i];
+      }
+      long[] swapKeys = keys;
+      keys = tmpKeys;
+      tmpKeys = swapKeys;
+      int[] swapOrder = order;
+      order = tmpOrder;
+      tmpOrder = swapOrder;
+    }
+
+    for (int i = 0; i < n; i++) {
+      setToSorted(lo + order[i], lo + i);
+    }
+    copyFromSorted(lo, hi);
+  }
+
+  /**
+   * copy [lo, hi) from the sorting buffer to the original arrays by array segments.
+   */
+  protected void copyFromSorted(int lo, int hi) {
+    copyFromSortedArrays(sortedTimestamps, timestamps, lo, hi);
+    copyValuesFromSorted(lo, hi);
+  }
+
+  protected abstract void copyValuesFromSorted(int lo, int hi);
+
+  /**
+   * copy [lo, hi) from sortedArrays to arrays, both are primitive arrays of ARRAY_SIZE.
+   */
+  protected static void copyFromSortedArrays(Object[] sortedArrays, List<?> arrays, int lo,
+      int hi) {
+    while (lo < hi) {
+      int arrayIndex = lo / ARRAY_SIZE;
+      int elementIndex = lo % ARRAY_SIZE;
+      int length = Math.min(ARRAY_SIZE - elementIndex, hi - lo);
+      System.arraycopy(sortedArrays[arrayIndex], elementIndex, arrays.get(arrayIndex),
+          elementIndex, length);
+      lo += length;
+    }
+  }
+
   protected int countRunAndMakeAscending(int lo, int hi) {
     assert lo < hi;
     int runHi = lo + 1;
@@ -362,9 +568,6 @@ public abstract class TVList {
       }
       setPivotTo(left);
     }
-    for (int i = lo; i < hi; i++) {
-      setToSorted(i, i);
-    }
   }
 
   protected void merge(int lo, int mid, int hi) {
@@ -411,20 +614,15 @@ public abstract class TVList {
     }
 
     // copy from sorting buffer to the original arrays so that they can be further sorted
-    // potential speed up: change the place of sorting buffer and origin data between merge
-    // iterations
-    for (int i = lo; i < hi; i++) {
-      setFromSorted(i, i);
-    }
+    copyFromSorted(lo, hi);
   }
 
-  void updateMinTimeAndSorted(long[] time) {
-    int length = time.length;
+  void updateMinTimeAndSorted(long[] time, int start, int end) {
     long inPutMinTime = Long.MAX_VALUE;
     boolean inputSorted = true;
-    for (int i = 0; i < length; i++) {
+    for (int i = start; i < end; i++) {
       inPutMinTime = inPutMinTime <= time[i] ? inPutMinTime : time[i];
-      if (inputSorted && i < length - 1 && time[i] > time[i+1]) {
+      if (inputSorted && i < end - 1 && time[i] > time[i+1]) {
         inputSorted = false;
       }
     }
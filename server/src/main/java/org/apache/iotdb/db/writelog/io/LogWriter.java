@@ -27,6 +27,8 @@ import java.util.zip.CRC32;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
+import org.apache.iotdb.db.metrics.source.Stage;
+import org.apache.iotdb.db.metrics.source.StageMetrics;
 
 /**
  * LogWriter writes the binarized logs into a file using FileChannel together with check sums of
@@ -78,17 +80,23 @@ public class LogWriter implements ILogWriter {
     channel.write(checkSumBuffer);
 
     if (config.getForceWalPeriodInMs() == 0) {
-      channel.force(true);
+      forceChannel();
     }
   }
 
   @Override
   public void force() throws IOException {
     if (channel != null) {
-      channel.force(true);
+      forceChannel();
     }
   }
 
+  private void forceChannel() throws IOException {
+    long startTime = System.nanoTime();
+    channel.force(true);
+    StageMetrics.getInstance().record(Stage.WAL_FORCE, startTime);
+  }
+
   @Override
   public void close() throws IOException {
     if (channel != null) {
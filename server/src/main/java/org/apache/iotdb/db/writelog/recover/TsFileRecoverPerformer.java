@@ -246,6 +246,7 @@ public class TsFileRecoverPerformer {
       }
       // close file
       restorableTsFileIOWriter.endFile(schema);
+      tsFileResource.setBloomFilter(restorableTsFileIOWriter.getBloomFilter());
       tsFileResource.serialize();
     } catch (IOException | InterruptedException | ExecutionException e) {
       throw new StorageGroupProcessorException(e);
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.compress;
+
+import static org.apache.iotdb.db.utils.EnvironmentUtils.TEST_QUERY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.iotdb.db.compress.manage.CompressManager;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.query.executor.EngineQueryRouter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.DoubleDataPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compresses seqFiles together with an unseqFile lying inside their time range and checks that a
+ * query still sees the unseq points afterwards. The compress ratio is 1, so no page is sampled
+ * and every point is expected back.
+ */
+public class CompressUnseqMergeTest {
+
+  private static final long COMPRESS_TIMEOUT_MS = 60_000;
+
+  private String storageGroup = "root.compress";
+  private String measurement = "m0";
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private boolean prevEnableCompress;
+  private boolean prevEnableUnseqMerge;
+  private double prevCompressRatio;
+
+  @Before
+  public void setUp() throws Exception {
+    prevEnableCompress = config.isEnableCompress();
+    prevEnableUnseqMerge = config.isEnableCompressUnseqMerge();
+    prevCompressRatio = config.getCompressRatio();
+    config.setEnableCompress(true);
+    config.setEnableCompressUnseqMerge(true);
+    config.setCompressRatio(1);
+
+    EnvironmentUtils.envSetUp();
+    CompressManager.getINSTANCE().start();
+    MManager.getInstance().setStorageGroupToMTree(storageGroup);
+    MManager.getInstance().addPathToMTree(storageGroup + "." + measurement,
+        TSDataType.DOUBLE.toString(), TSEncoding.PLAIN.toString());
+    StorageEngine.getInstance()
+        .addTimeSeries(new Path(storageGroup, measurement), TSDataType.DOUBLE, TSEncoding.PLAIN,
+            CompressionType.valueOf(TSFileDescriptor.getInstance().getConfig().getCompressor()),
+            Collections.emptyMap());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CompressManager.getINSTANCE().stop();
+    EnvironmentUtils.cleanEnv();
+    config.setEnableCompress(prevEnableCompress);
+    config.setEnableCompressUnseqMerge(prevEnableUnseqMerge);
+    config.setCompressRatio(prevCompressRatio);
+  }
+
+  private void insert(long time, double value) throws Exception {
+    TSRecord record = new TSRecord(time, storageGroup);
+    record.addTuple(new DoubleDataPoint(measurement, value));
+    StorageEngine.getInstance().insert(new InsertPlan(record));
+  }
+
+  @Test
+  public void testQueryAfterCompressWithUnseqFiles() throws Exception {
+    Map<Long, Double> expected = new TreeMap<>();
+    // two seqFiles of the even times in [2, 200]
+    for (long time = 2; time <= 200; time += 2) {
+      insert(time, time);
+      expected.put(time, (double) time);
+      if (time == 100) {
+        StorageEngine.getInstance().syncCloseAllProcessor();
+      }
+    }
+    StorageEngine.getInstance().syncCloseAllProcessor();
+    // one unseqFile inside [2, 200]: new odd times, and even times overwriting seq points
+    for (long time = 3; time <= 195; time += 6) {
+      insert(time, -time);
+      expected.put(time, (double) -time);
+    }
+    for (long time = 10; time <= 190; time += 10) {
+      insert(time, -time);
+      expected.put(time, (double) -time);
+    }
+    StorageEngine.getInstance().syncCloseAllProcessor();
+
+    StorageGroupProcessor processor = StorageEngine.getInstance().getProcessor(storageGroup);
+    QueryDataSource dataSource = processor.query(storageGroup, measurement, TEST_QUERY_CONTEXT,
+        null, null);
+    assertEquals(2, dataSource.getSeqResources().size());
+    assertEquals(1, dataSource.getUnseqResources().size());
+
+    processor.compress();
+    long startTime = System.currentTimeMillis();
+    while (processor.isCompressing()) {
+      assertTrue("compress does not end in time",
+          System.currentTimeMillis() - startTime < COMPRESS_TIMEOUT_MS);
+      Thread.sleep(100);
+    }
+
+    // the unseqFile is removed since all its points are in the compressed file
+    dataSource = processor.query(storageGroup, measurement, TEST_QUERY_CONTEXT, null, null);
+    assertEquals(0, dataSource.getUnseqResources().size());
+    assertFalse(dataSource.getSeqResources().isEmpty());
+
+    List<Path> paths = new ArrayList<>();
+    paths.add(new Path(storageGroup, measurement));
+    QueryDataSet dataSet = new EngineQueryRouter()
+        .query(QueryExpression.create(paths, null), TEST_QUERY_CONTEXT);
+    Map<Long, Double> actual = new TreeMap<>();
+    while (dataSet.hasNext()) {
+      RowRecord rowRecord = dataSet.next();
+      actual.put(rowRecord.getTimestamp(), rowRecord.getFields().get(0).getDoubleV());
+    }
+    assertEquals(expected, actual);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.compress.manage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.junit.Test;
+
+public class CompressResourceTest {
+
+  private static final String D0 = "root.sg.d0";
+  private static final String D1 = "root.sg.d1";
+
+  private int fileNum = 0;
+
+  /**
+   * @param ranges device, start time, end time, ...
+   */
+  private TsFileResource resource(Object... ranges) {
+    Map<String, Long> startTimeMap = new HashMap<>();
+    Map<String, Long> endTimeMap = new HashMap<>();
+    for (int i = 0; i < ranges.length; i += 3) {
+      startTimeMap.put((String) ranges[i], ((Number) ranges[i + 1]).longValue());
+      endTimeMap.put((String) ranges[i], ((Number) ranges[i + 2]).longValue());
+    }
+    fileNum++;
+    return new TsFileResource(new File(fileNum + "-" + fileNum + "-0.tsfile"), startTimeMap,
+        endTimeMap);
+  }
+
+  private List<TsFileResource> seqFiles() {
+    return Arrays.asList(resource(D0, 0, 100, D1, 0, 100), resource(D0, 101, 200, D1, 150, 300));
+  }
+
+  @Test
+  public void testCoveredUnseqFiles() {
+    TsFileResource inside = resource(D0, 50, 60, D1, 10, 290);
+    // covered by the two seqFiles together
+    TsFileResource acrossFiles = resource(D0, 90, 120);
+    CompressResource compressResource = new CompressResource(seqFiles(),
+        Arrays.asList(inside, acrossFiles), Long.MAX_VALUE - 1);
+
+    assertEquals(2, compressResource.getSeqFiles().size());
+    assertEquals(Arrays.asList(inside, acrossFiles), compressResource.getUnseqFiles());
+  }
+
+  @Test
+  public void testPartlyCoveredUnseqFilesExcluded() {
+    TsFileResource covered = resource(D0, 10, 20);
+    TsFileResource beforeSeq = resource(D0, -5, 20);
+    TsFileResource afterSeq = resource(D1, 250, 301);
+    // one device is covered while the other is not
+    TsFileResource oneDeviceOut = resource(D0, 10, 20, D1, 290, 400);
+    // the seqFiles hold no data of the device
+    TsFileResource unknownDevice = resource("root.sg.d2", 10, 20);
+    List<TsFileResource> unseqFiles = new ArrayList<>(
+        Arrays.asList(covered, beforeSeq, afterSeq, oneDeviceOut, unknownDevice));
+
+    CompressResource compressResource = new CompressResource(seqFiles(), unseqFiles,
+        Long.MAX_VALUE - 1);
+    assertEquals(Arrays.asList(covered), compressResource.getUnseqFiles());
+  }
+
+  @Test
+  public void testBusyUnseqFilesExcluded() {
+    TsFileResource unclosed = resource(D0, 10, 20);
+    unclosed.setClosed(false);
+    TsFileResource merging = resource(D0, 10, 20);
+    merging.setMerging(true);
+    TsFileResource compressing = resource(D0, 10, 20);
+    compressing.setCompressing(true);
+
+    CompressResource compressResource = new CompressResource(seqFiles(),
+        Arrays.asList(unclosed, merging, compressing), Long.MAX_VALUE - 1);
+    assertEquals(0, compressResource.getUnseqFiles().size());
+  }
+}
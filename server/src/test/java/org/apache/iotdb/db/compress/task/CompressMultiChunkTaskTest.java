@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.compress.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.compress.manage.MergeContext;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.seriesRelated.FakedIPointReader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.Schema;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+import org.junit.After;
+import org.junit.Test;
+
+public class CompressMultiChunkTaskTest {
+
+  private File file = new File("compressUnseqTail.tsfile");
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  /**
+   * a seq page of times 10, 20, ..., 100 whose value is time * 10.
+   */
+  private BatchData seqPage() {
+    BatchData batchData = new BatchData(TSDataType.INT64, true);
+    for (long time = 10; time <= 100; time += 10) {
+      batchData.putTime(time);
+      batchData.putLong(time * 10);
+    }
+    return batchData;
+  }
+
+  /**
+   * unseq points of times 20, 40, ..., 200 whose value is time.
+   */
+  private IPointReader unseqReader() {
+    return new FakedIPointReader(20, 10, 20, Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testMergeUnseqPointsInsidePage() throws IOException {
+    IPointReader unseqReader = unseqReader();
+    BatchData merged = CompressMultiChunkTask.mergeUnseqPoints(seqPage(), unseqReader, 100);
+
+    assertEquals(10, merged.length());
+    for (int i = 0; i < merged.length(); i++) {
+      long time = merged.getTimeByIndex(i);
+      assertEquals(10 * (i + 1), time);
+      // unseq points overwrite the seq points of the same time
+      long expected = time % 20 == 0 ? time : time * 10;
+      assertEquals(expected, merged.getLongByIndex(i));
+    }
+    // the points after the bound are left to the next page or file
+    assertTrue(unseqReader.hasNext());
+    assertEquals(120, unseqReader.current().getTimestamp());
+  }
+
+  @Test
+  public void testMergeUnseqPointsAfterPage() throws IOException {
+    IPointReader unseqReader = unseqReader();
+    BatchData merged = CompressMultiChunkTask.mergeUnseqPoints(seqPage(), unseqReader, 150);
+
+    // 10 seq times plus the unseq points 120 and 140 appended after the page
+    assertEquals(12, merged.length());
+    assertEquals(120, merged.getTimeByIndex(10));
+    assertEquals(120, merged.getLongByIndex(10));
+    assertEquals(140, merged.getTimeByIndex(11));
+    assertEquals(140, merged.getLongByIndex(11));
+    assertEquals(160, unseqReader.current().getTimestamp());
+  }
+
+  @Test
+  public void testMergeUnseqPointsWithoutUnseq() throws IOException {
+    BatchData page = seqPage();
+    IPointReader unseqReader = unseqReader();
+    // all unseq points are after the bound, the page is returned as it is
+    assertTrue(page == CompressMultiChunkTask.mergeUnseqPoints(page, unseqReader, 15));
+    assertTrue(page == CompressMultiChunkTask.mergeUnseqPoints(page, null, 100));
+    assertEquals(20, unseqReader.current().getTimestamp());
+  }
+
+  @Test
+  public void testWriteUnseqTail() throws IOException {
+    Path path = new Path("root.sg.d0", "s0");
+    MeasurementSchema measurementSchema = new MeasurementSchema("s0", TSDataType.INT64,
+        TSEncoding.PLAIN);
+    List<Path> series = Collections.singletonList(path);
+    MergeContext mergeContext = new MergeContext();
+    CompressMultiChunkTask task = new CompressMultiChunkTask(mergeContext, "test", null, null,
+        series, 1, Collections.singletonList(1), 0);
+
+    IPointReader unseqReader = unseqReader();
+    RestorableTsFileIOWriter writer = new RestorableTsFileIOWriter(file);
+    writer.startChunkGroup(path.getDevice());
+    // the points up to the end time of the device in the seq file are written after its chunks
+    task.writeUnseqTail(unseqReader, 70, new ChunkWriterImpl(measurementSchema), writer);
+    writer.endChunkGroup(0);
+    Schema schema = new Schema();
+    schema.registerMeasurement(measurementSchema);
+    writer.endFile(schema);
+
+    assertEquals(1, mergeContext.getTotalChunkWritten());
+    assertEquals(3, mergeContext.getTotalPointWritten());
+    assertEquals(80, unseqReader.current().getTimestamp());
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+      List<ChunkMetaData> chunkMetaDataList = reader.getChunkMetadataList(path);
+      assertEquals(1, chunkMetaDataList.size());
+      ChunkReader chunkReader = new ChunkReaderWithoutFilter(
+          reader.readMemChunk(chunkMetaDataList.get(0)));
+      long expectedTime = 20;
+      while (chunkReader.hasNextBatch()) {
+        BatchData batchData = chunkReader.nextBatch();
+        while (batchData.hasNext()) {
+          assertEquals(expectedTime, batchData.currentTime());
+          assertEquals(expectedTime, batchData.getLong());
+          expectedTime += 20;
+          batchData.next();
+        }
+      }
+      assertEquals(80, expectedTime);
+    }
+
+    // nothing is left before the bound, so no chunk is written
+    task.writeUnseqTail(unseqReader, 70, new ChunkWriterImpl(measurementSchema), writer);
+    assertEquals(1, mergeContext.getTotalChunkWritten());
+    assertFalse(unseqReader.current().getTimestamp() <= 70);
+  }
+}
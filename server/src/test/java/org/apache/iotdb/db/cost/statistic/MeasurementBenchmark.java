@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.cost.statistic;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.exception.path.PathException;
+import org.apache.iotdb.db.exception.storageGroup.StorageGroupException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+
+/**
+ * Bench the overhead of Measurement on insertBatch with mul-thread. Each round inserts the same
+ * batches once with performance stat disabled and once enabled.
+ */
+public class MeasurementBenchmark {
+
+  private static int numOfWorker = 32;
+  private static int numOfDevice = 32;
+  private static int numOfMeasurement = 10;
+  private static int batchSize = 100;
+  private static long numOfBatchPerWorker = 2000;
+  private static int numOfRound = 3;
+
+  private static String[] devices = new String[numOfDevice];
+  private static String prefix = "root.bench";
+  private static String[] measurements = new String[numOfMeasurement];
+
+  static {
+    for (int i = 0; i < numOfDevice; i++) {
+      devices[i] = prefix + "." + "device_" + i;
+    }
+    for (int i = 0; i < numOfMeasurement; i++) {
+      measurements[i] = "measurement_" + i;
+    }
+  }
+
+  private static void prepare()
+      throws MetadataException, PathException, IOException, StorageGroupException {
+    MManager manager = MManager.getInstance();
+    manager.setStorageGroupToMTree(prefix);
+    for (String device : devices) {
+      for (String measurement : measurements) {
+        manager.addPathToMTree(device + "." + measurement, TSDataType.INT64.toString(),
+            TSEncoding.PLAIN.toString());
+      }
+    }
+  }
+
+  private static void tearDown() throws IOException, StorageEngineException {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  public static void main(String[] args)
+      throws InterruptedException, IOException, MetadataException, PathException,
+      StorageEngineException, StorageGroupException, StartupException {
+    tearDown();
+    prepare();
+    Measurement.INSTANCE.start();
+    AtomicLong timeOffset = new AtomicLong();
+    // warm up
+    run(false, timeOffset);
+    for (int i = 0; i < numOfRound; i++) {
+      long disabled = run(false, timeOffset);
+      long enabled = run(true, timeOffset);
+      System.out.println(String.format(
+          "Round %d: stat disabled %dms, stat enabled %dms, overhead %.2f%%", i, disabled,
+          enabled, (enabled - disabled) * 100.0 / disabled));
+    }
+    Measurement.INSTANCE.stop();
+    tearDown();
+  }
+
+  /**
+   * @return elapsed time in ms
+   */
+  private static long run(boolean enableStat, AtomicLong timeOffset) throws InterruptedException {
+    if (enableStat) {
+      Measurement.INSTANCE.startStatistics();
+    } else {
+      Measurement.INSTANCE.stopStatistic();
+    }
+    long baseTime = timeOffset.getAndAdd(numOfBatchPerWorker * batchSize);
+    CountDownLatch latch = new CountDownLatch(numOfWorker);
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < numOfWorker; i++) {
+      new Worker(devices[i % numOfDevice], baseTime, latch).start();
+    }
+    latch.await();
+    return System.currentTimeMillis() - startTime;
+  }
+
+  private static BatchInsertPlan getBatch(String device, long startTime) {
+    List<Integer> dataTypes = new ArrayList<>();
+    Object[] columns = new Object[numOfMeasurement];
+    for (int i = 0; i < numOfMeasurement; i++) {
+      dataTypes.add(TSDataType.INT64.ordinal());
+      columns[i] = new long[batchSize];
+    }
+    long[] times = new long[batchSize];
+    for (int r = 0; r < batchSize; r++) {
+      times[r] = startTime + r;
+      for (int i = 0; i < numOfMeasurement; i++) {
+        ((long[]) columns[i])[r] = startTime + r;
+      }
+    }
+    BatchInsertPlan batchInsertPlan = new BatchInsertPlan(device, measurements, dataTypes);
+    batchInsertPlan.setTimes(times);
+    batchInsertPlan.setColumns(columns);
+    batchInsertPlan.setRowCount(batchSize);
+    return batchInsertPlan;
+  }
+
+  private static class Worker extends Thread {
+
+    private String device;
+    private long baseTime;
+    private CountDownLatch latch;
+
+    private Worker(String device, long baseTime, CountDownLatch latch) {
+      this.device = device;
+      this.baseTime = baseTime;
+      this.latch = latch;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (long i = 0; i < numOfBatchPerWorker; i++) {
+          BatchInsertPlan batchInsertPlan = getBatch(device, baseTime + i * batchSize);
+          long t1 = System.currentTimeMillis();
+          StorageEngine.getInstance().insertBatch(batchInsertPlan);
+          Measurement.INSTANCE.addOperationLatency(Operation.EXECUTE_RPC_BATCH_INSERT, t1);
+        }
+      } catch (StorageEngineException e) {
+        e.printStackTrace();
+      } finally {
+        latch.countDown();
+      }
+    }
+  }
+}
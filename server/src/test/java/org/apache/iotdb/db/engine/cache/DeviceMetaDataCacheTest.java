@@ -115,7 +115,7 @@ public class DeviceMetaDataCacheTest {
   public void test1() throws IOException {
     IoTDBDescriptor.getInstance().getConfig().setMetaDataCacheEnable(false);
     QueryDataSource queryDataSource = storageGroupProcessor
-        .query(deviceId0, measurementId5, context, null, null);
+        .query(deviceId0, measurementId0, context, null, null);
 
     List<TsFileResource> seqResources = queryDataSource.getSeqResources();
     List<TsFileResource> unseqResources = queryDataSource.getUnseqResources();
@@ -137,7 +137,7 @@ public class DeviceMetaDataCacheTest {
   public void test2() throws IOException {
     IoTDBDescriptor.getInstance().getConfig().setMetaDataCacheEnable(true);
     QueryDataSource queryDataSource = storageGroupProcessor
-        .query(deviceId0, measurementId5, context, null, null);
+        .query(deviceId0, measurementId0, context, null, null);
 
     List<TsFileResource> seqResources = queryDataSource.getSeqResources();
     List<TsFileResource> unseqResources = queryDataSource.getUnseqResources();
@@ -155,5 +155,22 @@ public class DeviceMetaDataCacheTest {
     Assert.assertEquals(0, metaDataList.size());
   }
 
+  @Test
+  public void testBloomFilter() throws IOException {
+    QueryDataSource queryDataSource = storageGroupProcessor
+        .query(deviceId0, measurementId5, context, null, null);
 
+    // measurementId5 is never written, so every closed file is skipped by its bloom filter
+    List<TsFileResource> seqResources = queryDataSource.getSeqResources();
+    List<TsFileResource> unseqResources = queryDataSource.getUnseqResources();
+    Assert.assertEquals(0, seqResources.size());
+    Assert.assertEquals(1, unseqResources.size());
+    Assert.assertFalse(unseqResources.get(0).isClosed());
+
+    queryDataSource = storageGroupProcessor
+        .query(deviceId0, measurementId0, context, null, null);
+    TsFileResource seqResource = queryDataSource.getSeqResources().get(0);
+    Assert.assertTrue(seqResource.mayContainSeries(deviceId0 + "." + measurementId0));
+    Assert.assertFalse(seqResource.mayContainSeries(deviceId0 + "." + measurementId5));
+  }
 }
@@ -21,12 +21,27 @@ package org.apache.iotdb.db.engine.memtable;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReaderWithoutFilter;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
@@ -79,4 +94,82 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getTsDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFlushMultiDeviceMemTableInParallel()
+      throws ExecutionException, InterruptedException, IOException {
+    int deviceNum = 6;
+    int measurementNum = 5;
+    int pointNum = 500;
+    Schema schema = new Schema();
+    for (int j = 0; j < measurementNum; j++) {
+      schema.registerMeasurement(new MeasurementSchema("s" + j, TSDataType.INT64,
+          TSEncoding.RLE));
+    }
+    // write in descending time order so that every series has to be sorted before encoding
+    for (long time = pointNum; time > 0; time--) {
+      for (int i = 0; i < deviceNum; i++) {
+        for (int j = 0; j < measurementNum; j++) {
+          memTable.write("d" + i, "s" + j, TSDataType.INT64, time, expectedValue(i, j, time));
+        }
+      }
+    }
+
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int prevParallelism = config.getFlushEncodingParallelism();
+    config.setFlushEncodingParallelism(3);
+    try {
+      new MemTableFlushTask(memTable, schema, writer, storageGroup).syncFlushMemTable();
+    } finally {
+      config.setFlushEncodingParallelism(prevParallelism);
+    }
+
+    // one chunk group per device in memtable order, each with the chunks in memtable order
+    List<ChunkGroupMetaData> chunkGroupMetaDataList = new ArrayList<>(
+        writer.getChunkGroupMetaDatas());
+    List<String> expectedDevices = new ArrayList<>(memTable.getMemTableMap().keySet());
+    assertEquals(deviceNum, chunkGroupMetaDataList.size());
+    writer.endFile(schema);
+
+    long prevOffset = -1;
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(filePath)) {
+      for (int k = 0; k < deviceNum; k++) {
+        ChunkGroupMetaData chunkGroupMetaData = chunkGroupMetaDataList.get(k);
+        String deviceId = expectedDevices.get(k);
+        assertEquals(deviceId, chunkGroupMetaData.getDeviceID());
+        assertTrue(chunkGroupMetaData.getStartOffsetOfChunkGroup() > prevOffset);
+        prevOffset = chunkGroupMetaData.getStartOffsetOfChunkGroup();
+
+        Map<String, IWritableMemChunk> series = memTable.getMemTableMap().get(deviceId);
+        List<String> expectedMeasurements = new ArrayList<>(series.keySet());
+        List<ChunkMetaData> chunkMetaDataList = chunkGroupMetaData.getChunkMetaDataList();
+        assertEquals(measurementNum, chunkMetaDataList.size());
+        int deviceIndex = Integer.parseInt(deviceId.substring(1));
+        for (int m = 0; m < measurementNum; m++) {
+          ChunkMetaData chunkMetaData = chunkMetaDataList.get(m);
+          assertEquals(expectedMeasurements.get(m), chunkMetaData.getMeasurementUid());
+          int measurementIndex = Integer.parseInt(chunkMetaData.getMeasurementUid().substring(1));
+
+          ChunkReader chunkReader = new ChunkReaderWithoutFilter(
+              reader.readMemChunk(chunkMetaData));
+          long expectedTime = 1;
+          while (chunkReader.hasNextBatch()) {
+            BatchData batchData = chunkReader.nextBatch();
+            while (batchData.hasNext()) {
+              assertEquals(expectedTime, batchData.currentTime());
+              assertEquals(expectedValue(deviceIndex, measurementIndex, expectedTime),
+                  batchData.getLong());
+              expectedTime++;
+              batchData.next();
+            }
+          }
+          assertEquals(pointNum + 1, expectedTime);
+        }
+      }
+    }
+  }
+
+  private static long expectedValue(int deviceIndex, int measurementIndex, long time) {
+    return time * 100 + deviceIndex * 10 + measurementIndex;
+  }
+}
@@ -22,6 +22,7 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.iotdb.db.rescon.MemTablePool;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -54,6 +55,19 @@ public class MemTablePoolTest {
     System.out.println("memtable pool use deque and synchronized consume:" + time);
   }
 
+  @Test
+  public void testCounters() {
+    MemTablePool pool = MemTablePool.getInstance();
+    long acquiredNum = pool.getAcquiredNum();
+    int freeNum = pool.getFreeNum();
+    IMemTable memTable = pool.getAvailableMemTable("test case");
+    Assert.assertEquals(acquiredNum + 1, pool.getAcquiredNum());
+    Assert.assertEquals(freeNum - 1, pool.getFreeNum());
+    Assert.assertEquals(0, pool.getWaitingNum());
+    pool.putBack(memTable, "test case");
+    Assert.assertEquals(freeNum, pool.getFreeNum());
+  }
+
   //@Test
   public void testSort() {
     long start = System.currentTimeMillis();
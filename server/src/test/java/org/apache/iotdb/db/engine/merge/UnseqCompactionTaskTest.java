@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.merge;
+
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.TSFILE_SUFFIX;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.engine.merge.task.UnseqCompactionTask;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.query.reader.IPointReader;
+import org.apache.iotdb.db.query.reader.resourceRelated.CachedUnseqResourceMergeReader;
+import org.apache.iotdb.db.utils.TimeValuePair;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Test;
+
+public class UnseqCompactionTaskTest extends MergeTest {
+
+  private TsFileResource newUnseqFile;
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    if (newUnseqFile != null) {
+      newUnseqFile.remove();
+    }
+    super.tearDown();
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    new UnseqCompactionTask(unseqResources, (files, newFile) -> newUnseqFile = newFile, "test")
+        .call();
+
+    assertNotNull(newUnseqFile);
+    // named after the last unseqFile with its merge version increased
+    assertEquals("5unseq-5-5-1.tsfile", newUnseqFile.getFile().getName());
+    assertTrue(new File(newUnseqFile.getFile().getPath() + TsFileResource.RESOURCE_SUFFIX)
+        .exists());
+    assertFalse(new File(newUnseqFile.getFile().getPath()
+        + UnseqCompactionTask.UNSEQ_COMPACTION_SUFFIX).exists());
+    for (String deviceId : deviceIds) {
+      assertEquals(0, (long) newUnseqFile.getStartTimeMap().get(deviceId));
+      assertEquals(ptNum * unseqFileNum - 1, (long) newUnseqFile.getEndTimeMap().get(deviceId));
+    }
+
+    // the last unseqFile covers all the others
+    IPointReader reader = readSeries(new Path(deviceIds[0],
+        measurementSchemas[0].getMeasurementId()));
+    long count = 0;
+    while (reader.hasNext()) {
+      TimeValuePair timeValuePair = reader.next();
+      assertEquals(count, timeValuePair.getTimestamp());
+      assertEquals(timeValuePair.getTimestamp() + 20000.0,
+          timeValuePair.getValue().getDouble(), 0.001);
+      count++;
+    }
+    reader.close();
+    assertEquals(ptNum * unseqFileNum, count);
+  }
+
+  @Test
+  public void testCompactionWithDeletion() throws Exception {
+    Path path = new Path(deviceIds[0], measurementSchemas[0].getMeasurementId());
+    TsFileResource lastFile = unseqResources.get(unseqResources.size() - 1);
+    lastFile.getModFile().write(new Deletion(path, 10000, 49));
+    lastFile.getModFile().close();
+
+    new UnseqCompactionTask(unseqResources, (files, newFile) -> newUnseqFile = newFile, "test")
+        .call();
+
+    IPointReader reader = readSeries(path);
+    long count = 0;
+    while (reader.hasNext()) {
+      TimeValuePair timeValuePair = reader.next();
+      long time = timeValuePair.getTimestamp();
+      // points before 20 of the first unseqFile are no longer overwritten
+      double expected = time < 20 ? time + 10000.0 : time + 20000.0;
+      assertTrue(time < 20 || time > 49);
+      assertEquals(expected, timeValuePair.getValue().getDouble(), 0.001);
+      count++;
+    }
+    reader.close();
+    assertEquals(ptNum * unseqFileNum - 30, count);
+  }
+
+  @Test
+  public void testCompactedFileNotRewritten() throws Exception {
+    int fileNumThreshold = 3;
+    List<TsFileResource> unseqFiles = new ArrayList<>();
+    List<TsFileResource> compactedFiles = new ArrayList<>();
+    for (int round = 0; round < fileNumThreshold; round++) {
+      List<TsFileResource> newFiles = new ArrayList<>();
+      for (int i = 0; i < fileNumThreshold; i++) {
+        int fileIndex = 100 + round * fileNumThreshold + i;
+        TsFileResource unseqFile = new TsFileResource(new File(fileIndex + "unseq"
+            + IoTDBConstant.TSFILE_NAME_SEPARATOR + fileIndex
+            + IoTDBConstant.TSFILE_NAME_SEPARATOR + fileIndex
+            + IoTDBConstant.TSFILE_NAME_SEPARATOR + 0 + TSFILE_SUFFIX));
+        prepareFile(unseqFile, fileIndex * ptNum, ptNum, 0);
+        // removed in tearDown
+        unseqResources.add(unseqFile);
+        newFiles.add(unseqFile);
+      }
+      unseqFiles.addAll(newFiles);
+
+      // the outputs of the earlier rounds are not compacted with the newly flushed files
+      List<TsFileResource> candidates = UnseqCompactionTask
+          .selectFiles(unseqFiles, fileNumThreshold);
+      assertEquals(newFiles, candidates);
+      new UnseqCompactionTask(candidates, (files, newFile) -> newUnseqFile = newFile, "test")
+          .call();
+      assertNotNull(newUnseqFile);
+      unseqFiles.removeAll(candidates);
+      unseqFiles.add(newUnseqFile);
+      unseqResources.add(newUnseqFile);
+      compactedFiles.add(newUnseqFile);
+    }
+    newUnseqFile = null;
+
+    // the outputs of the same merge version are compacted together
+    assertEquals(compactedFiles, UnseqCompactionTask.selectFiles(unseqFiles, fileNumThreshold));
+  }
+
+  private IPointReader readSeries(Path path) throws IOException {
+    List<Chunk> chunks = new ArrayList<>();
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(
+        newUnseqFile.getFile().getPath())) {
+      for (ChunkMetaData chunkMetaData : reader.getChunkMetadataList(path)) {
+        chunks.add(reader.readMemChunk(chunkMetaData));
+      }
+    }
+    return new CachedUnseqResourceMergeReader(chunks, TSDataType.DOUBLE);
+  }
+}
@@ -23,6 +23,9 @@ import static org.junit.Assert.assertFalse;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
 import org.apache.iotdb.db.engine.merge.manage.MergeManager;
@@ -176,6 +179,38 @@ public class StorageGroupProcessorTest {
     }
   }
 
+  @Test
+  public void testConcurrentInsertOfDevices() throws Exception {
+    int deviceNum = 8;
+    int pointNum = 100;
+    ExecutorService pool = Executors.newFixedThreadPool(deviceNum);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < deviceNum; i++) {
+      String device = deviceId + ".t" + i;
+      futures.add(pool.submit(() -> {
+        for (int j = 1; j <= pointNum; j++) {
+          TSRecord record = new TSRecord(j, device);
+          record.addTuple(
+              DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+          processor.insert(new InsertPlan(record));
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    for (int i = 0; i < deviceNum; i++) {
+      QueryDataSource queryDataSource = processor.query(deviceId + ".t" + i, measurementId,
+          context, null, null);
+      Assert.assertEquals(1, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(pointNum, queryDataSource.getSeqResources().get(0).getReadOnlyMemChunk()
+          .getSortedTimeValuePairList().size());
+    }
+  }
+
   @Test
   public void testMerge() throws QueryProcessException {
 
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.iotdb.db.integration;
+
+import static org.apache.iotdb.db.conf.IoTDBConstant.COUNTER;
+import static org.apache.iotdb.db.conf.IoTDBConstant.OPERATOR;
+import static org.apache.iotdb.db.conf.IoTDBConstant.VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iotdb.db.query.context.QueryProfile;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IoTDBExplainAnalyzeIT {
+
+  private static final String SERIES = "root.explain.d0.s0";
+
+  private IoTDB daemon;
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    EnvironmentUtils.closeStatMonitor();
+    daemon = IoTDB.getInstance();
+    daemon.active();
+    EnvironmentUtils.envSetUp();
+    prepareData();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    daemon.stop();
+    EnvironmentUtils.cleanEnv();
+  }
+
+  /**
+   * a sequence file of [1, 100] and an unsequence file overwriting [50, 60].
+   */
+  private void prepareData() throws SQLException {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.explain");
+      statement.execute("CREATE TIMESERIES " + SERIES + " WITH DATATYPE=INT64,ENCODING=PLAIN");
+      for (int time = 1; time <= 100; time++) {
+        statement.execute(
+            String.format("INSERT INTO root.explain.d0(timestamp,s0) VALUES(%d,%d)", time, time));
+      }
+      statement.execute("flush");
+      for (int time = 50; time <= 60; time++) {
+        statement.execute(
+            String.format("INSERT INTO root.explain.d0(timestamp,s0) VALUES(%d,%d)", time, -time));
+      }
+      statement.execute("flush");
+    }
+  }
+
+  @Test
+  public void testWithoutValueFilter() throws SQLException {
+    Map<String, Long> counters = explainAnalyze("SELECT s0 FROM root.explain.d0");
+
+    assertEquals(100, (long) counters.get("QUERY." + QueryProfile.ROWS));
+    assertTrue(counters.containsKey("QUERY." + QueryProfile.TIME));
+    assertEquals(1, (long) counters.get("SeqResourceIterateReader." + QueryProfile.FILES));
+    assertEquals(100, (long) counters.get("SeqResourceIterateReader." + QueryProfile.POINTS));
+    assertEquals(1, (long) counters.get("UnseqResourceMergeReader." + QueryProfile.FILES));
+    assertEquals(11, (long) counters.get("UnseqResourceMergeReader." + QueryProfile.POINTS));
+    assertTrue(counters.containsKey("UnseqResourceMergeReader." + QueryProfile.MERGE_TIME));
+  }
+
+  @Test
+  public void testWithValueFilter() throws SQLException {
+    Map<String, Long> counters = explainAnalyze("SELECT s0 FROM root.explain.d0 WHERE s0 > 90");
+
+    assertEquals(10, (long) counters.get("QUERY." + QueryProfile.ROWS));
+    // the filter series is read to generate the timestamps
+    assertEquals(1, (long) counters.get("SeqResourceIterateReader." + QueryProfile.FILES));
+    // the selected series is read by the generated timestamps
+    assertEquals(10, (long) counters.get("SeriesReaderByTimestamp." + QueryProfile.LOOKUPS));
+    assertEquals(10, (long) counters.get("SeriesReaderByTimestamp." + QueryProfile.POINTS));
+    assertTrue(counters.containsKey("SeriesReaderByTimestamp." + QueryProfile.LOOKUP_TIME));
+    assertEquals(1, (long) counters.get("SeqResourceReaderByTimestamp." + QueryProfile.FILES));
+    assertEquals(1, (long) counters.get("UnseqResourceReaderByTimestamp." + QueryProfile.FILES));
+  }
+
+  /**
+   * @return the counters of the query keyed by "operator.counter", where the operator is without
+   * its indent
+   */
+  private Map<String, Long> explainAnalyze(String query) throws SQLException {
+    Map<String, Long> counters = new HashMap<>();
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      assertTrue(statement.execute("EXPLAIN ANALYZE " + query));
+      boolean hasSeries = false;
+      try (ResultSet resultSet = statement.getResultSet()) {
+        while (resultSet.next()) {
+          String operator = resultSet.getString(OPERATOR);
+          String counter = resultSet.getString(COUNTER);
+          if (operator.trim().equals(SERIES)) {
+            // a series only groups its readers
+            assertEquals("  " + SERIES, operator);
+            assertEquals(null, counter);
+            hasSeries = true;
+            continue;
+          }
+          counters.put(operator.trim() + "." + counter, resultSet.getLong(VALUE));
+        }
+      }
+      assertTrue(hasSeries);
+    }
+    return counters;
+  }
+}
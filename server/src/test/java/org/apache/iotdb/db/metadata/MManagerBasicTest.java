@@ -26,6 +26,9 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.path.PathException;
@@ -393,4 +396,45 @@ public class MManagerBasicTest {
     }
     assertTrue(caughtException);
   }
+
+  @Test
+  public void testConcurrentAddPath() throws Exception {
+    MManager manager = MManager.getInstance();
+    int sgNum = 4;
+    int seriesNum = 100;
+    for (int i = 0; i < sgNum; i++) {
+      manager.setStorageGroupToMTree("root.sg" + i);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(sgNum);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < sgNum; i++) {
+      String storageGroup = "root.sg" + i;
+      futures.add(pool.submit(() -> {
+        for (int j = 0; j < seriesNum; j++) {
+          String path = storageGroup + ".d" + j % 10 + ".s" + j;
+          manager.addPathToMTree(path, TSDataType.INT64, TSEncoding.RLE, compressionType,
+              Collections.emptyMap());
+          // lookups of other storage groups go on while timeseries are created
+          assertEquals(TSDataType.INT64, manager.getSeriesType(path));
+          assertEquals(storageGroup, manager.getStorageGroupNameByPath(path));
+        }
+        return null;
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    for (int i = 0; i < sgNum; i++) {
+      assertEquals(seriesNum, manager.getSeriesNumber("root.sg" + i));
+    }
+    assertEquals(seriesNum, manager.getMaximalSeriesNumberAmongStorageGroups());
+    // children keep the order of creation
+    List<String> paths = manager.getPaths("root.sg0.d0");
+    assertEquals(seriesNum / 10, paths.size());
+    for (int j = 0; j < paths.size(); j++) {
+      assertEquals("root.sg0.d0.s" + j * 10, paths.get(j));
+    }
+  }
 }
@@ -23,6 +23,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -361,4 +363,41 @@ public class MTreeTest {
       fail(e.getMessage());
     }
   }
+
+  @Test
+  public void testSerializeAndDeserialize() throws Exception {
+    MTree root = new MTree("root");
+    root.setStorageGroup("root.laptop");
+    root.setStorageGroup("root.vehicle.d0");
+    root.getNode("root.laptop").setDataTTL(1000);
+    root.addTimeseriesPath("root.laptop.d1.s0", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.singletonMap("max_point_number", "2"));
+    root.addTimeseriesPath("root.laptop.d2.s0", TSDataType.INT32, TSEncoding.RLE,
+        CompressionType.SNAPPY, Collections.emptyMap());
+    root.addTimeseriesPath("root.vehicle.d0.s1", TSDataType.DOUBLE, TSEncoding.GORILLA,
+        CompressionType.UNCOMPRESSED, null);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    root.serializeTo(outputStream);
+    MTree newRoot = MTree
+        .deserializeFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    assertEquals(root.toString(), newRoot.toString());
+    assertEquals(1000, newRoot.getNode("root.laptop").getDataTTL());
+    assertEquals(root.getNode("root.vehicle.d0").getDataTTL(),
+        newRoot.getNode("root.vehicle.d0").getDataTTL());
+    assertEquals("2", newRoot.getNode("root.laptop.d1.s0").getSchema().getProps()
+        .get("max_point_number"));
+    assertEquals("root.laptop", newRoot.getNode("root.laptop.d2.s0").getDataFileName());
+    assertEquals(root.getNode("root.laptop.d1").getDataFileName(),
+        newRoot.getNode("root.laptop.d1").getDataFileName());
+
+    // schema maps of storage groups are rebuilt from leaves
+    MNode sgNode = newRoot.getNode("root.laptop");
+    assertEquals(1, sgNode.getSchemaMap().size());
+    assertEquals(TSDataType.INT32, sgNode.getSchemaMap().get("s0").getType());
+    assertEquals(2, (int) sgNode.getNumSchemaMap().get("s0"));
+    assertEquals(1, (int) newRoot.getNode("root.vehicle.d0").getNumSchemaMap().get("s1"));
+    assertEquals(3, newRoot.getRoot().getLeafCount());
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metrics.source;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.apache.iotdb.db.metrics.sink.PrometheusTextFormat;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBuckets() {
+    long[] values = {0, 1, 31, 32, 33, 63, 64, 1000, 123456789L, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = LatencyHistogram.indexOf(value);
+      assertTrue(LatencyHistogram.lowestValueOf(index) <= value);
+      assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+      // the relative error is below 1/32
+      assertTrue(LatencyHistogram.highestValueOf(index) - LatencyHistogram.lowestValueOf(index)
+          <= Math.max(0, value / 32));
+    }
+    for (int i = 1; i < LatencyHistogram.indexOf(Long.MAX_VALUE); i++) {
+      assertEquals(LatencyHistogram.highestValueOf(i - 1) + 1, LatencyHistogram.lowestValueOf(i));
+    }
+  }
+
+  @Test
+  public void testPercentile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000);
+    }
+    histogram.record(-1);
+    assertEquals(10001, histogram.getCount());
+    assertEquals(10000L * 10001 / 2 * 1000, histogram.getSum());
+    assertEquals(0, histogram.getValueAtPercentile(0));
+    long median = histogram.getValueAtPercentile(50);
+    assertTrue(Math.abs(median - 5000 * 1000) <= 5000 * 1000 / 32);
+    long p99 = histogram.getValueAtPercentile(99);
+    assertTrue(Math.abs(p99 - 9900 * 1000) <= 9900 * 1000 / 32);
+    assertEquals(10001, histogram.getCountAtOrBelow(Long.MAX_VALUE));
+    assertEquals(1, histogram.getCountAtOrBelow(0));
+  }
+
+  @Test
+  public void testPrometheusFormat() throws IOException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(2_000_000);
+    histogram.record(2_000_000_000L);
+    StringWriter writer = new StringWriter();
+    PrometheusTextFormat format = new PrometheusTextFormat(writer);
+    format.writeHistogram("iotdb_test_seconds", "Test.", histogram);
+    format.writeCounter("iotdb_test_total", "Test.", 3);
+    String text = writer.toString();
+    assertTrue(text.contains("# TYPE iotdb_test_seconds histogram\n"));
+    assertTrue(text.contains("iotdb_test_seconds_bucket{le=\"0.001\"} 0\n"));
+    assertTrue(text.contains("iotdb_test_seconds_bucket{le=\"0.005\"} 1\n"));
+    assertTrue(text.contains("iotdb_test_seconds_bucket{le=\"5.0\"} 2\n"));
+    assertTrue(text.contains("iotdb_test_seconds_bucket{le=\"+Inf\"} 2\n"));
+    assertTrue(text.contains("iotdb_test_seconds_sum 2.002\n"));
+    assertTrue(text.contains("iotdb_test_seconds_count 2\n"));
+    assertTrue(text.contains("# TYPE iotdb_test_total counter\niotdb_test_total 3\n"));
+    assertEquals("iot_metrics_cpu_ratio", PrometheusTextFormat.sanitize("iot-metrics.cpu_ratio"));
+  }
+}
@@ -185,6 +185,21 @@ public class PhysicalPlanTest {
     assertEquals(true, compressPlan.isQueryCompressRatio());
   }
 
+  @Test
+  public void testExplainAnalyze()
+      throws QueryProcessException, MetadataException {
+    String sqlStr = "explain analyze select count(s1) from root.vehicle.d1 where time <= now()";
+    PhysicalPlan plan = processor.parseSQLToPhysicalPlan(sqlStr);
+    if (!plan.isQuery()) {
+      fail();
+    }
+    assertEquals(OperatorType.AGGREGATION, plan.getOperatorType());
+    assertTrue(((QueryPlan) plan).isExplainAnalyze());
+
+    plan = processor.parseSQLToPhysicalPlan("select s1 from root.vehicle.d1");
+    assertEquals(false, ((QueryPlan) plan).isExplainAnalyze());
+  }
+
   @Test
   public void testFill1()
       throws QueryProcessException, MetadataException {
@@ -22,10 +22,12 @@ import java.io.IOException;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.context.QueryProfile;
 import org.apache.iotdb.db.query.reader.ReaderTestHelper;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -52,6 +54,50 @@ public class SeqResourceReaderTest extends ReaderTestHelper {
     Assert.assertEquals(5049L, time);
   }
 
+  @Test
+  public void testSeqResourceIterateReaderWithValueFilter() throws IOException {
+    QueryContext queryContext = new QueryContext();
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId,
+        queryContext, null);
+    Path path = new Path(deviceId, measurementId);
+    SeqResourceIterateReader reader = new SeqResourceIterateReader(path,
+        queryDataSource.getSeqResources(), ValueFilter.gtEq(3020), queryContext);
+    long time = 3019;
+    while (reader.hasNext()) {
+      BatchData batchData = reader.nextBatch();
+      while (batchData.hasNext()) {
+        time++;
+        Assert.assertEquals(time, batchData.currentTime());
+        batchData.next();
+      }
+    }
+    Assert.assertEquals(5049L, time);
+    // the sealed files holding values below 3020 are never opened
+    Assert.assertTrue(queryContext.getPrunedFileNum() > 0);
+  }
+
+  @Test
+  public void testSeqResourceIterateReaderProfile() throws IOException {
+    QueryContext queryContext = new QueryContext();
+    queryContext.enableProfile("test");
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId,
+        queryContext, null);
+    Path path = new Path(deviceId, measurementId);
+    SeqResourceIterateReader reader = new SeqResourceIterateReader(path,
+        queryDataSource.getSeqResources(), ValueFilter.gtEq(3020), queryContext);
+    long pointNum = 0;
+    while (reader.hasNext()) {
+      pointNum += reader.nextBatch().length();
+    }
+    QueryProfile profile = queryContext
+        .getReaderProfile(path, SeqResourceIterateReader.class.getSimpleName());
+    Assert.assertEquals(pointNum, profile.get(QueryProfile.POINTS));
+    Assert.assertTrue(profile.get(QueryProfile.FILES) > 0);
+    Assert.assertTrue(profile.get(QueryProfile.PRUNED_FILES) > 0);
+    Assert.assertTrue(profile.get(QueryProfile.CHUNKS) > 0);
+    Assert.assertTrue(profile.get(QueryProfile.PAGES) > 0);
+  }
+
   @Test
   public void testSeqResourceReaderByTimestamp() throws IOException {
     QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId, context,
@@ -77,6 +123,25 @@ public class SeqResourceReaderTest extends ReaderTestHelper {
 
   }
 
+  @Test
+  public void testSeqResourceReaderByTimestampProfile() throws IOException {
+    QueryContext queryContext = new QueryContext();
+    queryContext.enableProfile("test");
+    QueryDataSource queryDataSource = storageGroupProcessor.query(deviceId, measurementId,
+        queryContext, null);
+    Path path = new Path(deviceId, measurementId);
+    SeqResourceReaderByTimestamp reader = new SeqResourceReaderByTimestamp(path,
+        queryDataSource.getSeqResources(), queryContext);
+    for (int time = 5040; time <= 5049; time += 2) {
+      Assert.assertEquals(time, (int) reader.getValueInTimestamp(time));
+    }
+    // the files ending before 5040 are skipped without being opened
+    QueryProfile profile = queryContext
+        .getReaderProfile(path, SeqResourceReaderByTimestamp.class.getSimpleName());
+    Assert.assertEquals(1, profile.get(QueryProfile.FILES));
+    Assert.assertTrue(profile.get(QueryProfile.PRUNED_FILES) > 0);
+  }
+
   @Override
   protected void insertData() throws IOException, QueryProcessException {
     for (int j = 1000; j <= 1009; j++) {
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.memtable.IMemTable;
+import org.apache.iotdb.db.engine.storagegroup.StorageGroupProcessor;
+import org.apache.iotdb.db.exception.storageGroup.StorageGroupProcessorException;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemTableControllerTest {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  private String systemDir = "data/info";
+  private int prevMaxMemtableNumber;
+
+  private StubProcessor cold;
+  private StubProcessor warm;
+  private StubProcessor hot;
+  private List<StorageGroupProcessor> flushedProcessors = new ArrayList<>();
+
+  private volatile double heapUsage = 0;
+  private MemTableController controller;
+
+  @Before
+  public void setUp() throws Exception {
+    MetadataManagerHelper.initMetadata();
+    EnvironmentUtils.envSetUp();
+    prevMaxMemtableNumber = CONFIG.getMaxMemtableNumber();
+    // enough free memtables, so there is no pool pressure unless a test takes them
+    CONFIG.setMaxMemtableNumber(MemTablePool.getInstance().getSize() + 10);
+
+    cold = new StubProcessor("root.vehicle.d0", 100);
+    warm = new StubProcessor("root.vehicle.d1", 200);
+    hot = new StubProcessor("root.vehicle.d2", 300);
+    List<StorageGroupProcessor> processors = Arrays.asList(warm, hot, cold);
+    controller = new MemTableController(() -> processors, () -> heapUsage);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CONFIG.setMaxMemtableNumber(prevMaxMemtableNumber);
+    for (StubProcessor processor : new StubProcessor[]{cold, warm, hot}) {
+      processor.syncDeleteDataFiles();
+    }
+    EnvironmentUtils.cleanEnv();
+    EnvironmentUtils.cleanDir("data");
+  }
+
+  @Test
+  public void testHeapPressure() {
+    heapUsage = CONFIG.getMemtableHeapPressureThreshold() + 0.1;
+    controller.check();
+    assertEquals(0.5, controller.getSizeRatio(), 0.0);
+    assertEquals(Collections.singletonList(cold), flushedProcessors);
+    controller.check();
+    assertEquals(0.25, controller.getSizeRatio(), 0.0);
+    assertEquals(Arrays.asList(cold, cold), flushedProcessors);
+
+    // the ratio steps back to 1 once the pressure clears
+    heapUsage = 0;
+    flushedProcessors.clear();
+    double sizeRatio = 0.25;
+    while (sizeRatio < 1) {
+      controller.check();
+      sizeRatio += 0.125;
+      assertEquals(sizeRatio, controller.getSizeRatio(), 0.0);
+    }
+    controller.check();
+    assertEquals(1.0, controller.getSizeRatio(), 0.0);
+    assertEquals(Collections.emptyList(), flushedProcessors);
+  }
+
+  @Test
+  public void testMinSizeRatio() {
+    heapUsage = CONFIG.getMemtableHeapPressureThreshold() + 0.1;
+    for (int i = 0; i < 10; i++) {
+      controller.check();
+    }
+    assertEquals(0.125, controller.getSizeRatio(), 0.0);
+  }
+
+  @Test
+  public void testPoolPressure() {
+    MemTablePool pool = MemTablePool.getInstance();
+    List<IMemTable> takenMemTables = new ArrayList<>();
+    try {
+      // leave no free memtable, after one is taken since the last check
+      while (pool.getFreeNum() > 0) {
+        takenMemTables.add(pool.getAvailableMemTable("test case"));
+      }
+      CONFIG.setMaxMemtableNumber(pool.getSize() + 1);
+      takenMemTables.add(pool.getAvailableMemTable("test case"));
+      // a flush lasts long enough for many more memtables to be taken
+      controller.recordFlushLatency(Integer.MAX_VALUE);
+
+      controller.check();
+      assertEquals(0.5, controller.getSizeRatio(), 0.0);
+      // the least recently written storage groups are flushed first
+      assertEquals(Arrays.asList(cold, warm, hot), flushedProcessors);
+    } finally {
+      CONFIG.setMaxMemtableNumber(prevMaxMemtableNumber);
+      for (IMemTable memTable : takenMemTables) {
+        pool.putBack(memTable, "test case");
+      }
+    }
+  }
+
+  @Test
+  public void testReservedNum() {
+    // 10 memtables taken in 1s, 5 of them are taken while a memtable is flushed in 500ms
+    assertEquals(5, MemTableController.getReservedNum(10, 1000, 500));
+    assertEquals(1, MemTableController.getReservedNum(1, 1000, 500));
+    assertEquals(1, MemTableController.getReservedNum(0, 1000, 500));
+    assertEquals(1, MemTableController.getReservedNum(10, 1000, 0));
+  }
+
+  class StubProcessor extends StorageGroupProcessor {
+
+    private long lastInsertTime;
+
+    StubProcessor(String storageGroupName, long lastInsertTime)
+        throws StorageGroupProcessorException {
+      super(systemDir, storageGroupName);
+      this.lastInsertTime = lastInsertTime;
+    }
+
+    @Override
+    public long getLastInsertTime() {
+      return lastInsertTime;
+    }
+
+    @Override
+    public int tryAsyncFlushWorkingMemTables() {
+      flushedProcessors.add(this);
+      return 1;
+    }
+  }
+}
@@ -26,8 +26,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -43,9 +47,13 @@ import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.db.sync.receiver.load.FileLoader;
+import org.apache.iotdb.db.sync.receiver.load.FileLoader.LoadTask;
 import org.apache.iotdb.db.sync.receiver.load.FileLoaderManager;
 import org.apache.iotdb.db.sync.receiver.load.FileLoaderTest;
 import org.apache.iotdb.db.sync.receiver.load.IFileLoader;
+import org.apache.iotdb.db.sync.receiver.load.ILoadLogger;
+import org.apache.iotdb.db.sync.receiver.load.LoadLogger;
+import org.apache.iotdb.db.sync.receiver.load.LoadType;
 import org.apache.iotdb.db.sync.conf.SyncConstant;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.junit.After;
@@ -200,6 +208,65 @@ public class SyncReceiverLogAnalyzerTest {
     assertFalse(new File(getReceiverFolderFile(), SyncConstant.SYNC_LOG_NAME).exists());
   }
 
+  @Test
+  public void scanInterleavedLoadLog() throws IOException {
+    File syncLog = new File(getReceiverFolderFile(), SyncConstant.SYNC_LOG_NAME);
+    File loadLog = new File(getReceiverFolderFile(), SyncConstant.LOAD_LOG_NAME);
+    receiverLogger = new SyncReceiverLogger(syncLog);
+    receiverLogger.startSyncDeletedFilesName();
+    receiverLogger.finishSyncDeletedFileName(new File(getSnapshotFolder(), "root.sg0/d0"));
+    receiverLogger.finishSyncDeletedFileName(new File(getSnapshotFolder(), "root.sg1/d1"));
+    receiverLogger.startSyncTsFiles();
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 2; j++) {
+        receiverLogger.finishSyncTsfile(new File(getSnapshotFolder(), SG_NAME + i + "/t" + j));
+      }
+    }
+    receiverLogger.close();
+
+    // root.sg1 goes ahead of root.sg0 since storage groups are loaded concurrently
+    ILoadLogger loadLogger = new LoadLogger(loadLog);
+    loadLogger.startLoadDeletedFiles();
+    loadLogger.finishLoadDeletedFile(new File(getSnapshotFolder(), "root.sg1/d1"));
+    loadLogger.startLoadTsFiles();
+    loadLogger.finishLoadTsfile(new File(getSnapshotFolder(), "root.sg1/t0"));
+    loadLogger.finishLoadTsfile(new File(getSnapshotFolder(), "root.sg1/t1"));
+    loadLogger.finishLoadTsfile(new File(getSnapshotFolder(), "root.sg2/t0"));
+    loadLogger.close();
+
+    List<String> deleted = new ArrayList<>();
+    List<String> added = new ArrayList<>();
+    logAnalyze.scanLogger(new IFileLoader() {
+      @Override
+      public void addDeletedFileName(File deletedFile) {
+        deleted.add(deletedFile.getParentFile().getName() + "/" + deletedFile.getName());
+      }
+
+      @Override
+      public void addTsfile(File tsfile) {
+        added.add(tsfile.getParentFile().getName() + "/" + tsfile.getName());
+      }
+
+      @Override
+      public void endSync() {
+      }
+
+      @Override
+      public void handleLoadTask(LoadTask task) {
+      }
+
+      @Override
+      public void setCurType(LoadType curType) {
+      }
+
+      @Override
+      public void cleanUp() {
+      }
+    }, syncLog, loadLog);
+
+    assertEquals(Collections.singletonList("root.sg0/d0"), deleted);
+    assertEquals(Arrays.asList("root.sg0/t0", "root.sg0/t1", "root.sg2/t1"), added);
+  }
 
   private File getReceiverFolderFile() {
     return new File(dataDir + File.separatorChar + SyncConstant.SYNC_RECEIVER + File.separatorChar
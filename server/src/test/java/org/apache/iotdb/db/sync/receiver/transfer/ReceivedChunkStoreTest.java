@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.receiver.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.sync.ChunkDigest;
+import org.apache.iotdb.db.sync.conf.SyncConstant;
+import org.apache.iotdb.db.utils.SyncUtils;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReceivedChunkStoreTest {
+
+  private static final String STORAGE_GROUP = "root.sg";
+
+  private File dir = new File("target" + File.separatorChar + "chunkStoreTest");
+  private File storeDir = new File(dir, SyncConstant.RECEIVER_CHUNK_STORE_FOLDER_NAME);
+  private ReceivedChunkStore store;
+
+  @Before
+  public void setUp() {
+    dir.mkdirs();
+    store = new ReceivedChunkStore(storeDir);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(dir);
+  }
+
+  private File prepareFile(String name) throws IOException, WriteProcessException {
+    File file = new File(dir, name);
+    TsFileWriter writer = new TsFileWriter(file);
+    for (int i = 0; i < 3; i++) {
+      writer.addMeasurement(new MeasurementSchema("s" + i, TSDataType.INT64, TSEncoding.RLE));
+    }
+    for (long time = 0; time < 100; time++) {
+      TSRecord record = new TSRecord(time, STORAGE_GROUP + ".d0");
+      for (int i = 0; i < 3; i++) {
+        record.addTuple(new LongDataPoint("s" + i, time * i));
+      }
+      writer.write(record);
+      if ((time + 1) % 50 == 0) {
+        writer.flushForTest();
+      }
+    }
+    writer.close();
+    return file;
+  }
+
+  @Test
+  public void testTransferChunk()
+      throws IOException, WriteProcessException, NoSuchAlgorithmException {
+    File tsfile = prepareFile("1-1-0.tsfile");
+    List<ChunkDigest> chunkDigests = SyncUtils.getChunkDigests(tsfile);
+    assertEquals(6, chunkDigests.size());
+
+    assertFalse(store.contains(chunkDigests.get(0).getDigest()));
+    store.addFile(STORAGE_GROUP, tsfile);
+    // the received file is moved away by loading
+    byte[] bytes = Files.readAllBytes(tsfile.toPath());
+    Files.move(tsfile.toPath(), new File(dir, "loaded.tsfile").toPath());
+    for (ChunkDigest chunkDigest : chunkDigests) {
+      assertTrue(store.contains(chunkDigest.getDigest()));
+    }
+
+    File output = new File(dir, "output");
+    MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+    ChunkDigest chunkDigest = chunkDigests.get(3);
+    try (FileChannel channel = new FileOutputStream(output).getChannel()) {
+      assertTrue(store.transferChunk(chunkDigest.getDigest(), channel, md));
+      assertFalse(store.transferChunk("unknown", channel, md));
+    }
+    byte[] expected = Arrays.copyOfRange(bytes, (int) chunkDigest.getOffset(),
+        (int) chunkDigest.getOffset() + chunkDigest.getLength());
+    assertArrayEquals(expected, Files.readAllBytes(output.toPath()));
+  }
+
+  @Test
+  public void testDeletedFile() throws IOException, WriteProcessException {
+    File tsfile = prepareFile("1-1-0.tsfile");
+    List<ChunkDigest> chunkDigests = SyncUtils.getChunkDigests(tsfile);
+    store.addFile(STORAGE_GROUP, tsfile);
+
+    // chunks of a deleted file are kept until the sync ends
+    store.markDeleted(STORAGE_GROUP, tsfile.getName());
+    assertTrue(store.contains(chunkDigests.get(0).getDigest()));
+    // a new store loads the digests from the disk
+    store = new ReceivedChunkStore(storeDir);
+    assertTrue(store.contains(chunkDigests.get(0).getDigest()));
+
+    store.removeDeletedFiles();
+    assertFalse(store.contains(chunkDigests.get(0).getDigest()));
+    assertEquals(0, new File(storeDir, STORAGE_GROUP).listFiles().length);
+  }
+
+  @Test
+  public void testRemovedByReceiver() throws IOException, WriteProcessException {
+    File tsfile = prepareFile("1-1-0.tsfile");
+    List<ChunkDigest> chunkDigests = SyncUtils.getChunkDigests(tsfile);
+    store.addFile(STORAGE_GROUP, tsfile);
+    File loadedFile = new File(dir, "loaded.tsfile");
+    Files.move(tsfile.toPath(), loadedFile.toPath());
+    store = new ReceivedChunkStore(storeDir);
+    assertTrue(store.contains(chunkDigests.get(0).getDigest()));
+
+    // the receiver merges the loaded file into another one
+    assertTrue(loadedFile.delete());
+    store.removeDeletedFiles();
+    assertEquals(0, new File(storeDir, STORAGE_GROUP).listFiles().length);
+    assertFalse(store.contains(chunkDigests.get(0).getDigest()));
+
+    // links whose tsfiles are removed between two syncs are not loaded either
+    tsfile = prepareFile("1-1-0.tsfile");
+    store.addFile(STORAGE_GROUP, tsfile);
+    assertTrue(tsfile.delete());
+    store = new ReceivedChunkStore(storeDir);
+    assertFalse(store.contains(chunkDigests.get(0).getDigest()));
+    assertEquals(0, new File(storeDir, STORAGE_GROUP).listFiles().length);
+  }
+}
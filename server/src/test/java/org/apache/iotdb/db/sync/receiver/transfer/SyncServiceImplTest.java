@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.receiver.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.sync.conf.SyncConstant;
+import org.apache.iotdb.db.sync.receiver.load.FileLoader.LoadTask;
+import org.apache.iotdb.db.sync.receiver.load.FileLoaderManager;
+import org.apache.iotdb.db.sync.receiver.load.IFileLoader;
+import org.apache.iotdb.db.sync.receiver.load.LoadType;
+import org.apache.iotdb.db.sync.receiver.recover.SyncReceiverLogger;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.service.sync.thrift.SyncStatus;
+import org.apache.thrift.TException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyncServiceImplTest {
+
+  private static final String SG_NAME = "root.sg";
+  private static final String SENDER_IP = "127.0.0.1";
+  private static final String SENDER_UUID = "uuid";
+  private static final String SENDER_NAME =
+      SENDER_IP + SyncConstant.SYNC_DIR_NAME_SEPARATOR + SENDER_UUID;
+
+  private SyncServiceImpl receiver = new SyncServiceImpl();
+
+  /**
+   * records the tsfiles to be loaded instead of loading them.
+   */
+  private RecordingFileLoader fileLoader = new RecordingFileLoader();
+
+  @Before
+  public void setUp() throws StartupException, IOException {
+    EnvironmentUtils.envSetUp();
+    FileLoaderManager.getInstance().start();
+  }
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    FileLoaderManager.getInstance().stop();
+    EnvironmentUtils.cleanEnv();
+  }
+
+  private void startSync() throws TException {
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.check(SENDER_IP, SENDER_UUID).code);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.startSync().code);
+    FileLoaderManager.getInstance().addFileLoader(SENDER_NAME, fileLoader);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.init(SG_NAME).code);
+  }
+
+  @Test
+  public void testResumeSyncData()
+      throws TException, IOException, NoSuchAlgorithmException, WriteProcessException {
+    startSync();
+    byte[] bytes = tsfileBytes(0);
+    String fileName = "1-1-0.tsfile";
+
+    assertEquals("0", receiver.resumeSyncData(fileName).msg);
+    assertEquals(SyncConstant.SUCCESS_CODE,
+        receiver.syncData(ByteBuffer.wrap(Arrays.copyOf(bytes, 400))).code);
+    // the connection breaks, and the sender resumes the file in a new sync
+    startSync();
+    SyncStatus status = receiver.resumeSyncData(fileName);
+    assertEquals(SyncConstant.SUCCESS_CODE, status.code);
+    assertEquals("400", status.msg);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver
+        .syncData(ByteBuffer.wrap(Arrays.copyOfRange(bytes, 400, bytes.length))).code);
+    // the MD5 covers the part received before
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.checkDataMD5(md5(bytes)).code);
+
+    assertEquals(1, fileLoader.tsfiles.size());
+    assertArrayEquals(bytes, Files.readAllBytes(fileLoader.tsfiles.get(0).toPath()));
+  }
+
+  @Test
+  public void testRestartAfterMD5Mismatch()
+      throws TException, IOException, NoSuchAlgorithmException, WriteProcessException {
+    startSync();
+    byte[] bytes = tsfileBytes(0);
+    String fileName = "1-1-0.tsfile";
+
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.initSyncData(fileName).code);
+    byte[] damaged = Arrays.copyOf(bytes, bytes.length);
+    damaged[100]++;
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.syncData(ByteBuffer.wrap(damaged)).code);
+    assertEquals(SyncConstant.ERROR_CODE, receiver.checkDataMD5(md5(bytes)).code);
+    assertTrue(fileLoader.tsfiles.isEmpty());
+
+    // the damaged data is dropped, so the file is sent again from the beginning
+    assertEquals("0", receiver.resumeSyncData(fileName).msg);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.syncData(ByteBuffer.wrap(bytes)).code);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.checkDataMD5(md5(bytes)).code);
+
+    assertEquals(1, fileLoader.tsfiles.size());
+    assertArrayEquals(bytes, Files.readAllBytes(fileLoader.tsfiles.get(0).toPath()));
+  }
+
+  @Test
+  public void testJoinedConnectionsLoadInLogOrder() throws Exception {
+    startSync();
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      Future<Void> joined = pool.submit(() -> {
+        assertEquals(SyncConstant.SUCCESS_CODE,
+            receiver.joinSync(SENDER_IP, SENDER_UUID, SG_NAME).code);
+        sendFiles(1);
+        return null;
+      });
+      sendFiles(0);
+      joined.get();
+    } finally {
+      pool.shutdownNow();
+    }
+    File syncLog = new File(fileLoader.tsfiles.get(0).getParentFile().getParentFile()
+        .getParentFile(), SyncConstant.SYNC_LOG_NAME);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.endSync().code);
+    assertTrue(fileLoader.endSync);
+
+    assertEquals(40, fileLoader.tsfiles.size());
+    List<String> loadedFiles = new ArrayList<>();
+    for (File tsfile : fileLoader.tsfiles) {
+      loadedFiles.add(tsfile.getAbsolutePath());
+    }
+    List<String> loggedFiles = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(syncLog))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.equals(SyncReceiverLogger.SYNC_DELETED_FILE_NAME_START) && !line
+            .equals(SyncReceiverLogger.SYNC_TSFILE_START)) {
+          loggedFiles.add(line);
+        }
+      }
+    }
+    // recovery reloads the files in the order of the sync log
+    assertEquals(loggedFiles, loadedFiles);
+  }
+
+  /**
+   * send 20 files whose versions are congruent to the given remainder modulo 2.
+   */
+  private void sendFiles(int remainder)
+      throws TException, IOException, NoSuchAlgorithmException, WriteProcessException {
+    for (int i = remainder; i < 40; i += 2) {
+      byte[] bytes = tsfileBytes(i);
+      assertEquals(SyncConstant.SUCCESS_CODE, receiver.initSyncData("1-" + i + "-0.tsfile").code);
+      assertEquals(SyncConstant.SUCCESS_CODE, receiver.syncData(ByteBuffer.wrap(bytes)).code);
+      assertEquals(SyncConstant.SUCCESS_CODE, receiver.checkDataMD5(md5(bytes)).code);
+    }
+  }
+
+  /**
+   * @return content of a tsfile with one series whose values start from the given one
+   */
+  private byte[] tsfileBytes(int start) throws IOException, WriteProcessException {
+    File file = new File("target" + File.separatorChar + "syncServiceImplTest-" + start + ".tsfile");
+    file.getParentFile().mkdirs();
+    TsFileWriter writer = new TsFileWriter(file);
+    writer.addMeasurement(new MeasurementSchema("s0", TSDataType.INT64, TSEncoding.PLAIN));
+    for (long time = 0; time < 100; time++) {
+      TSRecord record = new TSRecord(time, SG_NAME + ".d0");
+      record.addTuple(new LongDataPoint("s0", start + time));
+      writer.write(record);
+    }
+    writer.close();
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.delete(file.toPath());
+    return bytes;
+  }
+
+  private String md5(byte[] bytes) throws NoSuchAlgorithmException {
+    MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+    return new BigInteger(1, md.digest(bytes)).toString(16);
+  }
+
+  private static class RecordingFileLoader implements IFileLoader {
+
+    private List<File> tsfiles = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean endSync = false;
+
+    @Override
+    public void addDeletedFileName(File deletedFile) {
+      // no deleted files in these tests
+    }
+
+    @Override
+    public void addTsfile(File tsfile) {
+      tsfiles.add(tsfile);
+    }
+
+    @Override
+    public void endSync() {
+      endSync = true;
+      // nothing is left to load
+      cleanUp();
+    }
+
+    @Override
+    public void handleLoadTask(LoadTask task) {
+      // tasks are recorded instead of loaded
+    }
+
+    @Override
+    public void setCurType(LoadType curType) {
+      // tasks are recorded instead of loaded
+    }
+
+    @Override
+    public void cleanUp() {
+      FileLoaderManager.getInstance().removeFileLoader(SENDER_NAME);
+    }
+  }
+}
@@ -18,30 +18,57 @@
  */
 package org.apache.iotdb.db.sync.sender.transfer;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.DiskSpaceInsufficientException;
 import org.apache.iotdb.db.exception.StartupException;
 import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.SyncConnectionException;
+import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
+import org.apache.iotdb.db.sync.ChunkDigest;
+import org.apache.iotdb.db.sync.conf.SyncConstant;
 import org.apache.iotdb.db.sync.conf.SyncSenderConfig;
 import org.apache.iotdb.db.sync.conf.SyncSenderDescriptor;
+import org.apache.iotdb.db.sync.receiver.load.FileLoaderManager;
+import org.apache.iotdb.db.sync.receiver.transfer.ReceivedChunkStore;
+import org.apache.iotdb.db.sync.receiver.transfer.SyncServiceImpl;
 import org.apache.iotdb.db.sync.sender.recover.ISyncSenderLogAnalyzer;
 import org.apache.iotdb.db.sync.sender.recover.SyncSenderLogAnalyzer;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.utils.FilePathUtils;
+import org.apache.iotdb.db.utils.SyncUtils;
+import org.apache.iotdb.service.sync.thrift.SyncService;
+import org.apache.iotdb.service.sync.thrift.SyncStatus;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.thrift.TException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -51,6 +78,8 @@ import org.slf4j.LoggerFactory;
 public class DataTransferManagerTest {
 
   private static final Logger logger = LoggerFactory.getLogger(DataTransferManagerTest.class);
+  private static final String SG_NAME = "root.sg";
+  private static final String SENDER_UUID = "uuid";
   private IDataTransferManager manager = DataTransferManager.getInstance();
   private SyncSenderConfig config = SyncSenderDescriptor.getInstance().getConfig();
   private String dataDir;
@@ -64,10 +93,12 @@ public class DataTransferManagerTest {
         .getParentFile().getAbsolutePath();
     config.update(dataDir);
     senderLogAnalyzer = new SyncSenderLogAnalyzer(config.getSenderFolderPath());
+    FileLoaderManager.getInstance().start();
   }
 
   @After
   public void tearDown() throws InterruptedException, IOException, StorageEngineException {
+    FileLoaderManager.getInstance().stop();
     EnvironmentUtils.cleanEnv();
   }
 
@@ -137,4 +168,203 @@ public class DataTransferManagerTest {
     assertFalse(new File(config.getSnapshotPath()).exists());
     assertTrue(new File(config.getLastFileInfoPath()).exists());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testResumeFromPartialFile() throws Exception {
+    SyncServiceImpl receiver = startReceiver();
+    // a .resource file is received like a tsfile but not loaded
+    byte[] bytes = randomBytes(10000);
+    File file = writeFile("1-1-0.tsfile" + TsFileResource.RESOURCE_SUFFIX, bytes);
+
+    // a broken transfer left the first 4000 bytes on the receiver
+    receiver.initSyncData(file.getName());
+    receiver.syncData(ByteBuffer.wrap(bytes, 0, 4000));
+
+    LocalClient client = new LocalClient(receiver);
+    ((DataTransferManager) manager).syncSingleFile(client, file, ByteBuffer.allocate(1024));
+    assertEquals(6000, client.sentBytes);
+    assertArrayEquals(bytes, Files.readAllBytes(getReceivedFile(file).toPath()));
+  }
+
+  @Test
+  public void testRestartAfterMD5Mismatch() throws Exception {
+    SyncServiceImpl receiver = startReceiver();
+    byte[] bytes = randomBytes(10000);
+    File file = writeFile("1-1-0.tsfile" + TsFileResource.RESOURCE_SUFFIX, bytes);
+
+    LocalClient client = new LocalClient(receiver) {
+      @Override
+      public SyncStatus syncData(ByteBuffer buff) throws TException {
+        if (sentBytes == 0) {
+          // the first piece is damaged on the way
+          ByteBuffer damaged = ByteBuffer.allocate(buff.remaining());
+          damaged.put(buff).flip();
+          damaged.put(0, (byte) (damaged.get(0) + 1));
+          buff = damaged;
+        }
+        return super.syncData(buff);
+      }
+    };
+    ((DataTransferManager) manager).syncSingleFile(client, file, ByteBuffer.allocate(1024));
+    // the whole file is sent again after the MD5 check fails
+    assertEquals(20000, client.sentBytes);
+    assertArrayEquals(bytes, Files.readAllBytes(getReceivedFile(file).toPath()));
+  }
+
+  @Test
+  public void testRequeueFailedFile()
+      throws IOException, SyncDeviceOwnerConflictException {
+    File tsfile = writeFile("1-1-0.tsfile", randomBytes(100));
+    writeFile(tsfile.getName() + TsFileResource.RESOURCE_SUFFIX, randomBytes(100));
+    Queue<File> fileQueue = new ConcurrentLinkedQueue<>();
+    fileQueue.add(tsfile);
+
+    LocalClient client = new LocalClient(null) {
+      @Override
+      public SyncStatus resumeSyncData(String filename) throws TException {
+        throw new TException(new IOException("connection is broken"));
+      }
+    };
+    try {
+      ((DataTransferManager) manager)
+          .syncFiles(client, SG_NAME, fileQueue, new AtomicInteger(), 1);
+      fail("the failed transfer is not reported");
+    } catch (SyncConnectionException e) {
+      // expected
+    }
+    // the file is left to the other connections, which replace its snapshot
+    assertEquals(1, fileQueue.size());
+    assertEquals(tsfile, fileQueue.peek());
+    File snapshotFile = ((DataTransferManager) manager).makeFileSnapshot(tsfile);
+    assertEquals(100, snapshotFile.length());
+  }
+
+  @Test
+  public void testResumeByChunks() throws Exception {
+    File tsfile = writeTsFile("1-1-0.tsfile");
+    // the receiver has received a tsfile before, and a rewritten file copies all its chunks
+    File receiverFolder = getReceivedFile(tsfile).getParentFile().getParentFile().getParentFile();
+    new ReceivedChunkStore(new File(receiverFolder, SyncConstant.RECEIVER_CHUNK_STORE_FOLDER_NAME))
+        .addFile(SG_NAME, tsfile);
+    File rewrittenFile = writeFile("2-2-0.tsfile", Files.readAllBytes(tsfile.toPath()));
+    SyncServiceImpl receiver = startReceiver();
+
+    // a broken transfer left the rewritten file on the receiver up to the middle of a chunk
+    List<ChunkDigest> chunkDigests = SyncUtils.getChunkDigests(rewrittenFile);
+    assertEquals(6, chunkDigests.size());
+    byte[] bytes = Files.readAllBytes(rewrittenFile.toPath());
+    int receivedLength = (int) chunkDigests.get(2).getOffset() + 10;
+    receiver.initSyncData(rewrittenFile.getName());
+    receiver.syncData(ByteBuffer.wrap(Arrays.copyOf(bytes, receivedLength)));
+
+    LocalClient client = new LocalClient(receiver);
+    ((DataTransferManager) manager)
+        .syncFileByChunks(client, rewrittenFile, ByteBuffer.allocate(1024));
+    // neither the received part nor the chunks after it are sent
+    long reusedLength = 0;
+    for (ChunkDigest chunkDigest : chunkDigests.subList(3, 6)) {
+      reusedLength += chunkDigest.getLength();
+    }
+    assertEquals(bytes.length - receivedLength - reusedLength, client.sentBytes);
+    assertEquals(3, client.syncedChunks);
+  }
+
+  private SyncServiceImpl startReceiver() throws TException {
+    SyncServiceImpl receiver = new SyncServiceImpl();
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.check("127.0.0.1", SENDER_UUID).code);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.startSync().code);
+    assertEquals(SyncConstant.SUCCESS_CODE, receiver.init(SG_NAME).code);
+    return receiver;
+  }
+
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(0).nextBytes(bytes);
+    return bytes;
+  }
+
+  private File writeFile(String name, byte[] bytes) throws IOException {
+    File file = new File(FilePathUtils.regularizePath(dataDir) + IoTDBConstant.SEQUENCE_FLODER_NAME
+        + File.separator + SG_NAME + File.separator + name);
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), bytes);
+    return file;
+  }
+
+  private File writeTsFile(String name) throws IOException, WriteProcessException {
+    File file = writeFile(name, new byte[0]);
+    Files.delete(file.toPath());
+    TsFileWriter writer = new TsFileWriter(file);
+    for (int i = 0; i < 3; i++) {
+      writer.addMeasurement(new MeasurementSchema("s" + i, TSDataType.INT64, TSEncoding.RLE));
+    }
+    for (long time = 0; time < 100; time++) {
+      TSRecord record = new TSRecord(time, SG_NAME + ".d0");
+      for (int i = 0; i < 3; i++) {
+        record.addTuple(new LongDataPoint("s" + i, time * i));
+      }
+      writer.write(record);
+      if ((time + 1) % 50 == 0) {
+        writer.flushForTest();
+      }
+    }
+    writer.close();
+    return file;
+  }
+
+  private File getReceivedFile(File file) {
+    return new File(FilePathUtils.regularizePath(dataDir) + SyncConstant.SYNC_RECEIVER
+        + File.separator + "127.0.0.1" + SyncConstant.SYNC_DIR_NAME_SEPARATOR + SENDER_UUID
+        + File.separator + SyncConstant.RECEIVER_DATA_FOLDER_NAME + File.separator + SG_NAME
+        + File.separator + file.getName());
+  }
+
+  /**
+   * A client calling the receiver in the current thread instead of through a connection.
+   */
+  private static class LocalClient extends SyncService.Client {
+
+    private SyncService.Iface receiver;
+
+    long sentBytes = 0;
+
+    int syncedChunks = 0;
+
+    LocalClient(SyncService.Iface receiver) {
+      super(null);
+      this.receiver = receiver;
+    }
+
+    @Override
+    public SyncStatus initSyncData(String filename) throws TException {
+      return receiver.initSyncData(filename);
+    }
+
+    @Override
+    public SyncStatus resumeSyncData(String filename) throws TException {
+      return receiver.resumeSyncData(filename);
+    }
+
+    @Override
+    public SyncStatus syncData(ByteBuffer buff) throws TException {
+      sentBytes += buff.remaining();
+      return receiver.syncData(buff);
+    }
+
+    @Override
+    public SyncStatus checkDataMD5(String md5) throws TException {
+      return receiver.checkDataMD5(md5);
+    }
+
+    @Override
+    public List<Boolean> checkChunkDigests(List<String> digests) throws TException {
+      return receiver.checkChunkDigests(digests);
+    }
+
+    @Override
+    public SyncStatus syncChunk(String digest) throws TException {
+      syncedChunks++;
+      return receiver.syncChunk(digest);
+    }
+  }
+}
@@ -90,4 +90,61 @@ public class LongTVListTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testPutLongsInRange() {
+    LongTVList tvList = new LongTVList();
+    long[] times = new long[1000];
+    long[] values = new long[1000];
+    for (int i = 0; i < 1000; i++) {
+      times[i] = i;
+      values[i] = i * 2L;
+    }
+    tvList.putLongs(times, values, 100, 700);
+    tvList.putLongs(times, values, 0, 100);
+    Assert.assertEquals(700, tvList.size);
+    tvList.sort();
+    for (int i = 0; i < tvList.size; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i * 2L, tvList.getLong(i));
+    }
+  }
+
+  @Test
+  public void testSortWithLatePoints() {
+    Random random = new Random(1);
+    LongTVList tvList = new LongTVList();
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      // about 5% points arrive late, some with duplicated timestamps
+      long time = random.nextInt(100) < 5 ? i - random.nextInt(200) : i;
+      tvList.putLong(time, i);
+      inputs.add(new TimeValuePair(time, new TsLong(i)));
+    }
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size; i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getLong(), tvList.getLong(i));
+    }
+  }
+
+  @Test
+  public void testSortShuffled() {
+    Random random = new Random(2);
+    LongTVList tvList = new LongTVList();
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      // negative and duplicated timestamps in a shuffled list
+      long time = random.nextInt(5000) - 2500L;
+      tvList.putLong(time, i);
+      inputs.add(new TimeValuePair(time, new TsLong(i)));
+    }
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size; i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getLong(), tvList.getLong(i));
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.Random;
+
+/**
+ * TVList sort benchmark. Sort lists in which a given ratio of points arrive late, from in-order
+ * data to fully shuffled data.
+ */
+public class TVListSortBenchmark {
+
+  private static int numOfPoint = 100000;
+  private static int numOfRound = 20;
+  private static int maxDelay = 1000;
+  private static double[] lateRatios = {0, 0.001, 0.01, 0.1, 0.5, 1};
+
+  public static void main(String[] args) {
+    Random random = new Random(0);
+    for (double lateRatio : lateRatios) {
+      long[] times = new long[numOfPoint];
+      for (int i = 0; i < numOfPoint; i++) {
+        if (lateRatio == 1) {
+          times[i] = random.nextInt(numOfPoint);
+        } else {
+          times[i] = random.nextDouble() < lateRatio ? i - random.nextInt(maxDelay) : i;
+        }
+      }
+
+      long totalTime = 0;
+      for (int round = 0; round < numOfRound; round++) {
+        LongTVList tvList = new LongTVList();
+        for (int i = 0; i < numOfPoint; i++) {
+          tvList.putLong(times[i], i);
+        }
+        long startTime = System.nanoTime();
+        tvList.sort();
+        totalTime += System.nanoTime() - startTime;
+        tvList.clear();
+      }
+      System.out.println(String.format(
+          "Num of points: %d, late ratio: %.3f, average sort time: %.3f ms. ",
+          numOfPoint, lateRatio, totalTime / 1000000.0 / numOfRound));
+    }
+  }
+}
@@ -233,6 +233,16 @@ struct TSBatchInsertionReq {
     6: required i32 size
 }
 
+struct TSMultiBatchInsertionReq {
+    1: required list<TSBatchInsertionReq> batches
+}
+
+struct TSMultiBatchInsertionResp {
+    1: required TSStatus status
+    // the status of each batch in TSMultiBatchInsertionReq, in the same order
+    2: optional list<TSStatus> statusList
+}
+
 struct TSInsertReq {
     1: required string deviceId
     2: required list<string> measurements
@@ -240,6 +250,15 @@ struct TSInsertReq {
     4: required i64 timestamp
 }
 
+// values are encoded in the order of measurements, each as its type in types (TSDataType ordinal)
+struct TSInsertRecordReq {
+    1: required string deviceId
+    2: required list<string> measurements
+    3: required binary values
+    4: required list<i32> types
+    5: required i64 timestamp
+}
+
 struct TSDeleteDataReq {
     1: required list<string> paths
     2: required i64 timestamp
@@ -289,6 +308,8 @@ service TSIService {
 
 	TSExecuteBatchStatementResp insertBatch(1:TSBatchInsertionReq req);
 
+	TSMultiBatchInsertionResp insertMultiBatch(1:TSMultiBatchInsertionReq req);
+
 	TSStatus setStorageGroup(1:string storageGroup);
 
 	TSStatus createTimeseries(1:TSCreateTimeseriesReq req);
@@ -299,6 +320,8 @@ service TSIService {
 
 	TSStatus insertRow(1:TSInsertReq req);
 
+	TSStatus insertRecord(1:TSInsertRecordReq req);
+
 	TSStatus deleteData(1:TSDeleteDataReq req);
 
 	i64 requestStatementId();
@@ -28,10 +28,18 @@ struct SyncStatus{
 service SyncService{
 	SyncStatus check(1:string address, 2:string uuid)
 	SyncStatus startSync();
+	// attach another connection to the started sync of the sender to transfer files in parallel
+	SyncStatus joinSync(1:string address, 2:string uuid, 3:string storageGroupName)
 	SyncStatus init(1:string storageGroupName)
 	SyncStatus syncDeletedFileName(1:string fileName)
 	SyncStatus initSyncData(1:string filename)
+	// like initSyncData, but keeps the part of the file received before and returns its length in msg
+	SyncStatus resumeSyncData(1:string filename)
 	SyncStatus syncData(1:binary buff)
+	// whether the receiver has each chunk of the given digests from the files received before
+	list<bool> checkChunkDigests(1:list<string> digests)
+	// append the chunk of the given digest the receiver has to the file being received
+	SyncStatus syncChunk(1:string digest)
 	SyncStatus checkDataMD5(1:string md5)
 	SyncStatus endSync()
 }
\ No newline at end of file
@@ -40,6 +40,9 @@ import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import static org.apache.iotdb.session.Config.PATH_MATCHER;
@@ -59,6 +62,7 @@ public class Session {
   private ZoneId zoneId;
   private TSOperationHandle operationHandle;
   private long statementId;
+  private ExecutorService asyncInsertExecutor;
 
 
   public Session(String host, int port) {
@@ -140,6 +144,11 @@ public class Session {
     if (isClosed) {
       return;
     }
+    if (asyncInsertExecutor != null) {
+      // pending asynchronous insertions need the lock of this session and fail after closing
+      asyncInsertExecutor.shutdown();
+      asyncInsertExecutor = null;
+    }
     TSCloseSessionReq req = new TSCloseSessionReq(sessionHandle);
     try {
       client.closeSession(req);
@@ -156,6 +165,66 @@ public class Session {
 
   public synchronized TSExecuteBatchStatementResp insertBatch(RowBatch rowBatch)
       throws IoTDBSessionException {
+    TSBatchInsertionReq request = toBatchInsertionReq(rowBatch);
+
+    try {
+      return checkAndReturn(client.insertBatch(request));
+    } catch (TException e) {
+      throw new IoTDBSessionException(e);
+    }
+  }
+
+  /**
+   * insert the batches of multiple devices in one RPC, the server applies the batches of different
+   * storage groups in parallel.
+   *
+   * @return the overall status and the status of each batch
+   */
+  public synchronized TSMultiBatchInsertionResp insertMultiBatch(List<RowBatch> rowBatches)
+      throws IoTDBSessionException {
+    return insertMultiBatch(toMultiBatchInsertionReq(rowBatches));
+  }
+
+  /**
+   * the same as insertMultiBatch(), but returns once the request is serialized. The RPC is sent by
+   * a background thread of this session in submission order, so the caller can prepare the next
+   * batches while the previous one is in flight.
+   */
+  public Future<TSMultiBatchInsertionResp> insertMultiBatchAsync(List<RowBatch> rowBatches) {
+    TSMultiBatchInsertionReq request = toMultiBatchInsertionReq(rowBatches);
+    return getAsyncInsertExecutor().submit(() -> insertMultiBatch(request));
+  }
+
+  private synchronized TSMultiBatchInsertionResp insertMultiBatch(TSMultiBatchInsertionReq request)
+      throws IoTDBSessionException {
+    try {
+      return checkAndReturn(client.insertMultiBatch(request));
+    } catch (TException e) {
+      throw new IoTDBSessionException(e);
+    }
+  }
+
+  private synchronized ExecutorService getAsyncInsertExecutor() {
+    if (asyncInsertExecutor == null) {
+      asyncInsertExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Session-AsyncInsert-" + host + ":" + port);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return asyncInsertExecutor;
+  }
+
+  private TSMultiBatchInsertionReq toMultiBatchInsertionReq(List<RowBatch> rowBatches) {
+    TSMultiBatchInsertionReq request = new TSMultiBatchInsertionReq();
+    request.setBatches(new ArrayList<>(rowBatches.size()));
+    for (RowBatch rowBatch : rowBatches) {
+      request.addToBatches(toBatchInsertionReq(rowBatch));
+    }
+    return request;
+  }
+
+  private TSBatchInsertionReq toBatchInsertionReq(RowBatch rowBatch) {
     TSBatchInsertionReq request = new TSBatchInsertionReq();
     request.deviceId = rowBatch.deviceId;
     for (MeasurementSchema measurementSchema : rowBatch.measurements) {
@@ -165,25 +234,46 @@ public class Session {
     request.setTimestamps(SessionUtils.getTimeBuffer(rowBatch));
     request.setValues(SessionUtils.getValueBuffer(rowBatch));
     request.setSize(rowBatch.batchSize);
+    return request;
+  }
+
+  public synchronized TSStatus insert(String deviceId, long time, List<String> measurements,
+      List<String> values)
+      throws IoTDBSessionException {
+    TSInsertReq request = new TSInsertReq();
+    request.setDeviceId(deviceId);
+    request.setTimestamp(time);
+    request.setMeasurements(measurements);
+    request.setValues(values);
 
     try {
-      return checkAndReturn(client.insertBatch(request));
+      return checkAndReturn(client.insertRow(request));
     } catch (TException e) {
       throw new IoTDBSessionException(e);
     }
   }
 
+  /**
+   * insert one row whose values are sent in binary with their data types, so that the server
+   * needs no string parsing or type inference.
+   *
+   * @param types data type of each measurement
+   * @param values Boolean, Number or Binary of each measurement
+   */
   public synchronized TSStatus insert(String deviceId, long time, List<String> measurements,
-      List<String> values)
+      List<TSDataType> types, List<Object> values)
       throws IoTDBSessionException {
-    TSInsertReq request = new TSInsertReq();
+    TSInsertRecordReq request = new TSInsertRecordReq();
     request.setDeviceId(deviceId);
     request.setTimestamp(time);
     request.setMeasurements(measurements);
-    request.setValues(values);
+    for (TSDataType type : types) {
+      request.addToTypes(type.ordinal());
+    }
+    request.setValues(SessionUtils.getValueBuffer(types, values));
 
     try {
-      return checkAndReturn(client.insertRow(request));
+      return checkAndReturn(client.insertRecord(request));
     } catch (TException e) {
       throw new IoTDBSessionException(e);
     }
@@ -293,6 +383,13 @@ public class Session {
     return resp;
   }
 
+  private TSMultiBatchInsertionResp checkAndReturn(TSMultiBatchInsertionResp resp) {
+    if (resp.status.statusType.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+      logger.error(resp.status.statusType.getMessage());
+    }
+    return resp;
+  }
+
   private TSExecuteBatchStatementResp checkAndReturn(TSExecuteBatchStatementResp resp) {
     if (resp.status.statusType.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
       logger.error(resp.status.statusType.getMessage());
@@ -300,6 +397,24 @@ public class Session {
     return resp;
   }
 
+  /**
+   * check the connection to the server by a lightweight RPC.
+   *
+   * @return false if the session is closed or the server cannot be reached
+   */
+  public synchronized boolean isAlive() {
+    if (isClosed) {
+      return false;
+    }
+    try {
+      RpcUtils.verifySuccess(client.getTimeZone().getStatus());
+      return true;
+    } catch (TException | IoTDBRPCException e) {
+      logger.debug("Session to {}:{} is not alive", host, port, e);
+      return false;
+    }
+  }
+
   private synchronized String getTimeZone() throws TException, IoTDBRPCException {
     if (zoneId != null) {
       return zoneId.toString();
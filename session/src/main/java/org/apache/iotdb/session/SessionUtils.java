@@ -92,6 +92,64 @@ public class SessionUtils {
     return valueBuffer;
   }
 
+  /**
+   * encode the values of one row, each as its data type.
+   *
+   * @param values Boolean, Number or Binary of each column
+   */
+  public static ByteBuffer getValueBuffer(List<TSDataType> types, List<Object> values) {
+    int size = 0;
+    for (int i = 0; i < types.size(); i++) {
+      TSDataType dataType = types.get(i);
+      switch (dataType) {
+        case BOOLEAN:
+          size += 1;
+          break;
+        case INT32:
+        case FLOAT:
+          size += 4;
+          break;
+        case INT64:
+        case DOUBLE:
+          size += 8;
+          break;
+        case TEXT:
+          size += 4 + ((Binary) values.get(i)).getLength();
+          break;
+        default:
+          throw new UnSupportedDataTypeException(
+              String.format("Data type %s is not supported.", dataType));
+      }
+    }
+
+    ByteBuffer valueBuffer = ByteBuffer.allocate(size);
+    for (int i = 0; i < types.size(); i++) {
+      Object value = values.get(i);
+      switch (types.get(i)) {
+        case BOOLEAN:
+          valueBuffer.put(BytesUtils.boolToByte((Boolean) value));
+          break;
+        case INT32:
+          valueBuffer.putInt(((Number) value).intValue());
+          break;
+        case INT64:
+          valueBuffer.putLong(((Number) value).longValue());
+          break;
+        case FLOAT:
+          valueBuffer.putFloat(((Number) value).floatValue());
+          break;
+        case DOUBLE:
+          valueBuffer.putDouble(((Number) value).doubleValue());
+          break;
+        default:
+          Binary binary = (Binary) value;
+          valueBuffer.putInt(binary.getLength());
+          valueBuffer.put(binary.getValues());
+      }
+    }
+    valueBuffer.flip();
+    return valueBuffer;
+  }
 
   /**
    * convert row records.
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.pool;
+
+import java.sql.SQLException;
+import org.apache.iotdb.rpc.IoTDBRPCException;
+import org.apache.iotdb.session.Session;
+import org.apache.iotdb.session.SessionDataSet;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+
+/**
+ * SessionDataSetWrapper is the result of SessionPool.executeQueryStatement(). It holds the session
+ * of the query and returns it to the pool when closed.
+ */
+public class SessionDataSetWrapper implements AutoCloseable {
+
+  private final SessionDataSet dataSet;
+  private Session session;
+  private final SessionPool pool;
+
+  SessionDataSetWrapper(SessionDataSet dataSet, Session session, SessionPool pool) {
+    this.dataSet = dataSet;
+    this.session = session;
+    this.pool = pool;
+  }
+
+  public int getBatchSize() {
+    return dataSet.getBatchSize();
+  }
+
+  public void setBatchSize(int batchSize) {
+    dataSet.setBatchSize(batchSize);
+  }
+
+  public boolean hasNext() throws SQLException, IoTDBRPCException {
+    return dataSet.hasNext();
+  }
+
+  public RowRecord next() throws SQLException, IoTDBRPCException {
+    return dataSet.next();
+  }
+
+  /**
+   * close the query and return the session to the pool. The session is discarded if the query
+   * cannot be closed.
+   */
+  @Override
+  public void close() {
+    if (session == null) {
+      return;
+    }
+    try {
+      dataSet.closeOperationHandle();
+      pool.putBack(session);
+    } catch (SQLException e) {
+      pool.discard(session);
+    } finally {
+      session = null;
+    }
+  }
+}
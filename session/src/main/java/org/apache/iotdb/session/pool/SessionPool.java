@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.pool;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import org.apache.iotdb.rpc.IoTDBRPCException;
+import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSMultiBatchInsertionResp;
+import org.apache.iotdb.service.rpc.thrift.TSStatus;
+import org.apache.iotdb.session.Config;
+import org.apache.iotdb.session.IoTDBSessionException;
+import org.apache.iotdb.session.Session;
+import org.apache.iotdb.session.SessionDataSet;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.record.RowBatch;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SessionPool is a thread-safe pool of Sessions. Each call borrows a session, so concurrent
+ * callers use different connections instead of serializing over one transport.
+ *
+ * <p>Sessions are opened lazily, at most maxSize of them. They are opened round-robin over the
+ * given endpoints, and an endpoint that cannot be reached is skipped (failover). A session that
+ * has been idle for longer than the health check interval is checked before it is lent. A call that
+ * fails for a connection error discards its session and is retried on a new one.
+ *
+ * <p>The session of a query is held by the returned SessionDataSetWrapper until it is closed.
+ */
+public class SessionPool {
+
+  private static final Logger logger = LoggerFactory.getLogger(SessionPool.class);
+
+  private static final int RETRY = 3;
+  private static final long DEFAULT_WAIT_TO_GET_SESSION_TIMEOUT_MS = 60_000;
+  private static final long DEFAULT_HEALTH_CHECK_INTERVAL_MS = 30_000;
+
+  private final String[] hosts;
+  private final int[] ports;
+  private final String user;
+  private final String password;
+  private final int maxSize;
+  private final long waitToGetSessionTimeoutInMs;
+  private final long healthCheckIntervalInMs;
+
+  /**
+   * idle sessions, the most recently returned one is lent first.
+   */
+  private final Deque<IdleSession> idleSessions = new ArrayDeque<>();
+  /**
+   * number of sessions that are idle, lent or being opened.
+   */
+  private int size = 0;
+  private int nextEndPoint = 0;
+  private boolean closed = false;
+
+  public SessionPool(String host, int port, String user, String password, int maxSize) {
+    this(Collections.singletonList(host + ":" + port), user, password, maxSize);
+  }
+
+  public SessionPool(List<String> nodeUrls, int maxSize) {
+    this(nodeUrls, Config.DEFAULT_USER, Config.DEFAULT_PASSWORD, maxSize);
+  }
+
+  /**
+   * @param nodeUrls endpoints in the form of "host:port"
+   */
+  public SessionPool(List<String> nodeUrls, String user, String password, int maxSize) {
+    this(nodeUrls, user, password, maxSize, DEFAULT_WAIT_TO_GET_SESSION_TIMEOUT_MS,
+        DEFAULT_HEALTH_CHECK_INTERVAL_MS);
+  }
+
+  /**
+   * @param nodeUrls endpoints in the form of "host:port"
+   * @param waitToGetSessionTimeoutInMs how long a call waits for a session when maxSize sessions
+   * are all lent
+   * @param healthCheckIntervalInMs an idle session is checked before lending if it has been idle for
+   * longer than this
+   */
+  public SessionPool(List<String> nodeUrls, String user, String password, int maxSize,
+      long waitToGetSessionTimeoutInMs, long healthCheckIntervalInMs) {
+    if (nodeUrls.isEmpty()) {
+      throw new IllegalArgumentException("At least one endpoint is needed");
+    }
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize should be positive, but is " + maxSize);
+    }
+    this.hosts = new String[nodeUrls.size()];
+    this.ports = new int[nodeUrls.size()];
+    for (int i = 0; i < nodeUrls.size(); i++) {
+      String nodeUrl = nodeUrls.get(i);
+      int separator = nodeUrl.lastIndexOf(':');
+      if (separator <= 0) {
+        throw new IllegalArgumentException(
+            String.format("Endpoint [%s] should be in the form of host:port", nodeUrl));
+      }
+      hosts[i] = nodeUrl.substring(0, separator);
+      ports[i] = Integer.parseInt(nodeUrl.substring(separator + 1));
+    }
+    this.user = user;
+    this.password = password;
+    this.maxSize = maxSize;
+    this.waitToGetSessionTimeoutInMs = waitToGetSessionTimeoutInMs;
+    this.healthCheckIntervalInMs = healthCheckIntervalInMs;
+  }
+
+  public TSExecuteBatchStatementResp insertBatch(RowBatch rowBatch)
+      throws IoTDBSessionException {
+    return execute(session -> session.insertBatch(rowBatch));
+  }
+
+  public TSMultiBatchInsertionResp insertMultiBatch(List<RowBatch> rowBatches)
+      throws IoTDBSessionException {
+    return execute(session -> session.insertMultiBatch(rowBatches));
+  }
+
+  public TSStatus insert(String deviceId, long time, List<String> measurements,
+      List<String> values) throws IoTDBSessionException {
+    return execute(session -> session.insert(deviceId, time, measurements, values));
+  }
+
+  public TSStatus insert(String deviceId, long time, List<String> measurements,
+      List<TSDataType> types, List<Object> values) throws IoTDBSessionException {
+    return execute(session -> session.insert(deviceId, time, measurements, types, values));
+  }
+
+  public TSStatus deleteTimeseries(List<String> paths) throws IoTDBSessionException {
+    return execute(session -> session.deleteTimeseries(paths));
+  }
+
+  public TSStatus deleteData(String path, long time) throws IoTDBSessionException {
+    return execute(session -> session.deleteData(path, time));
+  }
+
+  public TSStatus setStorageGroup(String storageGroupId) throws IoTDBSessionException {
+    return execute(session -> session.setStorageGroup(storageGroupId));
+  }
+
+  public TSStatus createTimeseries(String path, TSDataType dataType, TSEncoding encoding,
+      CompressionType compressor) throws IoTDBSessionException {
+    return execute(session -> session.createTimeseries(path, dataType, encoding, compressor));
+  }
+
+  public void executeNonQueryStatement(String sql) throws IoTDBSessionException {
+    execute(session -> {
+      try {
+        session.executeNonQueryStatement(sql);
+        return null;
+      } catch (TException | IoTDBRPCException e) {
+        throw new IoTDBSessionException(e);
+      }
+    });
+  }
+
+  /**
+   * the session of the query is held until the returned wrapper is closed, so the wrapper must
+   * always be closed.
+   */
+  public SessionDataSetWrapper executeQueryStatement(String sql) throws IoTDBSessionException {
+    IoTDBSessionException lastException = null;
+    for (int i = 0; i < RETRY; i++) {
+      Session session = getSession();
+      try {
+        SessionDataSet dataSet = session.executeQueryStatement(sql);
+        return new SessionDataSetWrapper(dataSet, session, this);
+      } catch (TException e) {
+        logger.warn("Lost the connection of a session when querying, try another one", e);
+        discard(session);
+        lastException = new IoTDBSessionException(e);
+      } catch (IoTDBRPCException | RuntimeException e) {
+        putBack(session);
+        throw new IoTDBSessionException(e);
+      }
+    }
+    throw lastException;
+  }
+
+  /**
+   * close all idle sessions. Lent sessions are closed when they are returned.
+   */
+  public void close() {
+    Deque<IdleSession> toClose;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      toClose = new ArrayDeque<>(idleSessions);
+      size -= idleSessions.size();
+      idleSessions.clear();
+      notifyAll();
+    }
+    for (IdleSession idleSession : toClose) {
+      closeQuietly(idleSession.session);
+    }
+  }
+
+  public synchronized int currentSize() {
+    return size;
+  }
+
+  private <T> T execute(SessionOperation<T> operation) throws IoTDBSessionException {
+    IoTDBSessionException lastException = null;
+    for (int i = 0; i < RETRY; i++) {
+      Session session = getSession();
+      T result;
+      try {
+        result = operation.execute(session);
+      } catch (IoTDBSessionException e) {
+        if (!(e.getCause() instanceof TException)) {
+          putBack(session);
+          throw e;
+        }
+        logger.warn("Lost the connection of a session, try another one", e);
+        discard(session);
+        lastException = e;
+        continue;
+      } catch (RuntimeException e) {
+        putBack(session);
+        throw e;
+      }
+      putBack(session);
+      return result;
+    }
+    throw lastException;
+  }
+
+  private Session getSession() throws IoTDBSessionException {
+    long start = System.currentTimeMillis();
+    while (true) {
+      IdleSession idleSession;
+      synchronized (this) {
+        if (closed) {
+          throw new IoTDBSessionException("Session pool is closed");
+        }
+        idleSession = idleSessions.pollLast();
+        if (idleSession == null) {
+          if (size < maxSize) {
+            size++;
+          } else {
+            waitForSession(start);
+            continue;
+          }
+        }
+      }
+
+      if (idleSession == null) {
+        try {
+          return openSession();
+        } catch (IoTDBSessionException e) {
+          synchronized (this) {
+            size--;
+            notifyAll();
+          }
+          throw e;
+        }
+      }
+      if (System.currentTimeMillis() - idleSession.returnTime < healthCheckIntervalInMs
+          || idleSession.session.isAlive()) {
+        return idleSession.session;
+      }
+      logger.info("An idle session is not alive, discard it");
+      discard(idleSession.session);
+    }
+  }
+
+  /**
+   * must be called with the lock of this pool held.
+   */
+  private void waitForSession(long start) throws IoTDBSessionException {
+    long timeToWait = waitToGetSessionTimeoutInMs - (System.currentTimeMillis() - start);
+    if (timeToWait <= 0) {
+      throw new IoTDBSessionException(String
+          .format("Timeout to get a session in %d ms, all %d sessions are in use",
+              waitToGetSessionTimeoutInMs, maxSize));
+    }
+    try {
+      wait(timeToWait);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IoTDBSessionException("Interrupted when waiting for a session", e);
+    }
+  }
+
+  /**
+   * open a session to the next endpoint, the other endpoints are tried in turn if it fails.
+   */
+  private Session openSession() throws IoTDBSessionException {
+    int first;
+    synchronized (this) {
+      first = nextEndPoint;
+      nextEndPoint = (nextEndPoint + 1) % hosts.length;
+    }
+    IoTDBSessionException lastException = null;
+    for (int i = 0; i < hosts.length; i++) {
+      int index = (first + i) % hosts.length;
+      Session session = new Session(hosts[index], ports[index], user, password);
+      try {
+        session.open();
+        return session;
+      } catch (IoTDBSessionException e) {
+        logger.warn("Cannot open a session to {}:{}", hosts[index], ports[index], e);
+        lastException = e;
+      }
+    }
+    throw lastException;
+  }
+
+  void putBack(Session session) {
+    synchronized (this) {
+      if (!closed) {
+        idleSessions.addLast(new IdleSession(session, System.currentTimeMillis()));
+        notifyAll();
+        return;
+      }
+      size--;
+    }
+    closeQuietly(session);
+  }
+
+  void discard(Session session) {
+    closeQuietly(session);
+    synchronized (this) {
+      size--;
+      notifyAll();
+    }
+  }
+
+  private void closeQuietly(Session session) {
+    try {
+      session.close();
+    } catch (IoTDBSessionException e) {
+      logger.debug("Error occurs when closing a session", e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface SessionOperation<T> {
+
+    T execute(Session session) throws IoTDBSessionException;
+  }
+
+  private static class IdleSession {
+
+    private final Session session;
+    private final long returnTime;
+
+    private IdleSession(Session session, long returnTime) {
+      this.session = session;
+      this.returnTime = returnTime;
+    }
+  }
+}
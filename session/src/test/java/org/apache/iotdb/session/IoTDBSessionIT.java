@@ -28,18 +28,26 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.service.IoTDB;
 import org.apache.iotdb.jdbc.Config;
 import org.apache.iotdb.rpc.IoTDBRPCException;
+import org.apache.iotdb.rpc.TSStatusCode;
+import org.apache.iotdb.service.rpc.thrift.TSMultiBatchInsertionResp;
+import org.apache.iotdb.service.rpc.thrift.TSStatus;
 import org.apache.iotdb.session.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.RowBatch;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.schema.Schema;
@@ -125,6 +133,96 @@ public class IoTDBSessionIT {
     session.close();
   }
 
+  @Test
+  public void testInsertTyped()
+      throws IoTDBSessionException, TException, IoTDBRPCException, SQLException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+
+    session.setStorageGroup("root.sg1");
+    session.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+    session.createTimeseries("root.sg1.d1.s2", TSDataType.DOUBLE, TSEncoding.GORILLA,
+        CompressionType.SNAPPY);
+    session.createTimeseries("root.sg1.d1.s3", TSDataType.TEXT, TSEncoding.PLAIN,
+        CompressionType.SNAPPY);
+
+    List<String> measurements = Arrays.asList("s1", "s2", "s3");
+    List<TSDataType> types = Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE, TSDataType.TEXT);
+    for (long time = 0; time < 100; time++) {
+      session.insert("root.sg1.d1", time, measurements, types,
+          Arrays.asList(time, time * 0.5, new Binary("v" + time)));
+    }
+
+    SessionDataSet sessionDataSet = session.executeQueryStatement("select * from root.sg1.d1");
+    sessionDataSet.setBatchSize(1024);
+    long count = 0;
+    while (sessionDataSet.hasNext()) {
+      RowRecord record = sessionDataSet.next();
+      assertEquals(count, record.getTimestamp());
+      assertEquals(count, record.getFields().get(0).getLongV());
+      assertEquals(count * 0.5, record.getFields().get(1).getDoubleV(), 0);
+      assertEquals("v" + count, record.getFields().get(2).getStringValue());
+      count++;
+    }
+    assertEquals(100, count);
+    sessionDataSet.closeOperationHandle();
+
+    // the data type must match the schema
+    TSStatus status = session.insert("root.sg1.d1", 100, Collections.singletonList("s1"),
+        Collections.singletonList(TSDataType.INT32), Collections.singletonList(1));
+    Assert.assertNotEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+        status.getStatusType().getCode());
+    session.close();
+  }
+
+  @Test
+  public void testInsertMultiBatch()
+      throws IoTDBSessionException, TException, IoTDBRPCException, SQLException,
+      InterruptedException, ExecutionException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+
+    session.setStorageGroup("root.sg1");
+    session.setStorageGroup("root.sg2");
+    Schema schema = new Schema();
+    schema.registerMeasurement(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+    schema.registerMeasurement(new MeasurementSchema("s2", TSDataType.INT64, TSEncoding.RLE));
+
+    String[] devices = {"root.sg1.d1", "root.sg1.d2", "root.sg2.d1", "root.sg2.d2"};
+    List<RowBatch> rowBatches = new ArrayList<>();
+    for (String device : devices) {
+      RowBatch rowBatch = schema.createRowBatch(device, 100);
+      for (long time = 0; time < 100; time++) {
+        int row = rowBatch.batchSize++;
+        rowBatch.timestamps[row] = time;
+        ((long[]) rowBatch.values[0])[row] = time;
+        ((long[]) rowBatch.values[1])[row] = time + 1;
+      }
+      rowBatches.add(rowBatch);
+    }
+
+    TSMultiBatchInsertionResp resp = session.insertMultiBatch(rowBatches.subList(0, 2));
+    assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(), resp.status.statusType.getCode());
+    assertEquals(2, resp.getStatusList().size());
+    resp = session.insertMultiBatchAsync(rowBatches.subList(2, 4)).get();
+    assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(), resp.status.statusType.getCode());
+
+    for (String device : devices) {
+      SessionDataSet sessionDataSet = session.executeQueryStatement("select * from " + device);
+      long count = 0;
+      while (sessionDataSet.hasNext()) {
+        RowRecord record = sessionDataSet.next();
+        assertEquals(count, record.getFields().get(0).getLongV());
+        assertEquals(count + 1, record.getFields().get(1).getLongV());
+        count++;
+      }
+      assertEquals(100, count);
+      sessionDataSet.closeOperationHandle();
+    }
+    session.close();
+  }
+
   private void createTimeseries() throws IoTDBSessionException {
     session.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
         CompressionType.SNAPPY);
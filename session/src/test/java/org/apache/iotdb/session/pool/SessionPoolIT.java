@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.rpc.TSStatusCode;
+import org.apache.iotdb.service.rpc.thrift.TSStatus;
+import org.apache.iotdb.session.IoTDBSessionException;
+import org.apache.iotdb.session.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionPoolIT {
+
+  private IoTDB daemon;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    daemon = IoTDB.getInstance();
+    daemon.active();
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    daemon.stop();
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testConcurrentInsertAndQuery() throws Exception {
+    SessionPool pool = new SessionPool("127.0.0.1", 6667, "root", "root", 3);
+    pool.setStorageGroup("root.sg1");
+    pool.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+
+    ExecutorService service = Executors.newFixedThreadPool(10);
+    Future<?>[] futures = new Future[10];
+    for (int i = 0; i < 10; i++) {
+      long start = i * 100L;
+      futures[i] = service.submit(() -> {
+        for (long time = start; time < start + 100; time++) {
+          TSStatus status = pool.insert("root.sg1.d1", time,
+              Collections.singletonList("s1"), Collections.singletonList(TSDataType.INT64),
+              Collections.singletonList(time));
+          assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(),
+              status.getStatusType().getCode());
+        }
+        return null;
+      });
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    service.shutdown();
+    // sessions are opened lazily and never more than maxSize
+    assertTrue(pool.currentSize() > 0 && pool.currentSize() <= 3);
+
+    try (SessionDataSetWrapper dataSet = pool.executeQueryStatement("select * from root.sg1.d1")) {
+      long count = 0;
+      while (dataSet.hasNext()) {
+        RowRecord record = dataSet.next();
+        assertEquals(count, record.getFields().get(0).getLongV());
+        count++;
+      }
+      assertEquals(1000, count);
+    }
+    pool.close();
+    assertEquals(0, pool.currentSize());
+  }
+
+  @Test
+  public void testFailover() throws Exception {
+    // nothing listens on the first endpoint
+    List<String> nodeUrls = Arrays.asList("127.0.0.1:6668", "127.0.0.1:6667");
+    SessionPool pool = new SessionPool(nodeUrls, "root", "root", 2);
+    TSStatus status = pool.setStorageGroup("root.sg1");
+    assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(), status.getStatusType().getCode());
+    pool.close();
+
+    try {
+      pool.setStorageGroup("root.sg2");
+      fail();
+    } catch (IoTDBSessionException e) {
+      // the pool is closed
+    }
+  }
+
+  @Test
+  public void testWaitTimeout() throws Exception {
+    SessionPool pool = new SessionPool(Collections.singletonList("127.0.0.1:6667"), "root", "root",
+        1, 500, 30_000);
+    pool.setStorageGroup("root.sg1");
+    pool.createTimeseries("root.sg1.d1.s1", TSDataType.INT64, TSEncoding.RLE,
+        CompressionType.SNAPPY);
+    SessionDataSetWrapper dataSet = pool.executeQueryStatement("select * from root.sg1.d1");
+    try {
+      // the only session is held by the query
+      pool.insert("root.sg1.d1", 1, Collections.singletonList("s1"), Collections.singletonList("1"));
+      fail();
+    } catch (IoTDBSessionException e) {
+      // timeout
+    }
+    dataSet.close();
+    pool.insert("root.sg1.d1", 1, Collections.singletonList("s1"), Collections.singletonList("1"));
+    pool.close();
+  }
+}
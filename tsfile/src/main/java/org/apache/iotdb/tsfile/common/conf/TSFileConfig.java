@@ -191,6 +191,10 @@ public class TSFileConfig {
    * The acceptable error rate of bloom filter
    */
   private double bloomFilterErrorRate = 0.05;
+  /**
+   * Whether to seek filtered page reads by a sparse index over the TS_2DIFF time column
+   */
+  private boolean pageTimeIndexEnabled = true;
 
   public TSFileConfig() {
 
@@ -445,4 +449,12 @@ public class TSFileConfig {
     this.dfsClientFailoverProxyProvider = dfsClientFailoverProxyProvider;
   }
 
+  public boolean isPageTimeIndexEnabled() {
+    return pageTimeIndexEnabled;
+  }
+
+  public void setPageTimeIndexEnabled(boolean pageTimeIndexEnabled) {
+    this.pageTimeIndexEnabled = pageTimeIndexEnabled;
+  }
+
 }
@@ -128,6 +128,8 @@ public class TSFileDescriptor {
       conf.setTimeEncoder(properties.getProperty("time_encoder", conf.getTimeEncoder()));
       conf.setValueEncoder(properties.getProperty("value_encoder", conf.getValueEncoder()));
       conf.setCompressor(properties.getProperty("compressor", conf.getCompressor()));
+      conf.setPageTimeIndexEnabled(Boolean.parseBoolean(properties
+          .getProperty("enable_page_time_index", Boolean.toString(conf.isPageTimeIndexEnabled()))));
     } catch (IOException e) {
       logger.warn("Cannot load config file, use default configuration", e);
     } catch (Exception e) {
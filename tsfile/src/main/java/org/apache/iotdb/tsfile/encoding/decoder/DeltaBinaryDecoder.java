@@ -163,7 +163,8 @@ public abstract class DeltaBinaryDecoder extends Decoder {
 
     @Override
     public void reset() {
-      // do nothing
+      nextReadIndex = 0;
+      readIntTotalCount = 0;
     }
   }
 
@@ -250,7 +251,8 @@ public abstract class DeltaBinaryDecoder extends Decoder {
 
     @Override
     public void reset() {
-      // do nothing
+      nextReadIndex = 0;
+      readIntTotalCount = 0;
     }
 
   }
@@ -27,9 +27,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -318,8 +321,21 @@ public class TsFileMetaData {
   public int serializeBloomFilter(OutputStream outputStream,
       List<ChunkGroupMetaData> chunkGroupMetaDataList)
       throws IOException {
+    return serializeBloomFilter(outputStream, getAllPath(chunkGroupMetaDataList));
+  }
+
+  /**
+   * use the given outputStream to serialize the bloom filter of the given series paths.
+   *
+   * @param outputStream -output stream to determine byte length
+   * @param paths -all series paths in this tsfile
+   * @return -byte length
+   */
+  public int serializeBloomFilter(OutputStream outputStream, Collection<String> paths)
+      throws IOException {
     int byteLen = 0;
-    BloomFilter filter = buildBloomFilter(chunkGroupMetaDataList);
+    BloomFilter filter = buildBloomFilter(paths);
+    this.bloomFilter = filter;
 
     byte[] bytes = filter.serialize();
     byteLen += ReadWriteIOUtils.write(bytes.length, outputStream);
@@ -335,8 +351,8 @@ public class TsFileMetaData {
    *
    * @return all path in set
    */
-  private List<String> getAllPath(List<ChunkGroupMetaData> chunkGroupMetaDataList) {
-    List<String> res = new ArrayList<>();
+  private Set<String> getAllPath(List<ChunkGroupMetaData> chunkGroupMetaDataList) {
+    Set<String> res = new HashSet<>();
     for (ChunkGroupMetaData chunkGroupMetaData : chunkGroupMetaDataList) {
       String deviceId = chunkGroupMetaData.getDeviceID();
       for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
@@ -352,8 +368,7 @@ public class TsFileMetaData {
    *
    * @return bloom filter
    */
-  private BloomFilter buildBloomFilter(List<ChunkGroupMetaData> chunkGroupMetaDataList) {
-    List<String> paths = getAllPath(chunkGroupMetaDataList);
+  private BloomFilter buildBloomFilter(Collection<String> paths) {
     BloomFilter bloomFilter = BloomFilter
         .getEmptyBloomFilter(TSFileDescriptor.getInstance().getConfig().getBloomFilterErrorRate(),
             paths.size());
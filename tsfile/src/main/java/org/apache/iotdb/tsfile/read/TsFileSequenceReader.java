@@ -54,6 +54,7 @@ import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.iotdb.tsfile.write.writer.TsFileOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -428,6 +429,22 @@ public class TsFileSequenceReader implements AutoCloseable {
     return new Chunk(header, buffer, metaData.getDeletedAt(), endianType);
   }
 
+  /**
+   * transfer the raw bytes (header and data) of a chunk to the given output without loading them
+   * into heap.
+   *
+   * @param metaData -given chunk meta data
+   * @param output -the output to append the chunk to
+   * @return -the number of bytes transferred
+   */
+  public long transferChunk(ChunkMetaData metaData, TsFileOutput output) throws IOException {
+    int chunkHeadSize = ChunkHeader.getSerializedSize(metaData.getMeasurementUid());
+    ChunkHeader header = readChunkHeader(metaData.getOffsetOfChunkHeader(), chunkHeadSize, false);
+    long chunkSize = (long) header.getSerializedSize() + header.getDataSize();
+    output.transferFrom(tsFileInput, metaData.getOffsetOfChunkHeader(), chunkSize);
+    return chunkSize;
+  }
+
   /**
    * not thread safe.
    *
@@ -55,6 +55,11 @@ public abstract class ChunkReader {
   private PageHeader pageHeader;
   private boolean hasCachedPageHeader;
 
+  /**
+   * number of pages skipped by their header statistics without being decompressed or decoded.
+   */
+  private int prunedPageNum = 0;
+
   /**
    * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
    */
@@ -101,6 +106,7 @@ public abstract class ChunkReader {
         hasCachedPageHeader = true;
         return true;
       } else {
+        prunedPageNum++;
         skipBytesInStreamByLength(pageHeader.getCompressedSize());
       }
     }
@@ -184,4 +190,8 @@ public abstract class ChunkReader {
   public ChunkHeader getChunkHeader() {
     return chunkHeader;
   }
+
+  public int getPrunedPageNum() {
+    return prunedPageNum;
+  }
 }
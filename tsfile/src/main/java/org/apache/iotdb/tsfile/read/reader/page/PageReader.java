@@ -20,7 +20,10 @@ package org.apache.iotdb.tsfile.read.reader.page;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder.LongDeltaDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
@@ -204,36 +207,143 @@ public class PageReader {
   }
 
   private BatchData getAllPageDataWithFilter() throws IOException {
+    if (canUseTimeIndex()) {
+      return getAllPageDataWithTimeIndex();
+    }
     BatchData pageData = new BatchData(dataType, true);
 
     while (timeDecoder.hasNext(timeBuffer)) {
       long timestamp = timeDecoder.readLong(timeBuffer);
+      readWithFilter(pageData, timestamp);
+    }
+
+    return pageData;
+  }
+
+  /**
+   * the time index is derived from the pack headers of TS_2DIFF, so it can only be used when the
+   * time column is encoded by TS_2DIFF and nothing of this page has been read yet.
+   */
+  private boolean canUseTimeIndex() {
+    return TSFileDescriptor.getInstance().getConfig().isPageTimeIndexEnabled()
+        && timeDecoder instanceof LongDeltaDecoder && timeBuffer.position() == 0;
+  }
 
+  /**
+   * seek straight to the first pack whose time range satisfies the filter, skip the packs in
+   * between that cannot satisfy it and stop at the first pack beyond the filter.
+   */
+  private BatchData getAllPageDataWithTimeIndex() throws IOException {
+    BatchData pageData = new BatchData(dataType, true);
+    PageTimeIndex timeIndex = PageTimeIndex.build(timeBuffer);
+    timeDecoder.reset();
+
+    int valuesRead = 0;
+    for (int pack = timeIndex.firstSatisfiedPack(filter, deletedAt); pack < timeIndex.size();
+        pack++) {
+      long startTime = timeIndex.getStartTime(pack);
+      long endTime = timeIndex.getEndTime(pack);
+      if (!filter.satisfyStartEndTime(startTime, Long.MAX_VALUE)) {
+        break;
+      }
+      if (endTime <= deletedAt || !filter.satisfyStartEndTime(startTime, endTime)) {
+        continue;
+      }
+
+      skipValues(timeIndex.getPointOffset(pack) - valuesRead);
+      timeBuffer.position(timeIndex.getByteOffset(pack));
+      int pointCount = timeIndex.getPointCount(pack);
+      for (int i = 0; i < pointCount; i++) {
+        readWithFilter(pageData, timeDecoder.readLong(timeBuffer));
+      }
+      valuesRead = timeIndex.getPointOffset(pack) + pointCount;
+    }
+    // the rest of this page can not satisfy the filter
+    timeBuffer.position(timeBuffer.limit());
+
+    return pageData;
+  }
+
+  /**
+   * skip values of the value column. PLAIN values of fixed length are skipped by moving the
+   * position directly, others have to be decoded one by one.
+   */
+  private void skipValues(int count) {
+    if (count <= 0) {
+      return;
+    }
+    int valueLength = valueDecoder instanceof PlainDecoder ? getPlainValueLength() : -1;
+    if (valueLength > 0) {
+      valueBuffer.position(valueBuffer.position() + count * valueLength);
+      return;
+    }
+    for (int i = 0; i < count; i++) {
       switch (dataType) {
         case BOOLEAN:
-          readBoolean(pageData, timestamp);
+          valueDecoder.readBoolean(valueBuffer);
           break;
         case INT32:
-          readInt(pageData, timestamp);
+          valueDecoder.readInt(valueBuffer);
           break;
         case INT64:
-          readLong(pageData, timestamp);
+          valueDecoder.readLong(valueBuffer);
           break;
         case FLOAT:
-          readFloat(pageData, timestamp);
+          valueDecoder.readFloat(valueBuffer);
           break;
         case DOUBLE:
-          readDouble(pageData, timestamp);
+          valueDecoder.readDouble(valueBuffer);
           break;
         case TEXT:
-          readText(pageData, timestamp);
+          valueDecoder.readBinary(valueBuffer);
           break;
         default:
           throw new UnSupportedDataTypeException(String.valueOf(dataType));
       }
     }
+  }
 
-    return pageData;
+  /**
+   * @return length in bytes of a PLAIN encoded value, or -1 if values have variable length
+   */
+  private int getPlainValueLength() {
+    switch (dataType) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return 4;
+      case INT64:
+      case DOUBLE:
+        return 8;
+      default:
+        return -1;
+    }
+  }
+
+  private void readWithFilter(BatchData pageData, long timestamp) {
+    switch (dataType) {
+      case BOOLEAN:
+        readBoolean(pageData, timestamp);
+        break;
+      case INT32:
+        readInt(pageData, timestamp);
+        break;
+      case INT64:
+        readLong(pageData, timestamp);
+        break;
+      case FLOAT:
+        readFloat(pageData, timestamp);
+        break;
+      case DOUBLE:
+        readDouble(pageData, timestamp);
+        break;
+      case TEXT:
+        readText(pageData, timestamp);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
   }
 
   private BatchData getAllPageDataWithFilter(int ratio) throws IOException {
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader.page;
+
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+
+/**
+ * A sparse index over a time column encoded by {@code LongDeltaEncoder} (TS_2DIFF). Each pack of
+ * that encoding is byte-aligned and starts with [packNum, packWidth, minDeltaBase, firstValue], so
+ * the index holds the first timestamp, byte offset and point offset of every pack and is built by
+ * walking the pack headers only, without decoding any delta. A pack holds packNum + 1 points.
+ */
+public class PageTimeIndex {
+
+  /**
+   * packNum(4) + packWidth(4) + minDeltaBase(8)
+   */
+  private static final int FIRST_VALUE_OFFSET = 16;
+
+  /**
+   * packNum(4) + packWidth(4) + minDeltaBase(8) + firstValue(8)
+   */
+  private static final int PACK_HEADER_SIZE = 24;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int size = 0;
+
+  private long[] startTimes = new long[INITIAL_CAPACITY];
+
+  private int[] byteOffsets = new int[INITIAL_CAPACITY];
+
+  private int[] pointOffsets = new int[INITIAL_CAPACITY];
+
+  private int pointCount = 0;
+
+  private PageTimeIndex() {
+  }
+
+  /**
+   * build the index from the time column of a page. The position of timeBuffer is not changed.
+   *
+   * @param timeBuffer time column whose position is at the beginning of a pack
+   */
+  public static PageTimeIndex build(ByteBuffer timeBuffer) {
+    PageTimeIndex index = new PageTimeIndex();
+    int offset = timeBuffer.position();
+    int limit = timeBuffer.limit();
+    while (offset + PACK_HEADER_SIZE <= limit) {
+      int packNum = timeBuffer.getInt(offset);
+      int packWidth = timeBuffer.getInt(offset + 4);
+      long firstValue = timeBuffer.getLong(offset + FIRST_VALUE_OFFSET);
+      index.add(firstValue, offset, packNum + 1);
+      offset += PACK_HEADER_SIZE + (int) Math.ceil((double) packNum * packWidth / 8.0);
+    }
+    return index;
+  }
+
+  private void add(long startTime, int byteOffset, int packPointCount) {
+    if (size == startTimes.length) {
+      int newCapacity = size * 2;
+      long[] newStartTimes = new long[newCapacity];
+      int[] newByteOffsets = new int[newCapacity];
+      int[] newPointOffsets = new int[newCapacity];
+      System.arraycopy(startTimes, 0, newStartTimes, 0, size);
+      System.arraycopy(byteOffsets, 0, newByteOffsets, 0, size);
+      System.arraycopy(pointOffsets, 0, newPointOffsets, 0, size);
+      startTimes = newStartTimes;
+      byteOffsets = newByteOffsets;
+      pointOffsets = newPointOffsets;
+    }
+    startTimes[size] = startTime;
+    byteOffsets[size] = byteOffset;
+    pointOffsets[size] = pointCount;
+    pointCount += packPointCount;
+    size++;
+  }
+
+  /**
+   * binary search the first pack that may hold a point satisfying the time part of the filter and
+   * newer than deletedAt.
+   *
+   * @return index of the pack, or size() if no pack qualifies
+   */
+  public int firstSatisfiedPack(Filter filter, long deletedAt) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      long endTime = getEndTime(mid);
+      if (endTime > deletedAt && filter.satisfyStartEndTime(Long.MIN_VALUE, endTime)) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getStartTime(int pack) {
+    return startTimes[pack];
+  }
+
+  /**
+   * timestamps are strictly increasing inside a page, so a pack ends before the next one starts.
+   */
+  public long getEndTime(int pack) {
+    return pack + 1 < size ? startTimes[pack + 1] - 1 : Long.MAX_VALUE;
+  }
+
+  public int getByteOffset(int pack) {
+    return byteOffsets[pack];
+  }
+
+  public int getPointOffset(int pack) {
+    return pointOffsets[pack];
+  }
+
+  public int getPointCount(int pack) {
+    return (pack + 1 < size ? pointOffsets[pack + 1] : pointCount) - pointOffsets[pack];
+  }
+}
@@ -39,6 +39,19 @@ public abstract class FileSeriesReader {
 
   private BatchData data;
 
+  /**
+   * number of chunks skipped by their metadata statistics without being loaded.
+   */
+  private int prunedChunkNum = 0;
+  /**
+   * number of pages skipped by the chunk readers that have been used up.
+   */
+  private int prunedPageNum = 0;
+  /**
+   * number of chunks loaded.
+   */
+  private int loadedChunkNum = 0;
+
   /**
    * constructor of FileSeriesReader.
    */
@@ -66,11 +79,17 @@ public abstract class FileSeriesReader {
       ChunkMetaData chunkMetaData = nextChunkMeta();
       if (chunkSatisfied(chunkMetaData)) {
         // chunk metadata satisfy the condition
+        if (chunkReader != null) {
+          prunedPageNum += chunkReader.getPrunedPageNum();
+        }
         initChunkReader(chunkMetaData);
+        loadedChunkNum++;
 
         if (chunkReader.hasNextBatch()) {
           return true;
         }
+      } else {
+        prunedChunkNum++;
       }
     }
     return false;
@@ -112,6 +131,21 @@ public abstract class FileSeriesReader {
     chunkLoader.close();
   }
 
+  public int getPrunedChunkNum() {
+    return prunedChunkNum;
+  }
+
+  public int getLoadedChunkNum() {
+    return loadedChunkNum;
+  }
+
+  /**
+   * @return number of pages skipped in all chunks read so far, including the current one
+   */
+  public int getPrunedPageNum() {
+    return chunkReader == null ? prunedPageNum : prunedPageNum + chunkReader.getPrunedPageNum();
+  }
+
   private ChunkMetaData nextChunkMeta() {
     return chunkMetaDataList.get(chunkToRead++);
   }
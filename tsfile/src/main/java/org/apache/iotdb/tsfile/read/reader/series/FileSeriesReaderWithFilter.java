@@ -51,6 +51,15 @@ public class FileSeriesReaderWithFilter extends FileSeriesReader {
 
   @Override
   protected boolean chunkSatisfied(ChunkMetaData chunkMetaData) {
+    return chunkSatisfied(chunkMetaData, filter);
+  }
+
+  /**
+   * examine the time range and value statistics of a chunk against a filter.
+   *
+   * @return false if no point of the chunk can satisfy the filter
+   */
+  public static boolean chunkSatisfied(ChunkMetaData chunkMetaData, Filter filter) {
     ByteBuffer minValue = null;
     ByteBuffer maxValue = null;
     ByteBuffer[] statistics = chunkMetaData.getDigest().getStatistics();
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.writer;
+
+import static org.apache.iotdb.tsfile.common.constant.TsFileConstant.PATH_SEPARATOR;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetaData;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+/**
+ * ChunkGroupMetaDataSpiller moves sealed ChunkGroupMetaData of a TsFileIOWriter into a temporary
+ * file, so that the heap used by a writer does not grow with the number of chunks. Each spill
+ * appends a run sorted by device id (chunk groups of the same device keep their writing order), and
+ * {@link #flushTsDeviceMetaData(OutputStream, long)} merges all runs device by device and streams
+ * the TsDeviceMetadata into the tsfile. Only per-device time ranges, per-run positions and the
+ * distinct series paths (for the bloom filter) are kept in memory.
+ */
+class ChunkGroupMetaDataSpiller {
+
+  private final File spillFile;
+
+  private OutputStream spillStream;
+
+  private long spillPosition = 0;
+
+  /**
+   * start position and chunk group number of each run in spillFile.
+   */
+  private List<long[]> runs = new ArrayList<>();
+
+  /**
+   * deviceId -> [startTime, endTime, chunkGroupNum], sorted by deviceId.
+   */
+  private TreeMap<String, long[]> deviceStats = new TreeMap<>();
+
+  private Set<String> paths = new HashSet<>();
+
+  ChunkGroupMetaDataSpiller(File spillFile) throws IOException {
+    this.spillFile = spillFile;
+    this.spillStream = new BufferedOutputStream(new FileOutputStream(spillFile));
+  }
+
+  /**
+   * append the given chunk groups to the spill file as a new run.
+   */
+  void spill(List<ChunkGroupMetaData> chunkGroupMetaDataList) throws IOException {
+    if (chunkGroupMetaDataList.isEmpty()) {
+      return;
+    }
+    List<ChunkGroupMetaData> sortedList = new ArrayList<>(chunkGroupMetaDataList);
+    // List.sort is stable, so chunk groups of one device stay in writing order
+    sortedList.sort(Comparator.comparing(ChunkGroupMetaData::getDeviceID));
+
+    runs.add(new long[]{spillPosition, sortedList.size()});
+    for (ChunkGroupMetaData chunkGroupMetaData : sortedList) {
+      spillPosition += chunkGroupMetaData.serializeTo(spillStream);
+      updateStats(chunkGroupMetaData);
+    }
+  }
+
+  private void updateStats(ChunkGroupMetaData chunkGroupMetaData) {
+    String deviceId = chunkGroupMetaData.getDeviceID();
+    long[] stat = deviceStats
+        .computeIfAbsent(deviceId, k -> new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0});
+    for (ChunkMetaData chunkMetaData : chunkGroupMetaData.getChunkMetaDataList()) {
+      stat[0] = Long.min(stat[0], chunkMetaData.getStartTime());
+      stat[1] = Long.max(stat[1], chunkMetaData.getEndTime());
+      paths.add(deviceId + PATH_SEPARATOR + chunkMetaData.getMeasurementUid());
+    }
+    stat[2]++;
+  }
+
+  /**
+   * write the TsDeviceMetadata of all spilled chunk groups in the order of device id. The bytes
+   * written are the same as TsDeviceMetadata.serializeTo() of each device.
+   *
+   * @param outputStream the output of the tsfile
+   * @param position the current position of the tsfile
+   * @return TsDeviceMetadataIndex of each device
+   */
+  Map<String, TsDeviceMetadataIndex> flushTsDeviceMetaData(OutputStream outputStream,
+      long position) throws IOException {
+    spillStream.close();
+    spillStream = null;
+
+    Map<String, TsDeviceMetadataIndex> tsDeviceMetadataIndexMap = new HashMap<>();
+    List<RunReader> readers = new ArrayList<>();
+    try {
+      for (long[] run : runs) {
+        readers.add(new RunReader(spillFile, run[0], (int) run[1]));
+      }
+      for (Map.Entry<String, long[]> entry : deviceStats.entrySet()) {
+        String deviceId = entry.getKey();
+        long[] stat = entry.getValue();
+        int len = 0;
+        len += ReadWriteIOUtils.write(stat[0], outputStream);
+        len += ReadWriteIOUtils.write(stat[1], outputStream);
+        len += ReadWriteIOUtils.write((int) stat[2], outputStream);
+        // runs are in writing order, so chunk groups of this device keep their order
+        for (RunReader reader : readers) {
+          while (reader.hasNext() && reader.peek().getDeviceID().equals(deviceId)) {
+            len += reader.next().serializeTo(outputStream);
+          }
+        }
+
+        TsDeviceMetadataIndex index = new TsDeviceMetadataIndex();
+        index.setOffset(position);
+        index.setLen(len);
+        index.setStartTime(stat[0]);
+        index.setEndTime(stat[1]);
+        tsDeviceMetadataIndexMap.put(deviceId, index);
+        position += len;
+      }
+    } finally {
+      for (RunReader reader : readers) {
+        reader.close();
+      }
+    }
+    return tsDeviceMetadataIndexMap;
+  }
+
+  Set<String> getPaths() {
+    return paths;
+  }
+
+  /**
+   * close the spill file and delete it.
+   */
+  void close() throws IOException {
+    if (spillStream != null) {
+      spillStream.close();
+      spillStream = null;
+    }
+    Files.deleteIfExists(spillFile.toPath());
+  }
+
+  private static class RunReader {
+
+    private InputStream inputStream;
+    private int remaining;
+    private ChunkGroupMetaData next;
+
+    RunReader(File file, long start, int chunkGroupNum) throws IOException {
+      FileInputStream fileInputStream = new FileInputStream(file);
+      fileInputStream.getChannel().position(start);
+      this.inputStream = new BufferedInputStream(fileInputStream);
+      this.remaining = chunkGroupNum;
+    }
+
+    boolean hasNext() throws IOException {
+      if (next == null && remaining > 0) {
+        next = ChunkGroupMetaData.deserializeFrom(inputStream);
+        remaining--;
+      }
+      return next != null;
+    }
+
+    ChunkGroupMetaData peek() {
+      return next;
+    }
+
+    ChunkGroupMetaData next() {
+      ChunkGroupMetaData ret = next;
+      next = null;
+      return ret;
+    }
+
+    void close() throws IOException {
+      inputStream.close();
+    }
+  }
+}
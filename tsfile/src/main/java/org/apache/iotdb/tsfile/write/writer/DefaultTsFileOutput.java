@@ -25,6 +25,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 
 /**
  * a TsFileOutput implementation with FileOutputStream. If the file is not existed, it will be
@@ -60,6 +62,26 @@ public class DefaultTsFileOutput implements TsFileOutput {
     bufferedStream.write(b.array());
   }
 
+  /**
+   * the bytes go from the page cache of the input file to this file by FileChannel.transferTo(),
+   * without being copied into heap.
+   */
+  @Override
+  public void transferFrom(TsFileInput input, long position, long count) throws IOException {
+    bufferedStream.flush();
+    FileChannel source = input.wrapAsFileChannel();
+    FileChannel target = outputStream.getChannel();
+    while (count > 0) {
+      long transferred = source.transferTo(position, count, target);
+      if (transferred <= 0) {
+        throw new IOException(String.format("reach the end of the input, %d bytes left at %d",
+            count, position));
+      }
+      position += transferred;
+      count -= transferred;
+    }
+  }
+
   @Override
   public long getPosition() throws IOException {
     bufferedStream.flush();
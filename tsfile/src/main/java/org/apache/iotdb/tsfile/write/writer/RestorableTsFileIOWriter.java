@@ -22,6 +22,7 @@ package org.apache.iotdb.tsfile.write.writer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
@@ -73,6 +74,8 @@ public class RestorableTsFileIOWriter extends TsFileIOWriter {
   public RestorableTsFileIOWriter(File file) throws IOException {
     this.file = file;
     this.out = FSFactoryProducer.getFileOutputFactory().getTsFileOutput(file.getPath(), true);
+    // chunk group metadata spilled before a crash are rebuilt by selfCheck()
+    Files.deleteIfExists(Paths.get(file.getPath() + CHUNK_METADATA_SPILL_SUFFIX));
 
     // file doesn't exist
     if (file.length() == 0) {
@@ -168,6 +171,12 @@ public class RestorableTsFileIOWriter extends TsFileIOWriter {
     }
   }
 
+  @Override
+  protected void spillChunkGroupMetaData(int spillNum) throws IOException {
+    super.spillChunkGroupMetaData(spillNum);
+    lastFlushedChunkGroupIndex = Math.max(0, lastFlushedChunkGroupIndex - spillNum);
+  }
+
   public boolean hasCrashed() {
     return crashed;
   }
@@ -47,8 +47,10 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
@@ -64,6 +66,7 @@ public class TsFileIOWriter {
 
   public static final byte[] magicStringBytes;
   public static final byte[] versionNumberBytes;
+  public static final String CHUNK_METADATA_SPILL_SUFFIX = ".chunkmeta";
   protected static final TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
   private static final Logger logger = LoggerFactory.getLogger(TsFileIOWriter.class);
 
@@ -81,6 +84,14 @@ public class TsFileIOWriter {
   private ChunkGroupMetaData currentChunkGroupMetaData;
   private ChunkMetaData currentChunkMetaData;
   private long markedPosition;
+  private BloomFilter bloomFilter;
+
+  /**
+   * not null if chunk group metadata are spilled to a temp file, see enableMetadataSpill().
+   */
+  private ChunkGroupMetaDataSpiller metaDataSpiller;
+  private int maxChunkNumInMemory;
+  private int inMemoryChunkNum = 0;
 
   // 实际的page数目为：
   protected int actualPageNum = 0;
@@ -101,6 +112,7 @@ public class TsFileIOWriter {
    * @throws IOException if I/O error occurs
    */
   public TsFileIOWriter(File file) throws IOException {
+    this.file = file;
     this.out = new DefaultTsFileOutput(file);
     startFile();
   }
@@ -175,8 +187,59 @@ public class TsFileIOWriter {
     currentChunkGroupMetaData.setEndOffsetOfChunkGroup(out.getPosition());
     currentChunkGroupMetaData.setVersion(version);
     chunkGroupMetaDataList.add(currentChunkGroupMetaData);
+    inMemoryChunkNum += currentChunkGroupMetaData.getChunkMetaDataList().size();
     logger.debug("end chunk group:{}", currentChunkGroupMetaData);
     currentChunkGroupMetaData = null;
+    if (metaDataSpiller != null && inMemoryChunkNum >= maxChunkNumInMemory) {
+      spillChunkGroupMetaData(getSpillableChunkGroupNum());
+    }
+  }
+
+  /**
+   * keep at most about maxChunkNumInMemory ChunkMetaData on heap. Once more chunks are sealed, the
+   * metadata of finished chunk groups are moved into a temp file beside the tsfile and are streamed
+   * back when the file ends. After that, getChunkGroupMetaDatas() and filterChunks() only see the
+   * chunk groups still in memory, so this is for writers that are neither queried nor filtered
+   * while writing.
+   *
+   * @param maxChunkNumInMemory spill once this number of ChunkMetaData are held, non-positive
+   * values leave the writer unchanged
+   */
+  public void enableMetadataSpill(int maxChunkNumInMemory) throws IOException {
+    if (maxChunkNumInMemory <= 0 || metaDataSpiller != null || file == null) {
+      return;
+    }
+    this.maxChunkNumInMemory = maxChunkNumInMemory;
+    inMemoryChunkNum = 0;
+    for (ChunkGroupMetaData chunkGroupMetaData : chunkGroupMetaDataList) {
+      inMemoryChunkNum += chunkGroupMetaData.getChunkMetaDataList().size();
+    }
+    metaDataSpiller = new ChunkGroupMetaDataSpiller(
+        new File(file.getPath() + CHUNK_METADATA_SPILL_SUFFIX));
+  }
+
+  /**
+   * @return the number of chunk groups, from the head of chunkGroupMetaDataList, that can be moved
+   * out of memory
+   */
+  protected int getSpillableChunkGroupNum() {
+    return chunkGroupMetaDataList.size();
+  }
+
+  /**
+   * move the first spillNum chunk groups of chunkGroupMetaDataList into the spill file.
+   */
+  protected void spillChunkGroupMetaData(int spillNum) throws IOException {
+    if (spillNum <= 0) {
+      return;
+    }
+    List<ChunkGroupMetaData> spilledList = chunkGroupMetaDataList.subList(0, spillNum);
+    metaDataSpiller.spill(spilledList);
+    for (ChunkGroupMetaData chunkGroupMetaData : spilledList) {
+      inMemoryChunkNum -= chunkGroupMetaData.getChunkMetaDataList().size();
+    }
+    logger.debug("spill {} chunk groups of {}", spillNum, file);
+    spilledList.clear();
   }
 
   /**
@@ -246,6 +309,23 @@ public class TsFileIOWriter {
     endChunk(chunkMetadata.getNumOfPoints(), 0, 0);
   }
 
+  /**
+   * Copy a whole chunk of another file into this file without decoding it or loading its data into
+   * heap. Only the offset in the new ChunkMetaData differs from the given one.
+   *
+   * @param reader the reader of the file that holds the chunk
+   * @param chunkMetadata metadata of the chunk in that file
+   */
+  public void writeChunk(TsFileSequenceReader reader, ChunkMetaData chunkMetadata)
+      throws IOException {
+    currentChunkMetaData = new ChunkMetaData(chunkMetadata.getMeasurementUid(),
+        chunkMetadata.getTsDataType(), out.getPosition(), chunkMetadata.getStartTime(),
+        chunkMetadata.getEndTime());
+    currentChunkMetaData.setDigest(chunkMetadata.getDigest());
+    reader.transferChunk(chunkMetadata, out);
+    endChunk(chunkMetadata.getNumOfPoints(), 0, 0);
+  }
+
   /**
    * end chunk and write some log.
    *
@@ -276,8 +356,14 @@ public class TsFileIOWriter {
     Map<String, MeasurementSchema> schemaDescriptors = schema.getMeasurementSchemaMap();
     logger.debug("get time series list:{}", schemaDescriptors);
 
-    Map<String, TsDeviceMetadataIndex> tsDeviceMetadataIndexMap = flushTsDeviceMetaDataAndGetIndex(
-        this.chunkGroupMetaDataList);
+    Map<String, TsDeviceMetadataIndex> tsDeviceMetadataIndexMap;
+    if (metaDataSpiller != null) {
+      spillChunkGroupMetaData(chunkGroupMetaDataList.size());
+      tsDeviceMetadataIndexMap = metaDataSpiller
+          .flushTsDeviceMetaData(out.wrapAsStream(), out.getPosition());
+    } else {
+      tsDeviceMetadataIndexMap = flushTsDeviceMetaDataAndGetIndex(this.chunkGroupMetaDataList);
+    }
 
     TsFileMetaData tsFileMetaData = new TsFileMetaData(tsDeviceMetadataIndexMap, schemaDescriptors);
 
@@ -294,7 +380,14 @@ public class TsFileIOWriter {
     }
 
     // write bloom filter
-    size += tsFileMetaData.serializeBloomFilter(out.wrapAsStream(), chunkGroupMetaDataList);
+    if (metaDataSpiller != null) {
+      size += tsFileMetaData.serializeBloomFilter(out.wrapAsStream(), metaDataSpiller.getPaths());
+      metaDataSpiller.close();
+      metaDataSpiller = null;
+    } else {
+      size += tsFileMetaData.serializeBloomFilter(out.wrapAsStream(), chunkGroupMetaDataList);
+    }
+    bloomFilter = tsFileMetaData.getBloomFilter();
     if (logger.isDebugEnabled()) {
       logger.debug("finish flushing the bloom filter file pos:{}", out.getPosition());
     }
@@ -392,6 +485,15 @@ public class TsFileIOWriter {
     return canWrite;
   }
 
+  /**
+   * get the bloom filter of all series paths in this file.
+   *
+   * @return - the bloom filter written by endFile(), or null if the file has not been ended
+   */
+  public BloomFilter getBloomFilter() {
+    return bloomFilter;
+  }
+
   public void mark() throws IOException {
     markedPosition = getPos();
   }
@@ -407,6 +509,10 @@ public class TsFileIOWriter {
   public void close() throws IOException {
     canWrite = false;
     out.close();
+    if (metaDataSpiller != null) {
+      metaDataSpiller.close();
+      metaDataSpiller = null;
+    }
   }
 
   void writeSeparatorMaskForTest() throws IOException {
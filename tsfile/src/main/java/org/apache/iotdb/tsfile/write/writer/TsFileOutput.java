@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.write.writer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.read.reader.TsFileInput;
 
 public interface TsFileOutput {
 
@@ -42,6 +43,17 @@ public interface TsFileOutput {
    */
   void write(ByteBuffer b) throws IOException;
 
+  /**
+   * Writes <code>count</code> bytes of the given input, starting at <code>position</code> of the
+   * input, to this output at the current position. The position of the input is not changed.
+   *
+   * @param input the source.
+   * @param position the position of the first byte in the input.
+   * @param count the number of bytes.
+   * @throws IOException if an I/O error occurs or the input ends before count bytes.
+   */
+  void transferFrom(TsFileInput input, long position, long count) throws IOException;
+
   /**
    * gets the current position of the Output. This method is usually used for recording where the
    * data is. <br/> For example, if the Output is a fileOutputStream, then getPosition returns its
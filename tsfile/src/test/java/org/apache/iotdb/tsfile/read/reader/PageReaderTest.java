@@ -20,6 +20,7 @@ package org.apache.iotdb.tsfile.read.reader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
@@ -37,6 +38,9 @@ import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -142,6 +146,94 @@ public class PageReaderTest {
     test.test();
   }
 
+  @Test
+  public void testTimeIndexWithPlainValue() throws IOException {
+    for (Filter filter : timeIndexFilters()) {
+      checkFilteredRead(new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.DOUBLE, 1000),
+          new PlainDecoder(EndianType.BIG_ENDIAN), TSDataType.DOUBLE, filter);
+    }
+  }
+
+  @Test
+  public void testTimeIndexWithEncodedValue() throws IOException {
+    for (Filter filter : timeIndexFilters()) {
+      checkFilteredRead(new LongRleEncoder(EndianType.BIG_ENDIAN),
+          new LongRleDecoder(EndianType.BIG_ENDIAN), TSDataType.INT64, filter);
+    }
+  }
+
+  @Test
+  public void testTimeIndexWithTextValue() throws IOException {
+    for (Filter filter : timeIndexFilters()) {
+      checkFilteredRead(new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.TEXT, 1000),
+          new PlainDecoder(EndianType.BIG_ENDIAN), TSDataType.TEXT, filter);
+    }
+  }
+
+  private Filter[] timeIndexFilters() {
+    return new Filter[]{
+        TimeFilter.eq(777777),
+        TimeFilter.eq(POINTS_COUNT_IN_ONE_PAGE + 1),
+        FilterFactory.and(TimeFilter.gtEq(400000), TimeFilter.lt(400300)),
+        FilterFactory.or(TimeFilter.lt(5), TimeFilter.gt(POINTS_COUNT_IN_ONE_PAGE - 200)),
+        TimeFilter.gt(POINTS_COUNT_IN_ONE_PAGE - 1)
+    };
+  }
+
+  /**
+   * read a page with the time index and without it, both results should equal to the points
+   * satisfying the filter.
+   */
+  private void checkFilteredRead(Encoder encoder, Decoder decoder, TSDataType dataType,
+      Filter filter) throws IOException {
+    PageWriter pageWriter = new PageWriter();
+    pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+    pageWriter.setValueEncoder(encoder);
+    for (int i = 0; i < POINTS_COUNT_IN_ONE_PAGE; i++) {
+      switch (dataType) {
+        case INT64:
+          pageWriter.write(i, (long) i * 3);
+          break;
+        case DOUBLE:
+          pageWriter.write(i, i * 0.5);
+          break;
+        case TEXT:
+          pageWriter.write(i, new Binary("TEST TEXT" + i));
+          break;
+        default:
+          Assert.fail("unexpected data type " + dataType);
+      }
+    }
+    byte[] pageBytes = pageWriter.getUncompressedBytes().array();
+
+    boolean timeIndexEnabled = TSFileDescriptor.getInstance().getConfig().isPageTimeIndexEnabled();
+    try {
+      TSFileDescriptor.getInstance().getConfig().setPageTimeIndexEnabled(true);
+      BatchData indexed = new PageReader(ByteBuffer.wrap(pageBytes), dataType, decoder,
+          new DeltaBinaryDecoder.LongDeltaDecoder(), filter).nextBatch();
+      decoder.reset();
+      TSFileDescriptor.getInstance().getConfig().setPageTimeIndexEnabled(false);
+      BatchData scanned = new PageReader(ByteBuffer.wrap(pageBytes), dataType, decoder,
+          new DeltaBinaryDecoder.LongDeltaDecoder(), filter).nextBatch();
+      decoder.reset();
+
+      int expectedCount = 0;
+      for (long time = 0; time < POINTS_COUNT_IN_ONE_PAGE; time++) {
+        if (filter.satisfy(time, null)) {
+          expectedCount++;
+        }
+      }
+      Assert.assertEquals(expectedCount, indexed.length());
+      Assert.assertEquals(expectedCount, scanned.length());
+      for (int i = 0; i < expectedCount; i++) {
+        Assert.assertEquals(scanned.getTimeByIndex(i), indexed.getTimeByIndex(i));
+        Assert.assertEquals(scanned.getValueByIndex(i), indexed.getValueByIndex(i));
+      }
+    } finally {
+      TSFileDescriptor.getInstance().getConfig().setPageTimeIndexEnabled(timeIndexEnabled);
+    }
+  }
+
   private abstract static class LoopWriteReadTest {
 
     private Encoder encoder;
@@ -20,16 +20,23 @@ package org.apache.iotdb.tsfile.write;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.NotCompatibleException;
 import org.apache.iotdb.tsfile.file.MetaMarker;
 import org.apache.iotdb.tsfile.file.footer.ChunkGroupFooter;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetaData;
 import org.apache.iotdb.tsfile.file.metadata.TimeSeriesMetadataTest;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TsDeviceMetadataIndex;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetaData;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.file.metadata.utils.TestHelper;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
@@ -105,4 +112,98 @@ public class TsFileIOWriterTest {
     Assert.assertEquals(TimeSeriesMetadataTest.measurementUID, actual.getMeasurementId());
     Assert.assertEquals(1, metaData.getDeviceMap().size());
   }
+
+  @Test
+  public void spillMetadataTest() throws IOException {
+    String spilledTsfile = "target/tsfileIOWriterSpillTest.tsfile";
+    String unspilledTsfile = "target/tsfileIOWriterNoSpillTest.tsfile";
+    try {
+      writeInterleavedDevices(spilledTsfile, 3);
+      Assert.assertFalse(
+          new File(spilledTsfile + TsFileIOWriter.CHUNK_METADATA_SPILL_SUFFIX).exists());
+      writeInterleavedDevices(unspilledTsfile, 0);
+
+      // the metadata streamed from the spill file is the same as the one built in memory
+      Assert.assertArrayEquals(Files.readAllBytes(Paths.get(unspilledTsfile)),
+          Files.readAllBytes(Paths.get(spilledTsfile)));
+
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(spilledTsfile)) {
+        TsFileMetaData metaData = reader.readFileMetadata();
+        Assert.assertEquals(3, metaData.getDeviceMap().size());
+        for (int i = 0; i < 3; i++) {
+          TsDeviceMetadataIndex index = metaData.getDeviceMap().get("device" + i);
+          TsDeviceMetadata deviceMetadata = reader.readTsDeviceMetaData(index);
+          Assert.assertEquals(4, deviceMetadata.getChunkGroupMetaDataList().size());
+          Assert.assertEquals(i, index.getStartTime());
+          Assert.assertEquals(30 + i, index.getEndTime());
+          for (int j = 0; j < 4; j++) {
+            Assert.assertEquals(j,
+                deviceMetadata.getChunkGroupMetaDataList().get(j).getVersion());
+          }
+        }
+        Assert.assertTrue(metaData.getBloomFilter()
+            .contains("device1." + TimeSeriesMetadataTest.measurementUID));
+      }
+    } finally {
+      new File(spilledTsfile).delete();
+      new File(unspilledTsfile).delete();
+    }
+  }
+
+  @Test
+  public void transferChunkTest() throws IOException {
+    String transferredTsfile = "target/tsfileIOWriterTransferTest.tsfile";
+    String rewrittenTsfile = "target/tsfileIOWriterRewriteTest.tsfile";
+    MeasurementSchema measurementSchema = TestHelper.createSimpleMeasurementSchema();
+    Schema schema = new Schema();
+    schema.registerMeasurement(measurementSchema);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsfile)) {
+      List<ChunkMetaData> chunkMetaDataList = reader
+          .getChunkMetadataList(new Path(deviceId, TimeSeriesMetadataTest.measurementUID));
+      Assert.assertEquals(1, chunkMetaDataList.size());
+      TsFileIOWriter transferWriter = new TsFileIOWriter(new File(transferredTsfile));
+      TsFileIOWriter rewriteWriter = new TsFileIOWriter(new File(rewrittenTsfile));
+      transferWriter.startChunkGroup(deviceId);
+      rewriteWriter.startChunkGroup(deviceId);
+      for (ChunkMetaData chunkMetaData : chunkMetaDataList) {
+        transferWriter.writeChunk(reader, chunkMetaData);
+        rewriteWriter.writeChunk(reader.readMemChunk(chunkMetaData), chunkMetaData);
+      }
+      transferWriter.endChunkGroup(0);
+      rewriteWriter.endChunkGroup(0);
+      transferWriter.endFile(schema);
+      rewriteWriter.endFile(schema);
+
+      // a raw copy of a chunk is the same as decoding and rewriting it
+      Assert.assertArrayEquals(Files.readAllBytes(Paths.get(rewrittenTsfile)),
+          Files.readAllBytes(Paths.get(transferredTsfile)));
+    } finally {
+      new File(transferredTsfile).delete();
+      new File(rewrittenTsfile).delete();
+    }
+  }
+
+  private void writeInterleavedDevices(String path, int maxChunkNumInMemory) throws IOException {
+    TsFileIOWriter writer = new TsFileIOWriter(new File(path));
+    writer.enableMetadataSpill(maxChunkNumInMemory);
+    MeasurementSchema measurementSchema = TestHelper.createSimpleMeasurementSchema();
+    Schema schema = new Schema();
+    schema.registerMeasurement(measurementSchema);
+
+    for (int version = 0; version < 4; version++) {
+      // devices are written in descending order so that runs have to be merged
+      for (int i = 2; i >= 0; i--) {
+        long time = version * 10L + i;
+        Statistics statistics = Statistics.getStatsByType(measurementSchema.getType());
+        statistics.updateStats(time);
+        writer.startChunkGroup("device" + i);
+        writer.startFlushChunk(measurementSchema, measurementSchema.getCompressor(),
+            measurementSchema.getType(), measurementSchema.getEncodingType(), statistics, time,
+            time, 0, 0);
+        writer.endChunk(1, 0, 0);
+        writer.endChunkGroup(version);
+      }
+    }
+    writer.endFile(schema);
+  }
 }